@@ -91,6 +91,9 @@ abstract class AbstractEngineHandler<S extends InternalSession, H extends IHandl
 	boolean readIgnored;
 	
 	boolean handshaking;
+	
+	/** The time the current handshake began, or 0 if it is not measured */
+	private long handshakeBeginTime;
 
 	private ITimerTask handshakeTimer;
 	
@@ -224,8 +227,11 @@ abstract class AbstractEngineHandler<S extends InternalSession, H extends IHandl
 				}
 			}
 			else if (status[0] != HandshakeStatus.NOT_HANDSHAKING) {
+				InternalSelectorLoop loop = session.loop;
+				
 				handshaking = true;
 				handshakeLoops = 0;
+				handshakeBeginTime = loop != null && loop.metricEnabled ? System.nanoTime() : 0;
 				handleBeginHandshake();
 			}
 			
@@ -288,6 +294,10 @@ abstract class AbstractEngineHandler<S extends InternalSession, H extends IHandl
 			if (status[0] == HandshakeStatus.FINISHED) {
 				handshake.set(Handshake.NONE);
 				handshaking = false;
+				if (handshakeBeginTime != 0) {
+					session.loop.metric.handshake(System.nanoTime() - handshakeBeginTime);
+					handshakeBeginTime = 0;
+				}
 				handleFinished();
 				if (isReadyPending) {
 					if (debugEnabled) {
@@ -36,6 +36,7 @@ import org.snf4j.core.handler.IDatagramHandler;
 import org.snf4j.core.handler.IHandler;
 import org.snf4j.core.session.IDatagramSession;
 import org.snf4j.core.session.ISession;
+import org.snf4j.core.trace.SpanKind;
 
 class CodecExecutorAdapter implements IStreamReader, IDatagramReader {
 	
@@ -80,6 +81,46 @@ class CodecExecutorAdapter implements IStreamReader, IDatagramReader {
 		return executor;
 	}
 	
+	private long begin() {
+		if (session instanceof InternalSession) {
+			InternalSelectorLoop loop = ((InternalSession)session).loop;
+			
+			if (loop != null && (loop.metricEnabled || loop.traceContext != null)) {
+				return System.nanoTime();
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Returns the end time of the decoding, or 0 if it was not measured
+	 */
+	private long decoded(long begin) {
+		if (begin != 0) {
+			InternalSelectorLoop loop = ((InternalSession)session).loop;
+			long end = System.nanoTime();
+			
+			if (loop.metricEnabled) {
+				loop.metric.decoded(end - begin);
+			}
+			if (loop.traceContext != null) {
+				loop.tracer.span(loop.traceContext, session, SpanKind.DECODE, begin, end);
+			}
+			return end;
+		}
+		return 0;
+	}
+	
+	private void handled(long begin) {
+		if (begin != 0) {
+			InternalSelectorLoop loop = ((InternalSession)session).loop;
+			
+			if (loop.traceContext != null) {
+				loop.tracer.span(loop.traceContext, session, SpanKind.HANDLE, begin, System.nanoTime());
+			}
+		}
+	}
+	
 	@Override
 	public int available(ByteBuffer buffer, boolean flipped) {
 		executor.syncDecoders(session);
@@ -118,8 +159,12 @@ class CodecExecutorAdapter implements IStreamReader, IDatagramReader {
 		if (datagram) {
 			executor.syncDecoders(session);
 		}
+		long begin;
+		
 		try {
+			begin = begin();
 			out = executor.decode(session, data);
+			begin = decoded(begin);
 		}
 		catch (Exception e) {
 			throw new PipelineDecodeException((InternalSession) session, e);
@@ -129,9 +174,11 @@ class CodecExecutorAdapter implements IStreamReader, IDatagramReader {
 		
 		if (out == null) {
 			handler.read(data);
-			return;
 		}
-		read(out, handler);
+		else {
+			read(out, handler);
+		}
+		handled(begin);
 	}
 	
 	@Override
@@ -139,8 +186,12 @@ class CodecExecutorAdapter implements IStreamReader, IDatagramReader {
 		List<Object> out;
 		
 		executor.syncDecoders(session);
+		long begin;
+		
 		try {
+			begin = begin();
 			out = executor.decode(session, data);
+			begin = decoded(begin);
 		}
 		catch (Exception e) {
 			throw new PipelineDecodeException((InternalSession) session, e);
@@ -150,9 +201,11 @@ class CodecExecutorAdapter implements IStreamReader, IDatagramReader {
 		
 		if (out == null) {
 			handler.read(data);
-			return;
 		}
-		read(out, handler);
+		else {
+			read(out, handler);
+		}
+		handled(begin);
 	}
 	
 	@Override
@@ -160,8 +213,12 @@ class CodecExecutorAdapter implements IStreamReader, IDatagramReader {
 		List<Object> out;
 		
 		executor.syncDecoders(session);
+		long begin;
+		
 		try {
+			begin = begin();
 			out = executor.decode(session, datagram);
+			begin = decoded(begin);
 		}
 		catch (Exception e) {
 			throw new PipelineDecodeException((InternalSession) session, e);
@@ -171,9 +228,11 @@ class CodecExecutorAdapter implements IStreamReader, IDatagramReader {
 		
 		if (out == null) {
 			handler.read(remoteAddress, datagram);
-			return;
 		}
-		read(remoteAddress, out, handler);
+		else {
+			read(remoteAddress, out, handler);
+		}
+		handled(begin);
 	}	
     
 	@Override
@@ -181,8 +240,12 @@ class CodecExecutorAdapter implements IStreamReader, IDatagramReader {
 		List<Object> out;
 		
 		executor.syncDecoders(session);
+		long begin;
+		
 		try {
+			begin = begin();
 			out = executor.decode(session, datagram);
+			begin = decoded(begin);
 		}
 		catch (Exception e) {
 			throw new PipelineDecodeException((InternalSession) session, e);
@@ -192,9 +255,11 @@ class CodecExecutorAdapter implements IStreamReader, IDatagramReader {
 		
 		if (out == null) {
 			handler.read(remoteAddress, datagram);
-			return;
 		}
-		read(remoteAddress, out, handler);
+		else {
+			read(remoteAddress, out, handler);
+		}
+		handled(begin);
 	}	
 	
 	private void read(SocketAddress remoteAddress, List<Object> out, IDatagramHandler handler) {
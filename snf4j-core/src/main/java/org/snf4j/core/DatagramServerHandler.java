@@ -261,7 +261,7 @@ public class DatagramServerHandler extends AbstractDatagramHandler {
 			currentTime = session.getCreationTime();
 		}
 		else {
-			currentTime = System.currentTimeMillis();
+			currentTime = session.loop != null ? session.loop.currentTime : System.currentTimeMillis();
 		}
 		
 		session.calculateThroughput(currentTime, false);
@@ -326,6 +326,22 @@ public class DatagramServerHandler extends AbstractDatagramHandler {
 		if (LOGGER.isTraceEnabled()) {
 			LOGGER.trace("Ending event {} for {}", event.type(), session);
 		}
+		
+		InternalSelectorLoop loop = session.loop;
+		
+		if (loop != null) {
+			switch (event) {
+			case OPENED:
+				loop.idleTracker.add(session, loop.currentTime);
+				break;
+
+			case ENDING:
+				loop.idleTracker.remove(session);
+				break;
+
+			default:
+			}
+		}
 	}
 
 	final void fireEvent(final InternalSession session, DataEvent event, long length) {
@@ -56,6 +56,11 @@ class DatagramServerSession extends DatagramSession {
 		}
 	}
 	
+	@Override
+	boolean isMigratable() {
+		return false;
+	}
+	
 	@Override
 	IEncodeTaskWriter getEncodeTaskWriter() {
 		if (encodeTaskWriter == null) {
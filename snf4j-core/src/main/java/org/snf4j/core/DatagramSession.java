@@ -97,6 +97,12 @@ public class DatagramSession extends InternalSession implements IDatagramSession
 		return encodeTaskWriter;
 	}
 	
+	@Override
+	boolean isMigratable() {
+		//Sessions created by the server handler are bound to this session's loop
+		return !(handler instanceof DatagramServerHandler);
+	}
+	
 	@Override
 	SessionPipeline<?> createPipeline() {
 		return null;
@@ -0,0 +1,419 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Default admission controller. It limits accepting of new channels with:
+ * <ul>
+ * <li>a token bucket limiting the rate of accepted channels,
+ * <li>the maximum number of concurrent handshakes (i.e. sessions that have
+ * been accepted but are not ready yet),
+ * <li>the maximum number of sessions,
+ * <li>the maximum number of sessions per remote address.
+ * </ul>
+ * When the accept rate, the maximum number of handshakes or the maximum number
+ * of sessions is exceeded the accepting is paused. As the remote address is
+ * not known before a channel is accepted, channels exceeding the maximum number
+ * of sessions per remote address are accepted and immediately closed.
+ * <p>
+ * By default all limits are disabled.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class DefaultAdmissionController implements IAdmissionController {
+	
+	/** The default time in milliseconds for which accepting is paused when the limit of handshakes or sessions is exceeded */
+	public final static long DEFAULT_RETRY_DELAY = 10;
+	
+	private double acceptRate;
+	
+	private int acceptBurst = 1;
+	
+	private int maxHandshakes;
+	
+	private int maxSessions;
+	
+	private int maxSessionsPerAddress;
+	
+	private long retryDelay = DEFAULT_RETRY_DELAY;
+	
+	private double tokens;
+	
+	private long refillTime;
+	
+	private int handshakes;
+	
+	private int sessions;
+	
+	private final Map<InetAddress, Integer> addresses = new HashMap<InetAddress, Integer>();
+	
+	/**
+	 * Sets the rate limiting the accepted channels.
+	 * 
+	 * @param rate
+	 *            the maximum number of channels accepted per second, or 0 if
+	 *            the rate should not be limited
+	 * @param burst
+	 *            the maximum number of channels that can be accepted at once
+	 * @return this object
+	 * @throws IllegalArgumentException
+	 *             if the rate is negative or the burst is less than 1
+	 */
+	public synchronized DefaultAdmissionController setAcceptRate(double rate, int burst) {
+		if (rate < 0) {
+			throw new IllegalArgumentException("rate is negative");
+		}
+		if (burst < 1) {
+			throw new IllegalArgumentException("burst is less than 1");
+		}
+		acceptRate = rate;
+		acceptBurst = burst;
+		tokens = burst;
+		refillTime = nanoTime();
+		return this;
+	}
+	
+	/**
+	 * Gets the maximum number of channels accepted per second.
+	 * 
+	 * @return the maximum number of channels accepted per second, or 0 if the
+	 *         rate is not limited
+	 */
+	public synchronized double getAcceptRate() {
+		return acceptRate;
+	}
+	
+	/**
+	 * Gets the maximum number of channels that can be accepted at once.
+	 * 
+	 * @return the maximum number of channels that can be accepted at once
+	 */
+	public synchronized int getAcceptBurst() {
+		return acceptBurst;
+	}
+	
+	/**
+	 * Sets the maximum number of concurrent handshakes.
+	 * 
+	 * @param max
+	 *            the maximum number of concurrent handshakes, or 0 if the
+	 *            number should not be limited
+	 * @return this object
+	 * @throws IllegalArgumentException
+	 *             if the maximum number is negative
+	 */
+	public synchronized DefaultAdmissionController setMaxHandshakes(int max) {
+		if (max < 0) {
+			throw new IllegalArgumentException("max is negative");
+		}
+		maxHandshakes = max;
+		return this;
+	}
+
+	/**
+	 * Gets the maximum number of concurrent handshakes.
+	 * 
+	 * @return the maximum number of concurrent handshakes, or 0 if the number
+	 *         is not limited
+	 */
+	public synchronized int getMaxHandshakes() {
+		return maxHandshakes;
+	}
+	
+	/**
+	 * Sets the maximum number of sessions.
+	 * 
+	 * @param max
+	 *            the maximum number of sessions, or 0 if the number should not
+	 *            be limited
+	 * @return this object
+	 * @throws IllegalArgumentException
+	 *             if the maximum number is negative
+	 */
+	public synchronized DefaultAdmissionController setMaxSessions(int max) {
+		if (max < 0) {
+			throw new IllegalArgumentException("max is negative");
+		}
+		maxSessions = max;
+		return this;
+	}
+
+	/**
+	 * Gets the maximum number of sessions.
+	 * 
+	 * @return the maximum number of sessions, or 0 if the number is not
+	 *         limited
+	 */
+	public synchronized int getMaxSessions() {
+		return maxSessions;
+	}
+	
+	/**
+	 * Sets the maximum number of sessions per remote address.
+	 * 
+	 * @param max
+	 *            the maximum number of sessions per remote address, or 0 if
+	 *            the number should not be limited
+	 * @return this object
+	 * @throws IllegalArgumentException
+	 *             if the maximum number is negative
+	 */
+	public synchronized DefaultAdmissionController setMaxSessionsPerAddress(int max) {
+		if (max < 0) {
+			throw new IllegalArgumentException("max is negative");
+		}
+		maxSessionsPerAddress = max;
+		return this;
+	}
+
+	/**
+	 * Gets the maximum number of sessions per remote address.
+	 * 
+	 * @return the maximum number of sessions per remote address, or 0 if the
+	 *         number is not limited
+	 */
+	public synchronized int getMaxSessionsPerAddress() {
+		return maxSessionsPerAddress;
+	}
+	
+	/**
+	 * Sets the time for which accepting is paused when the maximum number of
+	 * handshakes or sessions is exceeded.
+	 * <p>
+	 * The default value is {@link #DEFAULT_RETRY_DELAY}.
+	 * 
+	 * @param delay
+	 *            the time in milliseconds
+	 * @return this object
+	 * @throws IllegalArgumentException
+	 *             if the delay is not positive
+	 */
+	public synchronized DefaultAdmissionController setRetryDelay(long delay) {
+		if (delay <= 0) {
+			throw new IllegalArgumentException("delay is not positive");
+		}
+		retryDelay = delay;
+		return this;
+	}
+	
+	/**
+	 * Gets the time for which accepting is paused when the maximum number of
+	 * handshakes or sessions is exceeded.
+	 * 
+	 * @return the time in milliseconds
+	 */
+	public synchronized long getRetryDelay() {
+		return retryDelay;
+	}
+	
+	/**
+	 * Gets the current number of handshakes.
+	 * 
+	 * @return the number of admitted sessions that are not ready yet
+	 */
+	public synchronized int getHandshakes() {
+		return handshakes;
+	}
+	
+	/**
+	 * Gets the current number of sessions.
+	 * 
+	 * @return the number of admitted sessions that are not ended yet
+	 */
+	public synchronized int getSessions() {
+		return sessions;
+	}
+	
+	/**
+	 * Gets the current number of sessions for given remote address.
+	 * 
+	 * @param address
+	 *            the remote address
+	 * @return the number of admitted sessions for the remote address that are
+	 *         not ended yet
+	 */
+	public synchronized int getSessions(InetAddress address) {
+		Integer count = addresses.get(address);
+		
+		return count == null ? 0 : count;
+	}
+	
+	/**
+	 * Returns current time in nanoseconds used to refill the token bucket.
+	 * 
+	 * @return the current time in nanoseconds
+	 */
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+	
+	/**
+	 * Returns the remote address that is used to limit the number of sessions
+	 * per remote address.
+	 * 
+	 * @param channel
+	 *            the accepted channel
+	 * @return the remote address, or <code>null</code> if the remote address
+	 *         is unknown
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 */
+	protected InetAddress getAddress(SelectableChannel channel) throws IOException {
+		if (channel instanceof SocketChannel) {
+			SocketAddress address = ((SocketChannel)channel).getRemoteAddress();
+			
+			if (address instanceof InetSocketAddress) {
+				return ((InetSocketAddress)address).getAddress();
+			}
+		}
+		return null;
+	}
+	
+	private void refill() {
+		long now = nanoTime();
+		
+		tokens = Math.min(acceptBurst, tokens + (now - refillTime) * acceptRate / 1000000000.0);
+		refillTime = now;
+	}
+	
+	private boolean overLimit() {
+		return (maxSessions > 0 && sessions >= maxSessions) 
+				|| (maxHandshakes > 0 && handshakes >= maxHandshakes);
+	}
+	
+	@Override
+	public synchronized long pause() {
+		if (overLimit()) {
+			return retryDelay;
+		}
+		if (acceptRate > 0) {
+			refill();
+			if (tokens < 1) {
+				return Math.max(1, (long)Math.ceil((1 - tokens) * 1000 / acceptRate - 1e-6));
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The channel is not admitted if it exceeds the maximum number of sessions
+	 * per remote address or, as this controller can be shared by many selector
+	 * loops, the maximum number of handshakes or sessions.
+	 */
+	@Override
+	public IAdmissionTicket admit(SelectableChannel channel) {
+		InetAddress address = null;
+
+		synchronized (this) {
+			if (maxSessionsPerAddress > 0) {
+				try {
+					address = getAddress(channel);
+				}
+				catch (IOException e) {
+					return null;
+				}
+			}
+			if (overLimit()) {
+				return null;
+			}
+			if (address != null) {
+				Integer count = addresses.get(address);
+				
+				if (count == null) {
+					count = 0;
+				}
+				else if (count >= maxSessionsPerAddress) {
+					return null;
+				}
+				addresses.put(address, count + 1);
+			}
+			if (acceptRate > 0) {
+				refill();
+				--tokens;
+			}
+			++handshakes;
+			++sessions;
+		}
+		return new Ticket(address);
+	}
+	
+	private class Ticket implements IAdmissionTicket {
+		
+		private final InetAddress address;
+		
+		private boolean ready;
+		
+		private boolean released;
+		
+		Ticket(InetAddress address) {
+			this.address = address;
+		}
+		
+		@Override
+		public void ready() {
+			synchronized (DefaultAdmissionController.this) {
+				if (!ready) {
+					ready = true;
+					--handshakes;
+				}
+			}
+		}
+
+		@Override
+		public void release() {
+			synchronized (DefaultAdmissionController.this) {
+				if (!released) {
+					released = true;
+					ready();
+					--sessions;
+					if (address != null) {
+						Integer count = addresses.get(address);
+						
+						if (count != null) {
+							if (count > 1) {
+								addresses.put(address, count - 1);
+							}
+							else {
+								addresses.remove(address);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+}
@@ -38,6 +38,7 @@ import org.snf4j.core.logger.ExceptionLogger;
 import org.snf4j.core.logger.IExceptionLogger;
 import org.snf4j.core.logger.ILogger;
 import org.snf4j.core.logger.LoggerFactory;
+import org.snf4j.core.trace.SpanKind;
 
 class EncodeTask implements Runnable {
 	
@@ -67,6 +68,9 @@ class EncodeTask implements Runnable {
 	
 	int length;
 	
+	/** The trace context of the message being encoded */
+	Object trace;
+	
 	private IEncodeTaskWriter writer;	
 	
 	private final void init(final byte[] bytes) {
@@ -218,11 +222,35 @@ class EncodeTask implements Runnable {
 		
 		InternalSelectorLoop loop = session.loop;
 		
+		if (loop.tracerEnabled) {
+			trace = loop.traceContext(session);
+		}
 		if (loop.inLoop()) {
 			run();
 		}
 		else {
-			loop.executenf(this);
+			execute();
+		}
+	}
+	
+	/**
+	 * Queues this task in the session's selector loop. It is synchronized with
+	 * the migration of the session, so tasks queued by one thread keep their
+	 * order.
+	 */
+	private final void execute() {
+		synchronized (session.writeLock) {
+			session.loop.executenf(this);
+		}
+	}
+	
+	/**
+	 * Fails this task without encoding when it could not be moved to the
+	 * selector loop the session has been migrated to.
+	 */
+	final void abort(Throwable cause) {
+		if (future != null) {
+			future.setDelegate(session.futuresController.getFailedFuture(cause));
 		}
 	}
 	
@@ -237,11 +265,14 @@ class EncodeTask implements Runnable {
 		
 		InternalSelectorLoop loop = session.loop;
 		
+		if (loop.tracerEnabled) {
+			trace = loop.traceContext(session);
+		}
 		if (loop.inLoop()) {
 			run();
 		}
 		else {
-			loop.executenf(this);
+			execute();
 		}
 		return future;
 	}
@@ -335,6 +366,10 @@ class EncodeTask implements Runnable {
 		boolean withFuture = future != null;
 		List<Object> out;
 		int isBuffer = BYTES;
+		long begin;
+		InternalSelectorLoop loop = session.loop;
+		
+		begin = loop != null && (loop.metricEnabled || trace != null) ? System.nanoTime() : 0;
 		
 		try  {
 			if (msg != null) {
@@ -358,6 +393,16 @@ class EncodeTask implements Runnable {
 				out = encode(holder);
 				isBuffer = HOLDER;
 			}
+			if (begin != 0) {
+				long end = System.nanoTime();
+				
+				if (loop.metricEnabled) {
+					loop.metric.encoded(end - begin);
+				}
+				if (trace != null) {
+					loop.tracer.span(trace, session, SpanKind.ENCODE, begin, end);
+				}
+			}
 		}
 		catch (Exception e) {
 			SessionIncident incident = SessionIncident.ENCODING_PIPELINE_FAILURE;
@@ -374,7 +419,12 @@ class EncodeTask implements Runnable {
 
 		setWriter(session.getEncodeTaskWriter());
 		IFuture<Void> tmpFuture;
+		Object prevTrace = null;
 		
+		if (trace != null) {
+			prevTrace = loop.traceContext;
+			loop.traceContext = trace;
+		}
 		try {
 			if (out != null) {
 				if (out.isEmpty()) {
@@ -400,6 +450,11 @@ class EncodeTask implements Runnable {
 		catch (Exception e) {
 			tmpFuture = withFuture ? futures.getFailedFuture(e) : null;
 		}
+		finally {
+			if (trace != null) {
+				loop.traceContext = prevTrace;
+			}
+		}
 
 		if (withFuture) {
 			future.setDelegate(tmpFuture);
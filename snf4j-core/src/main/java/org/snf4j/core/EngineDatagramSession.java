@@ -130,6 +130,11 @@ public class EngineDatagramSession extends DatagramSession implements IEngineDat
 		this(engine, null, handler, logger);
 	}
 	
+	@Override
+	boolean isMigratable() {
+		return false;
+	}
+	
 	@Override
 	IEncodeTaskWriter getEncodeTaskWriter() {
 		if (encodeTaskWriter == null) {
@@ -88,6 +88,11 @@ public class EngineStreamSession extends StreamSession implements IEngineStreamS
 		engine.link(this);
 	}
 
+	@Override
+	boolean isMigratable() {
+		return false;
+	}
+	
 	@Override
 	IEncodeTaskWriter getEncodeTaskWriter() {
 		if (encodeTaskWriter == null) {
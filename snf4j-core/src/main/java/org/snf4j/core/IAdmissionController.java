@@ -0,0 +1,67 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core;
+
+import java.nio.channels.SelectableChannel;
+
+/**
+ * An admission controller that limits accepting of new channels by the
+ * associated selector loop.
+ * <p>
+ * Unlike the {@link ISelectorLoopController}, that can only accept or reject
+ * already accepted channels, the admission controller can also pause accepting
+ * when the load is over its budget. In such case the selector loop clears the
+ * {@link java.nio.channels.SelectionKey#OP_ACCEPT OP_ACCEPT} interest of the
+ * listening channel and leaves pending connections in the backlog of the
+ * operating system until the pause expires.
+ * <p>
+ * One admission controller can be shared by many selector loops so its
+ * implementations should be thread safe.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public interface IAdmissionController {
+
+	/**
+	 * Called by the selector loop before accepting each channel to determine
+	 * if accepting should be paused.
+	 * 
+	 * @return the time in milliseconds for which accepting should be paused,
+	 *         or 0 if the next channel can be accepted now
+	 */
+	long pause();
+	
+	/**
+	 * Called to admit the channel that was accepted. If the channel is not
+	 * admitted it is immediately closed without creating associated session.
+	 * 
+	 * @param channel
+	 *            the channel that was accepted
+	 * @return the ticket of the admitted channel, or <code>null</code> if the
+	 *         channel is not admitted
+	 */
+	IAdmissionTicket admit(SelectableChannel channel);
+}
@@ -0,0 +1,264 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.snf4j.core.handler.IdleEvent;
+import org.snf4j.core.session.ISessionConfig;
+
+/**
+ * Detects idle sessions handled by a selector loop. For each idle event and
+ * timeout value the sessions are kept in an intrusive list ordered by the
+ * time of the last activity, so detecting expired sessions costs O(expired).
+ * <p>
+ * All methods must be called in the selector loop's thread.
+ */
+final class IdleTracker {
+	
+	private final static IdleEvent[] EVENTS = IdleEvent.values();
+	
+	private final static int READER = IdleEvent.READER_IDLE.ordinal();
+
+	private final static int WRITER = IdleEvent.WRITER_IDLE.ordinal();
+
+	private final static int ALL = IdleEvent.ALL_IDLE.ordinal();
+	
+	@SuppressWarnings("unchecked")
+	private final Map<Long, Queue>[] queues = new Map[EVENTS.length];
+	
+	private final List<Queue> allQueues = new ArrayList<Queue>();
+	
+	IdleTracker() {
+		for (int i=0; i<queues.length; ++i) {
+			queues[i] = new HashMap<Long, Queue>();
+		}
+	}
+	
+	/**
+	 * Starts tracking of the given session if its configuration enables the
+	 * detection of idleness.
+	 */
+	void add(InternalSession session, long currentTime) {
+		ISessionConfig config = session.getConfig();
+		long reader = config.getReaderIdleTimeout();
+		long writer = config.getWriterIdleTimeout();
+		long all = config.getAllIdleTimeout();
+		
+		if (session.idleNodes != null || (reader <= 0 && writer <= 0 && all <= 0)) {
+			return;
+		}
+		
+		Node[] nodes = new Node[EVENTS.length];
+		
+		nodes[READER] = node(session, READER, reader, currentTime);
+		nodes[WRITER] = node(session, WRITER, writer, currentTime);
+		nodes[ALL] = node(session, ALL, all, currentTime);
+		session.idleNodes = nodes;
+	}
+	
+	private Node node(InternalSession session, int event, long timeout, long currentTime) {
+		if (timeout <= 0) {
+			return null;
+		}
+		
+		Queue queue = queues[event].get(timeout);
+		
+		if (queue == null) {
+			queue = new Queue(EVENTS[event], timeout);
+			queues[event].put(timeout, queue);
+			allQueues.add(queue);
+		}
+		
+		Node node = new Node(session, queue);
+		
+		node.time = currentTime;
+		queue.append(node);
+		return node;
+	}
+
+	/**
+	 * Stops tracking of the given session.
+	 */
+	void remove(InternalSession session) {
+		Node[] nodes = session.idleNodes;
+		
+		if (nodes != null) {
+			session.idleNodes = null;
+			for (Node node: nodes) {
+				if (node != null) {
+					node.queue.unlink(node);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Informs that data has been read from the channel of the given session.
+	 */
+	static void read(InternalSession session, long currentTime) {
+		Node[] nodes = session.idleNodes;
+		
+		if (nodes != null) {
+			touch(nodes[READER], currentTime);
+			touch(nodes[ALL], currentTime);
+		}
+	}
+
+	/**
+	 * Informs that data has been written to the channel of the given session.
+	 */
+	static void written(InternalSession session, long currentTime) {
+		Node[] nodes = session.idleNodes;
+		
+		if (nodes != null) {
+			touch(nodes[WRITER], currentTime);
+			touch(nodes[ALL], currentTime);
+		}
+	}
+	
+	private static void touch(Node node, long currentTime) {
+		if (node != null && node.time != currentTime) {
+			Queue queue = node.queue;
+			
+			node.time = currentTime;
+			queue.unlink(node);
+			queue.append(node);
+		}
+	}
+	
+	/**
+	 * Fires idle events for (or closes) all sessions for which the idle
+	 * timeout has elapsed.
+	 */
+	void expire(long currentTime) {
+		for (int i=0, size=allQueues.size(); i<size; ++i) {
+			Queue queue = allQueues.get(i);
+			Node node;
+			
+			while ((node = queue.head) != null && currentTime - node.time >= queue.timeout) {
+				InternalSession session = node.session;
+				
+				//re-arm, so the event will be fired again after next timeout 
+				node.time = currentTime;
+				queue.unlink(node);
+				queue.append(node);
+				if (session.getConfig().closeWhenIdle()) {
+					session.close();
+				}
+				else {
+					session.timer(queue.event);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the time in milliseconds left to the first elapse of an idle
+	 * timeout, or {@code -1} if no session is tracked.
+	 */
+	long timeLeft(long currentTime) {
+		long min = -1;
+		
+		for (int i=0, size=allQueues.size(); i<size; ++i) {
+			Queue queue = allQueues.get(i);
+			Node node = queue.head;
+			
+			if (node != null) {
+				long left = Math.max(0, queue.timeout - (currentTime - node.time));
+				
+				if (min == -1 || left < min) {
+					min = left;
+				}
+			}
+		}
+		return min;
+	}
+	
+	static final class Node {
+		
+		final InternalSession session;
+		
+		final Queue queue;
+		
+		Node prev, next;
+		
+		long time;
+		
+		Node(InternalSession session, Queue queue) {
+			this.session = session;
+			this.queue = queue;
+		}
+	}
+	
+	static final class Queue {
+		
+		final IdleEvent event;
+		
+		final long timeout;
+		
+		Node head, tail;
+		
+		Queue(IdleEvent event, long timeout) {
+			this.event = event;
+			this.timeout = timeout;
+		}
+		
+		void append(Node node) {
+			node.next = null;
+			node.prev = tail;
+			if (tail == null) {
+				head = node;
+			}
+			else {
+				tail.next = node;
+			}
+			tail = node;
+		}
+		
+		void unlink(Node node) {
+			if (node.prev == null) {
+				if (head != node) {
+					return;
+				}
+				head = node.next;
+			}
+			else {
+				node.prev.next = node.next;
+			}
+			if (node.next == null) {
+				tail = node.prev;
+			}
+			else {
+				node.next.prev = node.prev;
+			}
+			node.prev = node.next = null;
+		}
+	}
+}
@@ -32,6 +32,7 @@ import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -58,6 +59,14 @@ import org.snf4j.core.handler.SessionIncident;
 import org.snf4j.core.logger.ExceptionLogger;
 import org.snf4j.core.logger.IExceptionLogger;
 import org.snf4j.core.logger.ILogger;
+import org.snf4j.core.metric.ISelectorLoopMetricCollector;
+import org.snf4j.core.metric.NopSelectorLoopMetric;
+import org.snf4j.core.session.IllegalSessionStateException;
+import org.snf4j.core.session.SessionState;
+import org.snf4j.core.timer.DefaultTimeSource;
+import org.snf4j.core.timer.ITimeSource;
+import org.snf4j.core.trace.ITracer;
+import org.snf4j.core.trace.NopTracer;
 
 abstract class InternalSelectorLoop extends IdentifiableObject implements IFutureExecutor {
 
@@ -126,6 +135,40 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 	boolean debugEnabled;
 	
 	boolean traceEnabled;
+	
+	volatile ISelectorLoopMetricCollector metric = NopSelectorLoopMetric.DEFAULT;
+	
+	/** Tells if the metric data is collected */
+	volatile boolean metricEnabled;
+	
+	volatile SelectorLoopWatchdog.Watch watch;
+	
+	volatile ITracer tracer = NopTracer.DEFAULT;
+	
+	/** Tells if the messages are traced */
+	volatile boolean tracerEnabled;
+	
+	volatile ITimeSource timeSource = DefaultTimeSource.DEFAULT;
+	
+	final IdleTracker idleTracker = new IdleTracker();
+	
+	/** The cached time in milliseconds, updated once per select cycle */
+	volatile long currentTime = System.currentTimeMillis();
+
+	/** The cached time in nanoseconds, updated once per select cycle */
+	volatile long currentNanoTime = System.nanoTime();
+
+	/** The time in nanoseconds at which the select should return to handle the deadline */
+	private long deadline;
+	
+	/** Tells if the deadline is set */
+	private boolean deadlineSet;
+	
+	/** 
+	 * The trace context of the message being currently processed. It is 
+	 * accessed only in the selector loop's thread.
+	 */
+	Object traceContext;
 
 	/**
 	 * Constructs a internal selector loop
@@ -206,6 +249,10 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 						InternalSession session = ctx.getSession();
 						
 						synchronized (session.writeLock) {
+							if (cancelIfMigrating(session, key)) {
+								continue;
+							}
+							
 							int ops = key.interestOps();
 							
 							key.cancel();
@@ -278,6 +325,8 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 		size = selector.keys().size();
 		notifySizeChange(notify);
 		
+		long workTime = 0, waitTime = 0, timeout = selectTimeout();
+		
 		if (selectedKeys > 0) {
 			wakenup.set(false);
 		}
@@ -286,17 +335,18 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 			
 			selectBeginTime = System.nanoTime();
 			if (selectEndTime != 0) {
-				totalWorkTime += selectBeginTime - selectEndTime;
+				workTime = selectBeginTime - selectEndTime;
+				totalWorkTime += workTime;
 			}
 			if (!wakenup.compareAndSet(true, false)) {
-				selectedKeys = selector.select(selectTimeout);
+				selectedKeys = timeout < 0 ? selector.selectNow() : selector.select(timeout);
 				selectEndTime = System.nanoTime();
-				selectBlocked = selectEndTime - selectBeginTime;
+				waitTime = selectBlocked = selectEndTime - selectBeginTime;
 				totalWaitTime += selectBlocked;
 				if (selectedKeys == 0) {
 					//if the blocking time is greater than 90% of the select timeout
 					//then the select returned normally
-					if (selectBlocked >= selectTimeout * 900000L) {
+					if (selectBlocked >= timeout * 900000L) {
 						selectCounter = 0;
 					}
 				}
@@ -322,6 +372,67 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 				selectCounter = 1;
 			}
 		}
+		updateTime();
+		metric.selected(selectedKeys, workTime, waitTime);
+	}
+	
+	/**
+	 * Returns the timeout for the select operation shortened to the set
+	 * deadline, or -1 if the deadline has already passed.
+	 */
+	private final long selectTimeout() {
+		if (!deadlineSet) {
+			return selectTimeout;
+		}
+		
+		long left = deadline - timeSource.nanoTime();
+		
+		if (left <= 0) {
+			return -1;
+		}
+		left = (left + 999999) / 1000000;
+		return selectTimeout == 0 ? left : Math.min(left, selectTimeout);
+	}
+	
+	/**
+	 * Sets the deadline at which the {@link #handleDeadline()} should be
+	 * called. If the deadline is already set the earlier one is retained. It
+	 * can be called only in the selector loop's thread.
+	 * 
+	 * @param time the time in nanoseconds as returned by the time source
+	 */
+	final void deadline(long time) {
+		if (!deadlineSet || time - deadline < 0) {
+			deadline = time;
+			deadlineSet = true;
+		}
+	}
+	
+	/**
+	 * Sets the deadline at the first elapse of an idle timeout, so the select
+	 * returns in time to detect idle sessions.
+	 */
+	private final void idleDeadline() {
+		long left = idleTracker.timeLeft(currentTime);
+		
+		if (left != -1) {
+			//At least 1 ms as the time in milliseconds may lag behind
+			left = Math.min(Math.max(left, 1), Integer.MAX_VALUE);
+			deadline(currentNanoTime + left * 1000000);
+		}
+	}
+	
+	/**
+	 * Called in the selector loop's thread when the set deadline has passed.
+	 */
+	void handleDeadline() {
+	}
+	
+	final void updateTime() {
+		ITimeSource source = timeSource;
+		
+		currentTime = source.currentTimeMillis();
+		currentNanoTime = source.nanoTime();
 	}
 	
 	final void elogWarnOrError(ILogger log, String msg, Object... args) {
@@ -447,6 +558,138 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 		start(false);
 	}
 
+	/**
+	 * Sets the collector of the metric data for this selector loop and the
+	 * sessions it processes. The collector can be shared by many selector
+	 * loops.
+	 * 
+	 * @param metric
+	 *            the new metric collector, or
+	 *            {@link NopSelectorLoopMetric#DEFAULT} to disable the
+	 *            collecting
+	 * @throws NullPointerException
+	 *             If the <code>metric</code> argument is <code>null</code>
+	 */
+	public void setMetric(ISelectorLoopMetricCollector metric) {
+		if (metric == null) {
+			throw new NullPointerException(); 
+		}
+		this.metric = metric;
+		metricEnabled = metric != NopSelectorLoopMetric.DEFAULT;
+	}
+	
+	/**
+	 * Returns the collector of the metric data for this selector loop. By
+	 * default the metric data is not collected and the
+	 * {@link NopSelectorLoopMetric#DEFAULT} is returned.
+	 * 
+	 * @return the metric collector
+	 */
+	public ISelectorLoopMetricCollector getMetric() {
+		return metric;
+	}
+	
+	/**
+	 * Sets the source of the time used by this selector loop. The time is read
+	 * from the source once per select cycle and cached. The cached values are
+	 * used, among others, to calculate the throughput and to update the I/O
+	 * times of the sessions.
+	 * 
+	 * @param timeSource
+	 *            the new time source
+	 * @throws NullPointerException
+	 *             If the <code>timeSource</code> argument is <code>null</code>
+	 */
+	public void setTimeSource(ITimeSource timeSource) {
+		if (timeSource == null) {
+			throw new NullPointerException(); 
+		}
+		this.timeSource = timeSource;
+		if (!inLoop()) {
+			updateTime();
+		}
+	}
+	
+	/**
+	 * Returns the source of the time used by this selector loop. By default
+	 * the {@link DefaultTimeSource#DEFAULT} is returned.
+	 * 
+	 * @return the time source
+	 */
+	public ITimeSource getTimeSource() {
+		return timeSource;
+	}
+	
+	/**
+	 * Returns the current time in milliseconds as cached by this selector
+	 * loop. The cached time is updated once per select cycle so it may lag
+	 * behind the time returned by the time source.
+	 * 
+	 * @return the cached time in milliseconds
+	 * @see #setTimeSource(ITimeSource)
+	 */
+	public long currentTimeMillis() {
+		return currentTime;
+	}
+	
+	/**
+	 * Returns the current value of the high-resolution time source in
+	 * nanoseconds as cached by this selector loop. The cached time is updated
+	 * once per select cycle so it may lag behind the time returned by the time
+	 * source.
+	 * 
+	 * @return the cached time in nanoseconds
+	 * @see #setTimeSource(ITimeSource)
+	 */
+	public long nanoTime() {
+		return currentNanoTime;
+	}
+	
+	/**
+	 * Sets the tracer of the messages processed by the sessions handled by
+	 * this selector loop. The tracer can be shared by many selector loops.
+	 * 
+	 * @param tracer
+	 *            the new tracer, or {@link NopTracer#DEFAULT} to disable the
+	 *            tracing
+	 * @throws NullPointerException
+	 *             If the <code>tracer</code> argument is <code>null</code>
+	 */
+	public void setTracer(ITracer tracer) {
+		if (tracer == null) {
+			throw new NullPointerException(); 
+		}
+		this.tracer = tracer;
+		tracerEnabled = tracer != NopTracer.DEFAULT;
+	}
+	
+	/**
+	 * Returns the tracer of the messages processed by the sessions handled by
+	 * this selector loop. By default the messages are not traced and the
+	 * {@link NopTracer#DEFAULT} is returned.
+	 * 
+	 * @return the tracer
+	 */
+	public ITracer getTracer() {
+		return tracer;
+	}
+	
+	/**
+	 * Returns the trace context for a message being written by the given
+	 * session. When called in the selector loop's thread during processing of
+	 * a traced message the context of that message is returned.
+	 */
+	final Object traceContext(InternalSession session) {
+		if (inLoop()) {
+			Object context = traceContext;
+			
+			if (context != null) {
+				return context;
+			}
+		}
+		return tracer.start(session);
+	}
+	
 	/**
 	 * Wakes up the associated selector.
 	 * 
@@ -455,6 +698,7 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 	public void wakeup() {
 		wakenup.compareAndSet(false, true);
 		if (!inLoop()) {
+			metric.wakeup();
 			selector.wakeup();
 		}
 	}
@@ -506,7 +750,13 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 			
 			try {
 				
+				idleDeadline();
 				select();
+				idleTracker.expire(currentTime);
+				if (deadlineSet && currentNanoTime - deadline >= 0) {
+					deadlineSet = false;
+					handleDeadline();
+				}
 				
 				if (closeWhenEmpty && size == 0) {
 					quickStop();
@@ -521,6 +771,11 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 						if (ctx.isSession()) {
 							InternalSession session = ctx.getSession();
 							
+							synchronized (session.writeLock) {
+								if (cancelIfMigrating(session, key)) {
+									continue;
+								}
+							}
 							if (session.pipelineItem != null) {
 								session.pipelineItem.markEos();
 							}
@@ -578,8 +833,12 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 					
 					for (;;) {
 						SelectionKey key = i.next();
-						i.remove();
+						SelectorLoopWatchdog.Watch watch = this.watch;
 						
+						i.remove();
+						if (watch != null) {
+							watch.begin(target(key));
+						}
 						try {
 							key = handleSelectedKey(key);
 						}
@@ -631,6 +890,9 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 						catch (Throwable e) {
 							elogger.error(logger, "Processing of invalidated key for {} failed: {}", key.attachment(), e);
 						}
+						if (watch != null) {
+							watch.end();
+						}
 						
 						if (!i.hasNext()) {
 							break;
@@ -662,7 +924,10 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 				while((reg = registrations.poll()) != null) {
 					SelectableChannel channel = reg.channel; 
 					
-					if (channel.keyFor(selector) == null) {
+					if (reg.migration != null) {
+						reg.migration.register(channel, reg.ctx);
+					}
+					else if (channel.keyFor(selector) == null) {
 						ChannelContext<?> ctx = reg.ctx;
 						
 						try {
@@ -729,6 +994,10 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 		
 		PendingRegistration reg;
 		while((reg = registrations.poll()) != null) {
+			if (reg.migration != null) {
+				reg.migration.abort(new SelectorLoopStoppingException());
+				continue;
+			}
 			if (debugEnabled) {
 				logger.debug("Aborting pending registration for channel {}", reg.ctx.toString(reg.channel));
 			}
@@ -759,7 +1028,12 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 	
 	private final void handleTask(Task task) {
 		TaskFuture<Void> future = task.future;
+		SelectorLoopWatchdog.Watch watch = this.watch;
+		long begin = metricEnabled ? System.nanoTime() : 0;
 		
+		if (watch != null) {
+			watch.begin(task.task);
+		}
 		try {
 			if (traceEnabled) {
 				logger.trace("Starting execution of task {}", task.task);
@@ -781,6 +1055,25 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 				future.abort(e);
 			}
 		}
+		if (watch != null) {
+			watch.end();
+		}
+		if (begin != 0) {
+			metric.task(task.time != 0 ? begin - task.time : 0, System.nanoTime() - begin);
+		}
+	}
+	
+	private final static Object target(SelectionKey key) {
+		Object attachment = key.attachment();
+		
+		if (attachment instanceof ChannelContext) {
+			ChannelContext<?> ctx = (ChannelContext<?>) attachment;
+			
+			if (ctx.isSession()) {
+				return ctx.getSession();
+			}
+		}
+		return key.channel();
 	}
 	
 	private final void handleRegistration(SelectionKey key, PendingRegistration reg) throws Exception {
@@ -938,6 +1231,45 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 	 *             supported by this channel
 	 */
 	IFuture<Void> register(SelectableChannel channel, int ops, ChannelContext<?> ctx) throws ClosedChannelException {
+		PendingRegistration reg = registration(channel, ops, ctx);
+
+		synchronized (registrationLock) {
+			//make sure not to register while stopping
+			if (stopping.get() != null) {
+				throw new SelectorLoopStoppingException();
+			}
+			registrations.add(reg);
+		}
+		wakeup();
+		return reg.future;
+	}
+	
+	/**
+	 * Adds a batch of prepared registrations to the selector-loop's pending
+	 * registration queue and wakes up the selector only once.
+	 * 
+	 * @param regs
+	 *            the registrations prepared by
+	 *            {@link #registration(SelectableChannel, int, ChannelContext)}
+	 * @throws SelectorLoopStoppingException
+	 *             if selector loop is in the process of stopping
+	 */
+	final void register(List<PendingRegistration> regs) {
+		synchronized (registrationLock) {
+			//make sure not to register while stopping
+			if (stopping.get() != null) {
+				throw new SelectorLoopStoppingException();
+			}
+			registrations.addAll(regs);
+		}
+		wakeup();
+	}
+	
+	/**
+	 * Validates and prepares a registration of a channel with this selector
+	 * loop without adding it to the pending registration queue.
+	 */
+	final PendingRegistration registration(SelectableChannel channel, int ops, ChannelContext<?> ctx) throws ClosedChannelException {
 		if (channel == null) {
 			throw new IllegalArgumentException("channel is null");
 		}
@@ -973,15 +1305,214 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 		else {
 			reg.future = new RegisterFuture<Void>(null);
 		}
-		synchronized (registrationLock) {
-			//make sure not to register while stopping
-			if (stopping.get() != null) {
-				throw new SelectorLoopStoppingException();
+		return reg;
+	}
+
+	/**
+	 * Migrates a session from its current selector loop to this selector loop.
+	 * The migration is performed in the thread of the current selector loop
+	 * after all tasks already queued there are executed.
+	 */
+	final IFuture<Void> migrate(InternalSession session) {
+		if (session == null) {
+			throw new IllegalArgumentException("session is null");
+		}
+		if (!session.isMigratable()) {
+			throw new IllegalArgumentException("session cannot be migrated");
+		}
+		if (!selector.isOpen()) {
+			throw new ClosedSelectorException();
+		}
+		if (stopping.get() != null) {
+			throw new SelectorLoopStoppingException();
+		}
+		InternalSession.checkKey(session.key);
+		
+		MigrationTask task = new MigrationTask(session);
+		
+		session.loop.executenf(task);
+		return task.future;
+	}
+	
+	/**
+	 * Migrates a session in three steps. First, in the session's current
+	 * selector loop, the session's channel is added to the pending registration
+	 * queue of this selector loop. Then, in this selector loop, the channel is
+	 * registered with no interest ops. Finally, back in the session's current
+	 * selector loop, the interest ops are moved to the new key, the old key is
+	 * cancelled and the session's key and loop are swapped.
+	 */
+	private class MigrationTask implements Runnable {
+		
+		final InternalSession session;
+		
+		final TaskFuture<Void> future;
+		
+		/** The key registered with this selector loop's selector */
+		SelectionKey newKey;
+		
+		MigrationTask(InternalSession session) {
+			this.session = session;
+			future = new TaskFuture<Void>(session);
+		}
+		
+		@Override
+		public void run() {
+			InternalSelectorLoop loop = session.loop;
+			
+			try {
+				if (!loop.inLoop()) {
+					//The session has been migrated after this task was queued
+					loop.executenf(this);
+					return;
+				}
+				if (loop == InternalSelectorLoop.this) {
+					future.success();
+					return;
+				}
+				if (loop.stopping.get() != null || stopping.get() != null) {
+					throw new SelectorLoopStoppingException();
+				}
+				if (newKey == null) {
+					synchronized (session.writeLock) {
+						SelectionKey key = checkOpen();
+						PendingRegistration reg = new PendingRegistration();
+						
+						reg.channel = key.channel();
+						reg.ctx = (ChannelContext<?>) key.attachment();
+						reg.migration = this;
+						InternalSelectorLoop.this.register(Collections.singletonList(reg));
+					}
+					return;
+				}
+				swap(loop);
+			}
+			catch (Throwable e) {
+				abort(e);
+			}
+		}
+		
+		/**
+		 * Called in this selector loop's thread to register the session's
+		 * channel with this selector loop's selector.
+		 */
+		void register(SelectableChannel channel, ChannelContext<?> ctx) {
+			try {
+				if (stopping.get() != null) {
+					throw new SelectorLoopStoppingException();
+				}
+				if (channel.keyFor(selector) == null) {
+					newKey = channel.register(getUnderlyingSelector(selector), 0, ctx);
+				}
+				session.loop.executenf(this);
+			}
+			catch (Throwable e) {
+				abort(e);
+			}
+		}
+		
+		private SelectionKey checkOpen() {
+			SelectionKey key = InternalSession.checkKey(session.key);
+			
+			if (session.closing != ClosingState.NONE) {
+				throw new IllegalSessionStateException(SessionState.CLOSING);
+			}
+			return key;
+		}
+		
+		private void swap(InternalSelectorLoop loop) {
+			boolean idleTracked = false;
+
+			synchronized (session.writeLock) {
+				SelectionKey key = checkOpen();
+				
+				//Checked again as stopping of this loop cancels not migrated keys
+				if (stopping.get() != null) {
+					throw new SelectorLoopStoppingException();
+				}
+				newKey.interestOps(key.interestOps());
+				
+				//Stop idle tracking before the new loop can touch the session
+				if (session.idleNodes != null) {
+					loop.idleTracker.remove(session);
+					idleTracked = true;
+				}
+				key.cancel();
+				session.setSelectionKey(newKey);
+				
+				//Encode tasks can be queued only under the write lock
+				loop.moveEncodeTasks(session, InternalSelectorLoop.this);
+				session.setLoop(InternalSelectorLoop.this);
+			}
+			
+			//Make the moved interest ops effective
+			wakeup();
+			if (loop.debugEnabled) {
+				logger.debug("Session {} migrated from {} to {}", session, loop, InternalSelectorLoop.this);
+			}
+			if (idleTracked) {
+				execute0(new Runnable() {
+
+					@Override
+					public void run() {
+						if (session.isOpen() && session.loop == InternalSelectorLoop.this) {
+							idleTracker.add(session, currentTime);
+						}
+					}
+				});
+			}
+			future.success();
+		}
+		
+		private void cancelNewKey() {
+			if (newKey != null) {
+				newKey.cancel();
+				newKey = null;
+			}
+		}
+		
+		void abort(Throwable e) {
+			cancelNewKey();
+			elogger.warn(logger, "Migration of session {} to {} failed: {}", session, InternalSelectorLoop.this, e);
+			future.abort(e);
+		}
+	}
+	
+	/**
+	 * Moves encode tasks of the session that are queued in this selector loop
+	 * to the specified selector loop keeping their order. It can be called
+	 * only in this selector loop's thread.
+	 */
+	private final void moveEncodeTasks(InternalSession session, InternalSelectorLoop loop) {
+		for (Iterator<Task> i = tasks.iterator(); i.hasNext();) {
+			Task task = i.next();
+			
+			if (task.task instanceof EncodeTask && ((EncodeTask)task.task).session == session) {
+				i.remove();
+				try {
+					loop.execute0(task);
+				}
+				catch (SelectorLoopStoppingException e) {
+					((EncodeTask)task.task).abort(e);
+				}
 			}
-			registrations.add(reg);
 		}
-		wakeup();
-		return reg.future;
+	}
+	
+	/**
+	 * Tells if the key was registered for a session by a migration that has
+	 * not been completed yet. Such a key is cancelled, what makes the
+	 * migration fail. It should be executed inside block synchronized on the
+	 * session's write lock.
+	 */
+	private static boolean cancelIfMigrating(InternalSession session, SelectionKey key) {
+		SelectionKey sessionKey = session.key;
+		
+		if (sessionKey != null && sessionKey != key) {
+			key.cancel();
+			return true;
+		}
+		return false;
 	}
 
 	/**
@@ -1036,6 +1567,9 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 	}
 	
 	private final void execute0(Task task) {
+		if (metricEnabled) {
+			task.time = System.nanoTime();
+		}
 		synchronized (registrationLock) {
 			//make sure not to register while stopping
 			if (ending) {
@@ -1050,6 +1584,9 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 		Task task0 = new Task();
 		
 		task0.task = task;
+		if (metricEnabled) {
+			task0.time = System.nanoTime();
+		}
 		synchronized (registrationLock) {
 			//make sure not to register while stopping
 			if (ending) {
@@ -1182,6 +1719,17 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 		if (traceEnabled) {
 			logger.trace("Ending event {} for {}", event.type(), session);
 		}
+		switch (event) {
+		case OPENED:
+			idleTracker.add(session, currentTime);
+			break;
+			
+		case ENDING:
+			idleTracker.remove(session);
+			break;
+			
+		default:
+		}
 	}
 
 	final void fireEvent(final InternalSession session, DataEvent event, long length) {
@@ -1258,7 +1806,7 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 			bytes = newSession.copyInBuffer(session);
 			session.postEnding();
 			if (bytes > 0) {
-				long currentTime = System.currentTimeMillis();
+				long currentTime = this.currentTime;
 
 				if (traceEnabled) {
 					logger.trace("{} byte(s) copied from input buffer in {}", bytes, newSession);
@@ -1286,6 +1834,15 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 		handleInvalidKey(key, stoppingKeys, false);
 	}
 	
+	final void handleInvalidKey(SelectionKey key) {
+		try {
+			handleInvalidKey(key, stoppingKeys);
+		}
+		catch (Throwable e) {
+			elogger.error(logger, "Processing of invalidated key for {} failed: {}", key.attachment(), e);
+		}
+	}
+	
 	abstract void handleRegisteredKey(SelectionKey key, PendingRegistration reg) throws Exception;
 	
 	abstract SelectionKey handleSelectedKey(SelectionKey key);
@@ -1299,11 +1856,13 @@ abstract class InternalSelectorLoop extends IdentifiableObject implements IFutur
 		int ops;
 		ChannelContext<?> ctx;
 		RegisterFuture<Void> future;
+		MigrationTask migration;
 	}
 	
 	static final class Task {
 		Runnable task;
 		TaskFuture<Void> future;
+		long time;
 	}
 	
 	class Loop implements Runnable {
@@ -54,7 +54,9 @@ import org.snf4j.core.session.ISessionTimer;
 import org.snf4j.core.session.IllegalSessionStateException;
 import org.snf4j.core.session.SessionState;
 import org.snf4j.core.session.UnsupportedSessionTimer;
+import org.snf4j.core.timer.DefaultTimeSource;
 import org.snf4j.core.timer.ITimer;
+import org.snf4j.core.traffic.TrafficShaper;
 
 abstract class InternalSession extends AbstractSession implements ISession {
 	
@@ -82,7 +84,7 @@ abstract class InternalSession extends AbstractSession implements ISession {
 	
 	private volatile double writtenBytesThroughput;
 
-	private final long creationTime;
+	private volatile long creationTime;
 	
 	private volatile long lastReadTime;
 	
@@ -94,6 +96,20 @@ abstract class InternalSession extends AbstractSession implements ISession {
 	
 	private volatile boolean writeSuspended;
 	
+	/** Tells if read is suspended by the traffic shaping. Guarded by the write lock */
+	boolean readThrottled;
+	
+	/** Tells if write is suspended by the traffic shaping. Guarded by the write lock */
+	boolean writeThrottled;
+	
+	/** The time in nanoseconds at which the throttled read should be resumed */
+	long readResumeTime;
+
+	/** The time in nanoseconds at which the throttled write should be resumed */
+	long writeResumeTime;
+	
+	final TrafficShaper shaper;
+	
 	final IHandler handler;
 
 	final ISessionConfig config;
@@ -106,6 +122,12 @@ abstract class InternalSession extends AbstractSession implements ISession {
 	
 	volatile InternalSelectorLoop loop;
 	
+	/** The nodes used by the loop's idle tracker, accessed only in the loop's thread */
+	IdleTracker.Node[] idleNodes;
+	
+	/** The ticket of the admitted channel, or null if the channel was not admitted */
+	IAdmissionTicket admission;
+	
 	volatile boolean isEOS;
 
 	/** Used to synchronize write operations and changing key's selection interests */
@@ -157,9 +179,9 @@ abstract class InternalSession extends AbstractSession implements ISession {
 			throw new IllegalArgumentException("maxWriteSpinCount is " + maxWriteSpinCount + " (expected 1+)");
 		}
 		
-		creationTime = System.currentTimeMillis();
-		lastReadTime = lastWriteTime = lastIoTime = lastThroughputCalculationTime = creationTime; 
+		initTimes(DefaultTimeSource.DEFAULT.currentTimeMillis());
 		
+		shaper = config.createTrafficShaper();
 		if (codec == null) {
 			ICodecExecutor executor = config.createCodecExecutor();
 			this.codec = executor != null ? new CodecExecutorAdapter(executor, this) : null;
@@ -309,6 +331,15 @@ abstract class InternalSession extends AbstractSession implements ISession {
 	boolean isCreated() {
 		return channel != null;
 	}
+	
+	/**
+	 * Tells if this session can be migrated to another selector loop. It
+	 * should return <code>false</code> for sessions that do not own their
+	 * channels or that queue internal tasks in the selector loop.
+	 */
+	boolean isMigratable() {
+		return true;
+	}
 
 	void setChannel(SelectableChannel channel) {
 		this.channel = channel;
@@ -318,7 +349,17 @@ abstract class InternalSession extends AbstractSession implements ISession {
 		this.key = key;
 	}
 	
+	private void initTimes(long currentTime) {
+		creationTime = currentTime;
+		lastReadTime = lastWriteTime = lastIoTime = lastThroughputCalculationTime = currentTime;
+	}
+	
 	void setLoop(InternalSelectorLoop loop) {
+		if (this.loop == null && loop != null) {
+			
+			//Use the time source of the loop the session is bound to first
+			initTimes(loop.currentTimeMillis());
+		}
 		this.loop = loop;
 		futuresController.setExecutor(loop);
 	}
@@ -330,11 +371,13 @@ abstract class InternalSession extends AbstractSession implements ISession {
 	void incReadBytes(long bytes, long currentTime) {
 		readBytes += bytes;
 		lastReadTime = lastIoTime = currentTime;
+		IdleTracker.read(this, currentTime);
 	}
 
 	void incWrittenBytes(long bytes, long currentTime) {
 		writtenBytes += bytes;
 		lastWriteTime = lastIoTime = currentTime;
+		IdleTracker.written(this, currentTime);
 	}
 
 	/**
@@ -358,7 +401,7 @@ abstract class InternalSession extends AbstractSession implements ISession {
 	 * @throw CancelledKeyException if the key has been canceled
 	 */
 	void setWriteInterestOps(SelectionKey key) {
-		if (!writeSuspended) {
+		if (!writeSuspended && !writeThrottled) {
 			int ops = key.interestOps();
 
 			if ((ops & SelectionKey.OP_WRITE) == 0) {
@@ -367,6 +410,56 @@ abstract class InternalSession extends AbstractSession implements ISession {
 		}
 	}
 
+	/**
+	 * Suspends read by the traffic shaping. It should be executed inside block
+	 * synchronized on a write lock.
+	 */
+	void throttleRead(SelectionKey key, long resumeTime) {
+		int ops = key.interestOps();
+		
+		readThrottled = true;
+		readResumeTime = resumeTime;
+		if ((ops & SelectionKey.OP_READ) != 0) {
+			key.interestOps(ops & (~SelectionKey.OP_READ));
+		}
+	}
+	
+	/**
+	 * Resumes read suspended by the traffic shaping unless it is also 
+	 * suspended by the user. It should be executed inside block synchronized
+	 * on a write lock.
+	 */
+	void unthrottleRead(SelectionKey key) {
+		readThrottled = false;
+		if (!readSuspended) {
+			int ops = key.interestOps();
+			
+			if ((ops & SelectionKey.OP_READ) == 0) {
+				key.interestOps(ops | SelectionKey.OP_READ);
+			}
+		}
+	}
+
+	/**
+	 * Suspends write by the traffic shaping. It should be executed inside 
+	 * block synchronized on a write lock.
+	 */
+	void throttleWrite(SelectionKey key, long resumeTime) {
+		clearWriteInterestOps(key);
+		writeThrottled = true;
+		writeResumeTime = resumeTime;
+	}
+	
+	/**
+	 * Resumes write suspended by the traffic shaping unless it is also 
+	 * suspended by the user. It should be executed inside block synchronized
+	 * on a write lock.
+	 */
+	void unthrottleWrite(SelectionKey key) {
+		writeThrottled = false;
+		setWriteInterestOps(key);
+	}
+	
 	/**
 	 * Suspends read, write or both if session is not in closing state. It
 	 * should be executed inside block synchronized on a write lock.
@@ -540,13 +633,17 @@ abstract class InternalSession extends AbstractSession implements ISession {
 			
 			if ((ops & SelectionKey.OP_READ) != 0) {
 				if (readSuspended) {
-					tmpOps |= SelectionKey.OP_READ;
+					if (!readThrottled) {
+						tmpOps |= SelectionKey.OP_READ;
+					}
 					readSuspended = false;
 				}
 			}
 			if ((ops & SelectionKey.OP_WRITE) != 0) {
 				if (writeSuspended) {
-					tmpOps |= SelectionKey.OP_WRITE;
+					if (!writeThrottled) {
+						tmpOps |= SelectionKey.OP_WRITE;
+					}
 					writeSuspended = false;
 				}
 			}
@@ -781,6 +878,9 @@ abstract class InternalSession extends AbstractSession implements ISession {
 	
 	void event(SessionEvent event) {
 		if (isValid(event.type())) {
+			if (admission != null) {
+				admission(event);
+			}
 			futuresController.event(event);
 			try {
 				if (codec != null) {
@@ -797,6 +897,21 @@ abstract class InternalSession extends AbstractSession implements ISession {
 		}
 	}
 	
+	private final void admission(SessionEvent event) {
+		switch (event) {
+		case READY:
+			admission.ready();
+			break;
+			
+		case ENDING:
+			admission.release();
+			admission = null;
+			break;
+			
+		default:
+		}
+	}
+	
 	void controlCloseException(Throwable t) {
 		handler.exception(t);
 	}
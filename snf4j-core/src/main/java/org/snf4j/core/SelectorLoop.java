@@ -28,6 +28,7 @@ package org.snf4j.core;
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.DatagramChannel;
@@ -36,6 +37,11 @@ import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 
 import org.snf4j.core.DatagramSession.DatagramRecord;
@@ -49,6 +55,9 @@ import org.snf4j.core.handler.SessionEvent;
 import org.snf4j.core.logger.ILogger;
 import org.snf4j.core.logger.LoggerFactory;
 import org.snf4j.core.pool.ISelectorLoopPool;
+import org.snf4j.core.session.ISession;
+import org.snf4j.core.trace.SpanKind;
+import org.snf4j.core.traffic.TrafficShaper;
 
 /**
  * A selector loop responsible for processing I/O operations of stream-oriented
@@ -65,6 +74,30 @@ public class SelectorLoop extends InternalSelectorLoop {
 	private volatile ISelectorLoopPool pool;
 	
 	private volatile ISelectorLoopController controller = DefaultSelectorLoopController.DEFAULT;
+	
+	/** The default maximum number of channels accepted in one pass */
+	public final static int DEFAULT_ACCEPT_BUDGET = 16;
+	
+	private volatile int acceptBudget = DEFAULT_ACCEPT_BUDGET;
+	
+	private volatile IAdmissionController admission;
+	
+	/** Listening keys with paused accepting */
+	private final List<SelectionKey> pausedKeys = new ArrayList<SelectionKey>();
+	
+	/** The time in nanoseconds at which the paused accepting should be resumed */
+	private long acceptResumeTime;
+	
+	/** The minimum number of bytes transferred in one shaped read or write operation */
+	private final static int MIN_SHAPED_BYTES = 1024;
+	
+	private volatile TrafficShaper shaper;
+	
+	/** Sessions with read or write suspended by the traffic shaping */
+	private final List<InternalSession> throttledSessions = new ArrayList<InternalSession>();
+	
+	/** Registrations of accepted channels to be moved to other loops */
+	private final Map<SelectorLoop, List<PendingRegistration>> handoffs = new IdentityHashMap<SelectorLoop, List<PendingRegistration>>();
 
 	/**
 	 * Constructs a named selector loop with specified parent pool
@@ -165,6 +198,98 @@ public class SelectorLoop extends InternalSelectorLoop {
 		return controller;
 	}
 	
+	/**
+	 * Sets the admission controller limiting accepting of new channels by this
+	 * selector loop.
+	 * <p>
+	 * When the admission controller determines that accepting should be
+	 * paused this selector loop stops selecting the listening channel for
+	 * accepting until the pause expires. In the meantime, the pending
+	 * connections remain in the backlog of the operating system.
+	 * 
+	 * @param controller
+	 *            the admission controller, or <code>null</code> if accepting
+	 *            should not be limited
+	 */
+	public void setAdmissionController(IAdmissionController controller) {
+		admission = controller;
+	}
+	
+	/**
+	 * Gets the admission controller limiting accepting of new channels by this
+	 * selector loop.
+	 * 
+	 * @return the admission controller, or <code>null</code> if accepting is
+	 *         not limited
+	 */
+	public IAdmissionController getAdmissionController() {
+		return admission;
+	}
+	
+	/**
+	 * Sets the traffic shaper limiting the rate of bytes read from and written
+	 * to the channels of all stream-oriented sessions handled by this selector
+	 * loop. It is applied together with the shapers created for the sessions
+	 * (see {@link org.snf4j.core.session.ISessionConfig#createTrafficShaper()
+	 * ISessionConfig.createTrafficShaper()}).
+	 * <p>
+	 * To limit the traffic globally the shaper can have a parent shaper shared
+	 * by many selector loops.
+	 * 
+	 * @param shaper
+	 *            the traffic shaper, or <code>null</code> if the traffic
+	 *            should not be shaped
+	 */
+	public void setTrafficShaper(TrafficShaper shaper) {
+		this.shaper = shaper;
+	}
+	
+	/**
+	 * Gets the traffic shaper limiting the rate of bytes read from and written
+	 * to the channels of all stream-oriented sessions handled by this selector
+	 * loop.
+	 * 
+	 * @return the traffic shaper, or <code>null</code> if the traffic is not
+	 *         shaped
+	 */
+	public TrafficShaper getTrafficShaper() {
+		return shaper;
+	}
+	
+	/**
+	 * Sets the maximum number of channels that can be accepted from a listening
+	 * channel each time it is selected as ready for accepting. Setting it to a
+	 * value greater than 1 allows to drain the backlog of pending connections
+	 * without going back through the selection for each of them.
+	 * <p>
+	 * Channels accepted in one pass that are to be moved to other selector loops
+	 * from the {@link #getPool() pool} are handed off in batches, one batch per
+	 * target selector loop.
+	 * 
+	 * @param budget
+	 *            the maximum number of channels accepted in one pass
+	 * @throws IllegalArgumentException
+	 *             if the budget is less than 1
+	 */
+	public void setAcceptBudget(int budget) {
+		if (budget < 1) {
+			throw new IllegalArgumentException("budget is less than 1");
+		}
+		acceptBudget = budget;
+	}
+	
+	/**
+	 * Gets the maximum number of channels that can be accepted from a listening
+	 * channel each time it is selected as ready for accepting.
+	 * <p>
+	 * The default value is {@link #DEFAULT_ACCEPT_BUDGET}.
+	 * 
+	 * @return the maximum number of channels accepted in one pass
+	 */
+	public int getAcceptBudget() {
+		return acceptBudget;
+	}
+	
 	/**
 	 * Registers a stream-oriented channel with this selector loop. The method
 	 * only adds the channel to the selector-loop's pending registration queue.
@@ -314,6 +439,44 @@ public class SelectorLoop extends InternalSelectorLoop {
 		return super.register(channel, SelectionKey.OP_ACCEPT, new ServerSocketChannelContext(factory));
 	}
 	
+	/**
+	 * Migrates an open session from its current selector loop to this selector
+	 * loop. The channel, the selection interests, the pending output data and
+	 * the state of the codec pipeline are moved without closing the session.
+	 * Timer tasks follow the session and write tasks queued in the current
+	 * selector loop are moved to this selector loop during the migration.
+	 * <p>
+	 * The migration is completed in the current selector loop's thread after
+	 * the channel is registered with this selector loop. Data written by one
+	 * thread keeps its order, also when it is written while the migration is
+	 * in progress.
+	 * <p>
+	 * Sessions that use engines (e.g. SSL/TLS) and datagram sessions handled
+	 * by the {@link DatagramServerHandler} cannot be migrated.
+	 * <p>
+	 * This method is asynchronous.
+	 * 
+	 * @param session
+	 *            the session to migrate
+	 * @return the future associated with this migration
+	 * @throws SelectorLoopStoppingException
+	 *             if this selector loop or the session's selector loop is in
+	 *             the process of stopping
+	 * @throws ClosedSelectorException
+	 *             if the internal selector is closed
+	 * @throws org.snf4j.core.session.IllegalSessionStateException
+	 *             if the session is not open
+	 * @throws IllegalArgumentException
+	 *             if the session argument is <code>null</code> or the session
+	 *             cannot be migrated
+	 */
+	public IFuture<Void> migrate(ISession session) {
+		if (session != null && !(session instanceof InternalSession)) {
+			throw new IllegalArgumentException("session cannot be migrated");
+		}
+		return super.migrate((InternalSession) session);
+	}
+	
 	@Override
 	void handleRegisteredKey(SelectionKey key, PendingRegistration reg) throws Exception {
 		SelectableChannel channel = reg.channel;
@@ -373,20 +536,183 @@ public class SelectorLoop extends InternalSelectorLoop {
 	}
 	
 	private final SelectionKey handleAccepting(final SelectionKey key) {
-		SelectableChannel channel = null;
 		ChannelContext<?> ctx = (ChannelContext<?>)key.attachment();
+		int budget = acceptBudget;
 		
 		if (debugEnabled) {
 			logger.debug("Accepting from channel {}", ctx.toString(key.channel()));
 		}
 		
+		IAdmissionController admission = this.admission;
+		
+		try {
+			for (int i=0; i<budget && key.isValid(); ++i) {
+				if (admission != null) {
+					long pause = admission.pause();
+					
+					if (pause > 0) {
+						pauseAccepting(key, ctx, pause);
+						break;
+					}
+				}
+				if (!accept(key, ctx, admission)) {
+					break;
+				}
+			}
+		}
+		finally {
+			if (!handoffs.isEmpty()) {
+				handoff(ctx);
+			}
+		}
+		return key;
+	}
+	
+	private final void pauseAccepting(final SelectionKey key, ChannelContext<?> ctx, long pause) {
+		long time = timeSource.nanoTime() + pause * 1000000;
+		
+		if (debugEnabled) {
+			logger.debug("Accepting from channel {} paused for {} ms", ctx.toString(key.channel()), pause);
+		}
+		key.interestOps(key.interestOps() & ~SelectionKey.OP_ACCEPT);
+		if (pausedKeys.isEmpty() || time - acceptResumeTime < 0) {
+			acceptResumeTime = time;
+		}
+		pausedKeys.add(key);
+		deadline(acceptResumeTime);
+	}
+	
+	@Override
+	void handleDeadline() {
+		long currentNanoTime = this.currentNanoTime;
+		
+		if (!pausedKeys.isEmpty()) {
+			if (currentNanoTime - acceptResumeTime >= 0) {
+				for (SelectionKey key: pausedKeys) {
+					if (key.isValid()) {
+						if (debugEnabled) {
+							logger.debug("Accepting from channel {} resumed", ((ChannelContext<?>)key.attachment()).toString(key.channel()));
+						}
+						key.interestOps(key.interestOps() | SelectionKey.OP_ACCEPT);
+					}
+				}
+				pausedKeys.clear();
+			}
+			else {
+				deadline(acceptResumeTime);
+			}
+		}
+		if (!throttledSessions.isEmpty()) {
+			unthrottle(currentNanoTime);
+		}
+	}
+	
+	private final void throttled(InternalSession session, long resumeTime, boolean wasThrottled) {
+		if (!wasThrottled) {
+			throttledSessions.add(session);
+		}
+		deadline(resumeTime);
+	}
+	
+	private final void unthrottle(long currentNanoTime) {
+		for (Iterator<InternalSession> i = throttledSessions.iterator(); i.hasNext();) {
+			InternalSession session = i.next();
+			boolean throttled;
+			
+			try {
+				synchronized (session.getWriteLock()) {
+					SelectionKey key = session.key;
+					
+					if (key.isValid()) {
+						if (session.readThrottled && currentNanoTime - session.readResumeTime >= 0) {
+							if (traceEnabled) {
+								logger.trace("Reading from channel in {} resumed by traffic shaping", session);
+							}
+							session.unthrottleRead(key);
+						}
+						if (session.writeThrottled && currentNanoTime - session.writeResumeTime >= 0) {
+							if (traceEnabled) {
+								logger.trace("Writing to channel in {} resumed by traffic shaping", session);
+							}
+							session.unthrottleWrite(key);
+						}
+					}
+					else {
+						session.readThrottled = false;
+						session.writeThrottled = false;
+					}
+					if (session.readThrottled) {
+						deadline(session.readResumeTime);
+					}
+					if (session.writeThrottled) {
+						deadline(session.writeResumeTime);
+					}
+					throttled = session.readThrottled || session.writeThrottled;
+				}
+			}
+			catch (CancelledKeyException e) {
+				throttled = false;
+			}
+			if (!throttled) {
+				i.remove();
+			}
+			//the session could be migrated to other selector loop
+			session.lazyWakeup();
+		}
+	}
+	
+	private final void handoff(ChannelContext<?> ctx) {
+		for (Map.Entry<SelectorLoop, List<PendingRegistration>> entry: handoffs.entrySet()) {
+			List<PendingRegistration> regs = entry.getValue();
+			
+			try {
+				entry.getKey().register(regs);
+			}
+			catch (Throwable e) {
+				for (PendingRegistration reg: regs) {
+					SelectableChannel channel = reg.channel;
+					InternalSession session = reg.ctx.getSession();
+					
+					elogger.error(logger, "Unable to register channel {} with selector: {}", ctx.toString(channel), e);
+					fireCreatedEvent(session, channel);
+					fireException(session, e);
+					try {
+						channel.close();
+					} catch (IOException e1) {
+						//Ignore
+					}
+					fireEndingEvent(session, false);
+				}
+			}
+		}
+		handoffs.clear();
+	}
+	
+	/**
+	 * Returns {@code false} if no more channels should be accepted in the
+	 * current pass. 
+	 */
+	private final boolean accept(final SelectionKey key, ChannelContext<?> ctx, IAdmissionController admission) {
+		SelectableChannel channel = null;
+		IAdmissionTicket ticket = null;
+		
 		try {
 			channel = ctx.accept(key.channel());
+			if (channel == null) {
+				return false;
+			}
 			channel.configureBlocking(false);
 			if (!controller.processAccepted(channel)) {
 				channel.close();
 				channel = null;
 			}
+			else if (admission != null && (ticket = admission.admit(channel)) == null) {
+				if (debugEnabled) {
+					logger.debug("Channel {} not admitted", ctx.toString(channel));
+				}
+				channel.close();
+				channel = null;
+			}
 			if (debugEnabled) {
 				logger.debug("Accepted channel {}", ctx.toString(channel));
 			}
@@ -399,8 +725,8 @@ public class SelectorLoop extends InternalSelectorLoop {
 				} catch (Exception e1) {
 					//Ignore
 				}
-				channel = null;
 			}
+			return false;
 		}
 		
 		if (channel != null) {
@@ -409,27 +735,39 @@ public class SelectorLoop extends InternalSelectorLoop {
 			
 			try {
 				session = ctx.create(channel);
+				session.admission = ticket;
 				ISelectorLoopPool pool = this.pool;
 				SelectorLoop loop = pool != null ? pool.getLoop(channel) : null;
 				if (loop != null) {
 					if (debugEnabled) {
 						logger.debug("Moving registration of channel {} to other selector loop {}", ctx.toString(channel), loop);
 					}
-					loop.register(channel, SelectionKey.OP_READ, ctx.wrap(session));
-					return key;
+					
+					PendingRegistration reg = loop.registration(channel, SelectionKey.OP_READ, ctx.wrap(session));
+					List<PendingRegistration> regs = handoffs.get(loop);
+					
+					if (regs == null) {
+						regs = new ArrayList<PendingRegistration>();
+						handoffs.put(loop, regs);
+					}
+					regs.add(reg);
+					return true;
 				}
 				acceptedKey = channel.register(getUnderlyingSelector(selector), SelectionKey.OP_READ, ctx.wrap(session));
 			}
 			catch (Throwable e) {
 				if (session == null) {
 					elogger.error(logger, "Unable to create session for accepted channel {}: {}", ctx.toString(channel), e);
+					if (ticket != null) {
+						ticket.release();
+					}
 					try {
 						channel.close();
 					}
 					catch (Exception ex) {
 						//Ignore
 					}
-					return key;
+					return true;
 				}
 				elogger.error(logger, "Unable to register channel {} with selector: {}", ctx.toString(channel), e);
 				fireCreatedEvent(session, channel);
@@ -438,18 +776,21 @@ public class SelectorLoop extends InternalSelectorLoop {
 			
 			if (acceptedKey != null) {
 				InternalSession first = session.getFirstInPipeline();
+				ChannelContext<?> acceptedCtx = ctx;
 					
 				if (first != null) {
-					ctx = ctx.wrap(session = first);
-					acceptedKey.attach(ctx);
+					acceptedCtx = ctx.wrap(session = first);
+					acceptedKey.attach(acceptedCtx);
 				}
 				if (fireCreatedEvent(session, channel)) {
 					if (debugEnabled) {
-						logger.debug("Channel {} is associated with {}", ctx.toString(channel), session);
+						logger.debug("Channel {} is associated with {}", acceptedCtx.toString(channel), session);
 					}
 					session.setSelectionKey(acceptedKey);
 					fireEvent(session, SessionEvent.OPENED);
-					return acceptedKey;
+					if (!acceptedKey.isValid()) {
+						handleInvalidKey(acceptedKey);
+					}
 				}
 				else {
 					fireEndingEvent(session, false);
@@ -467,7 +808,7 @@ public class SelectorLoop extends InternalSelectorLoop {
 				}
 			}
 		}
-		return key;
+		return true;
 	}
 	
 	final void handleConnecting(InternalSession session, final SelectionKey key) {
@@ -511,6 +852,9 @@ public class SelectorLoop extends InternalSelectorLoop {
 	
 	final int handleWriting(final StreamSession session, final SelectionKey key, int spinCount) {
 		long totalBytes = 0;
+		int spins = 0;
+		boolean partial = true;
+		boolean shaped = session.shaper != null || shaper != null;
 
 		if (traceEnabled) {
 			logger.trace("Writting to channel in {}", session);
@@ -535,13 +879,22 @@ public class SelectorLoop extends InternalSelectorLoop {
 							session.clearWriteInterestOps(key);
 							session.handleClosingInProgress();
 						}
+						partial = false;
 						break;
 					}
 					else {
-						long bytes = ((SocketChannel)key.channel()).write(b);
+						long bytes;
+						
+						if (shaped) {
+							bytes = shapedWrite((SocketChannel)key.channel(), b, shapingLimit(session.shaper, shaper, false));
+						}
+						else {
+							bytes = ((SocketChannel)key.channel()).write(b);
+						}
 
+						++spins;
 						if (bytes > 0) {
-							long currentTime = System.currentTimeMillis();
+							long currentTime = this.currentTime;
 							totalBytes += bytes;
 							--spinCount;
 
@@ -553,6 +906,14 @@ public class SelectorLoop extends InternalSelectorLoop {
 							if (session.compactOutBuffers(bytes)) {
 								session.clearWriteInterestOps(key);
 								session.handleClosingInProgress();
+								partial = false;
+								if (shaped) {
+									shapeWriting(session, key, bytes);
+								}
+								break;
+							}
+							if (shaped && shapeWriting(session, key, bytes)) {
+								spinCount = 0;
 								break;
 							}
 						}
@@ -565,7 +926,12 @@ public class SelectorLoop extends InternalSelectorLoop {
 						}
 					}
 				} while (spinCount > 0);
+				if (!partial && session.writeTrace != null) {
+					tracer.span(session.writeTrace, session, SpanKind.WRITE, session.writeTraceTime, System.nanoTime());
+					session.writeTrace = null;
+				}
 			}
+			metric.written(totalBytes, spins, partial);
 		}
 		catch (Throwable e) {
 			if (totalBytes > 0) {
@@ -584,6 +950,7 @@ public class SelectorLoop extends InternalSelectorLoop {
 	}
 	
 	final void handleReading(final StreamSession session, final SelectionKey key) {
+		long begin = tracerEnabled ? System.nanoTime() : 0;
 		int bytes;
 
 		if (traceEnabled) {
@@ -591,7 +958,12 @@ public class SelectorLoop extends InternalSelectorLoop {
 		}
 		
 		try {
-			bytes = ((SocketChannel)key.channel()).read(session.getInBuffer());
+			if (session.shaper != null || shaper != null) {
+				bytes = shapedRead((SocketChannel)key.channel(), session.getInBuffer(), shapingLimit(session.shaper, shaper, true));
+			}
+			else {
+				bytes = ((SocketChannel)key.channel()).read(session.getInBuffer());
+			}
 		}
 		catch (Throwable e) {
 			elogWarnOrError(logger, "Reading from channel in {} failed: {}", session, e);
@@ -600,15 +972,39 @@ public class SelectorLoop extends InternalSelectorLoop {
 		}
 		
 		if (bytes > 0) {
-			long currentTime = System.currentTimeMillis();
+			long currentTime = this.currentTime;
 			
 			if (traceEnabled) {
 				logger.trace("{} byte(s) read from channel in {}", bytes, session);
 			}
 			session.calculateThroughput(currentTime, false);
 			session.incReadBytes(bytes, currentTime);
+			if (session.shaper != null || shaper != null) {
+				shapeReading(session, key, bytes);
+			}
 			fireEvent(session, DataEvent.RECEIVED, bytes);
-			session.consumeInBuffer();
+			
+			//start tracing only if a message was read
+			Object trace = tracerEnabled ? tracer.start(session) : null;
+			
+			if (trace != null) {
+				long end = System.nanoTime();
+				
+				tracer.span(trace, session, SpanKind.READ, begin, end);
+				traceContext = trace;
+				try {
+					session.consumeInBuffer();
+				}
+				finally {
+					traceContext = null;
+				}
+				if (session.codec == null) {
+					tracer.span(trace, session, SpanKind.HANDLE, end, System.nanoTime());
+				}
+			}
+			else {
+				session.consumeInBuffer();
+			}
 		}
 		else if (bytes < 0){
 			if (debugEnabled) {
@@ -624,6 +1020,120 @@ public class SelectorLoop extends InternalSelectorLoop {
 		}
 	}
 	
+	private final void shapeReading(final StreamSession session, final SelectionKey key, int bytes) {
+		long currentNanoTime = this.currentNanoTime;
+		long delay = shape(session.shaper, shaper, bytes, currentNanoTime, true);
+		
+		if (delay > 0) {
+			long resumeTime = currentNanoTime + delay;
+			boolean wasThrottled;
+			
+			if (traceEnabled) {
+				logger.trace("Reading from channel in {} suspended by traffic shaping for {} ns", session, delay);
+			}
+			synchronized (session.getWriteLock()) {
+				wasThrottled = session.readThrottled || session.writeThrottled;
+				session.throttleRead(key, resumeTime);
+			}
+			throttled(session, resumeTime, wasThrottled);
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if the writing should be stopped.
+	 */
+	private final boolean shapeWriting(final StreamSession session, final SelectionKey key, long bytes) {
+		long currentNanoTime = this.currentNanoTime;
+		long delay = shape(session.shaper, shaper, bytes, currentNanoTime, false);
+		
+		if (delay > 0) {
+			long resumeTime = currentNanoTime + delay;
+			boolean wasThrottled = session.readThrottled || session.writeThrottled;
+			
+			if (traceEnabled) {
+				logger.trace("Writing to channel in {} suspended by traffic shaping for {} ns", session, delay);
+			}
+			session.throttleWrite(key, resumeTime);
+			throttled(session, resumeTime, wasThrottled);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the maximum number of bytes that can be transferred in one
+	 * operation without putting the shapers' buckets into debt. To avoid
+	 * transferring tiny chunks of data it is never less than 
+	 * {@link #MIN_SHAPED_BYTES}.
+	 */
+	private final long shapingLimit(TrafficShaper sessionShaper, TrafficShaper loopShaper, boolean read) {
+		long currentNanoTime = this.currentNanoTime;
+		long limit = Long.MAX_VALUE;
+		
+		if (sessionShaper != null) {
+			limit = read ? sessionShaper.getReadable(currentNanoTime) : sessionShaper.getWritable(currentNanoTime);
+		}
+		if (loopShaper != null) {
+			limit = Math.min(limit, read ? loopShaper.getReadable(currentNanoTime) : loopShaper.getWritable(currentNanoTime));
+		}
+		return Math.max(limit, MIN_SHAPED_BYTES);
+	}
+	
+	private static int shapedRead(SocketChannel channel, ByteBuffer buf, long limit) throws IOException {
+		if (buf.remaining() <= limit) {
+			return channel.read(buf);
+		}
+		
+		int prevLimit = buf.limit();
+		
+		buf.limit(buf.position() + (int)limit);
+		try {
+			return channel.read(buf);
+		}
+		finally {
+			buf.limit(prevLimit);
+		}
+	}
+	
+	private static long shapedWrite(SocketChannel channel, ByteBuffer[] bufs, long limit) throws IOException {
+		int last = 0;
+		
+		for (; last < bufs.length; ++last) {
+			int remaining = bufs[last].remaining();
+			
+			if (remaining >= limit) {
+				break;
+			}
+			limit -= remaining;
+		}
+		if (last == bufs.length) {
+			return channel.write(bufs);
+		}
+		
+		ByteBuffer buf = bufs[last];
+		int prevLimit = buf.limit();
+		
+		buf.limit(buf.position() + (int)limit);
+		try {
+			return channel.write(bufs, 0, last + 1);
+		}
+		finally {
+			buf.limit(prevLimit);
+		}
+	}
+	
+	private static long shape(TrafficShaper sessionShaper, TrafficShaper loopShaper, long bytes, long nanoTime, boolean read) {
+		long delay = 0;
+		
+		if (sessionShaper != null) {
+			delay = read ? sessionShaper.read(bytes, nanoTime) : sessionShaper.written(bytes, nanoTime);
+		}
+		if (loopShaper != null) {
+			delay = Math.max(delay, read ? loopShaper.read(bytes, nanoTime) : loopShaper.written(bytes, nanoTime));
+		}
+		return delay;
+	}
+	
 	final void fireEvent(final DatagramSession session, DataEvent event, long length, SocketAddress remoteAddress) {
 		if (traceEnabled) {
 			logger.trace("Firing event {} for {}", event.type(), session);
@@ -666,7 +1176,7 @@ public class SelectorLoop extends InternalSelectorLoop {
 		}
 		
 		if (bytes > 0) { 
-			long currentTime = System.currentTimeMillis();
+			long currentTime = this.currentTime;
 			
 			if (traceEnabled) {
 				if (remoteAddress == null) {
@@ -692,6 +1202,7 @@ public class SelectorLoop extends InternalSelectorLoop {
 		long totalBytes = 0;
 		long leftBytes = 0;
 		long bytes;
+		int spins = 0;
 		Throwable exception = null;
 		
 		if (traceEnabled) {
@@ -739,6 +1250,7 @@ public class SelectorLoop extends InternalSelectorLoop {
 					throw new NotYetConnectedException();
 				}
 				
+				++spins;
 				if (bytes == length) {
 					if (traceEnabled) {
 						logger.trace("{} byte(s) written to channel in {}", bytes, session);
@@ -764,9 +1276,11 @@ public class SelectorLoop extends InternalSelectorLoop {
 				}
 			}
 			
+			boolean partial = true;
+			
 			synchronized (session.getWriteLock()) {
 				if (totalBytes > 0) {
-					long currentTime = System.currentTimeMillis();
+					long currentTime = this.currentTime;
 					
 					session.calculateThroughput(currentTime, false);
 					session.incWrittenBytes(totalBytes, currentTime);
@@ -775,8 +1289,10 @@ public class SelectorLoop extends InternalSelectorLoop {
 				if (outQueue.isEmpty()) {
 					session.clearWriteInterestOps(key);
 					session.handleClosingInProgress();
+					partial = false;
 				}
 			}
+			metric.written(totalBytes, spins, partial);
 		}
 		catch (Throwable e) {
 			exception = e;
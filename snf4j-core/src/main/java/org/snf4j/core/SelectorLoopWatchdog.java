@@ -0,0 +1,293 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.snf4j.core.logger.ExceptionLogger;
+import org.snf4j.core.logger.IExceptionLogger;
+import org.snf4j.core.logger.ILogger;
+import org.snf4j.core.logger.LoggerFactory;
+import org.snf4j.core.metric.ISelectorLoopStallListener;
+import org.snf4j.core.metric.LatencyHistogram;
+
+/**
+ * A watchdog detecting dispatches of selector loops that run longer than a
+ * configured budget. As handlers and codecs are executed in the selector
+ * loop's thread, one slow dispatch delays all sessions processed by the loop.
+ * <p>
+ * For each watched selector loop the watchdog measures the duration of every
+ * dispatch (i.e. the handling of a selected key or the execution of a task).
+ * Durations exceeding the budget are recorded in the per-loop stall histogram
+ * and reported to the listener. In addition, a background thread of the
+ * watchdog periodically checks the watched loops and reports, together with
+ * the stack trace of the loop's thread, dispatches that are still running
+ * after exceeding the budget.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class SelectorLoopWatchdog {
+	
+	private final static ILogger LOGGER = LoggerFactory.getLogger(SelectorLoopWatchdog.class);
+	
+	private final IExceptionLogger elogger = ExceptionLogger.getInstance();
+	
+	private final long budget;
+	
+	private final long checkInterval;
+	
+	private final ISelectorLoopStallListener listener;
+	
+	private final CopyOnWriteArrayList<Watch> watches = new CopyOnWriteArrayList<Watch>();
+	
+	private final Object lock = new Object();
+	
+	private Thread thread;
+	
+	/**
+	 * Constructs a watchdog with the specified budget.
+	 * 
+	 * @param budget
+	 *            the maximum time in milliseconds a single dispatch may take
+	 * @param listener
+	 *            the listener to be notified about the stalls
+	 * @throws IllegalArgumentException
+	 *             if the budget is not positive
+	 * @throws NullPointerException
+	 *             if the listener is <code>null</code>
+	 */
+	public SelectorLoopWatchdog(long budget, ISelectorLoopStallListener listener) {
+		if (budget <= 0) {
+			throw new IllegalArgumentException("budget is not positive");
+		}
+		if (listener == null) {
+			throw new NullPointerException();
+		}
+		this.budget = budget * 1000000L;
+		this.listener = listener;
+		checkInterval = Math.max(1, budget / 2);
+	}
+	
+	/**
+	 * Returns the maximum time in milliseconds a single dispatch may take.
+	 * 
+	 * @return the budget in milliseconds
+	 */
+	public long getBudget() {
+		return budget / 1000000L;
+	}
+	
+	/**
+	 * Starts watching the specified selector loop. If the loop is already
+	 * watched by other watchdog it will be no longer watched by that watchdog.
+	 * 
+	 * @param loop
+	 *            the selector loop to watch
+	 * @throws NullPointerException
+	 *             if the loop is <code>null</code>
+	 */
+	public void watch(SelectorLoop loop) {
+		if (loop == null) {
+			throw new NullPointerException();
+		}
+		synchronized (lock) {
+			Watch prev = loop.watch;
+			
+			if (prev != null) {
+				if (prev.watchdog == this) {
+					return;
+				}
+				prev.watchdog.unwatch(loop);
+			}
+			
+			Watch watch = new Watch(loop);
+			
+			watches.add(watch);
+			loop.watch = watch;
+			if (thread == null) {
+				thread = new Thread(new Checker(), "snf4j-watchdog");
+				thread.setDaemon(true);
+				thread.start();
+			}
+		}
+	}
+	
+	/**
+	 * Stops watching the specified selector loop. The background thread of
+	 * this watchdog is stopped when no more selector loops are watched.
+	 * 
+	 * @param loop
+	 *            the selector loop
+	 */
+	public void unwatch(SelectorLoop loop) {
+		synchronized (lock) {
+			Watch watch = loop.watch;
+			
+			if (watch != null && watch.watchdog == this) {
+				loop.watch = null;
+				watches.remove(watch);
+				if (watches.isEmpty()) {
+					stopThread();
+				}
+			}
+		}
+	}
+	
+	private void stopThread() {
+		if (thread != null) {
+			thread.interrupt();
+			thread = null;
+		}
+	}
+	
+	/**
+	 * Stops watching all watched selector loops and stops the background
+	 * thread of this watchdog.
+	 */
+	public void stop() {
+		synchronized (lock) {
+			for (Watch watch: watches) {
+				if (watch.loop.watch == watch) {
+					watch.loop.watch = null;
+				}
+			}
+			watches.clear();
+			stopThread();
+		}
+	}
+	
+	/**
+	 * Returns the histogram of durations (in nanoseconds) of all dispatches
+	 * performed by the specified selector loop that overran the budget.
+	 * 
+	 * @param loop
+	 *            the selector loop
+	 * @return the stall histogram, or <code>null</code> if the selector loop
+	 *         is not watched by this watchdog
+	 */
+	public LatencyHistogram getStalls(SelectorLoop loop) {
+		Watch watch = loop.watch;
+		
+		return watch != null && watch.watchdog == this ? watch.stalls : null;
+	}
+	
+	void check() {
+		long now = System.nanoTime();
+		
+		for (Watch watch: watches) {
+			long begin = watch.begin;
+			
+			if (begin == 0 || begin == watch.reported || now - begin <= budget) {
+				continue;
+			}
+			
+			Thread thread = watch.loop.thread;
+			Object target = watch.target;
+			
+			if (thread == null || begin != watch.begin) {
+				continue;
+			}
+			
+			StackTraceElement[] stack = thread.getStackTrace();
+			
+			//make sure the stack was taken during the same dispatch
+			if (begin != watch.begin) {
+				continue;
+			}
+			watch.reported = begin;
+			try {
+				listener.stalled(watch.loop, target, now - begin, stack);
+			}
+			catch (Throwable e) {
+				elogger.error(LOGGER, "Unexpected exception thrown by stall listener: {}", e);
+			}
+		}
+	}
+	
+	final class Watch {
+		
+		final SelectorLoop loop;
+		
+		final SelectorLoopWatchdog watchdog = SelectorLoopWatchdog.this;
+		
+		final LatencyHistogram stalls = new LatencyHistogram();
+		
+		volatile Object target;
+		
+		volatile long begin;
+		
+		volatile long reported;
+		
+		Watch(SelectorLoop loop) {
+			this.loop = loop;
+		}
+		
+		final void begin(Object target) {
+			this.target = target;
+			begin = System.nanoTime();
+		}
+		
+		final void end() {
+			long duration = System.nanoTime() - begin;
+			Object target = this.target;
+			
+			begin = 0;
+			this.target = null;
+			if (duration > budget) {
+				stalls.record(duration);
+				try {
+					listener.overran(loop, target, duration);
+				}
+				catch (Throwable e) {
+					elogger.error(LOGGER, "Unexpected exception thrown by stall listener: {}", e);
+				}
+			}
+		}
+	}
+	
+	private final class Checker implements Runnable {
+
+		@Override
+		public void run() {
+			Thread current = Thread.currentThread();
+			
+			for (;;) {
+				synchronized (lock) {
+					if (thread != current) {
+						break;
+					}
+				}
+				try {
+					Thread.sleep(checkInterval);
+				}
+				catch (InterruptedException e) {
+					break;
+				}
+				check();
+			}
+		}
+	}
+}
@@ -66,6 +66,12 @@ public class StreamSession extends InternalSession implements IStreamSession {
 	/** Number of bytes in outBuffers */
 	private long outBuffersSize;
 	
+	/** The trace context of the queued bytes, guarded by the write lock */
+	Object writeTrace;
+	
+	/** The time the traced bytes were queued, guarded by the write lock */
+	long writeTraceTime;
+	
 	private final int minInBufferCapacity;
 	
 	private final int maxInBufferCapacity;
@@ -432,6 +438,13 @@ public class StreamSession extends InternalSession implements IStreamSession {
 				outBuffers = putToBuffers(outBuffers, allocator, minOutBufferCapacity,  data, offset, length, buffer);
 			}
 			outBuffersSize += length;
+			if (loop != null) {
+				loop.metric.queued(outBuffersSize);
+				if (loop.tracerEnabled && writeTrace == null) {
+					writeTrace = loop.traceContext(this);
+					writeTraceTime = System.nanoTime();
+				}
+			}
 			futureExpectedLen = outBuffersSize + getWrittenBytes();  
 
 			try {
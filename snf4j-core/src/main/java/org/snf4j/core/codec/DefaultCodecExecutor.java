@@ -27,9 +27,8 @@ package org.snf4j.core.codec;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.snf4j.core.IByteBufferHolder;
@@ -46,9 +45,17 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 
 	private final static int EVENT_COUNT = SessionEvent.values().length;
 	
+	private final static DecoderContext[] NO_DECODERS = new DecoderContext[0];
+	
+	private final static EncoderContext[] NO_ENCODERS = new EncoderContext[0];
+	
 	private int decodersVersion;
 	
-	private final Deque<DecoderContext> decoders = new LinkedList<DecoderContext>();
+	/** decoders in the order of execution */
+	private DecoderContext[] decoders = NO_DECODERS;
+	
+	/** index of the last decoder that produce an output */
+	private int lastDecoder;
 
 	private IBaseDecoder<?,?> baseDecoder;
 	
@@ -56,10 +63,21 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 	
 	private int encodersVersion;
 	
-	/** first encoder that produce an output */
-	private EncoderContext firstEncoder;
+	/** encoders in the order of execution */
+	private EncoderContext[] encoders = NO_ENCODERS;
 	
-	private final Deque<EncoderContext> encoders = new LinkedList<EncoderContext>();
+	/** index of the last encoder that produce an output */
+	private int lastEncoder;
+	
+	/** reusable lists for the output of intermediate encoders */
+	private final List<Object> encoded = new ArrayList<Object>(), encodedSpare = new ArrayList<Object>();
+
+	/** reusable lists for the output of intermediate decoders */
+	private final List<Object> decoded = new ArrayList<Object>(), decodedSpare = new ArrayList<Object>();
+	
+	private boolean encoding;
+	
+	private boolean decoding;
 	
 	private final InternalCodecPipeline pipeline = new InternalCodecPipeline();
 	
@@ -74,14 +92,16 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 	@Override
 	public final void syncDecoders(ISession session) {
 		if (pipeline.getCodecsVersion() != decodersVersion) {
-			decoders.clear();
+			List<DecoderContext> list = new ArrayList<DecoderContext>();
+			
 			baseDecoder = null;
 			hasDecoders = false;
+			lastDecoder = -1;
 			synchronized (pipeline.getLock()) {
 				CodecContext ctx = pipeline.getFirstDecoder();
 				
 				while (ctx != null) {
-					decoders.add((DecoderContext) ctx);
+					list.add((DecoderContext) ctx);
 					if (!ctx.isClogged()) {
 						if (!hasDecoders) {
 							if (((DecoderContext) ctx).getDecoder() instanceof IBaseDecoder<?,?>) {
@@ -89,9 +109,11 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 							}
 							hasDecoders = true;
 						}
+						lastDecoder = list.size()-1;
 					}
 					ctx = ctx.next;
 				}
+				decoders = list.toArray(NO_DECODERS);
 				decodersVersion = pipeline.getCodecsVersion();
 				syncEventDrivenCodecs(session);
 			}
@@ -101,18 +123,29 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 	@Override
 	public final void syncEncoders(ISession session) {
 		if (pipeline.getCodecsVersion() != encodersVersion) {
-			encoders.clear();
-			firstEncoder = null;
+			List<EncoderContext> list = new ArrayList<EncoderContext>();
+			int firstEncoder = -1;
+			
 			synchronized (pipeline.getLock()) {
 				CodecContext ctx = pipeline.getFirstEncoder();
 				
 				while (ctx != null) {
-					encoders.add((EncoderContext) ctx);
-					if (firstEncoder == null &&!ctx.isClogged()) {
-						firstEncoder = (EncoderContext) ctx;
+					if (firstEncoder == -1 && !ctx.isClogged()) {
+						firstEncoder = list.size();
 					}
+					list.add((EncoderContext) ctx);
 					ctx = ctx.next;
 				}
+				
+				int size = list.size();
+				EncoderContext[] encoders = new EncoderContext[size];
+				
+				//Encoders are executed in the reverse order
+				for (int i=0; i<size; ++i) {
+					encoders[i] = list.get(size-1-i);
+				}
+				this.encoders = encoders;
+				lastEncoder = firstEncoder == -1 ? -1 : size-1-firstEncoder;
 				encodersVersion = pipeline.getCodecsVersion();
 				syncEventDrivenCodecs(session);
 			}
@@ -208,45 +241,42 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<Object> encode(ISession session, ByteBuffer data) throws Exception {
-		Iterator<EncoderContext> i = encoders.descendingIterator();
+		EncoderContext[] encoders = this.encoders;
 		
-		if (i.hasNext()) {
-			EncoderContext ctx;
+		for (int i=0; i<encoders.length; ++i) {
+			EncoderContext ctx = encoders[i];
 			
-			do {
-				ctx = i.next();
-				if (ctx.isInboundByte()) {
-					if (ctx.isInboundByteArray()) {
-						byte[] dataArray = new byte[data.remaining()];
-						
-						if (ctx.isClogged()) {
-							data.duplicate().get(dataArray);
-							ctx.getEncoder().encode(session, dataArray, null);
-						}
-						else {
-							data.get(dataArray);
-							session.release(data);
-							return encode(session, dataArray, ctx, i);
-						}
+			if (ctx.isInboundByte()) {
+				if (ctx.isInboundByteArray()) {
+					byte[] dataArray = new byte[data.remaining()];
+					
+					if (ctx.isClogged()) {
+						data.duplicate().get(dataArray);
+						ctx.getEncoder().encode(session, dataArray, null);
 					}
-					else if (ctx.isInboundHolder()) {
-						if (ctx.isClogged()) {
-							ctx.getEncoder().encode(session, new SingleByteBufferHolder(data), null);
-						}
-						else {
-							return encode(session, new SingleByteBufferHolder(data), ctx, i);
-						}
+					else {
+						data.get(dataArray);
+						session.release(data);
+						return encode(session, dataArray, i);
+					}
+				}
+				else if (ctx.isInboundHolder()) {
+					if (ctx.isClogged()) {
+						ctx.getEncoder().encode(session, new SingleByteBufferHolder(data), null);
 					}
 					else {
-						if (ctx.isClogged()) {
-							ctx.getEncoder().encode(session, data, null);
-						}
-						else {
-							return encode(session, data, ctx, i);
-						}
+						return encode(session, new SingleByteBufferHolder(data), i);
 					}
 				}
-			} while (i.hasNext());
+				else {
+					if (ctx.isClogged()) {
+						ctx.getEncoder().encode(session, data, null);
+					}
+					else {
+						return encode(session, data, i);
+					}
+				}
+			}
 		}
 		return null;
 	}
@@ -295,50 +325,47 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<Object> encode(ISession session, IByteBufferHolder data) throws Exception {
-		Iterator<EncoderContext> i = encoders.descendingIterator();
+		EncoderContext[] encoders = this.encoders;
 		
-		if (i.hasNext()) {
-			EncoderContext ctx;
+		for (int i=0; i<encoders.length; ++i) {
+			EncoderContext ctx = encoders[i];
 			
-			do {
-				ctx = i.next();
-				if (ctx.isInboundByte()) {
-					if (ctx.isInboundByteArray()) {
-						if (ctx.isClogged()) {
-							ctx.getEncoder().encode(session, byteArray(session, data, true), null);
-						}
-						else {
-							return encode(session, byteArray(session, data, false), ctx, i);
-						}
+			if (ctx.isInboundByte()) {
+				if (ctx.isInboundByteArray()) {
+					if (ctx.isClogged()) {
+						ctx.getEncoder().encode(session, byteArray(session, data, true), null);
 					}
-					else if (ctx.isInboundHolder()) {
-						if (ctx.isClogged()) {
-							ctx.getEncoder().encode(session, data, null);
-						}
-						else {
-							return encode(session, data, ctx, i);
-						}
+					else {
+						return encode(session, byteArray(session, data, false), i);
+					}
+				}
+				else if (ctx.isInboundHolder()) {
+					if (ctx.isClogged()) {
+						ctx.getEncoder().encode(session, data, null);
 					}
 					else {
-						if (ctx.isClogged()) {
-							ByteBuffer[] bufs = data.toArray();
+						return encode(session, data, i);
+					}
+				}
+				else {
+					if (ctx.isClogged()) {
+						ByteBuffer[] bufs = data.toArray();
 
-							if (bufs.length == 1) {
-								ctx.getEncoder().encode(session, bufs[0], null);
-							}
-							else {
-								ByteBuffer buf = byteBuffer(session, data, true);
-								
-								ctx.getEncoder().encode(session, buf, null);
-								session.release(buf);
-							}
+						if (bufs.length == 1) {
+							ctx.getEncoder().encode(session, bufs[0], null);
 						}
 						else {
-							return encode(session, byteBuffer(session, data, false), ctx, i);
+							ByteBuffer buf = byteBuffer(session, data, true);
+							
+							ctx.getEncoder().encode(session, buf, null);
+							session.release(buf);
 						}
 					}
+					else {
+						return encode(session, byteBuffer(session, data, false), i);
+					}
 				}
-			} while (i.hasNext());
+			}
 		}
 		return null;
 	}
@@ -346,44 +373,41 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<Object> encode(ISession session, byte[] data) throws Exception {
-		Iterator<EncoderContext> i = encoders.descendingIterator();
+		EncoderContext[] encoders = this.encoders;
 		
-		if (i.hasNext()) {
-			EncoderContext ctx;
+		for (int i=0; i<encoders.length; ++i) {
+			EncoderContext ctx = encoders[i];
 			
-			do {
-				ctx = i.next();
-				if (ctx.isInboundByte()) {
-					if (ctx.isInboundByteArray()) {
-						if (ctx.isClogged()) {
-							ctx.getEncoder().encode(session, data, null);
-						}
-						else {
-							return encode(session, data, ctx, i);
-						}
+			if (ctx.isInboundByte()) {
+				if (ctx.isInboundByteArray()) {
+					if (ctx.isClogged()) {
+						ctx.getEncoder().encode(session, data, null);
+					}
+					else {
+						return encode(session, data, i);
 					}
-					else if (ctx.isInboundHolder()) {
-						IByteBufferHolder holder = new SingleByteBufferHolder(ByteBuffer.wrap(data));
+				}
+				else if (ctx.isInboundHolder()) {
+					IByteBufferHolder holder = new SingleByteBufferHolder(ByteBuffer.wrap(data));
 
-						if (ctx.isClogged()) {
-							ctx.getEncoder().encode(session, holder, null);
-						}
-						else {
-							return encode(session, holder, ctx, i);
-						}
+					if (ctx.isClogged()) {
+						ctx.getEncoder().encode(session, holder, null);
 					}
 					else {
-						ByteBuffer buffer = ByteBuffer.wrap(data);
-						
-						if (ctx.isClogged()) {
-							ctx.getEncoder().encode(session, buffer, null);
-						}
-						else {
-							return encode(session, buffer, ctx, i);
-						}
+						return encode(session, holder, i);
+					}
+				}
+				else {
+					ByteBuffer buffer = ByteBuffer.wrap(data);
+					
+					if (ctx.isClogged()) {
+						ctx.getEncoder().encode(session, buffer, null);
+					}
+					else {
+						return encode(session, buffer, i);
 					}
 				}
-			} while (i.hasNext());
+			}
 		}
 		return null;
 	}
@@ -391,78 +415,96 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<Object> encode(ISession session, Object msg) throws Exception {
-		Iterator<EncoderContext> i = encoders.descendingIterator();
+		EncoderContext[] encoders = this.encoders;
 		
-		if (i.hasNext()) {
-			EncoderContext ctx;
+		for (int i=0; i<encoders.length; ++i) {
+			EncoderContext ctx = encoders[i];
 			
-			do {
-				ctx = i.next();
-				if (ctx.getEncoder().getInboundType().isAssignableFrom(msg.getClass())) {
-					if (ctx.isClogged()) {
-						ctx.getEncoder().encode(session, msg, null);
-					}
-					else {
-						return encode(session, msg, ctx, i);
-					}
+			if (ctx.getEncoder().getInboundType().isAssignableFrom(msg.getClass())) {
+				if (ctx.isClogged()) {
+					ctx.getEncoder().encode(session, msg, null);
 				}
-			} while (i.hasNext());
+				else {
+					return encode(session, msg, i);
+				}
+			}
 		}
 		return null;
 	}
 
 	@SuppressWarnings("unchecked")
-	private final List<Object> encode(ISession session, Object data, EncoderContext ctx, Iterator<EncoderContext> i) throws Exception {
-		List<Object> out = new ArrayList<Object>();
-
-		ctx.getEncoder().encode(session, data, out);
-		if (out.isEmpty()) {
-			return out;
+	private final List<Object> encode(ISession session, Object data, int index) throws Exception {
+		EncoderContext[] encoders = this.encoders;
+		EncoderContext ctx = encoders[index];
+		boolean reentered = encoding;
+		List<Object> out, spare;
+		
+		if (reentered) {
+			out = new ArrayList<Object>();
+			spare = null;
+		}
+		else {
+			out = index == lastEncoder ? new ArrayList<Object>() : encoded;
+			spare = encodedSpare;
+			encoding = true;
 		}
-
-		List<Object> in = new ArrayList<Object>();
-		List<Object> tmp;
-		boolean onlyClogged = firstEncoder == ctx; 
 		
-		while (i.hasNext()) {
-			ctx = i.next();
-			if (ctx.isClogged()) {
-				for (Object o: out) {
-					if (onlyClogged) {
-						
-						//There are only clogged encoders left and they can support
-						//both byte or byte buffer as the inbound object
-						boolean bytes = o.getClass() == byte[].class;
-						
-						if (bytes) {
-							if (!ctx.isInboundByteArray()) {
-								o = ByteBuffer.wrap((byte[])o);
+		try {
+			ctx.getEncoder().encode(session, data, out);
+			if (out.isEmpty()) {
+				return out == encoded ? Collections.emptyList() : out;
+			}
+
+			List<Object> in;
+			boolean onlyClogged = index == lastEncoder; 
+
+			for (int i=index+1; i<encoders.length; ++i) {
+				ctx = encoders[i];
+				if (ctx.isClogged()) {
+					for (Object o: out) {
+						if (onlyClogged) {
+
+							//There are only clogged encoders left and they can support
+							//both byte or byte buffer as the inbound object
+							boolean bytes = o.getClass() == byte[].class;
+
+							if (bytes) {
+								if (!ctx.isInboundByteArray()) {
+									o = ByteBuffer.wrap((byte[])o);
+								}
 							}
-						}
-						else {
-							if (ctx.isInboundByteArray()) {
-								ByteBuffer dup = ((ByteBuffer)o).duplicate();
-								byte[] dataArray = new byte[dup.remaining()];
-								
-								((ByteBuffer)o).duplicate().get(dataArray);
-								o = dataArray;
+							else {
+								if (ctx.isInboundByteArray()) {
+									ByteBuffer dup = ((ByteBuffer)o).duplicate();
+									byte[] dataArray = new byte[dup.remaining()];
+
+									((ByteBuffer)o).duplicate().get(dataArray);
+									o = dataArray;
+								}
 							}
 						}
+						ctx.getEncoder().encode(session, o, null);
 					}
-					ctx.getEncoder().encode(session, o, null);
+					continue;
 				}
-				continue;
+				onlyClogged = i == lastEncoder; 
+				in = out;
+				out = i == lastEncoder || spare == null ? new ArrayList<Object>() : spare;
+				spare = reentered ? null : in;
+				for (Object o: in) {
+					ctx.getEncoder().encode(session, o, out);
+				}
+				in.clear();
 			}
-			onlyClogged |= firstEncoder == ctx; 
-			tmp = in;
-			in = out;
-			out = tmp;
-			for (Object o: in) {
-				ctx.getEncoder().encode(session, o, out);
+			return out;
+		}
+		finally {
+			if (!reentered) {
+				encoded.clear();
+				encodedSpare.clear();
+				encoding = false;
 			}
-			in.clear();
 		}
-		return out;
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -477,54 +519,64 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 	
 	@Override
 	public List<Object> decode(ISession session, byte[] data) throws Exception {
-		Iterator<DecoderContext> i = decoders.iterator();
+		DecoderContext[] decoders = this.decoders;
 		
-		if (!i.hasNext()) {
-			return null;
-		}
-
-		DecoderContext ctx = i.next();
+		for (int i=0; i<decoders.length; ++i) {
+			DecoderContext ctx = decoders[i];
 			
-		while (ctx.isClogged()) {
-			decode(session, ctx, data, null);
-			if (i.hasNext()) {
-				ctx = i.next();
+			if (ctx.isClogged()) {
+				decode(session, ctx, data, null);
+				continue;
 			}
-			else {
-				return null;
+			
+			boolean reentered = decoding;
+			List<Object> out = reentered || i == lastDecoder ? new ArrayList<Object>() : decoded;
+			
+			decoding = true;
+			try {
+				decode(session, ctx, data, out);
+				return decode(session, i, out, reentered);
+			}
+			finally {
+				decoded(reentered);
 			}
 		}
-
-		List<Object> out = new ArrayList<Object>();
-
-		decode(session, ctx, data, out);
-		return decode(session, i, out);
+		return null;
 	}
 	
 	@Override
 	public List<Object> decode(ISession session, ByteBuffer data) throws Exception {
-		Iterator<DecoderContext> i = decoders.iterator();
+		DecoderContext[] decoders = this.decoders;
 		
-		if (!i.hasNext()) {
-			return null;
-		}
-		
-		DecoderContext ctx = i.next();
-
-		while (ctx.isClogged()) {
-			decode(session, ctx, data);
-			if (i.hasNext()) {
-				ctx = i.next();
+		for (int i=0; i<decoders.length; ++i) {
+			DecoderContext ctx = decoders[i];
+			
+			if (ctx.isClogged()) {
+				decode(session, ctx, data);
+				continue;
+			}
+			
+			boolean reentered = decoding;
+			List<Object> out = reentered || i == lastDecoder ? new ArrayList<Object>() : decoded;
+			
+			decoding = true;
+			try {
+				decode(session, ctx, data, out);
+				return decode(session, i, out, reentered);
 			}
-			else {
-				return null;
+			finally {
+				decoded(reentered);
 			}
 		}
-
-		List<Object> out = new ArrayList<Object>();
-
-		decode(session, ctx, data, out);
-		return decode(session, i, out);
+		return null;
+	}
+	
+	private void decoded(boolean reentered) {
+		if (!reentered) {
+			decoded.clear();
+			decodedSpare.clear();
+			decoding = false;
+		}
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -555,26 +607,26 @@ public class DefaultCodecExecutor implements ICodecExecutor {
 	}
 	
 	@SuppressWarnings("unchecked")
-	private final List<Object> decode(ISession session, Iterator<DecoderContext> i, List<Object> out) throws Exception {
+	private final List<Object> decode(ISession session, int index, List<Object> out, boolean reentered) throws Exception {
 		if (out.isEmpty()) {
-			return out;
+			return out == decoded ? Collections.emptyList() : out;
 		}
 		
-		List<Object> in = new ArrayList<Object>();
-		List<Object> tmp;
+		DecoderContext[] decoders = this.decoders;
+		List<Object> in, spare = reentered ? null : decodedSpare;
 		DecoderContext ctx;
 		
-		while (i.hasNext()) {
-			ctx = i.next();
+		for (int i=index+1; i<decoders.length; ++i) {
+			ctx = decoders[i];
 			if (ctx.isClogged()) {
 				for (Object o: out) {
 					ctx.getDecoder().decode(session, o, null);
 				}
 				continue;
 			}
-			tmp = in;
 			in = out;
-			out = tmp;
+			out = i == lastDecoder || spare == null ? new ArrayList<Object>() : spare;
+			spare = reentered ? null : in;
 			for (Object o: in) {
 				ctx.getDecoder().decode(session, o, out);
 			}
@@ -0,0 +1,268 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.codec.lz4;
+
+import java.util.Arrays;
+
+import org.snf4j.core.codec.zip.DecompressionException;
+
+/**
+ * A pure Java implementation of the LZ4 block compression and decompression.
+ */
+final class Lz4 {
+	
+	/** The minimum length of a match */
+	final static int MIN_MATCH = 4;
+	
+	/** The number of the last bytes that are always literals */
+	final static int LAST_LITERALS = 5;
+	
+	/** The minimum distance between the start of the last match and the end of block */
+	final static int MF_LIMIT = 12;
+	
+	/** The maximum offset of a match */
+	final static int MAX_OFFSET = 0xffff;
+	
+	final static int HASH_LOG = 12;
+	
+	/** The size of the hash table used during the compression */
+	final static int HASH_SIZE = 1 << HASH_LOG;
+	
+	private final static int SKIP_TRIGGER = 6;
+	
+	private Lz4() {}
+	
+	/**
+	 * Returns the maximum length of compressed data for input data of the
+	 * specified length.
+	 * 
+	 * @param len the length of input data
+	 * @return the maximum length of compressed data
+	 */
+	static int maxCompressedLength(int len) {
+		return len + len / 255 + 16;
+	}
+	
+	private static int readInt(byte[] a, int i) {
+		return (a[i] & 0xff) 
+				| (a[i+1] & 0xff) << 8 
+				| (a[i+2] & 0xff) << 16 
+				| (a[i+3] & 0xff) << 24;
+	}
+	
+	private static int hash(int seq) {
+		return (seq * -1640531535) >>> (32 - HASH_LOG);
+	}
+	
+	private static int writeLength(byte[] dst, int off, int len) {
+		while (len >= 255) {
+			dst[off++] = (byte) 255;
+			len -= 255;
+		}
+		dst[off++] = (byte) len;
+		return off;
+	}
+	
+	private static int writeLiterals(byte[] src, int srcOff, int len, byte[] dst, int off, int token) {
+		if (len >= 15) {
+			dst[off++] = (byte) (0xf0 | token);
+			off = writeLength(dst, off, len - 15);
+		}
+		else {
+			dst[off++] = (byte) (len << 4 | token);
+		}
+		System.arraycopy(src, srcOff, dst, off, len);
+		return off + len;
+	}
+	
+	/**
+	 * Compresses input data into a LZ4 block.
+	 * 
+	 * @param src    the array with input data
+	 * @param srcOff the offset of input data
+	 * @param srcLen the length of input data
+	 * @param dst    the destination array, it should have at least
+	 *               {@link #maxCompressedLength(int)} bytes available
+	 * @param dstOff the offset in the destination array
+	 * @param table  the hash table with {@link #HASH_SIZE} entries
+	 * @return the length of compressed data
+	 */
+	static int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int[] table) {
+		int srcEnd = srcOff + srcLen;
+		int anchor = srcOff;
+		int off = dstOff;
+		
+		if (srcLen >= MF_LIMIT + 1) {
+			int mfLimit = srcEnd - MF_LIMIT;
+			int matchLimit = srcEnd - LAST_LITERALS;
+			int i = srcOff;
+			int searches = 1 << SKIP_TRIGGER;
+			
+			Arrays.fill(table, -1);
+			while (i < mfLimit) {
+				int seq = readInt(src, i);
+				int h = hash(seq);
+				int ref = table[h];
+				
+				table[h] = i;
+				if (ref < 0 || i - ref > MAX_OFFSET || readInt(src, ref) != seq) {
+					i += searches++ >>> SKIP_TRIGGER;
+					continue;
+				}
+				searches = 1 << SKIP_TRIGGER;
+				
+				//Extend the match backwards
+				while (i > anchor && ref > srcOff && src[i-1] == src[ref-1]) {
+					--i;
+					--ref;
+				}
+				
+				//Extend the match forwards
+				int len = MIN_MATCH;
+				
+				while (i + len < matchLimit && src[i+len] == src[ref+len]) {
+					++len;
+				}
+				
+				int ml = len - MIN_MATCH;
+				int offset = i - ref;
+				
+				off = writeLiterals(src, anchor, i - anchor, dst, off, ml >= 15 ? 15 : ml);
+				dst[off++] = (byte) offset;
+				dst[off++] = (byte) (offset >>> 8);
+				if (ml >= 15) {
+					off = writeLength(dst, off, ml - 15);
+				}
+				i += len;
+				anchor = i;
+				if (i < mfLimit) {
+					table[hash(readInt(src, i - 2))] = i - 2;
+				}
+			}
+		}
+		off = writeLiterals(src, anchor, srcEnd - anchor, dst, off, 0);
+		return off - dstOff;
+	}
+	
+	/**
+	 * Decompresses a LZ4 block.
+	 * 
+	 * @param src    the array with the block
+	 * @param srcOff the offset of the block
+	 * @param srcLen the length of the block
+	 * @param dst    the destination array
+	 * @param dstOff the offset in the destination array
+	 * @param dstLen the maximum number of bytes that can be decompressed
+	 * @return the length of decompressed data
+	 * @throws DecompressionException if the block is malformed
+	 */
+	static int decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) throws DecompressionException {
+		int srcEnd = srcOff + srcLen;
+		int dstEnd = dstOff + dstLen;
+		int i = srcOff;
+		int o = dstOff;
+		
+		for (;;) {
+			if (i >= srcEnd) {
+				throw new DecompressionException("decompression failure: unexpected end of block");
+			}
+			
+			int token = src[i++] & 0xff;
+			int len = token >>> 4;
+			
+			if (len == 15) {
+				int b;
+				
+				do {
+					if (i >= srcEnd) {
+						throw new DecompressionException("decompression failure: unexpected end of block");
+					}
+					b = src[i++] & 0xff;
+					len += b;
+					
+					//check in the loop to prevent from overflowing of the length
+					if (len > srcEnd - i || len > dstEnd - o) {
+						throw new DecompressionException("decompression failure: literals out of bounds");
+					}
+				} while (b == 255);
+			}
+			if (len > srcEnd - i || len > dstEnd - o) {
+				throw new DecompressionException("decompression failure: literals out of bounds");
+			}
+			System.arraycopy(src, i, dst, o, len);
+			i += len;
+			o += len;
+			if (i == srcEnd) {
+				break;
+			}
+			
+			if (srcEnd - i < 2) {
+				throw new DecompressionException("decompression failure: unexpected end of block");
+			}
+			
+			int offset = (src[i] & 0xff) | (src[i+1] & 0xff) << 8;
+			
+			i += 2;
+			if (offset == 0 || offset > o - dstOff) {
+				throw new DecompressionException("decompression failure: invalid match offset");
+			}
+			len = token & 0x0f;
+			if (len == 15) {
+				int b;
+				
+				do {
+					if (i >= srcEnd) {
+						throw new DecompressionException("decompression failure: unexpected end of block");
+					}
+					b = src[i++] & 0xff;
+					len += b;
+					
+					//check in the loop to prevent from overflowing of the length
+					if (len > dstEnd - o) {
+						throw new DecompressionException("decompression failure: match out of bounds");
+					}
+				} while (b == 255);
+			}
+			len += MIN_MATCH;
+			if (len > dstEnd - o) {
+				throw new DecompressionException("decompression failure: match out of bounds");
+			}
+			
+			int ref = o - offset;
+			
+			if (offset >= len) {
+				System.arraycopy(dst, ref, dst, o, len);
+				o += len;
+			}
+			else {
+				for (int end = o + len; o < end;) {
+					dst[o++] = dst[ref++];
+				}
+			}
+		}
+		return o - dstOff;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.codec.lz4;
+
+import java.nio.ByteBuffer;
+
+import org.snf4j.core.codec.ICodec;
+import org.snf4j.core.codec.ICodecPipeline;
+import org.snf4j.core.codec.IEventDrivenCodec;
+import org.snf4j.core.session.ISession;
+
+/**
+ * Base class for the LZ4 encoders and decoders.
+ * <p>
+ * The compressed data is split into length-prefixed frames. Each frame
+ * starts with a header consisting of two 32-bit integers (in the big-endian
+ * order): the length of the frame's content with the most significant bit set
+ * if the content is not compressed, and the length of the original
+ * (decompressed) data. The header is followed by the content, that is a
+ * LZ4 block or the original data if it could not be compressed.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public abstract class Lz4Codec implements ICodec<ByteBuffer,ByteBuffer>, IEventDrivenCodec {
+	
+	/** The default maximum length of original data in one frame */
+	public final static int DEFAULT_BLOCK_SIZE = 65536;
+	
+	/** The length of the frame header */
+	final static int HEADER_LENGTH = 8;
+	
+	/** The flag in the length of the frame's content marking not compressed content */
+	final static int RAW_FLAG = 0x80000000;
+	
+	/** The maximum allowed block size */
+	final static int MAX_BLOCK_SIZE = 1 << 24;
+	
+	/** The maximum length of original data in one frame */
+	final int blockSize;
+	
+	/** Tells if the input buffers should be released */
+	final boolean release;
+	
+	Lz4Codec(int blockSize, boolean release) {
+		if (blockSize < 1 || blockSize > MAX_BLOCK_SIZE) {
+			throw new IllegalArgumentException("blockSize is out of range");
+		}
+		this.blockSize = blockSize;
+		this.release = release;
+	}
+	
+	/**
+	 * Returns the maximum length of original data in one frame.
+	 * 
+	 * @return the maximum length of original data in one frame
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+	
+	@Override
+	public Class<ByteBuffer> getInboundType() {
+		return ByteBuffer.class;
+	}
+
+	@Override
+	public Class<ByteBuffer> getOutboundType() {
+		return ByteBuffer.class;
+	}
+	
+	/**
+	 * Does nothing.
+	 */
+	@Override
+	public void added(ISession session, ICodecPipeline pipeline) {
+	}
+
+	/**
+	 * Does nothing.
+	 */
+	@Override
+	public void removed(ISession session, ICodecPipeline pipeline) {
+	}
+}
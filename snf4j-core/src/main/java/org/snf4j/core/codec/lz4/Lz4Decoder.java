@@ -0,0 +1,250 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.codec.lz4;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import org.snf4j.core.codec.IDecoder;
+import org.snf4j.core.codec.zip.DecompressionException;
+import org.snf4j.core.handler.SessionEvent;
+import org.snf4j.core.session.ISession;
+
+/**
+ * Decompresses length-prefixed frames with the content in the LZ4 block
+ * format. See {@link Lz4Codec} for the format of the frames.
+ * <p>
+ * Frames can be split between input buffers in any way. Frames with the
+ * length of original data greater than the configured block size are
+ * rejected. The decompressed data is stored in buffers allocated by the
+ * session's allocator.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class Lz4Decoder extends Lz4Codec implements IDecoder<ByteBuffer,ByteBuffer> {
+	
+	private ByteBuffer pending;
+	
+	private byte[] in;
+	
+	private byte[] out;
+	
+	/**
+	 * Creates a new LZ4 decoder with the specified block size.
+	 * 
+	 * @param blockSize the maximum length of original data in one frame
+	 * @param release   determines if the input buffers should be released after
+	 *                  the decompression
+	 * @throws IllegalArgumentException if the block size is less than 1 or
+	 *                                  greater than 16777216
+	 */
+	public Lz4Decoder(int blockSize, boolean release) {
+		super(blockSize, release);
+	}
+
+	/**
+	 * Creates a new LZ4 decoder with the specified block size. The input buffers
+	 * will not be released after the decompression.
+	 * 
+	 * @param blockSize the maximum length of original data in one frame
+	 * @throws IllegalArgumentException if the block size is less than 1 or
+	 *                                  greater than 16777216
+	 */
+	public Lz4Decoder(int blockSize) {
+		super(blockSize, false);
+	}
+	
+	/**
+	 * Creates a new LZ4 decoder with the default block size (65536). The input
+	 * buffers will not be released after the decompression.
+	 */
+	public Lz4Decoder() {
+		super(DEFAULT_BLOCK_SIZE, false);
+	}
+	
+	private int contentLength(ByteBuffer data, int off) throws DecompressionException {
+		int len = data.getInt(off);
+		int originalLen = data.getInt(off + 4);
+		boolean raw = (len & RAW_FLAG) != 0;
+		
+		len &= ~RAW_FLAG;
+		if (originalLen < 0 || originalLen > blockSize) {
+			throw new DecompressionException("decompression failure: frame too big");
+		}
+		if (raw ? len != originalLen : len > Lz4.maxCompressedLength(originalLen)) {
+			throw new DecompressionException("decompression failure: invalid frame header");
+		}
+		return len;
+	}
+	
+	private static int copy(ByteBuffer src, ByteBuffer dst, int len) {
+		int n = Math.min(len, src.remaining());
+		ByteBuffer dup = src.duplicate();
+		
+		dup.limit(dup.position() + n);
+		dst.put(dup);
+		src.position(src.position() + n);
+		return n;
+	}
+	
+	@Override
+	public void decode(ISession session, ByteBuffer data, List<ByteBuffer> out) throws Exception {
+		data.order(ByteOrder.BIG_ENDIAN);
+		if (pending != null) {
+			if (pending.position() < HEADER_LENGTH) {
+				copy(data, pending, HEADER_LENGTH - pending.position());
+				if (pending.position() < HEADER_LENGTH) {
+					complete(session, data);
+					return;
+				}
+				
+				int len = contentLength(pending, 0);
+				
+				if (pending.capacity() < HEADER_LENGTH + len) {
+					ByteBuffer tmp = ByteBuffer.allocate(HEADER_LENGTH + len);
+					
+					pending.flip();
+					tmp.put(pending);
+					pending = tmp;
+				}
+				pending.limit(HEADER_LENGTH + len);
+			}
+			copy(data, pending, pending.remaining());
+			if (pending.hasRemaining()) {
+				complete(session, data);
+				return;
+			}
+			pending.flip();
+			decode(session, pending, pending.position(), out);
+			pending = null;
+		}
+		
+		int off = data.position();
+		
+		while (data.limit() - off >= HEADER_LENGTH) {
+			int len = contentLength(data, off);
+			
+			if (data.limit() - off < HEADER_LENGTH + len) {
+				break;
+			}
+			decode(session, data, off, out);
+			off += HEADER_LENGTH + len;
+		}
+		data.position(off);
+		if (data.hasRemaining()) {
+			pending = ByteBuffer.allocate(data.remaining() < HEADER_LENGTH 
+					? HEADER_LENGTH 
+					: HEADER_LENGTH + contentLength(data, off));
+			pending.put(data);
+		}
+		complete(session, data);
+	}
+	
+	private void complete(ISession session, ByteBuffer data) {
+		if (release) {
+			session.release(data);
+		}
+	}
+	
+	private void decode(ISession session, ByteBuffer data, int off, List<ByteBuffer> out) throws Exception {
+		int len = data.getInt(off);
+		int originalLen = data.getInt(off + 4);
+		
+		off += HEADER_LENGTH;
+		if (originalLen == 0) {
+			return;
+		}
+		
+		ByteBuffer decoded = session.allocate(originalLen);
+		
+		if ((len & RAW_FLAG) != 0) {
+			ByteBuffer dup = data.duplicate();
+			
+			dup.limit(off + originalLen).position(off);
+			decoded.put(dup);
+		}
+		else {
+			byte[] src;
+			int srcOff;
+			
+			if (data.hasArray()) {
+				src = data.array();
+				srcOff = data.arrayOffset() + off;
+			}
+			else {
+				if (in == null || in.length < len) {
+					in = new byte[Lz4.maxCompressedLength(blockSize)];
+				}
+				src = in;
+				srcOff = 0;
+				ByteBuffer dup = data.duplicate();
+				
+				dup.position(off);
+				dup.get(src, 0, len);
+			}
+			
+			int decodedLen;
+			
+			try {
+				if (decoded.hasArray()) {
+					decodedLen = Lz4.decompress(src, srcOff, len, decoded.array(), decoded.arrayOffset() + decoded.position(), originalLen);
+					decoded.position(decoded.position() + decodedLen);
+				}
+				else {
+					if (this.out == null) {
+						this.out = new byte[blockSize];
+					}
+					decodedLen = Lz4.decompress(src, srcOff, len, this.out, 0, originalLen);
+					decoded.put(this.out, 0, decodedLen);
+				}
+			}
+			catch (DecompressionException e) {
+				session.release(decoded);
+				throw e;
+			}
+			if (decodedLen != originalLen) {
+				session.release(decoded);
+				throw new DecompressionException("decompression failure: invalid length of decompressed data");
+			}
+		}
+		decoded.flip();
+		out.add(decoded);
+	}
+
+	/**
+	 * Releases the internal buffers when the associated session is ending
+	 * ({@link SessionEvent#ENDING}).
+	 */
+	@Override
+	public void event(ISession session, SessionEvent event) {
+		if (event == SessionEvent.ENDING) {
+			pending = null;
+			in = null;
+			out = null;
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.codec.lz4;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import org.snf4j.core.codec.IEncoder;
+import org.snf4j.core.handler.SessionEvent;
+import org.snf4j.core.session.ISession;
+
+/**
+ * Compresses input data into length-prefixed frames with the content in the
+ * LZ4 block format. See {@link Lz4Codec} for the format of the frames.
+ * <p>
+ * The input data stored in heap buffers is compressed directly from their
+ * backing arrays. The output frames are stored in buffers allocated by the
+ * session's allocator.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class Lz4Encoder extends Lz4Codec implements IEncoder<ByteBuffer,ByteBuffer> {
+	
+	private int[] table;
+	
+	private byte[] in;
+	
+	private byte[] out;
+	
+	/**
+	 * Creates a new LZ4 encoder with the specified block size.
+	 * 
+	 * @param blockSize the maximum length of original data in one frame
+	 * @param release   determines if the input buffers should be released after
+	 *                  the compression
+	 * @throws IllegalArgumentException if the block size is less than 1 or
+	 *                                  greater than 16777216
+	 */
+	public Lz4Encoder(int blockSize, boolean release) {
+		super(blockSize, release);
+	}
+
+	/**
+	 * Creates a new LZ4 encoder with the specified block size. The input buffers
+	 * will not be released after the compression.
+	 * 
+	 * @param blockSize the maximum length of original data in one frame
+	 * @throws IllegalArgumentException if the block size is less than 1 or
+	 *                                  greater than 16777216
+	 */
+	public Lz4Encoder(int blockSize) {
+		super(blockSize, false);
+	}
+	
+	/**
+	 * Creates a new LZ4 encoder with the default block size (65536). The input
+	 * buffers will not be released after the compression.
+	 */
+	public Lz4Encoder() {
+		super(DEFAULT_BLOCK_SIZE, false);
+	}
+	
+	@Override
+	public void encode(ISession session, ByteBuffer data, List<ByteBuffer> out) throws Exception {
+		if (table == null) {
+			table = new int[Lz4.HASH_SIZE];
+		}
+		
+		while (data.hasRemaining()) {
+			int len = Math.min(blockSize, data.remaining());
+			byte[] src;
+			int srcOff;
+			
+			if (data.hasArray()) {
+				src = data.array();
+				srcOff = data.arrayOffset() + data.position();
+			}
+			else {
+				if (in == null || in.length < len) {
+					in = new byte[blockSize];
+				}
+				src = in;
+				srcOff = 0;
+				data.duplicate().get(src, 0, len);
+			}
+			
+			int maxLen = Lz4.maxCompressedLength(len);
+			ByteBuffer frame = session.allocate(HEADER_LENGTH + maxLen);
+			int compressedLen;
+			
+			frame.order(ByteOrder.BIG_ENDIAN);
+			if (frame.hasArray()) {
+				compressedLen = Lz4.compress(src, srcOff, len, frame.array(), frame.arrayOffset() + frame.position() + HEADER_LENGTH, table);
+				if (compressedLen < len) {
+					frame.putInt(compressedLen);
+					frame.putInt(len);
+					frame.position(frame.position() + compressedLen);
+				}
+			}
+			else {
+				if (this.out == null || this.out.length < maxLen) {
+					this.out = new byte[Lz4.maxCompressedLength(blockSize)];
+				}
+				compressedLen = Lz4.compress(src, srcOff, len, this.out, 0, table);
+				if (compressedLen < len) {
+					frame.putInt(compressedLen);
+					frame.putInt(len);
+					frame.put(this.out, 0, compressedLen);
+				}
+			}
+			if (compressedLen >= len) {
+				frame.putInt(RAW_FLAG | len);
+				frame.putInt(len);
+				frame.put(src, srcOff, len);
+			}
+			data.position(data.position() + len);
+			frame.flip();
+			out.add(frame);
+		}
+		if (release) {
+			session.release(data);
+		}
+	}
+
+	/**
+	 * Releases the internal buffers when the associated session is ending
+	 * ({@link SessionEvent#ENDING}).
+	 */
+	@Override
+	public void event(ISession session, SessionEvent event) {
+		if (event == SessionEvent.ENDING) {
+			table = null;
+			in = null;
+			out = null;
+		}
+	}
+}
@@ -94,11 +94,19 @@ public class GzipEncoder extends ZlibEncoder {
 	 */
 	@Override
 	protected void preDeflate(ISession session, byte[] in, ByteBuffer out) {
+		preDeflate(session, in, 0, in.length, out);
+	}
+
+	/**
+	 * Generates the gzip header.
+	 */
+	@Override
+	protected void preDeflate(ISession session, byte[] in, int off, int len, ByteBuffer out) {
 		if (!header) {
 			out.put(HEADER);
 			header = true;
 		}
-		crc.update(in);
+		crc.update(in, off, len);
 	}
 
 	/**
@@ -0,0 +1,164 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.codec.zip;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.snf4j.core.codec.ICodecPipeline;
+import org.snf4j.core.codec.IDecoder;
+import org.snf4j.core.codec.IEventDrivenCodec;
+import org.snf4j.core.handler.SessionEvent;
+import org.snf4j.core.session.ISession;
+
+/**
+ * Decompresses a byte buffer by using the specified zlib (or gzip) decoder.
+ * <p>
+ * The input data stored in heap buffers is decompressed directly from their
+ * backing arrays without copying it to new arrays. The output data is stored
+ * in buffers allocated by the session's allocator, so it can be stored in
+ * direct buffers.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class ZlibBufferDecoder implements IDecoder<ByteBuffer,ByteBuffer>, IEventDrivenCodec {
+
+	private final ZlibDecoder decoder;
+	
+	private final boolean release;
+	
+	/**
+	 * Constructs a buffer decoder with the specified zlib (or gzip) decoder.
+	 * 
+	 * @param decoder the zlib (or gzip) decoder performing the decompression. It
+	 *                should not be used directly after passing it to this
+	 *                constructor
+	 * @param release determines if the input buffers should be released after
+	 *                the decompression
+	 * @throws NullPointerException if the decoder is null
+	 */
+	public ZlibBufferDecoder(ZlibDecoder decoder, boolean release) {
+		if (decoder == null) {
+			throw new NullPointerException("decoder is null");
+		}
+		this.decoder = decoder;
+		this.release = release;
+		decoder.allocateBuffers = true;
+	}
+
+	/**
+	 * Constructs a buffer decoder with the specified zlib (or gzip) decoder. The
+	 * input buffers will not be released after the decompression.
+	 * 
+	 * @param decoder the zlib (or gzip) decoder performing the decompression. It
+	 *                should not be used directly after passing it to this
+	 *                constructor
+	 * @throws NullPointerException if the decoder is null
+	 */
+	public ZlibBufferDecoder(ZlibDecoder decoder) {
+		this(decoder, false);
+	}
+	
+	/**
+	 * Returns the zlib (or gzip) decoder performing the decompression.
+	 * 
+	 * @return the zlib (or gzip) decoder
+	 */
+	public ZlibDecoder getDecoder() {
+		return decoder;
+	}
+	
+	@Override
+	public Class<ByteBuffer> getInboundType() {
+		return ByteBuffer.class;
+	}
+
+	@Override
+	public Class<ByteBuffer> getOutboundType() {
+		return ByteBuffer.class;
+	}
+
+	@Override
+	public void decode(ISession session, ByteBuffer data, List<ByteBuffer> out) throws Exception {
+		int len = data.remaining();
+		
+		if (data.hasArray()) {
+			byte[] array = data.array();
+			int size = out.size();
+			
+			decoder.decode(session, array, data.arrayOffset() + data.position(), len, out);
+			data.position(data.limit());
+			if (release) {
+				
+				//Not compressed data passed to the output cannot share the released buffer
+				for (int i=size; i<out.size(); ++i) {
+					ByteBuffer buf = out.get(i);
+					
+					if (buf.hasArray() && buf.array() == array) {
+						ByteBuffer copy = ByteBuffer.allocate(buf.remaining());
+						
+						copy.put(buf);
+						copy.flip();
+						out.set(i, copy);
+					}
+				}
+			}
+		}
+		else {
+			byte[] bytes = new byte[len];
+			
+			data.get(bytes);
+			decoder.decode(session, bytes, 0, len, out);
+		}
+		if (release) {
+			session.release(data);
+		}
+	}
+
+	/**
+	 * Forwards the event to the zlib (or gzip) decoder.
+	 */
+	@Override
+	public void added(ISession session, ICodecPipeline pipeline) {
+		decoder.added(session, pipeline);
+	}
+
+	/**
+	 * Forwards the event to the zlib (or gzip) decoder.
+	 */
+	@Override
+	public void event(ISession session, SessionEvent event) {
+		decoder.event(session, event);
+	}
+
+	/**
+	 * Forwards the event to the zlib (or gzip) decoder.
+	 */
+	@Override
+	public void removed(ISession session, ICodecPipeline pipeline) {
+		decoder.removed(session, pipeline);
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.codec.zip;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.snf4j.core.codec.ICodecPipeline;
+import org.snf4j.core.codec.IEncoder;
+import org.snf4j.core.codec.IEventDrivenCodec;
+import org.snf4j.core.handler.SessionEvent;
+import org.snf4j.core.session.ISession;
+
+/**
+ * Compresses a byte buffer by using the specified zlib (or gzip) encoder.
+ * <p>
+ * The input data stored in heap buffers is compressed directly from their
+ * backing arrays without copying it to new arrays. The output data is stored
+ * in buffers allocated by the session's allocator, so it can be stored in
+ * direct buffers.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class ZlibBufferEncoder implements IEncoder<ByteBuffer,ByteBuffer>, IEventDrivenCodec {
+
+	private final ZlibEncoder encoder;
+	
+	private final boolean release;
+	
+	private byte[] array;
+	
+	/**
+	 * Constructs a buffer encoder with the specified zlib (or gzip) encoder.
+	 * 
+	 * @param encoder the zlib (or gzip) encoder performing the compression. It
+	 *                should not be used directly after passing it to this
+	 *                constructor
+	 * @param release determines if the input buffers should be released after
+	 *                the compression
+	 * @throws NullPointerException if the encoder is null
+	 */
+	public ZlibBufferEncoder(ZlibEncoder encoder, boolean release) {
+		if (encoder == null) {
+			throw new NullPointerException("encoder is null");
+		}
+		this.encoder = encoder;
+		this.release = release;
+		encoder.allocateBuffers = true;
+	}
+
+	/**
+	 * Constructs a buffer encoder with the specified zlib (or gzip) encoder. The
+	 * input buffers will not be released after the compression.
+	 * 
+	 * @param encoder the zlib (or gzip) encoder performing the compression. It
+	 *                should not be used directly after passing it to this
+	 *                constructor
+	 * @throws NullPointerException if the encoder is null
+	 */
+	public ZlibBufferEncoder(ZlibEncoder encoder) {
+		this(encoder, false);
+	}
+	
+	/**
+	 * Returns the zlib (or gzip) encoder performing the compression.
+	 * 
+	 * @return the zlib (or gzip) encoder
+	 */
+	public ZlibEncoder getEncoder() {
+		return encoder;
+	}
+	
+	@Override
+	public Class<ByteBuffer> getInboundType() {
+		return ByteBuffer.class;
+	}
+
+	@Override
+	public Class<ByteBuffer> getOutboundType() {
+		return ByteBuffer.class;
+	}
+
+	@Override
+	public void encode(ISession session, ByteBuffer data, List<ByteBuffer> out) throws Exception {
+		int len = data.remaining();
+		
+		if (encoder.isFinishing()) {
+			
+			//Not compressed data is passed to the output without any change
+			byte[] bytes = new byte[len];
+			
+			data.get(bytes);
+			encoder.encode(session, bytes, 0, len, out);
+		}
+		else if (data.hasArray()) {
+			encoder.encode(session, data.array(), data.arrayOffset() + data.position(), len, out);
+			data.position(data.limit());
+		}
+		else {
+			if (array == null || array.length < len) {
+				array = new byte[Math.max(len, ZlibCodec.CHUNK_SIZE)];
+			}
+			data.get(array, 0, len);
+			encoder.encode(session, array, 0, len, out);
+		}
+		if (release) {
+			session.release(data);
+		}
+	}
+
+	/**
+	 * Forwards the event to the zlib (or gzip) encoder.
+	 */
+	@Override
+	public void added(ISession session, ICodecPipeline pipeline) {
+		encoder.added(session, pipeline);
+	}
+
+	/**
+	 * Forwards the event to the zlib (or gzip) encoder.
+	 */
+	@Override
+	public void event(ISession session, SessionEvent event) {
+		encoder.event(session, event);
+	}
+
+	/**
+	 * Forwards the event to the zlib (or gzip) encoder.
+	 */
+	@Override
+	public void removed(ISession session, ICodecPipeline pipeline) {
+		encoder.removed(session, pipeline);
+	}
+}
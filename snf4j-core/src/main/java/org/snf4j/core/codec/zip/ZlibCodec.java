@@ -37,6 +37,9 @@ import org.snf4j.core.codec.ICodec;
  * @author <a href="http://snf4j.org">SNF4J.ORG</a>
  */
 public class ZlibCodec implements ICodec<byte[],ByteBuffer> {
+	
+	/** The size of chunks used to exchange data with direct buffers */
+	final static int CHUNK_SIZE = 8192;
 
 	/**
 	 * Modes determining how the
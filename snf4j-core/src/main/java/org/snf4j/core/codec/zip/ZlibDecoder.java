@@ -57,6 +57,11 @@ public class ZlibDecoder extends ZlibCodec implements IDecoder<byte[],ByteBuffer
 	
 	private ByteBuffer in;
 	
+	/** Tells if the output buffers should be allocated by the session */
+	boolean allocateBuffers;
+	
+	private byte[] chunk;
+	
 	/**
 	 * Creates a new zlib decoder with the default mode ({@link ZlibCodec.Mode#ZLIB
 	 * ZLIB}).
@@ -106,6 +111,25 @@ public class ZlibDecoder extends ZlibCodec implements IDecoder<byte[],ByteBuffer
 		this.dictionary = dictionary;
 	}
 	
+	/**
+	 * Creates a new zlib decoder with the specified decompressor. It can be
+	 * used, for example, to create a decoder with a decompressor taken from a
+	 * pool.
+	 * <p>
+	 * NOTE: The decompressor should be ready for a new set of input data and it
+	 * will be ended by the {@link #end(Inflater)} method.
+	 * 
+	 * @param inflater the decompressor
+	 * @throws NullPointerException if the decompressor is null
+	 */
+	protected ZlibDecoder(Inflater inflater) {
+		if (inflater == null) {
+			throw new NullPointerException("inflater is null");
+		}
+		this.inflater = inflater;
+		dictionary = null;
+	}
+	
 	private static boolean nowrap(short cmfflg) {
 
 		/*
@@ -116,6 +140,18 @@ public class ZlibDecoder extends ZlibCodec implements IDecoder<byte[],ByteBuffer
 		return (cmfflg & 0xFF00) != 0x7800 || cmfflg % 31 != 0;
 	}
 	
+	/**
+	 * Called to end the decompressor when it is no longer needed by this
+	 * decoder. By default it discards the decompressor by calling the
+	 * {@link Inflater#end()} method. It can be overridden, for example, to
+	 * return the decompressor to a pool.
+	 * 
+	 * @param inflater the decompressor to end
+	 */
+	protected void end(Inflater inflater) {
+		inflater.end();
+	}
+	
 	/**
 	 * Returns upper bound on the decompressed size.
 	 * 
@@ -181,11 +217,34 @@ public class ZlibDecoder extends ZlibCodec implements IDecoder<byte[],ByteBuffer
 	 */
 	@Override
 	public void decode(ISession session, byte[] data, List<ByteBuffer> out) throws Exception {
-		int dataLen = data.length;
-
+		decode0(session, data, 0, data.length, out);
+	}
+	
+	/**
+	 * Decompresses the input data stored in a part of an array.
+	 * <p>
+	 * After returning this decoder does not hold any reference to the array, so
+	 * the array can be reused. However, if the decompression has been already
+	 * finished, the output list may contain a buffer wrapping the not
+	 * decompressed part of the array.
+	 * 
+	 * @param session the session object the decoder is associated with
+	 * @param data    the array with the compressed input data
+	 * @param off     the offset of the input data in the array
+	 * @param len     the length of the input data
+	 * @param out     the list to which the decompressed output data should be
+	 *                added
+	 * @throws Exception if an error has occurred
+	 */
+	public void decode(ISession session, byte[] data, int off, int len, List<ByteBuffer> out) throws Exception {
+		decode0(session, data, off, len, out);
+		detach(data);
+	}
+	
+	private void decode0(ISession session, byte[] data, int off, int dataLen, List<ByteBuffer> out) throws Exception {
 		if (finished) {
 			if (dataLen > 0) {
-				out.add(ByteBuffer.wrap(data));
+				out.add(ByteBuffer.wrap(data, off, dataLen));
 			}
 			return;
 		}
@@ -195,13 +254,13 @@ public class ZlibDecoder extends ZlibCodec implements IDecoder<byte[],ByteBuffer
 		}
 		
 		if (in == null) {
-			in = ByteBuffer.wrap(data);
+			in = ByteBuffer.wrap(data, off, dataLen);
 		}
 		else {
 			ByteBuffer tmp = ByteBuffer.allocate(dataLen + in.remaining());
 			
 			tmp.put(in);
-			tmp.put(data);
+			tmp.put(data, off, dataLen);
 			tmp.flip();
 			in = tmp;
 		}
@@ -219,20 +278,18 @@ public class ZlibDecoder extends ZlibCodec implements IDecoder<byte[],ByteBuffer
 
 			if (in.hasRemaining()) {
 				int inflateBound = inflateBound(in.remaining());
-				ByteBuffer inflated = ByteBuffer.allocate(inflateBound);
+				ByteBuffer inflated = allocate(session, inflateBound);
 				int len;
 
 				inflater.setInput(in.array(), in.position(), in.remaining());
 				try {
 					while (!inflater.needsInput()) {
-						len = inflater.inflate(inflated.array(), inflated.position(), inflated.remaining());
+						len = inflate(session, inflated);
 						if (len > 0) {
-							postInflate(session, inflated.array(), inflated.position(), len);
-							inflated.position(inflated.position() + len);
 							if (!inflated.hasRemaining()) {
 								inflated.flip();
 								out.add(inflated);
-								inflated = ByteBuffer.allocate(inflateBound);
+								inflated = allocate(session, inflateBound);
 							}
 						}
 						else if (inflater.needsDictionary()) {
@@ -255,13 +312,16 @@ public class ZlibDecoder extends ZlibCodec implements IDecoder<byte[],ByteBuffer
 					inflated.flip();
 					out.add(inflated);
 				}
+				else if (allocateBuffers) {
+					session.release(inflated);
+				}
 				in.position(in.position() + (in.remaining() - inflater.getRemaining()));
 			}
 		}
 		
 		if (finishing) {
 			if (finished = postFinish(session, in)) {
-				inflater.end();
+				end(inflater);
 				inflater = null;
 				if (in.hasRemaining()) {
 					out.add(in);
@@ -274,6 +334,49 @@ public class ZlibDecoder extends ZlibCodec implements IDecoder<byte[],ByteBuffer
 		}
 	}
 
+	private void detach(byte[] array) {
+		if (in != null && in.array() == array) {
+			ByteBuffer tmp = ByteBuffer.allocate(in.remaining());
+			
+			tmp.put(in.duplicate());
+			tmp.flip();
+			in = tmp;
+		}
+	}
+	
+	private ByteBuffer allocate(ISession session, int capacity) {
+		return allocateBuffers ? session.allocate(capacity) : ByteBuffer.allocate(capacity);
+	}
+	
+	private int inflate(ISession session, ByteBuffer out) throws Exception {
+		byte[] array;
+		int off, len;
+		
+		if (out.hasArray()) {
+			array = out.array();
+			off = out.arrayOffset() + out.position();
+			len = inflater.inflate(array, off, out.remaining());
+			if (len > 0) {
+				out.position(out.position() + len);
+			}
+		}
+		else {
+			if (chunk == null) {
+				chunk = new byte[CHUNK_SIZE];
+			}
+			array = chunk;
+			off = 0;
+			len = inflater.inflate(array, 0, Math.min(chunk.length, out.remaining()));
+			if (len > 0) {
+				out.put(array, 0, len);
+			}
+		}
+		if (len > 0) {
+			postInflate(session, array, off, len);
+		}
+		return len;
+	}
+	
 	/**
 	 * Does nothing.
 	 */
@@ -288,7 +391,7 @@ public class ZlibDecoder extends ZlibCodec implements IDecoder<byte[],ByteBuffer
 	@Override
 	public void event(ISession session, SessionEvent event) {
 		if (event == SessionEvent.ENDING && !finished) {
-			inflater.end();
+			end(inflater);
 			inflater = null;
 			finished = true;
 		}
@@ -26,6 +26,7 @@
 package org.snf4j.core.codec.zip;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.zip.Deflater;
 
@@ -52,6 +53,17 @@ public class ZlibEncoder extends ZlibCodec implements IEncoder<byte[], ByteBuffe
 	
 	private volatile boolean finished;
 	
+	/** Tells if the output buffers should be allocated by the session */
+	boolean allocateBuffers;
+	
+	private byte[] chunk;
+	
+	/**
+	 * Tells if the {@link #preDeflate(ISession, byte[], ByteBuffer)} method
+	 * should be called for input data stored in a part of an array
+	 */
+	private final boolean arrayPreDeflate;
+	
 	/**
 	 * Creates a new zlib encoder with the default compression level ({@code 6}) and
 	 * the default mode ({@link ZlibCodec.Mode#ZLIB ZLIB}).
@@ -109,6 +121,31 @@ public class ZlibEncoder extends ZlibCodec implements IEncoder<byte[], ByteBuffe
 		boolean nowrap = mode == Mode.RAW;
 		
 		deflater = new Deflater(level, nowrap);
+		
+		//only subclasses may override it
+		arrayPreDeflate = getClass() != ZlibEncoder.class;
+	}
+	
+	/**
+	 * Creates a new zlib encoder with the specified compressor. It can be used,
+	 * for example, to create an encoder with a compressor taken from a pool.
+	 * <p>
+	 * NOTE: The compressor should be ready for a new set of input data and it
+	 * will be ended by the {@link #end(Deflater)} method. Encoders created by
+	 * this constructor do not call the
+	 * {@link #preDeflate(ISession, byte[], ByteBuffer)} method, so subclasses
+	 * should override the {@link #preDeflate(ISession, byte[], int, int, ByteBuffer)}
+	 * method instead.
+	 * 
+	 * @param deflater the compressor
+	 * @throws NullPointerException if the compressor is null
+	 */
+	protected ZlibEncoder(Deflater deflater) {
+		if (deflater == null) {
+			throw new NullPointerException("deflater is null");
+		}
+		this.deflater = deflater;
+		arrayPreDeflate = false;
 	}
 	
 	/**
@@ -176,6 +213,33 @@ public class ZlibEncoder extends ZlibCodec implements IEncoder<byte[], ByteBuffe
 	protected void preDeflate(ISession session, byte[] in, ByteBuffer out) throws Exception {
 	}
 	
+	/**
+	 * Called right before compressing of the input data that is stored in a
+	 * part of an array.
+	 * <p>
+	 * By default, for subclasses created with the compression level, it calls
+	 * the {@link #preDeflate(ISession, byte[], ByteBuffer)} method with the input
+	 * data copied to a new array (only if the input data does not fill the whole
+	 * array). Subclasses should override this method to avoid the copying.
+	 * 
+	 * @param session the session object the encoder is associated with
+	 * @param in      the array with the uncompressed input data
+	 * @param off     the offset of the input data in the array
+	 * @param len     the length of the input data
+	 * @param out     the output buffer
+	 * @throws Exception if an error has occurred
+	 */
+	protected void preDeflate(ISession session, byte[] in, int off, int len, ByteBuffer out) throws Exception {
+		if (arrayPreDeflate) {
+			if (off == 0 && len == in.length) {
+				preDeflate(session, in, out);
+			}
+			else {
+				preDeflate(session, Arrays.copyOfRange(in, off, off + len), out);
+			}
+		}
+	}
+	
 	/**
 	 * Called right before finishing of the compression. It can be used, for
 	 * example, to generate a customized header if the compression was finished
@@ -199,6 +263,18 @@ public class ZlibEncoder extends ZlibCodec implements IEncoder<byte[], ByteBuffe
 	protected void postFinish(ISession session, ByteBuffer out) throws Exception {
 	}
 
+	/**
+	 * Called to end the compressor when it is no longer needed by this encoder.
+	 * By default it discards the compressor by calling the
+	 * {@link Deflater#end()} method. It can be overridden, for example, to
+	 * return the compressor to a pool.
+	 * 
+	 * @param deflater the compressor to end
+	 */
+	protected void end(Deflater deflater) {
+		deflater.end();
+	}
+	
 	/**
 	 * Requests finishing of the compression. Any data processed by this encoder
 	 * after calling this method will not be compressed (will be passed to the
@@ -222,40 +298,57 @@ public class ZlibEncoder extends ZlibCodec implements IEncoder<byte[], ByteBuffe
 	 */
 	@Override
 	public void encode(ISession session, byte[] data, List<ByteBuffer> out) throws Exception {
-		int len, dataLen = data.length;
-		
+		encode(session, data, 0, data.length, out);
+	}
+	
+	/**
+	 * Compresses the input data stored in a part of an array.
+	 * <p>
+	 * After returning this encoder does not hold any reference to the array, so
+	 * the array can be reused. However, if the compression has been already
+	 * finished, the output list may contain a buffer wrapping the not compressed
+	 * part of the array.
+	 * 
+	 * @param session the session object the encoder is associated with
+	 * @param data    the array with the uncompressed input data
+	 * @param off     the offset of the input data in the array
+	 * @param dataLen the length of the input data
+	 * @param out     the list to which the compressed output data should be
+	 *                added
+	 * @throws Exception if an error has occurred
+	 */
+	public void encode(ISession session, byte[] data, int off, int dataLen, List<ByteBuffer> out) throws Exception {
 		if (finished) {
 			if (dataLen > 0) {
-				out.add(ByteBuffer.wrap(data));
+				out.add(ByteBuffer.wrap(data, off, dataLen));
 			}
 			return;
 		}
 		
 		if (finish) {
-			ByteBuffer footer = ByteBuffer.allocate(deflateBound(0));
+			ByteBuffer footer = allocate(session, deflateBound(0));
 			
 			preFinish(session, footer);
 			deflater.finish();
 			while (!deflater.finished()) {
 				for(;;) {
-					len = deflater.deflate(footer.array(), footer.position(), footer.remaining(), Deflater.SYNC_FLUSH);
-					footer.position(footer.position() + len);
+					deflate(footer, Deflater.SYNC_FLUSH);
 					if (!footer.hasRemaining()) {
 						footer.flip();
 						out.add(footer);
-						footer = ByteBuffer.allocate(deflateBound(0));
+						footer = allocate(session, deflateBound(0));
 						continue;
 					}
 					break;
 				}
 			}
 			postFinish(session, footer);
-			deflater.end();
+			end(deflater);
 			deflater = null;
 			finished = true;
 			footer.flip();
 			out.add(footer);
-			encode(session, data, out);
+			encode(session, data, off, dataLen, out);
 			return;
 		}
 		
@@ -264,19 +357,18 @@ public class ZlibEncoder extends ZlibCodec implements IEncoder<byte[], ByteBuffe
 			return;
 		}
 		
-		ByteBuffer deflated = ByteBuffer.allocate(deflateBound(dataLen));
+		ByteBuffer deflated = allocate(session, deflateBound(dataLen));
 		
-		preDeflate(session, data, deflated);
+		preDeflate(session, data, off, dataLen, deflated);
 		
-		deflater.setInput(data);
+		deflater.setInput(data, off, dataLen);
 		while (!deflater.needsInput()) {
 			for(;;) {
-				len = deflater.deflate(deflated.array(), deflated.position(), deflated.remaining(), Deflater.SYNC_FLUSH);
-				deflated.position(deflated.position() + len);
+				deflate(deflated, Deflater.SYNC_FLUSH);
 				if (!deflated.hasRemaining()) {
 					deflated.flip();
 					out.add(deflated);
-					deflated = ByteBuffer.allocate(deflateBound(0));
+					deflated = allocate(session, deflateBound(0));
 					continue;
 				}
 				deflated.flip();
@@ -285,6 +377,37 @@ public class ZlibEncoder extends ZlibCodec implements IEncoder<byte[], ByteBuffe
 			}
 		}
 	}
+	
+	final boolean isFinishing() {
+		return finish || finished;
+	}
+	
+	private ByteBuffer allocate(ISession session, int capacity) {
+		return allocateBuffers ? session.allocate(capacity) : ByteBuffer.allocate(capacity);
+	}
+	
+	private void deflate(ByteBuffer out, int flush) {
+		if (out.hasArray()) {
+			int len = deflater.deflate(out.array(), out.arrayOffset() + out.position(), out.remaining(), flush);
+			
+			out.position(out.position() + len);
+			return;
+		}
+		
+		int len, max;
+		
+		if (chunk == null) {
+			chunk = new byte[CHUNK_SIZE];
+		}
+		while (out.hasRemaining()) {
+			max = Math.min(chunk.length, out.remaining());
+			len = deflater.deflate(chunk, 0, max, flush);
+			out.put(chunk, 0, len);
+			if (len < max) {
+				break;
+			}
+		}
+	}
 
 	/**
 	 * Does nothing.
@@ -300,7 +423,7 @@ public class ZlibEncoder extends ZlibCodec implements IEncoder<byte[], ByteBuffe
 	@Override
 	public void event(ISession session, SessionEvent event) {
 		if (event == SessionEvent.ENDING && !finished) {
-			deflater.end();
+			end(deflater);
 			deflater = null;
 			finished = true;
 		}
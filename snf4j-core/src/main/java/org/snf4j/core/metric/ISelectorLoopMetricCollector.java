@@ -0,0 +1,118 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.metric;
+
+/**
+ * Collects metric data from a selector loop and the sessions it processes.
+ * <p>
+ * Except the {@link #wakeup} and {@link #queued} methods, all methods are
+ * called in the thread of the selector loop. All times are in nanoseconds.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public interface ISelectorLoopMetricCollector {
+
+	/**
+	 * Called when the selector of the associated selector loop was woken up
+	 * from other thread.
+	 */
+	void wakeup();
+	
+	/**
+	 * Called after each selection operation performed by the associated
+	 * selector loop.
+	 * 
+	 * @param keys
+	 *            the number of the selected keys
+	 * @param workTime
+	 *            the time the selector loop spent processing I/O operations
+	 *            before the selection operation, or 0 if it was not measured
+	 * @param waitTime
+	 *            the time the selection operation was blocked, or 0 if it did
+	 *            not block
+	 */
+	void selected(int keys, long workTime, long waitTime);
+	
+	/**
+	 * Called when a task was executed by the associated selector loop.
+	 * 
+	 * @param latency
+	 *            the time the task was waiting in the queue, or 0 if it was not
+	 *            measured
+	 * @param time
+	 *            the execution time of the task
+	 */
+	void task(long latency, long time);
+	
+	/**
+	 * Called when data was written to a channel of a stream-oriented session
+	 * or datagrams were sent by a datagram-oriented session.
+	 * 
+	 * @param bytes
+	 *            the number of the bytes written
+	 * @param spins
+	 *            the number of the write operations performed on the channel
+	 * @param partial
+	 *            <code>true</code> if not all pending data could be written
+	 */
+	void written(long bytes, int spins, boolean partial);
+	
+	/**
+	 * Called when data was added to the output buffers of a stream-oriented
+	 * session. This method may be called in any thread.
+	 * 
+	 * @param size
+	 *            the total size in bytes of the data pending in the output
+	 *            buffers
+	 */
+	void queued(long size);
+	
+	/**
+	 * Called when an outbound message was processed by the encoders in a codec
+	 * pipeline.
+	 * 
+	 * @param time
+	 *            the encoding time
+	 */
+	void encoded(long time);
+	
+	/**
+	 * Called when inbound data was processed by the decoders in a codec
+	 * pipeline.
+	 * 
+	 * @param time
+	 *            the decoding time
+	 */
+	void decoded(long time);
+	
+	/**
+	 * Called when a handshake of an engine-driven session finished.
+	 * 
+	 * @param time
+	 *            the handshake duration
+	 */
+	void handshake(long time);
+}
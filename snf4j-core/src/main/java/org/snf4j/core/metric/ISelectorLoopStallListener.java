@@ -0,0 +1,72 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.metric;
+
+import org.snf4j.core.SelectorLoop;
+
+/**
+ * Listens for dispatches performed by a selector loop that overran the
+ * budget configured in the {@link org.snf4j.core.SelectorLoopWatchdog
+ * SelectorLoopWatchdog}.
+ * <p>
+ * A dispatch is either the handling of a selected key, in which case the
+ * target is the session associated with the key (or its channel if the key is
+ * not associated with any session), or the execution of a task, in which case
+ * the target is the executed task.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public interface ISelectorLoopStallListener {
+
+	/**
+	 * Called in the thread of the watchdog when a dispatch has been running
+	 * longer than the budget and is still not finished. It is called only once
+	 * for each stalled dispatch.
+	 * 
+	 * @param loop
+	 *            the stalled selector loop
+	 * @param target
+	 *            the target of the stalled dispatch
+	 * @param duration
+	 *            the time in nanoseconds the dispatch has been running so far
+	 * @param stack
+	 *            the stack trace of the stalled selector loop's thread
+	 */
+	void stalled(SelectorLoop loop, Object target, long duration, StackTraceElement[] stack);
+	
+	/**
+	 * Called in the thread of the selector loop when a dispatch that overran
+	 * the budget has finished.
+	 * 
+	 * @param loop
+	 *            the selector loop
+	 * @param target
+	 *            the target of the dispatch
+	 * @param duration
+	 *            the time in nanoseconds the dispatch took
+	 */
+	void overran(SelectorLoop loop, Object target, long duration);
+}
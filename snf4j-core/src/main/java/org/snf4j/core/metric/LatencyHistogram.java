@@ -0,0 +1,212 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.metric;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values (e.g. latencies in nanoseconds) with
+ * logarithmic buckets. Each power of two range is divided into 8 linear
+ * sub-buckets so the recorded values are reproduced with the relative error
+ * not greater than 12.5% while the histogram has a fixed size and the
+ * recording does not allocate any memory.
+ * <p>
+ * This implementation is thread safe.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class LatencyHistogram {
+	
+	private final static int SUB_BITS = 3;
+	
+	private final static int SUB_BUCKETS = 1 << SUB_BITS;
+	
+	private final static int BUCKETS = (64 - SUB_BITS) << SUB_BITS;
+	
+	private final AtomicLongArray counts;
+	
+	private final LongAdder count = new LongAdder();
+	
+	private final LongAdder sum = new LongAdder();
+	
+	private final AtomicLong max = new AtomicLong();
+	
+	/**
+	 * Constructs an empty histogram.
+	 */
+	public LatencyHistogram() {
+		counts = new AtomicLongArray(BUCKETS);
+	}
+	
+	private LatencyHistogram(LatencyHistogram histogram) {
+		counts = new AtomicLongArray(BUCKETS);
+		for (int i=0; i<BUCKETS; ++i) {
+			long c = histogram.counts.get(i);
+			
+			if (c != 0) {
+				counts.set(i, c);
+			}
+		}
+		count.add(histogram.count.sum());
+		sum.add(histogram.sum.sum());
+		max.set(histogram.max.get());
+	}
+	
+	static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return value < 0 ? 0 : (int) value;
+		}
+		
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		
+		return ((exponent - SUB_BITS + 1) << SUB_BITS) + (int)((value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+	}
+	
+	static long lowest(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		return (long)(SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << ((index >>> SUB_BITS) - 1);
+	}
+	
+	static long highest(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		return lowest(index) + (1L << ((index >>> SUB_BITS) - 1)) - 1;
+	}
+	
+	/**
+	 * Records a value in this histogram. Negative values are recorded as 0.
+	 * 
+	 * @param value
+	 *            the value to record
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(index(value));
+		count.increment();
+		sum.add(value);
+		
+		long current;
+		
+		while (value > (current = max.get())) {
+			if (max.compareAndSet(current, value)) {
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Gets the number of values recorded in this histogram.
+	 * 
+	 * @return the number of recorded values
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Gets the sum of values recorded in this histogram.
+	 * 
+	 * @return the sum of recorded values
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+	
+	/**
+	 * Gets the maximum value recorded in this histogram.
+	 * 
+	 * @return the maximum value, or 0 if no value has been recorded yet
+	 */
+	public long getMax() {
+		return max.get();
+	}
+	
+	/**
+	 * Gets the mean of values recorded in this histogram.
+	 * 
+	 * @return the mean, or 0 if no value has been recorded yet
+	 */
+	public double getMean() {
+		long count = getCount();
+		
+		return count == 0 ? 0 : (double)getSum() / count;
+	}
+	
+	/**
+	 * Gets the value at given percentile. The returned value is the highest
+	 * value that is equivalent (i.e. stored in the same bucket) to the value
+	 * being at the percentile, but not greater than the maximum recorded value.
+	 * 
+	 * @param percentile
+	 *            the percentile in the range from 0 to 100
+	 * @return the value at the percentile, or 0 if no value has been recorded
+	 *         yet
+	 * @throws IllegalArgumentException
+	 *             if the percentile is out of the range
+	 */
+	public long getPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("percentile is out of range");
+		}
+		
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		
+		for (int i=0; i<BUCKETS; ++i) {
+			total += counts[i] = this.counts.get(i);
+		}
+		if (total == 0) {
+			return 0;
+		}
+		
+		long rank = Math.max(1, (long)Math.ceil(percentile * total / 100));
+		long max = getMax();
+		
+		for (int i=0; i<BUCKETS; ++i) {
+			rank -= counts[i];
+			if (rank <= 0) {
+				return Math.min(highest(i), max);
+			}
+		}
+		return max;
+	}
+	
+	/**
+	 * Returns a copy of this histogram with the values recorded so far.
+	 * 
+	 * @return the snapshot of this histogram
+	 */
+	public LatencyHistogram snapshot() {
+		return new LatencyHistogram(this);
+	}
+}
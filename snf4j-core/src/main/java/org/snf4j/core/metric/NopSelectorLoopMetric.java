@@ -0,0 +1,76 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.metric;
+
+/**
+ * A metric collector that ignores all the metric data. It is used by default
+ * by the selector loops.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public final class NopSelectorLoopMetric implements ISelectorLoopMetricCollector {
+
+	/**
+	 * A constant holding the metric collector that ignores all the metric
+	 * data.
+	 */
+	public final static NopSelectorLoopMetric DEFAULT = new NopSelectorLoopMetric();
+	
+	private NopSelectorLoopMetric() {
+	}
+	
+	@Override
+	public void wakeup() {
+	}
+
+	@Override
+	public void selected(int keys, long workTime, long waitTime) {
+	}
+
+	@Override
+	public void task(long latency, long time) {
+	}
+
+	@Override
+	public void written(long bytes, int spins, boolean partial) {
+	}
+
+	@Override
+	public void queued(long size) {
+	}
+
+	@Override
+	public void encoded(long time) {
+	}
+
+	@Override
+	public void decoded(long time) {
+	}
+
+	@Override
+	public void handshake(long time) {
+	}
+}
@@ -0,0 +1,319 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.metric;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metric for a selector loop. Counters are backed by the {@link LongAdder}
+ * and times are recorded in the {@link LatencyHistogram}s so the recording has
+ * a low overhead even if the metric is shared by many selector loops.
+ * <p>
+ * A copy of the metric data collected so far can be taken with
+ * the {@link #snapshot} method.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class SelectorLoopMetric implements ISelectorLoopMetricCollector {
+	
+	private final LongAdder wakeupCount = new LongAdder();
+
+	private final LongAdder selectCount = new LongAdder();
+	
+	private final LongAdder emptySelectCount = new LongAdder();
+	
+	private final LongAdder selectedKeyCount = new LongAdder();
+	
+	private final LongAdder writeCount = new LongAdder();
+	
+	private final LongAdder writeSpinCount = new LongAdder();
+	
+	private final LongAdder partialWriteCount = new LongAdder();
+	
+	private final LongAdder writtenBytes = new LongAdder();
+	
+	private final LatencyHistogram workTime;
+	
+	private final LatencyHistogram waitTime;
+	
+	private final LatencyHistogram taskLatency;
+
+	private final LatencyHistogram taskTime;
+	
+	private final LatencyHistogram queueSize;
+	
+	private final LatencyHistogram encodeTime;
+	
+	private final LatencyHistogram decodeTime;
+	
+	private final LatencyHistogram handshakeTime;
+	
+	/**
+	 * Constructs an empty metric.
+	 */
+	public SelectorLoopMetric() {
+		workTime = new LatencyHistogram();
+		waitTime = new LatencyHistogram();
+		taskLatency = new LatencyHistogram();
+		taskTime = new LatencyHistogram();
+		queueSize = new LatencyHistogram();
+		encodeTime = new LatencyHistogram();
+		decodeTime = new LatencyHistogram();
+		handshakeTime = new LatencyHistogram();
+	}
+	
+	private SelectorLoopMetric(SelectorLoopMetric metric) {
+		wakeupCount.add(metric.wakeupCount.sum());
+		selectCount.add(metric.selectCount.sum());
+		emptySelectCount.add(metric.emptySelectCount.sum());
+		selectedKeyCount.add(metric.selectedKeyCount.sum());
+		writeCount.add(metric.writeCount.sum());
+		writeSpinCount.add(metric.writeSpinCount.sum());
+		partialWriteCount.add(metric.partialWriteCount.sum());
+		writtenBytes.add(metric.writtenBytes.sum());
+		workTime = metric.workTime.snapshot();
+		waitTime = metric.waitTime.snapshot();
+		taskLatency = metric.taskLatency.snapshot();
+		taskTime = metric.taskTime.snapshot();
+		queueSize = metric.queueSize.snapshot();
+		encodeTime = metric.encodeTime.snapshot();
+		decodeTime = metric.decodeTime.snapshot();
+		handshakeTime = metric.handshakeTime.snapshot();
+	}
+	
+	@Override
+	public void wakeup() {
+		wakeupCount.increment();
+	}
+
+	@Override
+	public void selected(int keys, long workTime, long waitTime) {
+		selectCount.increment();
+		if (keys == 0) {
+			emptySelectCount.increment();
+		}
+		else {
+			selectedKeyCount.add(keys);
+		}
+		if (workTime != 0) {
+			this.workTime.record(workTime);
+		}
+		if (waitTime != 0) {
+			this.waitTime.record(waitTime);
+		}
+	}
+
+	@Override
+	public void task(long latency, long time) {
+		taskLatency.record(latency);
+		taskTime.record(time);
+	}
+
+	@Override
+	public void written(long bytes, int spins, boolean partial) {
+		writeCount.increment();
+		writeSpinCount.add(spins);
+		writtenBytes.add(bytes);
+		if (partial) {
+			partialWriteCount.increment();
+		}
+	}
+
+	@Override
+	public void queued(long size) {
+		queueSize.record(size);
+	}
+
+	@Override
+	public void encoded(long time) {
+		encodeTime.record(time);
+	}
+
+	@Override
+	public void decoded(long time) {
+		decodeTime.record(time);
+	}
+
+	@Override
+	public void handshake(long time) {
+		handshakeTime.record(time);
+	}
+	
+	/**
+	 * Returns a copy of this metric with the data collected so far.
+	 * 
+	 * @return the snapshot of this metric
+	 */
+	public SelectorLoopMetric snapshot() {
+		return new SelectorLoopMetric(this);
+	}
+	
+	/**
+	 * Gets the number of times the selector was woken up from other threads.
+	 * 
+	 * @return the number of wakeups
+	 */
+	public long getWakeupCount() {
+		return wakeupCount.sum();
+	}
+	
+	/**
+	 * Gets the number of selection operations.
+	 * 
+	 * @return the number of selection operations
+	 */
+	public long getSelectCount() {
+		return selectCount.sum();
+	}
+
+	/**
+	 * Gets the number of selection operations that selected no key.
+	 * 
+	 * @return the number of empty selection operations
+	 */
+	public long getEmptySelectCount() {
+		return emptySelectCount.sum();
+	}
+	
+	/**
+	 * Gets the total number of keys selected by the selection operations.
+	 * 
+	 * @return the number of selected keys
+	 */
+	public long getSelectedKeyCount() {
+		return selectedKeyCount.sum();
+	}
+	
+	/**
+	 * Gets the number of times the sessions were handled for writing.
+	 * 
+	 * @return the number of writes
+	 */
+	public long getWriteCount() {
+		return writeCount.sum();
+	}
+
+	/**
+	 * Gets the total number of write operations performed on the channels.
+	 * 
+	 * @return the number of write operations
+	 */
+	public long getWriteSpinCount() {
+		return writeSpinCount.sum();
+	}
+	
+	/**
+	 * Gets the number of writes that did not write all pending data.
+	 * 
+	 * @return the number of partial writes
+	 */
+	public long getPartialWriteCount() {
+		return partialWriteCount.sum();
+	}
+	
+	/**
+	 * Gets the total number of bytes written to the channels.
+	 * 
+	 * @return the number of written bytes
+	 */
+	public long getWrittenBytes() {
+		return writtenBytes.sum();
+	}
+	
+	/**
+	 * Gets the histogram of times spent processing I/O operations between 
+	 * the blocking selection operations.
+	 * 
+	 * @return the histogram of work times in nanoseconds
+	 */
+	public LatencyHistogram getWorkTime() {
+		return workTime;
+	}
+
+	/**
+	 * Gets the histogram of times the selection operations were blocked.
+	 * 
+	 * @return the histogram of wait times in nanoseconds
+	 */
+	public LatencyHistogram getWaitTime() {
+		return waitTime;
+	}
+	
+	/**
+	 * Gets the histogram of times the tasks were waiting for execution.
+	 * 
+	 * @return the histogram of task latencies in nanoseconds
+	 */
+	public LatencyHistogram getTaskLatency() {
+		return taskLatency;
+	}
+	
+	/**
+	 * Gets the histogram of task execution times.
+	 * 
+	 * @return the histogram of task execution times in nanoseconds
+	 */
+	public LatencyHistogram getTaskTime() {
+		return taskTime;
+	}
+	
+	/**
+	 * Gets the histogram of sizes of data pending in the output buffers of
+	 * stream-oriented sessions.
+	 * 
+	 * @return the histogram of output queue sizes in bytes
+	 */
+	public LatencyHistogram getQueueSize() {
+		return queueSize;
+	}
+	
+	/**
+	 * Gets the histogram of encoding times in the codec pipelines.
+	 * 
+	 * @return the histogram of encoding times in nanoseconds
+	 */
+	public LatencyHistogram getEncodeTime() {
+		return encodeTime;
+	}
+
+	/**
+	 * Gets the histogram of decoding times in the codec pipelines.
+	 * 
+	 * @return the histogram of decoding times in nanoseconds
+	 */
+	public LatencyHistogram getDecodeTime() {
+		return decodeTime;
+	}
+	
+	/**
+	 * Gets the histogram of handshake durations.
+	 * 
+	 * @return the histogram of handshake durations in nanoseconds
+	 */
+	public LatencyHistogram getHandshakeTime() {
+		return handshakeTime;
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.pool;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SocketChannel;
+
+import org.snf4j.core.SelectorLoop;
+
+/**
+ * A balancer that keeps channels with equal affinity keys on the same
+ * selector loop. By default the affinity key is the remote IP address so all
+ * connections from the same host are processed by the same selector loop. 
+ * <p>
+ * The selector loop is chosen by hashing the affinity key so the mapping
+ * changes when the number of the selector loops changes. Channels without the
+ * affinity key and channels whose selector loop is stopped are passed to the
+ * fallback balancer.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class AffinityBalancer implements ISelectorLoopBalancer {
+	
+	private final ISelectorLoopBalancer fallback;
+	
+	/**
+	 * Constructs a balancer with given fallback balancer.
+	 * 
+	 * @param fallback
+	 *            the balancer used for channels without the affinity key
+	 * @throws NullPointerException
+	 *             if the <code>fallback</code> argument is <code>null</code>
+	 */
+	public AffinityBalancer(ISelectorLoopBalancer fallback) {
+		if (fallback == null) {
+			throw new NullPointerException();
+		}
+		this.fallback = fallback;
+	}
+	
+	/**
+	 * Constructs a balancer that uses the {@link LeastLoadBalancer#DEFAULT}
+	 * balancer for channels without the affinity key.
+	 */
+	public AffinityBalancer() {
+		this(LeastLoadBalancer.DEFAULT);
+	}
+	
+	/**
+	 * Returns the affinity key for given channel. By default it is the remote
+	 * IP address of connected socket and datagram channels.
+	 * 
+	 * @param channel
+	 *            the channel
+	 * @return the affinity key, or <code>null</code> if the channel has no
+	 *         affinity key
+	 */
+	protected Object key(SelectableChannel channel) {
+		SocketAddress address;
+		
+		try {
+			if (channel instanceof SocketChannel) {
+				address = ((SocketChannel)channel).getRemoteAddress();
+			}
+			else if (channel instanceof DatagramChannel) {
+				address = ((DatagramChannel)channel).getRemoteAddress();
+			}
+			else {
+				return null;
+			}
+		}
+		catch (IOException e) {
+			return null;
+		}
+		if (address instanceof InetSocketAddress) {
+			return ((InetSocketAddress)address).getAddress();
+		}
+		return address;
+	}
+	
+	@Override
+	public SelectorLoop getLoop(SelectorLoop[] loops, int size, SelectableChannel channel) {
+		Object key = size > 0 ? key(channel) : null;
+		
+		if (key != null) {
+			int h = key.hashCode();
+			
+			h ^= h >>> 16;
+			
+			SelectorLoop loop = loops[(h & 0x7fffffff) % size];
+			
+			if (loop.isOpen()) {
+				return loop;
+			}
+		}
+		return fallback.getLoop(loops, size, channel);
+	}
+}
@@ -68,6 +68,8 @@ public class DefaultSelectorLoopPool extends IdentifiableObject implements ISele
 	/** The current size of this pool */
 	protected int size;
 	
+	private ISelectorLoopBalancer balancer = LeastLoadBalancer.DEFAULT;
+	
 	/**
 	 * Constructs a named selector loop pool with given capacity and thread
 	 * factory.
@@ -149,49 +151,75 @@ public class DefaultSelectorLoopPool extends IdentifiableObject implements ISele
 		return size;
 	}
 	
+	/**
+	 * Sets the balancer that is used to choose the selector loop for a new
+	 * channel.
+	 * 
+	 * @param balancer
+	 *            the new balancer
+	 * @throws NullPointerException
+	 *             If the <code>balancer</code> argument is <code>null</code>
+	 */
+	public void setBalancer(ISelectorLoopBalancer balancer) {
+		if (balancer == null) {
+			throw new NullPointerException();
+		}
+		this.balancer = balancer;
+	}
+	
+	/**
+	 * Gets the balancer that is used to choose the selector loop for a new
+	 * channel. By default it is the {@link LeastLoadBalancer#DEFAULT}
+	 * balancer.
+	 * 
+	 * @return the balancer
+	 */
+	public ISelectorLoopBalancer getBalancer() {
+		return balancer;
+	}
+	
 	SelectorLoop createLoop(String name) throws Exception {
 		return new SelectorLoop(name, this, selectorFactory);
 	}
 	
+	private boolean isEmpty(SelectorLoop loop) {
+		try {
+			return loop.getSize() == 0;
+		}
+		catch (ClosedSelectorException e) {
+			logger.error("Stopped selector loop {} detected in pool {}", loop, this);
+			return false;
+		}
+	}
+	
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * Until the capacity of this pool is reached, a new selector loop is
+	 * created each time the balancer chooses a selector loop that already
+	 * processes some channels.
 	 * 
-	 * @return the selector loop with the smallest number of the registered channels
-	 * @see org.snf4j.core.SelectorLoop AbstractSelectorLoop#getSize
+	 * @return the selector loop chosen by the balancer, or newly created one
+	 * @see #setBalancer
 	 */
 	@Override
 	public SelectorLoop getLoop(SelectableChannel channel) {
-		int minSize = Integer.MAX_VALUE;
-		SelectorLoop minLoop = null;
-		
-		for (int i = 0; i < size; ++i) {
-			try {
-				int size = pool[i].getSize();
-
-				if (size < minSize) {
-					minSize = size;
-					minLoop = pool[i];
-				}
-			}
-			catch (ClosedSelectorException e) {
-				logger.error("Stopped selector loop {} detected in pool {}", pool[i], this);
-			}
-		}
+		SelectorLoop loop = balancer.getLoop(pool, size, channel);
 		
-		if (minSize > 0 && size < pool.length) {
+		if (size < pool.length && (loop == null || !isEmpty(loop))) {
 			try {
 				SelectorLoop newLoop = createLoop(getName() + "-" +(size+1)); 
 				
 				newLoop.setThreadFactory(threadFactory);
 				newLoop.start();
-				minLoop = newLoop;
+				loop = newLoop;
 			} catch (Exception e) {
 				elogger.error(logger, "Creation of new selector loop from pool {} failed: {}", this, e);
-				return minLoop;
+				return loop;
 			}
-			pool[size++] = minLoop;
+			pool[size++] = loop;
 		}
-		return minLoop;		
+		return loop;		
 	}
 	
 	@Override
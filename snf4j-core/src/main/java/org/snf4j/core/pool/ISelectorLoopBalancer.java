@@ -0,0 +1,54 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.pool;
+
+import java.nio.channels.SelectableChannel;
+
+import org.snf4j.core.SelectorLoop;
+
+/**
+ * A strategy used by the {@link DefaultSelectorLoopPool} to choose the selector
+ * loop that should process a new channel.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public interface ISelectorLoopBalancer {
+
+	/**
+	 * Chooses the selector loop that should process given channel.
+	 * 
+	 * @param loops
+	 *            the array of selector loops to choose from
+	 * @param size
+	 *            the number of selector loops in the array (starting from the
+	 *            index 0) that can be chosen
+	 * @param channel
+	 *            the channel that needs to be processed
+	 * @return the chosen selector loop, or <code>null</code> if none could be
+	 *         chosen
+	 */
+	SelectorLoop getLoop(SelectorLoop[] loops, int size, SelectableChannel channel);
+}
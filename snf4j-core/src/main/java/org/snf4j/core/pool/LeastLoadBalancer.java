@@ -0,0 +1,113 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.pool;
+
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+
+import org.snf4j.core.SelectorLoop;
+import org.snf4j.core.logger.ILogger;
+import org.snf4j.core.logger.LoggerFactory;
+
+/**
+ * A balancer that chooses the selector loop with the lowest load. By default
+ * the load of a selector loop is the number of the channels it processes.
+ * <p>
+ * Subclasses can override the {@link #load} method to measure the load in a
+ * different way.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class LeastLoadBalancer implements ISelectorLoopBalancer {
+	
+	private final static ILogger logger = LoggerFactory.getLogger(LeastLoadBalancer.class);
+
+	/**
+	 * A constant holding the default balancer that chooses the selector loop
+	 * with the smallest number of the registered channels.
+	 */
+	public final static LeastLoadBalancer DEFAULT = new LeastLoadBalancer();
+	
+	/**
+	 * Constructs a balancer that chooses the selector loop with the lowest
+	 * load.
+	 */
+	protected LeastLoadBalancer() {
+	}
+	
+	/**
+	 * Returns the load of given selector loop. The lower value the less loaded
+	 * the selector loop is.
+	 * 
+	 * @param loop
+	 *            the selector loop
+	 * @return the load of the selector loop
+	 * @throws ClosedSelectorException
+	 *             if the selector loop is stopped
+	 */
+	protected long load(SelectorLoop loop) {
+		return loop.getSize();
+	}
+	
+	/**
+	 * Returns the load of given selector loop or {@link Long#MAX_VALUE} if the
+	 * selector loop is stopped.
+	 * 
+	 * @param loop
+	 *            the selector loop
+	 * @return the load of the selector loop
+	 */
+	final long safeLoad(SelectorLoop loop) {
+		try {
+			return load(loop);
+		}
+		catch (ClosedSelectorException e) {
+			logger.error("Stopped selector loop {} detected", loop);
+			return Long.MAX_VALUE;
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @return the selector loop with the lowest load
+	 */
+	@Override
+	public SelectorLoop getLoop(SelectorLoop[] loops, int size, SelectableChannel channel) {
+		long minLoad = Long.MAX_VALUE;
+		SelectorLoop minLoop = null;
+		
+		for (int i = 0; i < size; ++i) {
+			long load = safeLoad(loops[i]);
+			
+			if (load < minLoad) {
+				minLoad = load;
+				minLoop = loops[i];
+			}
+		}
+		return minLoop;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.pool;
+
+import java.nio.channels.SelectableChannel;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.snf4j.core.SelectorLoop;
+
+/**
+ * A balancer that implements the "power of two choices" strategy. It samples
+ * two distinct selector loops at random and chooses the one with the lower
+ * load. The load is measured by the balancer passed to the constructor.
+ * <p>
+ * Compared to scanning all the selector loops it costs a constant time and
+ * avoids herding new channels to the single least loaded selector loop when
+ * the load measurements are not up to date.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class PowerOfTwoChoicesBalancer implements ISelectorLoopBalancer {
+	
+	private final LeastLoadBalancer meter;
+	
+	/**
+	 * Constructs a balancer that uses given balancer to measure the load of
+	 * the sampled selector loops.
+	 * 
+	 * @param meter
+	 *            the balancer measuring the load
+	 * @throws NullPointerException
+	 *             if the <code>meter</code> argument is <code>null</code>
+	 */
+	public PowerOfTwoChoicesBalancer(LeastLoadBalancer meter) {
+		if (meter == null) {
+			throw new NullPointerException();
+		}
+		this.meter = meter;
+	}
+	
+	/**
+	 * Constructs a balancer that compares the number of the registered channels
+	 * in the sampled selector loops.
+	 */
+	public PowerOfTwoChoicesBalancer() {
+		this(LeastLoadBalancer.DEFAULT);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If both sampled selector loops are stopped it falls back to choosing the
+	 * selector loop with the lowest load from all the selector loops.
+	 */
+	@Override
+	public SelectorLoop getLoop(SelectorLoop[] loops, int size, SelectableChannel channel) {
+		if (size < 2) {
+			return meter.getLoop(loops, size, channel);
+		}
+		
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int i = random.nextInt(size);
+		int j = random.nextInt(size - 1);
+		
+		if (j >= i) {
+			++j;
+		}
+		
+		long loadI = meter.safeLoad(loops[i]);
+		long loadJ = meter.safeLoad(loops[j]);
+		
+		if (loadI <= loadJ) {
+			if (loadI != Long.MAX_VALUE) {
+				return loops[i];
+			}
+		}
+		else {
+			return loops[j];
+		}
+		return meter.getLoop(loops, size, channel);
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.pool;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.snf4j.core.SelectorLoop;
+
+/**
+ * A balancer that chooses the selector loop that was the least busy recently.
+ * The busyness of a selector loop is the fraction of time it spent processing
+ * I/O operations, as opposed to waiting for them, since the previous sample.
+ * Selector loops with equal busyness are compared by the number of the
+ * registered channels.
+ * <p>
+ * A new sample for a selector loop is taken when the time it has spent
+ * working and waiting since the previous sample reaches the configured sample
+ * interval. It prevents short bursts of activity from steering all the new
+ * channels to other selector loops.
+ * <p>
+ * This implementation is thread safe, so it can be used by a pool shared by
+ * many selector loops accepting new channels.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class WorkTimeBalancer extends LeastLoadBalancer {
+	
+	/** The default sample interval in milliseconds */
+	public final static long DEFAULT_SAMPLE_INTERVAL = 1000;
+	
+	private final static int WORK = 0;
+	
+	private final static int WAIT = 1;
+	
+	private final static int BUSY = 2;
+	
+	private final Map<SelectorLoop, long[]> samples = new WeakHashMap<SelectorLoop, long[]>();
+	
+	private final long sampleInterval;
+	
+	/**
+	 * Constructs a balancer with given sample interval.
+	 * 
+	 * @param sampleInterval
+	 *            the minimal time in milliseconds a selector loop should spend
+	 *            working and waiting before its busyness is sampled again
+	 * @throws IllegalArgumentException
+	 *             if the sample interval is negative
+	 */
+	public WorkTimeBalancer(long sampleInterval) {
+		if (sampleInterval < 0) {
+			throw new IllegalArgumentException("sampleInterval is negative");
+		}
+		this.sampleInterval = sampleInterval * 1000000;
+	}
+	
+	/**
+	 * Constructs a balancer with the default sample interval.
+	 */
+	public WorkTimeBalancer() {
+		this(DEFAULT_SAMPLE_INTERVAL);
+	}
+	
+	/**
+	 * Returns the recent busyness of given selector loop in permilles.
+	 * 
+	 * @param loop
+	 *            the selector loop
+	 * @return the busyness in the range from 0 to 1000
+	 */
+	protected int busyness(SelectorLoop loop) {
+		long work = loop.getTotalWorkTime();
+		long wait = loop.getTotalWaitTime();
+		
+		synchronized (samples) {
+			long[] sample = samples.get(loop);
+			
+			if (sample == null) {
+				sample = new long[] {work, wait, 0};
+				samples.put(loop, sample);
+			}
+			else {
+				long workDelta = work - sample[WORK];
+				long total = workDelta + wait - sample[WAIT];
+				
+				if (total > 0 && total >= sampleInterval) {
+					sample[WORK] = work;
+					sample[WAIT] = wait;
+					sample[BUSY] = workDelta * 1000 / total;
+				}
+			}
+			return (int) sample[BUSY];
+		}
+	}
+	
+	/**
+	 * Returns the load of given selector loop. The busyness of the selector
+	 * loop is stored in the upper 32 bits and the number of the registered
+	 * channels in the lower 32 bits.
+	 */
+	@Override
+	protected long load(SelectorLoop loop) {
+		int size = loop.getSize();
+		
+		return ((long)busyness(loop) << 32) | size;
+	}
+}
@@ -34,6 +34,7 @@ import javax.net.ssl.SSLEngine;
 import org.snf4j.core.EndingAction;
 import org.snf4j.core.codec.ICodecExecutor;
 import org.snf4j.core.session.ssl.SSLEngineBuilder;
+import org.snf4j.core.traffic.TrafficShaper;
 
 /**
  * Default configuration for the session.
@@ -84,6 +85,14 @@ public class DefaultSessionConfig implements ISessionConfig {
 	
 	private boolean quicklyCloseEngineOnFailure;
 	
+	private long readerIdleTimeout;
+
+	private long writerIdleTimeout;
+
+	private long allIdleTimeout;
+	
+	private boolean closeWhenIdle;
+	
 	private final SSLEngineBuilder[] engineBuilders = new SSLEngineBuilder[2];
 	
 	/**
@@ -407,6 +416,16 @@ public class DefaultSessionConfig implements ISessionConfig {
 		return null;
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The default value is <code>null</code>
+	 */
+	@Override
+	public TrafficShaper createTrafficShaper() {
+		return null;
+	}
+	
 	/**
 	 * Configures how long the SNF4J framework should wait for completion of the
 	 * handshake phase for engine-driven sessions.
@@ -544,4 +563,100 @@ public class DefaultSessionConfig implements ISessionConfig {
 	public boolean quicklyCloseEngineOnFailure() {
 		return quicklyCloseEngineOnFailure;
 	}
+	
+	/**
+	 * Sets the timeout after which the session is considered idle if no data
+	 * has been read from its channel.
+	 * 
+	 * @param timeout the timeout in milliseconds, or zero to disable the detection
+	 * @return this session config object
+	 * @see #getReaderIdleTimeout()
+	 */
+	public DefaultSessionConfig setReaderIdleTimeout(long timeout) {
+		readerIdleTimeout = timeout;
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * <p>
+	 * The default value is <code>0</code>
+	 */
+	@Override
+	public long getReaderIdleTimeout() {
+		return readerIdleTimeout;
+	}
+
+	/**
+	 * Sets the timeout after which the session is considered idle if no data
+	 * has been written to its channel.
+	 * 
+	 * @param timeout the timeout in milliseconds, or zero to disable the detection
+	 * @return this session config object
+	 * @see #getWriterIdleTimeout()
+	 */
+	public DefaultSessionConfig setWriterIdleTimeout(long timeout) {
+		writerIdleTimeout = timeout;
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * <p>
+	 * The default value is <code>0</code>
+	 */
+	@Override
+	public long getWriterIdleTimeout() {
+		return writerIdleTimeout;
+	}
+
+	/**
+	 * Sets the timeout after which the session is considered idle if no data
+	 * has been either read from or written to its channel.
+	 * 
+	 * @param timeout the timeout in milliseconds, or zero to disable the detection
+	 * @return this session config object
+	 * @see #getAllIdleTimeout()
+	 */
+	public DefaultSessionConfig setAllIdleTimeout(long timeout) {
+		allIdleTimeout = timeout;
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * <p>
+	 * The default value is <code>0</code>
+	 */
+	@Override
+	public long getAllIdleTimeout() {
+		return allIdleTimeout;
+	}
+	
+	/**
+	 * Configures the action taken when the session is detected idle.
+	 * 
+	 * @param close {@code true} to gently close the session instead of
+	 *              notifying its handler
+	 * @return this session config object
+	 * @see #closeWhenIdle()
+	 */
+	public DefaultSessionConfig setCloseWhenIdle(boolean close) {
+		closeWhenIdle = close;
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * <p>
+	 * The default value is <code>false</code>
+	 */
+	@Override
+	public boolean closeWhenIdle() {
+		return closeWhenIdle;
+	}
 }
@@ -31,6 +31,7 @@ import javax.net.ssl.SSLEngine;
 
 import org.snf4j.core.EndingAction;
 import org.snf4j.core.codec.ICodecExecutor;
+import org.snf4j.core.traffic.TrafficShaper;
 
 /**
  * A configuration for associated session.
@@ -221,6 +222,19 @@ public interface ISessionConfig {
 	 */
 	ICodecExecutor createCodecExecutor();
 	
+	/**
+	 * Creates a new traffic shaper that will be responsible for limiting the
+	 * rate of bytes read from and written to the channel of the associated
+	 * stream-oriented session.
+	 * <p>
+	 * To limit the traffic of many sessions the returned shaper can have a
+	 * shared parent shaper.
+	 * 
+	 * @return the traffic shaper, or <code>null</code> if the traffic of the
+	 *         session should not be shaped
+	 */
+	TrafficShaper createTrafficShaper();
+	
 	/**
 	 * Determines how long the SNF4J framework should wait for completion of the
 	 * handshake phase for engine-driven sessions. If the handshake does not
@@ -286,4 +300,57 @@ public interface ISessionConfig {
 	 *         failure.
 	 */
 	boolean quicklyCloseEngineOnFailure();
+	
+	/**
+	 * Returns the timeout after which the session is considered idle if no
+	 * data has been read from its channel.
+	 * <p>
+	 * The idleness is detected by the selector loop handling the session
+	 * during its select cycles so the actual detection may be delayed by up to
+	 * the selector's select timeout.
+	 * 
+	 * @return the timeout in milliseconds, or zero to disable the detection
+	 * @see #closeWhenIdle()
+	 */
+	long getReaderIdleTimeout();
+
+	/**
+	 * Returns the timeout after which the session is considered idle if no
+	 * data has been written to its channel.
+	 * <p>
+	 * The idleness is detected by the selector loop handling the session
+	 * during its select cycles so the actual detection may be delayed by up to
+	 * the selector's select timeout.
+	 * 
+	 * @return the timeout in milliseconds, or zero to disable the detection
+	 * @see #closeWhenIdle()
+	 */
+	long getWriterIdleTimeout();
+
+	/**
+	 * Returns the timeout after which the session is considered idle if no
+	 * data has been either read from or written to its channel.
+	 * <p>
+	 * The idleness is detected by the selector loop handling the session
+	 * during its select cycles so the actual detection may be delayed by up to
+	 * the selector's select timeout.
+	 * 
+	 * @return the timeout in milliseconds, or zero to disable the detection
+	 * @see #closeWhenIdle()
+	 */
+	long getAllIdleTimeout();
+	
+	/**
+	 * Determines the action taken when the session is detected idle.
+	 * <p>
+	 * If the returned value is {@code false} the session's handler is
+	 * notified by the {@link org.snf4j.core.handler.IHandler#timer(Object)
+	 * timer(Object)} method with the matching
+	 * {@link org.snf4j.core.handler.IdleEvent IdleEvent}. The notification is
+	 * repeated each time the timeout elapses without any activity.
+	 * 
+	 * @return {@code true} to gently close the session instead of notifying
+	 *         its handler
+	 */
+	boolean closeWhenIdle();
 }
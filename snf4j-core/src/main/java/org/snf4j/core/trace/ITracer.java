@@ -0,0 +1,74 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.trace;
+
+import org.snf4j.core.session.ISession;
+
+/**
+ * Traces the processing of messages by the sessions handled by a selector
+ * loop.
+ * <p>
+ * The processing of a message starts with a call to the {@link #start}
+ * method that returns a trace context. The context is then carried through
+ * all the stages of the processing (reading, decoding, handling, encoding
+ * and writing), and each finished stage is reported by a call to the
+ * {@link #span} method. A message read from a channel and all the messages
+ * written during its handling share the same trace context.
+ * <p>
+ * Except the {@link #start} method, that is also called when data is written
+ * from other threads, all methods are called in the thread of the selector
+ * loop. All times are in nanoseconds as returned by {@link System#nanoTime()}.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public interface ITracer {
+
+	/**
+	 * Starts tracing of a new message processed by the given session.
+	 * 
+	 * @param session
+	 *            the session processing the message
+	 * @return the trace context for the message, or <code>null</code> if the
+	 *         message should not be traced
+	 */
+	Object start(ISession session);
+	
+	/**
+	 * Reports a finished stage of the message processing.
+	 * 
+	 * @param context
+	 *            the trace context returned by the {@link #start} method
+	 * @param session
+	 *            the session processing the message
+	 * @param kind
+	 *            the kind of the stage
+	 * @param begin
+	 *            the time the stage began
+	 * @param end
+	 *            the time the stage ended
+	 */
+	void span(Object context, ISession session, SpanKind kind, long begin, long end);
+}
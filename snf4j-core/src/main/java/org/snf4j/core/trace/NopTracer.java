@@ -0,0 +1,55 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.trace;
+
+import org.snf4j.core.session.ISession;
+
+/**
+ * A tracer that does not trace any message. It is used by default by the
+ * selector loops.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public final class NopTracer implements ITracer {
+
+	/**
+	 * A constant holding the tracer that does not trace any message.
+	 */
+	public final static NopTracer DEFAULT = new NopTracer();
+	
+	private NopTracer() {
+	}
+	
+	@Override
+	public Object start(ISession session) {
+		return null;
+	}
+
+	@Override
+	public void span(Object context, ISession session, SpanKind kind, long begin, long end) {
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.snf4j.core.session.ISession;
+
+/**
+ * A tracer that samples messages and records their spans in a fixed-size
+ * ring buffer. When the buffer is full the oldest spans are overwritten. The
+ * recorded spans can be retrieved at any time for offline analysis.
+ * <p>
+ * The tracer can be shared by many selector loops.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class RingBufferTracer implements ITracer {
+	
+	private final Span[] spans;
+	
+	private final int mask;
+	
+	private final int sampling;
+	
+	private final AtomicLong messages = new AtomicLong();
+	
+	private final AtomicLong traces = new AtomicLong();
+	
+	private long next;
+	
+	/**
+	 * Constructs a tracer with the specified capacity and sampling.
+	 * 
+	 * @param capacity
+	 *            the minimal number of the most recent spans to keep. It is
+	 *            rounded up to the nearest power of two.
+	 * @param sampling
+	 *            determines which messages are traced. The value of 1 means
+	 *            all messages, the value of {@code n} means every n-th message
+	 * @throws IllegalArgumentException
+	 *             if any of the arguments is not positive or the capacity is
+	 *             too big
+	 */
+	public RingBufferTracer(int capacity, int sampling) {
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("capacity is out of range");
+		}
+		if (sampling <= 0) {
+			throw new IllegalArgumentException("sampling is not positive");
+		}
+		
+		int size = 1;
+		
+		while (size < capacity) {
+			size <<= 1;
+		}
+		spans = new Span[size];
+		mask = size - 1;
+		this.sampling = sampling;
+	}
+	
+	/**
+	 * Returns the maximum number of spans kept by this tracer.
+	 * 
+	 * @return the capacity of the ring buffer
+	 */
+	public int getCapacity() {
+		return spans.length;
+	}
+	
+	/**
+	 * Returns the total number of spans recorded by this tracer since its
+	 * creation or last clearing, including the ones that were already
+	 * overwritten.
+	 * 
+	 * @return the total number of spans
+	 */
+	public synchronized long getTotalSpans() {
+		return next;
+	}
+	
+	@Override
+	public Object start(ISession session) {
+		if (messages.getAndIncrement() % sampling != 0) {
+			return null;
+		}
+		return Long.valueOf(traces.incrementAndGet());
+	}
+
+	@Override
+	public void span(Object context, ISession session, SpanKind kind, long begin, long end) {
+		Span span = new Span((Long)context, session.getId(), kind, begin, end);
+		
+		synchronized (this) {
+			spans[(int) (next++ & mask)] = span;
+		}
+	}
+	
+	/**
+	 * Returns the spans currently kept by this tracer, ordered from the oldest
+	 * to the most recent one.
+	 * 
+	 * @return the list of spans
+	 */
+	public synchronized List<Span> getSpans() {
+		int size = (int) Math.min(next, spans.length);
+		List<Span> list = new ArrayList<Span>(size);
+		
+		for (long i = next - size; i < next; ++i) {
+			list.add(spans[(int) (i & mask)]);
+		}
+		return list;
+	}
+	
+	/**
+	 * Removes all spans kept by this tracer.
+	 */
+	public synchronized void clear() {
+		for (int i=0; i<spans.length; ++i) {
+			spans[i] = null;
+		}
+		next = 0;
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.trace;
+
+/**
+ * A finished stage of the message processing recorded by the
+ * {@link RingBufferTracer}.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class Span {
+	
+	private final long traceId;
+	
+	private final long sessionId;
+	
+	private final SpanKind kind;
+	
+	private final long begin;
+	
+	private final long end;
+
+	/**
+	 * Constructs a span.
+	 * 
+	 * @param traceId
+	 *            the identifier of the traced message
+	 * @param sessionId
+	 *            the identifier of the session processing the message
+	 * @param kind
+	 *            the kind of the stage
+	 * @param begin
+	 *            the time in nanoseconds the stage began
+	 * @param end
+	 *            the time in nanoseconds the stage ended
+	 */
+	public Span(long traceId, long sessionId, SpanKind kind, long begin, long end) {
+		this.traceId = traceId;
+		this.sessionId = sessionId;
+		this.kind = kind;
+		this.begin = begin;
+		this.end = end;
+	}
+	
+	/**
+	 * Returns the identifier of the traced message.
+	 * 
+	 * @return the trace identifier
+	 */
+	public long getTraceId() {
+		return traceId;
+	}
+
+	/**
+	 * Returns the identifier of the session processing the message.
+	 * 
+	 * @return the session identifier
+	 */
+	public long getSessionId() {
+		return sessionId;
+	}
+
+	/**
+	 * Returns the kind of the stage.
+	 * 
+	 * @return the kind of the stage
+	 */
+	public SpanKind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Returns the time in nanoseconds the stage began.
+	 * 
+	 * @return the begin time
+	 */
+	public long getBegin() {
+		return begin;
+	}
+
+	/**
+	 * Returns the time in nanoseconds the stage ended.
+	 * 
+	 * @return the end time
+	 */
+	public long getEnd() {
+		return end;
+	}
+	
+	/**
+	 * Returns the duration in nanoseconds of the stage.
+	 * 
+	 * @return the duration
+	 */
+	public long getDuration() {
+		return end - begin;
+	}
+	
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[trace=" + traceId + " session=" + sessionId + " kind=" + kind + " duration=" + (end - begin) + "]";
+	}
+}
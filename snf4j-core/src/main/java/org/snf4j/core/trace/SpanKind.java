@@ -0,0 +1,53 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.trace;
+
+/**
+ * An {@code enum} defining stages of the message processing that are traced
+ * by the {@link ITracer}.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public enum SpanKind {
+	
+	/** Reading of bytes from the channel */
+	READ,
+	
+	/** Decoding of the read bytes by the codec pipeline */
+	DECODE,
+	
+	/** Handling of the read (and decoded) message by the session's handler */
+	HANDLE,
+	
+	/** Encoding of the message being written by the codec pipeline */
+	ENCODE,
+	
+	/**
+	 * Writing of bytes to the channel, measured from the moment the bytes were
+	 * queued for writing until all queued bytes were written to the channel
+	 */
+	WRITE
+}
@@ -0,0 +1,168 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.traffic;
+
+/**
+ * A token bucket limiting the rate of transferred bytes.
+ * <p>
+ * The bucket is refilled at the configured rate up to its burst size.
+ * Consuming tokens is always permitted, even if it leaves the bucket in debt.
+ * While the bucket is in debt the delay needed to pay it off is reported to
+ * the caller.
+ * <p>
+ * The bucket is thread safe so it can be shared by many sessions and
+ * selector loops.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class TokenBucket {
+	
+	private final long rate;
+	
+	private final long burst;
+	
+	private double tokens;
+	
+	private long refillTime;
+	
+	private boolean started;
+	
+	/**
+	 * Constructs a token bucket with specified rate and burst size. The bucket
+	 * is initially full.
+	 * 
+	 * @param rate
+	 *            the number of bytes per second added to the bucket
+	 * @param burst
+	 *            the maximum number of bytes that can be stored in the bucket
+	 * @throws IllegalArgumentException
+	 *             if the rate or the burst size is not positive
+	 */
+	public TokenBucket(long rate, long burst) {
+		if (rate <= 0) {
+			throw new IllegalArgumentException("rate is not positive");
+		}
+		if (burst <= 0) {
+			throw new IllegalArgumentException("burst is not positive");
+		}
+		this.rate = rate;
+		this.burst = burst;
+		tokens = burst;
+	}
+
+	/**
+	 * Constructs a token bucket with specified rate and burst size equal to
+	 * the number of bytes added to the bucket in one second.
+	 * 
+	 * @param rate
+	 *            the number of bytes per second added to the bucket
+	 * @throws IllegalArgumentException
+	 *             if the rate is not positive
+	 */
+	public TokenBucket(long rate) {
+		this(rate, rate);
+	}
+	
+	/**
+	 * Gets the number of bytes per second added to this bucket.
+	 * 
+	 * @return the rate in bytes per second
+	 */
+	public long getRate() {
+		return rate;
+	}
+	
+	/**
+	 * Gets the maximum number of bytes that can be stored in this bucket.
+	 * 
+	 * @return the burst size in bytes
+	 */
+	public long getBurst() {
+		return burst;
+	}
+	
+	/**
+	 * Consumes tokens for the transferred bytes.
+	 * 
+	 * @param bytes
+	 *            the number of transferred bytes
+	 * @param nanoTime
+	 *            the current time in nanoseconds
+	 * @return the time in nanoseconds needed to pay off the debt, or 0 if the
+	 *         bucket is not in debt
+	 */
+	public synchronized long consume(long bytes, long nanoTime) {
+		refill(nanoTime);
+		tokens -= bytes;
+		return delay();
+	}
+	
+	/**
+	 * Gets the time needed to pay off the debt of this bucket.
+	 * 
+	 * @param nanoTime
+	 *            the current time in nanoseconds
+	 * @return the time in nanoseconds needed to pay off the debt, or 0 if the
+	 *         bucket is not in debt
+	 */
+	public synchronized long getDelay(long nanoTime) {
+		refill(nanoTime);
+		return delay();
+	}
+	
+	/**
+	 * Gets the number of tokens stored in this bucket.
+	 * 
+	 * @param nanoTime
+	 *            the current time in nanoseconds
+	 * @return the number of tokens, or a negative value if the bucket is in
+	 *         debt
+	 */
+	public synchronized long getTokens(long nanoTime) {
+		refill(nanoTime);
+		return (long) Math.floor(tokens);
+	}
+	
+	private void refill(long nanoTime) {
+		if (!started) {
+			started = true;
+			refillTime = nanoTime;
+		}
+		else {
+			long elapsed = nanoTime - refillTime;
+			
+			//the bucket can be shared by threads with slightly different clocks
+			if (elapsed > 0) {
+				tokens = Math.min(burst, tokens + elapsed * (double) rate / 1000000000.0);
+				refillTime = nanoTime;
+			}
+		}
+	}
+	
+	private long delay() {
+		return tokens >= 0 ? 0 : (long) Math.ceil(-tokens * 1000000000.0 / rate);
+	}
+}
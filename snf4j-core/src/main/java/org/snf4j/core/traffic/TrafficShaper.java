@@ -0,0 +1,178 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.traffic;
+
+/**
+ * A traffic shaper limiting the rate of bytes read from and written to the
+ * channels of the shaped sessions.
+ * <p>
+ * The shaper can be created for each session (see
+ * {@link org.snf4j.core.session.ISessionConfig#createTrafficShaper()
+ * ISessionConfig.createTrafficShaper()}) or set for a selector loop (see
+ * {@link org.snf4j.core.SelectorLoop#setTrafficShaper(TrafficShaper)
+ * SelectorLoop.setTrafficShaper()}). A shaper can also have a parent shaper
+ * that is applied together with it. Sharing a parent shaper by shapers of
+ * many selector loops limits the traffic globally.
+ * <p>
+ * The selector loop limits the size of each read and write operation to the
+ * number of bytes available in the buckets. When a bucket goes into debt the
+ * selector loop stops reading from or writing to the session's channel by
+ * clearing its interest operations and restores them once the debt is paid
+ * off.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class TrafficShaper {
+
+	private final TokenBucket read;
+	
+	private final TokenBucket write;
+	
+	private final TrafficShaper parent;
+	
+	/**
+	 * Constructs a traffic shaper with a parent shaper.
+	 * 
+	 * @param read
+	 *            the bucket limiting the rate of read bytes, or
+	 *            <code>null</code> if the rate should not be limited
+	 * @param write
+	 *            the bucket limiting the rate of written bytes, or
+	 *            <code>null</code> if the rate should not be limited
+	 * @param parent
+	 *            the parent shaper, or <code>null</code> if this shaper has
+	 *            no parent
+	 */
+	public TrafficShaper(TokenBucket read, TokenBucket write, TrafficShaper parent) {
+		this.read = read;
+		this.write = write;
+		this.parent = parent;
+	}
+
+	/**
+	 * Constructs a traffic shaper without a parent shaper.
+	 * 
+	 * @param read
+	 *            the bucket limiting the rate of read bytes, or
+	 *            <code>null</code> if the rate should not be limited
+	 * @param write
+	 *            the bucket limiting the rate of written bytes, or
+	 *            <code>null</code> if the rate should not be limited
+	 */
+	public TrafficShaper(TokenBucket read, TokenBucket write) {
+		this(read, write, null);
+	}
+	
+	/**
+	 * Gets the bucket limiting the rate of read bytes.
+	 * 
+	 * @return the bucket, or <code>null</code> if the rate is not limited
+	 */
+	public TokenBucket getReadBucket() {
+		return read;
+	}
+
+	/**
+	 * Gets the bucket limiting the rate of written bytes.
+	 * 
+	 * @return the bucket, or <code>null</code> if the rate is not limited
+	 */
+	public TokenBucket getWriteBucket() {
+		return write;
+	}
+	
+	/**
+	 * Gets the parent shaper.
+	 * 
+	 * @return the parent shaper, or <code>null</code> if this shaper has no
+	 *         parent
+	 */
+	public TrafficShaper getParent() {
+		return parent;
+	}
+	
+	/**
+	 * Gets the number of bytes that can be read from a shaped channel without
+	 * putting any bucket of this shaper or its parents into debt.
+	 * 
+	 * @param nanoTime
+	 *            the current time in nanoseconds
+	 * @return the number of bytes, or {@link Long#MAX_VALUE} if the rate of
+	 *         read bytes is not limited
+	 */
+	public long getReadable(long nanoTime) {
+		long readable = read != null ? read.getTokens(nanoTime) : Long.MAX_VALUE;
+		
+		return parent != null ? Math.min(readable, parent.getReadable(nanoTime)) : readable;
+	}
+
+	/**
+	 * Gets the number of bytes that can be written to a shaped channel without
+	 * putting any bucket of this shaper or its parents into debt.
+	 * 
+	 * @param nanoTime
+	 *            the current time in nanoseconds
+	 * @return the number of bytes, or {@link Long#MAX_VALUE} if the rate of
+	 *         written bytes is not limited
+	 */
+	public long getWritable(long nanoTime) {
+		long writable = write != null ? write.getTokens(nanoTime) : Long.MAX_VALUE;
+		
+		return parent != null ? Math.min(writable, parent.getWritable(nanoTime)) : writable;
+	}
+	
+	/**
+	 * Called when bytes have been read from a shaped channel.
+	 * 
+	 * @param bytes
+	 *            the number of read bytes
+	 * @param nanoTime
+	 *            the current time in nanoseconds
+	 * @return the time in nanoseconds for which reading should be suspended,
+	 *         or 0 if reading can be continued
+	 */
+	public long read(long bytes, long nanoTime) {
+		long delay = read != null ? read.consume(bytes, nanoTime) : 0;
+		
+		return parent != null ? Math.max(delay, parent.read(bytes, nanoTime)) : delay;
+	}
+
+	/**
+	 * Called when bytes have been written to a shaped channel.
+	 * 
+	 * @param bytes
+	 *            the number of written bytes
+	 * @param nanoTime
+	 *            the current time in nanoseconds
+	 * @return the time in nanoseconds for which writing should be suspended,
+	 *         or 0 if writing can be continued
+	 */
+	public long written(long bytes, long nanoTime) {
+		long delay = write != null ? write.consume(bytes, nanoTime) : 0;
+		
+		return parent != null ? Math.max(delay, parent.written(bytes, nanoTime)) : delay;
+	}
+}
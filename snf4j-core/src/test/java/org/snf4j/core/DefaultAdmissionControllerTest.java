@@ -0,0 +1,289 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DefaultAdmissionControllerTest {
+
+	final long TIMEOUT = 2000;
+	
+	final int PORT = 7777;
+
+	Server s;
+	
+	Client c1, c2, c3;
+	
+	@Before
+	public void before() {
+		s = c1 = c2 = c3 = null;
+	}
+
+	@After
+	public void after() throws InterruptedException {
+		if (c1 != null) c1.stop(TIMEOUT);
+		if (c2 != null) c2.stop(TIMEOUT);
+		if (c3 != null) c3.stop(TIMEOUT);
+		if (s != null) s.stop(TIMEOUT);
+	}
+	
+	void assertIAE(Runnable r, String msg) {
+		try {
+			r.run();
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals(msg, e.getMessage());
+		}
+	}
+	
+	void waitFor(DefaultAdmissionController ac, int sessions) throws InterruptedException {
+		for (int i=0; i<100; ++i) {
+			if (ac.getSessions() == sessions) {
+				return;
+			}
+			Thread.sleep(20);
+		}
+		assertEquals(sessions, ac.getSessions());
+	}
+	
+	void waitForHandshakes(DefaultAdmissionController ac, int handshakes) throws InterruptedException {
+		for (int i=0; i<100; ++i) {
+			if (ac.getHandshakes() == handshakes) {
+				return;
+			}
+			Thread.sleep(20);
+		}
+		assertEquals(handshakes, ac.getHandshakes());
+	}
+	
+	@Test
+	public void testArguments() {
+		final DefaultAdmissionController ac = new DefaultAdmissionController();
+		
+		assertEquals(0, ac.getAcceptRate(), 0.0);
+		assertEquals(1, ac.getAcceptBurst());
+		assertEquals(0, ac.getMaxHandshakes());
+		assertEquals(0, ac.getMaxSessions());
+		assertEquals(0, ac.getMaxSessionsPerAddress());
+		assertEquals(DefaultAdmissionController.DEFAULT_RETRY_DELAY, ac.getRetryDelay());
+		assertTrue(ac == ac.setAcceptRate(10.5, 5).setMaxHandshakes(1).setMaxSessions(2).setMaxSessionsPerAddress(3).setRetryDelay(4));
+		assertEquals(10.5, ac.getAcceptRate(), 0.0);
+		assertEquals(5, ac.getAcceptBurst());
+		assertEquals(1, ac.getMaxHandshakes());
+		assertEquals(2, ac.getMaxSessions());
+		assertEquals(3, ac.getMaxSessionsPerAddress());
+		assertEquals(4, ac.getRetryDelay());
+		
+		assertIAE(new Runnable() {
+			@Override public void run() {ac.setAcceptRate(-0.1, 1);}
+		}, "rate is negative");
+		assertIAE(new Runnable() {
+			@Override public void run() {ac.setAcceptRate(1, 0);}
+		}, "burst is less than 1");
+		assertIAE(new Runnable() {
+			@Override public void run() {ac.setMaxHandshakes(-1);}
+		}, "max is negative");
+		assertIAE(new Runnable() {
+			@Override public void run() {ac.setMaxSessions(-1);}
+		}, "max is negative");
+		assertIAE(new Runnable() {
+			@Override public void run() {ac.setMaxSessionsPerAddress(-1);}
+		}, "max is negative");
+		assertIAE(new Runnable() {
+			@Override public void run() {ac.setRetryDelay(0);}
+		}, "delay is not positive");
+	}
+	
+	@Test
+	public void testAcceptRate() {
+		TestController ac = new TestController();
+		
+		ac.setAcceptRate(10, 2);
+		assertEquals(0, ac.pause());
+		assertNotNull(ac.admit(null));
+		assertEquals(0, ac.pause());
+		assertNotNull(ac.admit(null));
+		assertEquals(100, ac.pause());
+		ac.time += 50000000L;
+		assertEquals(50, ac.pause());
+		ac.time += 49000000L;
+		assertEquals(1, ac.pause());
+		ac.time += 1000000L;
+		assertEquals(0, ac.pause());
+		ac.time += 1000000000L;
+		assertEquals(0, ac.pause());
+		assertNotNull(ac.admit(null));
+		assertNotNull(ac.admit(null));
+		assertEquals(100, ac.pause());
+		assertEquals(4, ac.getSessions());
+		assertEquals(4, ac.getHandshakes());
+	}
+	
+	@Test
+	public void testLimits() {
+		DefaultAdmissionController ac = new DefaultAdmissionController();
+		
+		ac.setMaxHandshakes(1).setMaxSessions(2).setRetryDelay(15);
+		assertEquals(0, ac.pause());
+		IAdmissionTicket t1 = ac.admit(null);
+		assertNotNull(t1);
+		assertEquals(1, ac.getHandshakes());
+		assertEquals(1, ac.getSessions());
+		assertEquals(15, ac.pause());
+		assertNull(ac.admit(null));
+		t1.ready();
+		t1.ready();
+		assertEquals(0, ac.getHandshakes());
+		assertEquals(0, ac.pause());
+		IAdmissionTicket t2 = ac.admit(null);
+		assertNotNull(t2);
+		t2.ready();
+		assertEquals(0, ac.getHandshakes());
+		assertEquals(2, ac.getSessions());
+		assertEquals(15, ac.pause());
+		assertNull(ac.admit(null));
+		t1.release();
+		t1.release();
+		assertEquals(1, ac.getSessions());
+		assertEquals(0, ac.pause());
+		
+		IAdmissionTicket t3 = ac.admit(null);
+		assertEquals(1, ac.getHandshakes());
+		t3.release();
+		assertEquals(0, ac.getHandshakes());
+		assertEquals(1, ac.getSessions());
+		t3.ready();
+		assertEquals(0, ac.getHandshakes());
+	}
+	
+	@Test
+	public void testMaxSessions() throws Exception {
+		DefaultAdmissionController ac = new DefaultAdmissionController().setMaxSessions(1);
+		s = new Server(PORT);
+		s.admission = ac;
+		s.start();
+		c1 = new Client(PORT);
+		c1.start();
+		c1.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		assertEquals(1, ac.getSessions());
+		assertEquals(0, ac.getHandshakes());
+		
+		c2 = new Client(PORT);
+		c2.start();
+		c2.waitForSessionReady(TIMEOUT);
+		Thread.sleep(100);
+		assertEquals(1, ac.getSessions());
+		assertEquals(c1.getSession().getLocalAddress(), s.getSession().getRemoteAddress());
+		
+		c1.stop(TIMEOUT);
+		c1 = null;
+		s.waitForSessionEnding(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		waitFor(ac, 1);
+		assertEquals(c2.getSession().getLocalAddress(), s.getSession().getRemoteAddress());
+		
+		c2.stop(TIMEOUT);
+		c2 = null;
+		s.waitForSessionEnding(TIMEOUT);
+		waitFor(ac, 0);
+	}
+	
+	@Test
+	public void testAcceptRateWithSelectorLoop() throws Exception {
+		DefaultAdmissionController ac = new DefaultAdmissionController().setAcceptRate(10, 1);
+		s = new Server(PORT);
+		s.admission = ac;
+		s.start();
+		
+		long time = System.currentTimeMillis();
+		c1 = new Client(PORT);
+		c1.start();
+		c2 = new Client(PORT);
+		c2.start();
+		c3 = new Client(PORT);
+		c3.start();
+		waitFor(ac, 3);
+		assertTrue(System.currentTimeMillis() - time >= 180);
+		
+		//handshakes are completed when the sessions get ready
+		waitForHandshakes(ac, 0);
+	}
+	
+	@Test
+	public void testMaxSessionsPerAddress() throws Exception {
+		DefaultAdmissionController ac = new DefaultAdmissionController().setMaxSessionsPerAddress(1);
+		s = new Server(PORT);
+		s.admission = ac;
+		s.start();
+		c1 = new Client(PORT);
+		c1.start();
+		c1.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		
+		InetAddress address = ((InetSocketAddress)s.getSession().getRemoteAddress()).getAddress();
+		assertEquals(1, ac.getSessions(address));
+		s.getRecordedData(true);
+		
+		c2 = new Client(PORT);
+		c2.start();
+		c2.waitForSessionEnding(TIMEOUT);
+		assertEquals("", s.getRecordedData(true));
+		assertEquals(1, ac.getSessions(address));
+		assertEquals(1, ac.getSessions());
+		assertTrue(c1.getSession().isOpen());
+		
+		c1.stop(TIMEOUT);
+		c1 = null;
+		s.waitForSessionEnding(TIMEOUT);
+		waitFor(ac, 0);
+		assertEquals(0, ac.getSessions(address));
+		assertFalse(s.getSession().isOpen());
+	}
+	
+	static class TestController extends DefaultAdmissionController {
+		
+		long time = 1000;
+		
+		@Override
+		protected long nanoTime() {
+			return time;
+		}
+	}
+}
@@ -760,6 +760,34 @@ public class EncodeTaskTest {
 		}
 	}
 	
+	@Test
+	public void testAbort() throws Exception {
+		s = new Server(PORT);
+		c = new Client(PORT);
+		
+		s.start();
+		c.start();
+
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+
+		StreamSession session = c.getSession();
+		setWriter(session, new Writer());
+		setCodec(session, createPipeline("SB"));
+		
+		//task that could not be moved to the new loop
+		EncodeTask task = new EncodeTask(session, "ABC");
+		task.future = session.futuresController.getDelegatingFuture();
+		task.abort(new SelectorLoopStoppingException());
+		assertTrue(task.future.isFailed());
+		assertTrue(task.future.cause() instanceof SelectorLoopStoppingException);
+		assertEquals("", getTrace());
+		
+		task = new EncodeTask(session, "ABC");
+		task.abort(new SelectorLoopStoppingException());
+		assertEquals("", getTrace());
+	}
+	
 	class Writer implements IEncodeTaskWriter {
 
 		@Override
@@ -0,0 +1,289 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.snf4j.core.session.DefaultSessionConfig;
+import org.snf4j.core.session.ISessionConfig;
+
+public class IdleTrackerTest {
+
+	final long TIMEOUT = 2000;
+	
+	final int PORT = 7777;
+
+	Server s;
+	
+	Client c;
+	
+	String selectTimeout;
+	
+	@Before
+	public void before() {
+		s = c = null;
+		selectTimeout = System.getProperty(Constants.SELECTOR_SELECT_TIMEOUT);
+		System.setProperty(Constants.SELECTOR_SELECT_TIMEOUT, "20");
+	}
+
+	@After
+	public void after() throws InterruptedException {
+		if (c != null) c.stop(TIMEOUT);
+		if (s != null) s.stop(TIMEOUT);
+		if (selectTimeout == null) {
+			System.clearProperty(Constants.SELECTOR_SELECT_TIMEOUT);
+		}
+		else {
+			System.setProperty(Constants.SELECTOR_SELECT_TIMEOUT, selectTimeout);
+		}
+	}
+	
+	@Test
+	public void testExpire() {
+		IdleTracker t = new IdleTracker();
+		Handler h1 = new Handler();
+		Handler h2 = new Handler();
+		StreamSession s1 = new StreamSession(h1);
+		StreamSession s2 = new StreamSession(h2);
+		
+		h1.config.setReaderIdleTimeout(100).setAllIdleTimeout(300);
+		h2.config.setReaderIdleTimeout(100).setAllIdleTimeout(300);
+		t.add(s1, 1000);
+		t.add(s2, 1050);
+		assertTrue(s1.idleNodes != null);
+		t.add(s1, 1050);
+		t.expire(1099);
+		assertEquals("", h1.getTrace());
+		assertEquals("", h2.getTrace());
+		t.expire(1100);
+		assertEquals("READER_IDLE|", h1.getTrace());
+		assertEquals("", h2.getTrace());
+		t.expire(1150);
+		assertEquals("", h1.getTrace());
+		assertEquals("READER_IDLE|", h2.getTrace());
+		
+		IdleTracker.read(s1, 1160);
+		IdleTracker.written(s2, 1160);
+		t.expire(1200);
+		assertEquals("", h1.getTrace());
+		assertEquals("", h2.getTrace());
+		t.expire(1260);
+		assertEquals("READER_IDLE|", h1.getTrace());
+		assertEquals("READER_IDLE|", h2.getTrace());
+		t.expire(1459);
+		assertEquals("READER_IDLE|", h1.getTrace());
+		assertEquals("READER_IDLE|", h2.getTrace());
+		t.expire(1460);
+		assertEquals("ALL_IDLE|", h1.getTrace());
+		assertEquals("ALL_IDLE|", h2.getTrace());
+		
+		t.remove(s2);
+		assertNull(s2.idleNodes);
+		t.remove(s2);
+		t.expire(2000);
+		assertEquals("READER_IDLE|ALL_IDLE|", h1.getTrace());
+		assertEquals("", h2.getTrace());
+		IdleTracker.read(s2, 2000);
+		IdleTracker.written(s2, 2000);
+		t.remove(s1);
+		t.expire(5000);
+		assertEquals("", h1.getTrace());
+	}
+	
+	@Test
+	public void testWriterIdle() {
+		IdleTracker t = new IdleTracker();
+		Handler h1 = new Handler();
+		StreamSession s1 = new StreamSession(h1);
+		
+		t.add(s1, 1000);
+		assertNull(s1.idleNodes);
+		h1.config.setWriterIdleTimeout(100);
+		t.add(s1, 1000);
+		IdleTracker.read(s1, 1050);
+		t.expire(1100);
+		assertEquals("WRITER_IDLE|", h1.getTrace());
+		IdleTracker.written(s1, 1150);
+		IdleTracker.written(s1, 1150);
+		t.expire(1249);
+		assertEquals("", h1.getTrace());
+		t.expire(1250);
+		assertEquals("WRITER_IDLE|", h1.getTrace());
+	}
+	
+	@Test
+	public void testTimeLeft() {
+		IdleTracker t = new IdleTracker();
+		Handler h1 = new Handler();
+		Handler h2 = new Handler();
+		StreamSession s1 = new StreamSession(h1);
+		StreamSession s2 = new StreamSession(h2);
+		
+		assertEquals(-1, t.timeLeft(1000));
+		h1.config.setReaderIdleTimeout(100).setAllIdleTimeout(300);
+		h2.config.setWriterIdleTimeout(50);
+		t.add(s1, 1000);
+		assertEquals(100, t.timeLeft(1000));
+		assertEquals(40, t.timeLeft(1060));
+		t.add(s2, 1020);
+		assertEquals(40, t.timeLeft(1030));
+		IdleTracker.read(s1, 1050);
+		assertEquals(30, t.timeLeft(1040));
+		t.remove(s2);
+		assertEquals(90, t.timeLeft(1060));
+		assertEquals(0, t.timeLeft(1200));
+		t.remove(s1);
+		assertEquals(-1, t.timeLeft(1200));
+	}
+	
+	@Test
+	public void testSelectorLoopWithoutSelectTimeout() throws Exception {
+		System.setProperty(Constants.SELECTOR_SELECT_TIMEOUT, "0");
+		s = new Server(PORT);
+		s.readerIdleTimeout = 100;
+		s.start();
+		c = new Client(PORT);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		s.getRecordedData(true);
+		
+		//the select is woken up by the idle timeout only
+		Thread.sleep(250);
+		String trace = s.getRecordedData(true);
+		assertTrue(trace, trace.startsWith("TIM;READER_IDLE|TIM;READER_IDLE|"));
+	}
+	
+	@Test
+	public void testSelectorLoop() throws Exception {
+		s = new Server(PORT);
+		s.readerIdleTimeout = 100;
+		s.start();
+		c = new Client(PORT);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		s.getRecordedData(true);
+		
+		Thread.sleep(250);
+		String trace = s.getRecordedData(true);
+		assertTrue(trace, trace.startsWith("TIM;READER_IDLE|TIM;READER_IDLE|"));
+		assertTrue(s.getSession().isOpen());
+		
+		c.stop(TIMEOUT);
+		s.waitForSessionEnding(TIMEOUT);
+		assertNull(s.getSession().idleNodes);
+		s.getRecordedData(true);
+		Thread.sleep(150);
+		assertFalse(s.getRecordedData(true).contains("TIM;"));
+		s.stop(TIMEOUT);
+		c = null;
+	}
+	
+	@Test
+	public void testCloseWhenIdle() throws Exception {
+		s = new Server(PORT);
+		s.allIdleTimeout = 100;
+		s.closeWhenIdle = true;
+		s.start();
+		c = new Client(PORT);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		
+		long time = System.currentTimeMillis();
+		c.write(new Packet(PacketType.NOP));
+		s.waitForDataRead(TIMEOUT);
+		s.waitForSessionEnding(TIMEOUT);
+		c.waitForSessionEnding(TIMEOUT);
+		assertTrue(System.currentTimeMillis() - time >= 90);
+		assertFalse(s.getRecordedData(true).contains("TIM;"));
+	}
+	
+	@Test
+	public void testMigrate() throws Exception {
+		s = new Server(PORT);
+		s.readerIdleTimeout = 100;
+		s.start();
+		c = new Client(PORT);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		
+		SelectorLoop loop = new SelectorLoop();
+		
+		try {
+			loop.start();
+			assertTrue(loop.migrate(s.getSession()).await(TIMEOUT).isSuccessful());
+			s.getRecordedData(true);
+			Thread.sleep(250);
+			String trace = s.getRecordedData(true);
+			assertTrue(trace, trace.startsWith("TIM;READER_IDLE|TIM;READER_IDLE|"));
+			assertTrue(s.getSession().loop == loop);
+			assertTrue(s.getSession().idleNodes != null);
+		}
+		finally {
+			c.stop(TIMEOUT);
+			s.waitForSessionEnding(TIMEOUT);
+			loop.stop();
+			loop.join(TIMEOUT);
+		}
+	}
+	
+	static class Handler extends TestHandler {
+		
+		DefaultSessionConfig config = new DefaultSessionConfig();
+		
+		StringBuilder trace = new StringBuilder();
+		
+		Handler() {
+			super("Test");
+		}
+		
+		String getTrace() {
+			String s = trace.toString();
+			
+			trace.setLength(0);
+			return s;
+		}
+		
+		@Override
+		public ISessionConfig getConfig() {
+			return config;
+		}
+		
+		@Override
+		public void timer(Object event) {
+			trace.append(event).append('|');
+		}
+	}
+}
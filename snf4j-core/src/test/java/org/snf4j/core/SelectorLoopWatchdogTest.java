@@ -0,0 +1,285 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.snf4j.core.metric.ISelectorLoopStallListener;
+import org.snf4j.core.metric.LatencyHistogram;
+
+public class SelectorLoopWatchdogTest {
+
+	final long TIMEOUT = 2000;
+	
+	final int PORT = 7777;
+
+	Server s;
+	
+	Client c;
+	
+	SelectorLoop loop;
+	
+	SelectorLoopWatchdog watchdog;
+	
+	Listener listener;
+	
+	@Before
+	public void before() {
+		s = c = null;
+		loop = null;
+		watchdog = null;
+		listener = new Listener();
+	}
+
+	@After
+	public void after() throws InterruptedException {
+		if (watchdog != null) watchdog.stop();
+		if (c != null) c.stop(TIMEOUT);
+		if (s != null) s.stop(TIMEOUT);
+		if (loop != null) {
+			loop.stop();
+			loop.join(TIMEOUT);
+		}
+	}
+	
+	@Test
+	public void testConstructor() {
+		try {
+			new SelectorLoopWatchdog(0, listener);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("budget is not positive", e.getMessage());
+		}
+		try {
+			new SelectorLoopWatchdog(1, null);
+			fail();
+		}
+		catch (NullPointerException e) {
+		}
+		assertEquals(10, new SelectorLoopWatchdog(10, listener).getBudget());
+	}
+	
+	Thread thread(SelectorLoopWatchdog watchdog) throws Exception {
+		Field f = SelectorLoopWatchdog.class.getDeclaredField("thread");
+		
+		f.setAccessible(true);
+		return (Thread) f.get(watchdog);
+	}
+	
+	@Test
+	public void testThread() throws Exception {
+		SelectorLoop loop2 = new SelectorLoop();
+		
+		loop = new SelectorLoop();
+		watchdog = new SelectorLoopWatchdog(10, listener);
+		assertNull(thread(watchdog));
+		watchdog.watch(loop);
+		watchdog.watch(loop2);
+		Thread t = thread(watchdog);
+		assertTrue(t.isAlive());
+		watchdog.unwatch(loop);
+		assertSame(t, thread(watchdog));
+		watchdog.unwatch(loop2);
+		assertNull(thread(watchdog));
+		t.join(TIMEOUT);
+		assertFalse(t.isAlive());
+		watchdog.watch(loop);
+		t = thread(watchdog);
+		assertTrue(t.isAlive());
+		watchdog.stop();
+		t.join(TIMEOUT);
+		assertFalse(t.isAlive());
+	}
+	
+	@Test
+	public void testWatch() throws Exception {
+		loop = new SelectorLoop();
+		watchdog = new SelectorLoopWatchdog(10, listener);
+		SelectorLoopWatchdog watchdog2 = new SelectorLoopWatchdog(10, listener);
+		
+		assertNull(watchdog.getStalls(loop));
+		watchdog.watch(loop);
+		LatencyHistogram stalls = watchdog.getStalls(loop);
+		assertTrue(stalls != null);
+		watchdog.watch(loop);
+		assertSame(stalls, watchdog.getStalls(loop));
+		watchdog2.watch(loop);
+		assertNull(watchdog.getStalls(loop));
+		assertTrue(watchdog2.getStalls(loop) != null);
+		watchdog.unwatch(loop);
+		assertTrue(watchdog2.getStalls(loop) != null);
+		watchdog2.unwatch(loop);
+		assertNull(watchdog2.getStalls(loop));
+		watchdog2.watch(loop);
+		watchdog2.stop();
+		assertNull(watchdog2.getStalls(loop));
+		try {
+			watchdog.watch(null);
+			fail();
+		}
+		catch (NullPointerException e) {
+		}
+	}
+	
+	@Test
+	public void testTask() throws Exception {
+		loop = new SelectorLoop();
+		loop.start();
+		watchdog = new SelectorLoopWatchdog(50, listener);
+		watchdog.watch(loop);
+		
+		Runnable fast = new Runnable() {
+
+			@Override
+			public void run() {
+			}
+		};
+		Runnable slow = new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+		loop.execute(fast).sync(TIMEOUT);
+		assertEquals("", listener.getTrace());
+		assertEquals(0, watchdog.getStalls(loop).getCount());
+		
+		loop.execute(slow).sync(TIMEOUT);
+		loop.execute(fast).sync(TIMEOUT);
+		assertEquals("S|O|", listener.getTrace());
+		assertSame(slow, listener.targets.get(0));
+		assertSame(slow, listener.targets.get(1));
+		assertSame(loop, listener.loops.get(0));
+		assertTrue(listener.durations.get(0) >= 50000000L);
+		assertTrue(listener.durations.get(1) >= 300000000L);
+		assertTrue(listener.inSleep);
+		assertEquals(1, watchdog.getStalls(loop).getCount());
+		assertTrue(watchdog.getStalls(loop).getMax() >= 300000000L);
+		
+		watchdog.unwatch(loop);
+		loop.execute(slow).sync(TIMEOUT);
+		Thread.sleep(100);
+		assertEquals("", listener.getTrace());
+	}
+	
+	@Test
+	public void testSelectedKey() throws Exception {
+		s = new Server(PORT);
+		s.start();
+		watchdog = new SelectorLoopWatchdog(100, listener);
+		watchdog.watch(s.getSelectLoop());
+		c = new Client(PORT);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		s.getSelectLoop().execute(new Runnable() {
+
+			@Override
+			public void run() {
+			}
+		}).sync(TIMEOUT);
+		listener.clear();
+		
+		c.write(new Packet(PacketType.WRITE_AND_WAIT, "300"));
+		c.waitForDataRead(TIMEOUT);
+		s.getSelectLoop().execute(new Runnable() {
+
+			@Override
+			public void run() {
+			}
+		}).sync(TIMEOUT);
+		assertEquals("S|O|", listener.getTrace());
+		assertSame(s.getSession(), listener.targets.get(0));
+		assertSame(s.getSession(), listener.targets.get(1));
+		assertTrue(listener.inSleep);
+		assertTrue(watchdog.getStalls(s.getSelectLoop()).getMax() >= 300000000L);
+	}
+	
+	static class Listener implements ISelectorLoopStallListener {
+		
+		StringBuilder trace = new StringBuilder();
+		
+		List<Object> targets = new ArrayList<Object>();
+
+		List<SelectorLoop> loops = new ArrayList<SelectorLoop>();
+		
+		List<Long> durations = new ArrayList<Long>();
+		
+		volatile boolean inSleep;
+		
+		synchronized void clear() {
+			trace.setLength(0);
+			targets.clear();
+			loops.clear();
+			durations.clear();
+		}
+		
+		synchronized String getTrace() {
+			String s = trace.toString();
+			
+			trace.setLength(0);
+			return s;
+		}
+		
+		@Override
+		public synchronized void stalled(SelectorLoop loop, Object target, long duration, StackTraceElement[] stack) {
+			trace.append("S|");
+			targets.add(target);
+			loops.add(loop);
+			durations.add(duration);
+			for (StackTraceElement e: stack) {
+				if (e.getMethodName().equals("sleep")) {
+					inSleep = true;
+				}
+			}
+		}
+
+		@Override
+		public synchronized void overran(SelectorLoop loop, Object target, long duration) {
+			trace.append("O|");
+			targets.add(target);
+			loops.add(loop);
+			durations.add(duration);
+		}
+	}
+}
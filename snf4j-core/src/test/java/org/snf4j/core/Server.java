@@ -74,6 +74,8 @@ import org.snf4j.core.session.ISessionConfig;
 import org.snf4j.core.session.SSLEngineCreateException;
 import org.snf4j.core.timer.ITimeoutModel;
 import org.snf4j.core.timer.ITimer;
+import org.snf4j.core.traffic.TokenBucket;
+import org.snf4j.core.traffic.TrafficShaper;
 
 public class Server {
 	public SelectorLoop loop;
@@ -87,6 +89,10 @@ public class Server {
 	public StreamSession registeredSession;
 	public ThreadFactory threadFactory;
 	public ISelectorLoopController controller;
+	public IAdmissionController admission;
+	public TrafficShaper trafficShaper;
+	public long readRate;
+	public long writeRate;
 	public long throughputCalcInterval = 1000;
 	public boolean directAllocator;
 	public boolean ignoreAvailableException;
@@ -109,6 +115,10 @@ public class Server {
 	public volatile boolean optimizeDataCopying;
 	public volatile int maxWriteSpinCount = -1;
 	public volatile boolean quicklyCloseEngine;
+	public long readerIdleTimeout;
+	public long writerIdleTimeout;
+	public long allIdleTimeout;
+	public boolean closeWhenIdle;
 
 	public volatile int availableCounter;
 	
@@ -429,6 +439,12 @@ public class Server {
 		if (controller != null) {
 			loop.setController(controller);
 		}
+		if (admission != null) {
+			loop.setAdmissionController(admission);
+		}
+		if (trafficShaper != null) {
+			loop.setTrafficShaper(trafficShaper);
+		}
 		if (threadFactory != null) {
 			loop.setThreadFactory(threadFactory);
 		}
@@ -617,6 +633,16 @@ public class Server {
 				public ICodecExecutor createCodecExecutor() {
 					return codecPipeline;
 				}
+				
+				@Override
+				public TrafficShaper createTrafficShaper() {
+					if (readRate == 0 && writeRate == 0) {
+						return null;
+					}
+					return new TrafficShaper(
+							readRate > 0 ? new TokenBucket(readRate) : null, 
+							writeRate > 0 ? new TokenBucket(writeRate) : null);
+				}
 			};
 			
 			config.setMinInBufferCapacity(minInBufferCapacity);
@@ -643,6 +669,10 @@ public class Server {
 				config.setMaxWriteSpinCount(maxWriteSpinCount);
 			}
 			config.setQuicklyCloseEngineOnFailure(quicklyCloseEngine);
+			config.setReaderIdleTimeout(readerIdleTimeout);
+			config.setWriterIdleTimeout(writerIdleTimeout);
+			config.setAllIdleTimeout(allIdleTimeout);
+			config.setCloseWhenIdle(closeWhenIdle);
 			return config;
 		}
 
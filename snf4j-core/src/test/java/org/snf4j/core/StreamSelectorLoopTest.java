@@ -46,11 +46,14 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.After;
 import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
+import org.snf4j.core.codec.DefaultCodecExecutor;
 import org.snf4j.core.factory.AbstractSessionFactory;
 import org.snf4j.core.factory.DefaultThreadFactory;
 import org.snf4j.core.factory.IStreamSessionFactory;
@@ -58,6 +61,9 @@ import org.snf4j.core.future.IFuture;
 import org.snf4j.core.handler.IStreamHandler;
 import org.snf4j.core.logger.TestLogger;
 import org.snf4j.core.pool.DefaultSelectorLoopPool;
+import org.snf4j.core.session.IllegalSessionStateException;
+import org.snf4j.core.timer.DefaultTimeSource;
+import org.snf4j.core.timer.ITimeSource;
 
 public class StreamSelectorLoopTest {
 	final long TIMEOUT = 2000;
@@ -952,6 +958,62 @@ public class StreamSelectorLoopTest {
 		s.stop(TIMEOUT);		
 	}
 
+	@Test
+	public void testAcceptBudget() throws Exception {
+		SelectorLoop loop = new SelectorLoop();
+		
+		assertEquals(SelectorLoop.DEFAULT_ACCEPT_BUDGET, loop.getAcceptBudget());
+		loop.setAcceptBudget(1);
+		assertEquals(1, loop.getAcceptBudget());
+		try {
+			loop.setAcceptBudget(0);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("budget is less than 1", e.getMessage());
+		}
+		
+		TestSelectorPool pool = new TestSelectorPool();
+		loop.start();
+		pool.loop = loop;
+		s = new Server(PORT);
+		s.start();
+		s.getSelectLoop().setPool(pool);
+		s.getSelectLoop().setAcceptBudget(4);
+		
+		//let the connections wait in the backlog
+		s.getSelectLoop().execute(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(500);
+				} catch (InterruptedException e) {
+				}
+			}
+		});
+		
+		SocketChannel[] channels = new SocketChannel[10];
+		
+		for (int i=0; i<channels.length; ++i) {
+			channels[i] = SocketChannel.open(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), PORT));
+		}
+		for (int i=0; i<50 && loop.getSize() < channels.length; ++i) {
+			waitFor(50);
+		}
+		assertEquals(channels.length, loop.getSize());
+		assertEquals(1, s.getSelectLoop().getSize());
+		for (SocketChannel channel: channels) {
+			channel.close();
+		}
+		for (int i=0; i<50 && loop.getSize() > 0; ++i) {
+			waitFor(50);
+		}
+		assertEquals(0, loop.getSize());
+		loop.stop();
+		assertTrue(loop.join(TIMEOUT));
+	}
+	
 	@Test
 	public void testHandleConnecting() throws Exception {
 		TestSelectorLoopController slc = new TestSelectorLoopController();
@@ -1432,6 +1494,276 @@ public class StreamSelectorLoopTest {
 		selector.close();
     }
 
+    @Test
+    public void testTimeSource() throws Exception {
+		final long[] millis = new long[] {1000000};
+		ITimeSource source = new ITimeSource() {
+
+			@Override
+			public long currentTimeMillis() {
+				return millis[0];
+			}
+
+			@Override
+			public long nanoTime() {
+				return millis[0] * 1000000L;
+			}
+		};
+		
+		SelectorLoop loop = new SelectorLoop();
+		assertTrue(loop.getTimeSource() == DefaultTimeSource.DEFAULT);
+		try {
+			loop.setTimeSource(null);
+			fail();
+		}
+		catch (NullPointerException e) {
+		}
+		loop.setTimeSource(source);
+		assertTrue(loop.getTimeSource() == source);
+		assertEquals(1000000, loop.currentTimeMillis());
+		assertEquals(1000000000000L, loop.nanoTime());
+		loop.stop();
+		
+		s = new Server(PORT);
+		s.start();
+		c = new Client(PORT);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		c.getRecordedData(true);
+		s.getRecordedData(true);
+		s.getSelectLoop().setTimeSource(source);
+		
+		millis[0] = 2000000;
+		c.write(new Packet(PacketType.ECHO, "1"));
+		c.waitForDataRead(TIMEOUT);
+		s.waitForDataSent(TIMEOUT);
+		assertEquals(2000000, s.getSelectLoop().currentTimeMillis());
+		assertEquals(2000000, s.getSession().getLastReadTime());
+		assertEquals(2000000, s.getSession().getLastWriteTime());
+		assertEquals(2000000, s.getSession().getLastIoTime());
+		assertTrue(c.getSession().getLastReadTime() > 2000000);
+		
+		StreamSession session = new StreamSession(new TestHandler("Test"));
+		assertTrue(session.getCreationTime() > 2000000);
+		loop = new SelectorLoop();
+		loop.setTimeSource(source);
+		session.setLoop(loop);
+		assertEquals(2000000, session.getCreationTime());
+		assertEquals(2000000, session.getLastIoTime());
+		millis[0] = 3000000;
+		loop.setTimeSource(source);
+		session.setLoop(loop);
+		assertEquals(2000000, session.getCreationTime());
+		loop.stop();
+	}
+	
+	@Test
+    public void testMigrate() throws Exception {
+		s = new Server(PORT);
+		s.start();
+		c = new Client(PORT);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		c.getRecordedData(true);
+		s.getRecordedData(true);
+		
+		SelectorLoop loop = new SelectorLoop();
+		loop.start();
+		StreamSession session = c.getSession();
+		SelectionKey key = session.key;
+		
+		//migrate with pending data
+		session.suspendWrite();
+		c.write(new Packet(PacketType.ECHO, "1"));
+		IFuture<Void> future = loop.migrate(session);
+		assertTrue(future.await(TIMEOUT).isSuccessful());
+		assertTrue(session.loop == loop);
+		assertFalse(key.isValid());
+		assertTrue(session.key.isValid());
+		assertTrue(session.key.selector() == loop.selector);
+		session.resumeWrite();
+		c.waitForDataRead(TIMEOUT);
+		s.waitForDataSent(TIMEOUT);
+		assertEquals("DR|ECHO(1)|DS|", s.getRecordedData(true));
+		assertEquals("DS|DR|ECHO_RESPONSE(1)|", c.getRecordedData(true));
+		waitFor(100);
+		assertEquals(0, c.loop.getSize());
+		assertEquals(1, loop.getSize());
+		
+		//migrate to the same loop
+		assertTrue(loop.migrate(session).await(TIMEOUT).isSuccessful());
+		assertTrue(session.loop == loop);
+		
+		//migrate back
+		assertTrue(c.loop.migrate(session).await(TIMEOUT).isSuccessful());
+		assertTrue(session.loop == c.loop);
+		c.write(new Packet(PacketType.ECHO, "2"));
+		c.waitForDataRead(TIMEOUT);
+		s.waitForDataSent(TIMEOUT);
+		assertEquals("DR|ECHO(2)|DS|", s.getRecordedData(true));
+		assertEquals("DS|DR|ECHO_RESPONSE(2)|", c.getRecordedData(true));
+		
+		try {
+			loop.migrate(null);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("session is null", e.getMessage());
+		}
+		try {
+			loop.migrate(new TestSession());
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("session cannot be migrated", e.getMessage());
+		}
+		try {
+			loop.migrate(new StreamSession(new TestHandler("")));
+			fail();
+		}
+		catch (IllegalSessionStateException e) {
+		}
+		
+		session.close();
+		c.waitForSessionEnding(TIMEOUT);
+		s.waitForSessionEnding(TIMEOUT);
+		assertEquals("SCL|SEN|", c.getRecordedData(true));
+		assertEquals("SCL|SEN|", s.getRecordedData(true));
+		try {
+			loop.migrate(session);
+			fail();
+		}
+		catch (IllegalSessionStateException e) {
+		}
+		
+		loop.stop();
+		assertTrue(loop.join(TIMEOUT));
+		try {
+			loop.migrate(session);
+			fail();
+		}
+		catch (ClosedSelectorException e) {
+		}
+    }
+    
+    @Test
+    public void testMigrateWithPendingRegistration() throws Exception {
+		s = new Server(PORT);
+		s.start();
+		c = new Client(PORT);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		c.getRecordedData(true);
+		s.getRecordedData(true);
+		
+		//select in the new loop blocks until woken up
+		String selectTimeout = System.getProperty(Constants.SELECTOR_SELECT_TIMEOUT);
+		SelectorLoop loop;
+		
+		System.setProperty(Constants.SELECTOR_SELECT_TIMEOUT, "0");
+		try {
+			loop = new SelectorLoop();
+		}
+		finally {
+			if (selectTimeout == null) {
+				System.clearProperty(Constants.SELECTOR_SELECT_TIMEOUT);
+			}
+			else {
+				System.setProperty(Constants.SELECTOR_SELECT_TIMEOUT, selectTimeout);
+			}
+		}
+		StreamSession session = c.getSession();
+		
+		//the session is still handled by the old loop until the new loop registers it
+		IFuture<Void> future = loop.migrate(session);
+		waitFor(100);
+		assertFalse(future.isDone());
+		assertTrue(session.loop == c.loop);
+		c.write(new Packet(PacketType.ECHO, "1"));
+		c.waitForDataRead(TIMEOUT);
+		s.waitForDataSent(TIMEOUT);
+		assertEquals("DR|ECHO(1)|DS|", s.getRecordedData(true));
+		assertEquals("DS|DR|ECHO_RESPONSE(1)|", c.getRecordedData(true));
+		
+		loop.start();
+		assertTrue(future.await(TIMEOUT).isSuccessful());
+		assertTrue(session.loop == loop);
+		assertTrue(session.key.selector() == loop.selector);
+		c.write(new Packet(PacketType.ECHO, "2"));
+		c.waitForDataRead(TIMEOUT);
+		s.waitForDataSent(TIMEOUT);
+		assertEquals("DR|ECHO(2)|DS|", s.getRecordedData(true));
+		assertEquals("DS|DR|ECHO_RESPONSE(2)|", c.getRecordedData(true));
+		
+		//migrate back from the loop blocked in select
+		assertTrue(c.loop.migrate(session).await(TIMEOUT).isSuccessful());
+		assertTrue(session.loop == c.loop);
+		c.write(new Packet(PacketType.ECHO, "3"));
+		c.waitForDataRead(TIMEOUT);
+		s.waitForDataSent(TIMEOUT);
+		assertEquals("DR|ECHO(3)|DS|", s.getRecordedData(true));
+		assertEquals("DS|DR|ECHO_RESPONSE(3)|", c.getRecordedData(true));
+		loop.stop();
+		assertTrue(loop.join(TIMEOUT));
+    }
+    
+    @Test
+    public void testMigrateWithConcurrentWrites() throws Exception {
+		s = new Server(PORT);
+		s.start();
+		c = new Client(PORT);
+		c.codecPipeline = new DefaultCodecExecutor();
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		c.getRecordedData(true);
+		s.getRecordedData(true);
+		
+		SelectorLoop loop = new SelectorLoop();
+		loop.start();
+		final StreamSession session = c.getSession();
+		final int count = 2000;
+		
+		//writes queued in the old loop must not be overtaken by later ones
+		Thread writer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				for (int i=0; i<count; ++i) {
+					session.writenf(new Packet(PacketType.ECHO, "" + i).toBytes());
+					if (i % 50 == 0) {
+						Thread.yield();
+					}
+				}
+			}
+		});
+		writer.start();
+		int migrations = 0;
+		while (writer.isAlive() || migrations == 0) {
+			assertTrue(loop.migrate(session).await(TIMEOUT).isSuccessful());
+			assertTrue(c.loop.migrate(session).await(TIMEOUT).isSuccessful());
+			migrations += 2;
+		}
+		writer.join(TIMEOUT);
+		
+		String last = "ECHO(" + (count-1) + ")";
+		for (int i=0; i<50 && !s.getRecordedData(false).contains(last); ++i) {
+			waitFor(100);
+		}
+		
+		Matcher m = Pattern.compile("\\|ECHO\\((\\d+)\\)").matcher(s.getRecordedData(true));
+		int expected = 0;
+		while (m.find()) {
+			assertEquals(expected++, Integer.parseInt(m.group(1)));
+		}
+		assertEquals(count, expected);
+		loop.stop();
+		assertTrue(loop.join(TIMEOUT));
+    }
+    
     @Test
     public void testRebuildWithException() throws Exception {
     	TestSelectorFactory factory = new TestSelectorFactory();
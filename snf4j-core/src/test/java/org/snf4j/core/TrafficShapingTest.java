@@ -0,0 +1,170 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.snf4j.core.session.ISession;
+import org.snf4j.core.session.IStreamSession;
+import org.snf4j.core.traffic.TokenBucket;
+import org.snf4j.core.traffic.TrafficShaper;
+
+public class TrafficShapingTest {
+
+	final long TIMEOUT = 2000;
+	
+	final int PORT = 7777;
+
+	Server s;
+	
+	Client c;
+	
+	@Before
+	public void before() {
+		s = c = null;
+	}
+
+	@After
+	public void after() throws InterruptedException {
+		if (c != null) c.stop(TIMEOUT);
+		if (s != null) s.stop(TIMEOUT);
+	}
+	
+	void start() throws Exception {
+		s.start();
+		c = new Client(PORT);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+	}
+	
+	long write(IStreamSession session, int count) {
+		byte[] data = new Packet(PacketType.NOP, new String(new char[997]).replace('\0', 'x')).toBytes();
+		
+		for (int i=0; i<count; ++i) {
+			session.write(data);
+		}
+		return (long)data.length * count;
+	}
+	
+	void waitForRead(ISession session, long bytes) throws InterruptedException {
+		for (int i=0; i<250; ++i) {
+			if (session.getReadBytes() >= bytes) {
+				break;
+			}
+			Thread.sleep(20);
+		}
+		assertEquals(bytes, session.getReadBytes());
+	}
+	
+	@Test
+	public void testReadShaping() throws Exception {
+		s = new Server(PORT);
+		s.readRate = 200000;
+		start();
+		
+		long time = System.currentTimeMillis();
+		long bytes = write(c.getSession(), 300);
+		waitForRead(s.getSession(), bytes);
+		assertTrue(System.currentTimeMillis() - time >= 400);
+		assertFalse(s.getSession().isReadSuspended());
+		assertFalse(s.getSession().readThrottled);
+	}
+	
+	@Test
+	public void testWriteShaping() throws Exception {
+		s = new Server(PORT);
+		s.writeRate = 200000;
+		start();
+		
+		long time = System.currentTimeMillis();
+		long bytes = write(s.getSession(), 300);
+		waitForRead(c.getSession(), bytes);
+		assertTrue(System.currentTimeMillis() - time >= 400);
+		Thread.sleep(100);
+		assertFalse(s.getSession().isWriteSuspended());
+		assertFalse(s.getSession().writeThrottled);
+		assertEquals(bytes, s.getSession().getWrittenBytes());
+	}
+
+	@Test
+	public void testLoopShaping() throws Exception {
+		TrafficShaper global = new TrafficShaper(new TokenBucket(200000), null);
+		
+		s = new Server(PORT);
+		s.trafficShaper = new TrafficShaper(null, null, global);
+		start();
+		assertTrue(s.trafficShaper == s.loop.getTrafficShaper());
+		
+		long time = System.currentTimeMillis();
+		long bytes = write(c.getSession(), 300);
+		waitForRead(s.getSession(), bytes);
+		assertTrue(System.currentTimeMillis() - time >= 400);
+	}
+	
+	@Test
+	public void testSuspendWhenThrottled() throws Exception {
+		s = new Server(PORT);
+		s.readRate = 10000;
+		start();
+		
+		long bytes = write(c.getSession(), 20);
+		Thread.sleep(50);
+		StreamSession session = s.getSession();
+		assertTrue(session.readThrottled);
+		long read = session.getReadBytes();
+		assertTrue(read < bytes);
+		
+		session.suspendRead();
+		session.resumeRead();
+		session.suspendRead();
+		Thread.sleep(1200);
+		assertFalse(session.readThrottled);
+		assertTrue(session.isReadSuspended());
+		assertEquals(read, session.getReadBytes());
+		session.resumeRead();
+		waitForRead(session, bytes);
+	}
+	
+	@Test
+	public void testCloseWhenThrottled() throws Exception {
+		s = new Server(PORT);
+		s.writeRate = 10000;
+		start();
+		
+		write(s.getSession(), 20);
+		Thread.sleep(50);
+		assertTrue(s.getSession().writeThrottled);
+		c.getSession().quickClose();
+		c.waitForSessionEnding(TIMEOUT);
+		s.waitForSessionEnding(TIMEOUT);
+	}
+}
@@ -1886,6 +1886,63 @@ public class CodecPipelineTest {
 		
 	}
 	
+	@Test
+	public void testReusedLists() throws Exception {
+		DefaultCodecExecutor p = new DefaultCodecExecutor();
+		p.getPipeline().add(1, new BSD());
+		p.getPipeline().add(2, new SSD());
+		p.getPipeline().add(3, new SBD());
+		p.getPipeline().add(4, new BVD("V4",true));
+		p.getPipeline().add(5, new BSDDuplicate());
+		p.syncDecoders(null);
+		List<Object> out1 = p.decode(null, "ABC".getBytes());
+		assertEquals("BSD|SSD|SBD|V4(ABC)|BSDDuplicate|", getTrace());
+		List<Object> out2 = p.decode(new TestSession(), ByteBuffer.wrap("DEF".getBytes()));
+		assertEquals("BSD|SSD|SBD|V4(DEF)|BSDDuplicate|", getTrace());
+		assertFalse(out1 == out2);
+		assertEquals("[ABC, ABC]", out1.toString());
+		assertEquals("[DEF, DEF]", out2.toString());
+		
+		p = new DefaultCodecExecutor();
+		p.getPipeline().add(1, new BSDDiscard());
+		p.getPipeline().add(2, new SBD());
+		p.syncDecoders(null);
+		out1 = p.decode(null, "ABC".getBytes());
+		assertEquals(0, out1.size());
+		assertEquals("BSDDiscard|", getTrace());
+		
+		final DefaultCodecExecutor p2 = new DefaultCodecExecutor();
+		p2.getPipeline().add(1, new SBE());
+		p2.getPipeline().add(2, new SSE() {
+			@Override public void encode(ISession session, String data, List<String> out) {
+				if (data.equals("ABC")) {
+					List<Object> nested;
+					
+					try {
+						nested = p2.encode(session, (Object)"XYZ");
+					} catch (Exception e) {
+						throw new RuntimeException(e);
+					}
+					assertEquals(1, nested.size());
+					out.add(new String((byte[]) nested.get(0)));
+				}
+				super.encode(session, data, out);
+			}
+		});
+		p2.getPipeline().add(3, new SSE());
+		p2.syncEncoders(null);
+		List<Object> o1 = p2.encode(null, (Object)"ABC");
+		assertEquals("SSE|SSE|SSE|SBE|SSE|SBE|SBE|", getTrace());
+		List<Object> o2 = p2.encode(null, (Object)"DEF");
+		assertEquals("SSE|SSE|SBE|", getTrace());
+		assertFalse(o1 == o2);
+		assertEquals(2, o1.size());
+		assertEquals("XYZ", new String((byte[])o1.get(0)));
+		assertEquals("ABC", new String((byte[])o1.get(1)));
+		assertEquals(1, o2.size());
+		assertEquals("DEF", new String((byte[])o2.get(0)));
+	}
+	
 	@Test 
 	public void testSessionEventOrdinals() {
 		assertEquals(5, SessionEvent.values().length);
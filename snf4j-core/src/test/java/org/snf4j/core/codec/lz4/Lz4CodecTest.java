@@ -0,0 +1,234 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.codec.lz4;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.snf4j.core.TestSession;
+import org.snf4j.core.codec.zip.DecompressionException;
+import org.snf4j.core.handler.SessionEvent;
+
+public class Lz4CodecTest {
+
+	final List<ByteBuffer> out = new ArrayList<ByteBuffer>();
+	
+	final List<ByteBuffer> out2 = new ArrayList<ByteBuffer>();
+	
+	boolean direct;
+	
+	final TestSession session = new TestSession() {
+		
+		@Override
+		public ByteBuffer allocate(int capacity) {
+			return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+		}
+	};
+	
+	static ByteBuffer buffer(byte[] bytes, boolean direct) {
+		ByteBuffer b = direct ? ByteBuffer.allocateDirect(bytes.length + 10) : ByteBuffer.allocate(bytes.length + 10);
+		
+		b.position(5);
+		b.put(bytes);
+		b.flip();
+		b.position(5);
+		return b;
+	}
+	
+	static byte[] bytes(List<ByteBuffer> buffers) {
+		int len = 0;
+		
+		for (ByteBuffer b: buffers) {
+			len += b.remaining();
+		}
+		
+		byte[] bytes = new byte[len];
+		ByteBuffer dst = ByteBuffer.wrap(bytes);
+		
+		for (ByteBuffer b: buffers) {
+			dst.put(b.duplicate());
+		}
+		return bytes;
+	}
+	
+	@Test
+	public void testConstructor() {
+		assertEquals(65536, new Lz4Encoder().getBlockSize());
+		assertEquals(65536, new Lz4Decoder().getBlockSize());
+		assertEquals(1, new Lz4Encoder(1).getBlockSize());
+		assertEquals(1 << 24, new Lz4Decoder(1 << 24, true).getBlockSize());
+		assertSame(ByteBuffer.class, new Lz4Encoder().getInboundType());
+		assertSame(ByteBuffer.class, new Lz4Decoder().getOutboundType());
+		try {
+			new Lz4Encoder(0);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("blockSize is out of range", e.getMessage());
+		}
+		try {
+			new Lz4Decoder((1 << 24) + 1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("blockSize is out of range", e.getMessage());
+		}
+	}
+	
+	void assertEncodeDecode(byte[] data, int blockSize, int frames, boolean inDirect) throws Exception {
+		Lz4Encoder e = new Lz4Encoder(blockSize);
+		Lz4Decoder d = new Lz4Decoder(blockSize);
+		
+		out.clear();
+		e.encode(session, buffer(data, inDirect), out);
+		assertEquals(frames, out.size());
+		out2.clear();
+		for (ByteBuffer b: out) {
+			assertEquals(direct, b.isDirect());
+			d.decode(session, b, out2);
+			assertTrue(!b.hasRemaining());
+		}
+		assertArrayEquals(data, bytes(out2));
+	}
+	
+	@Test
+	public void testEncodeDecode() throws Exception {
+		byte[] data = Lz4Test.bytes(10000, 4);
+		
+		for (int i=0; i<4; ++i) {
+			direct = (i & 1) != 0;
+			boolean inDirect = (i & 2) != 0;
+			
+			assertEncodeDecode(data, 65536, 1, inDirect);
+			assertEncodeDecode(data, 1000, 10, inDirect);
+			assertEncodeDecode(data, 999, 11, inDirect);
+			assertEncodeDecode(Lz4Test.bytes(10000, 256), 1000, 10, inDirect);
+			assertEncodeDecode(new byte[0], 1000, 0, inDirect);
+			assertEncodeDecode(new byte[3], 1000, 1, inDirect);
+		}
+	}
+	
+	@Test
+	public void testFrameFormat() throws Exception {
+		Lz4Encoder e = new Lz4Encoder();
+		
+		e.encode(session, ByteBuffer.wrap("abc".getBytes()), out);
+		assertEquals(1, out.size());
+		assertArrayEquals(new byte[] {(byte)0x80,0,0,3,0,0,0,3,'a','b','c'}, bytes(out));
+		out.clear();
+		e.encode(session, ByteBuffer.wrap(new byte[100]), out);
+		ByteBuffer b = out.get(0);
+		assertTrue(b.getInt(0) > 0 && b.getInt(0) < 100);
+		assertEquals(100, b.getInt(4));
+		assertEquals(b.getInt(0) + 8, b.remaining());
+	}
+	
+	@Test
+	public void testSplitFrames() throws Exception {
+		byte[] data = Lz4Test.bytes(5000, 4);
+		Lz4Encoder e = new Lz4Encoder(1000);
+		
+		e.encode(session, ByteBuffer.wrap(data), out);
+		byte[] encoded = bytes(out);
+		
+		for (int split=1; split<20; ++split) {
+			Lz4Decoder d = new Lz4Decoder(1000);
+			
+			out2.clear();
+			for (int i=0; i<encoded.length; i+=split) {
+				ByteBuffer in = ByteBuffer.wrap(encoded, i, Math.min(split, encoded.length - i));
+				d.decode(session, in, out2);
+				assertTrue(!in.hasRemaining());
+			}
+			assertArrayEquals(data, bytes(out2));
+		}
+		
+		Lz4Decoder d = new Lz4Decoder(1000);
+		out2.clear();
+		d.decode(session, ByteBuffer.wrap(encoded, 0, encoded.length-1), out2);
+		d.event(session, SessionEvent.ENDING);
+		d.decode(session, ByteBuffer.wrap(new byte[] {(byte)0x80,0,0,1,0,0,0,1,'x'}), out2);
+		assertEquals("x", new String(bytes(out2.subList(out2.size()-1, out2.size()))));
+	}
+	
+	@Test
+	public void testRelease() throws Exception {
+		Lz4Encoder e = new Lz4Encoder(100, true);
+		Lz4Decoder d = new Lz4Decoder(100, true);
+		ByteBuffer in = ByteBuffer.wrap(new byte[250]);
+		
+		e.encode(session, in, out);
+		assertEquals(3, out.size());
+		assertEquals(1, session.released.size());
+		assertSame(in, session.released.get(0));
+		ByteBuffer frame = out.get(0);
+		ByteBuffer part = frame.duplicate();
+		part.limit(3);
+		d.decode(session, part, out2);
+		assertEquals(0, out2.size());
+		assertSame(part, session.released.get(1));
+		frame.position(3);
+		d.decode(session, frame, out2);
+		assertEquals(1, out2.size());
+		assertSame(frame, session.released.get(2));
+		e.event(session, SessionEvent.ENDING);
+		d.event(session, SessionEvent.ENDING);
+	}
+	
+	void assertFailure(Lz4Decoder d, byte[] data, String message) throws Exception {
+		try {
+			d.decode(session, ByteBuffer.wrap(data), out2);
+			fail();
+		}
+		catch (DecompressionException e) {
+			assertEquals("decompression failure: " + message, e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testDecodeFailure() throws Exception {
+		assertFailure(new Lz4Decoder(10), new byte[] {0,0,0,1,0,0,0,11}, "frame too big");
+		assertFailure(new Lz4Decoder(10), new byte[] {0,0,0,1,-1,0,0,1}, "frame too big");
+		assertFailure(new Lz4Decoder(10), new byte[] {(byte)0x80,0,0,2,0,0,0,1}, "invalid frame header");
+		assertFailure(new Lz4Decoder(10), new byte[] {0,0,0,20,0,0,0,1}, "invalid frame header");
+		assertFailure(new Lz4Decoder(10), new byte[] {0,0,0,2,0,0,0,3,0x10,'a'}, "invalid length of decompressed data");
+		assertFailure(new Lz4Decoder(10), new byte[] {0,0,0,2,0,0,0,3,0x40,'a'}, "literals out of bounds");
+		direct = true;
+		assertFailure(new Lz4Decoder(10), new byte[] {0,0,0,2,0,0,0,3,0x40,'a'}, "literals out of bounds");
+		
+		Lz4Decoder d = new Lz4Decoder(10);
+		d.decode(session, ByteBuffer.wrap(new byte[] {0,0,0}), out2);
+		assertFailure(d, new byte[] {1,0,0,0,11}, "frame too big");
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.codec.lz4;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.snf4j.core.codec.zip.DecompressionException;
+
+public class Lz4Test {
+
+	final int[] table = new int[Lz4.HASH_SIZE];
+	
+	static byte[] bytes(int len, int range) {
+		byte[] bytes = new byte[len];
+		Random r = new Random(len);
+		
+		for (int i=0; i<len; ++i) {
+			bytes[i] = (byte) ('A' + r.nextInt(range));
+		}
+		return bytes;
+	}
+	
+	static byte[] bytes(int... values) {
+		byte[] bytes = new byte[values.length];
+		
+		for (int i=0; i<values.length; ++i) {
+			bytes[i] = (byte) values[i];
+		}
+		return bytes;
+	}
+	
+	byte[] roundTrip(byte[] data, int off) throws Exception {
+		byte[] compressed = new byte[off + Lz4.maxCompressedLength(data.length)];
+		byte[] src = new byte[off + data.length];
+		
+		System.arraycopy(data, 0, src, off, data.length);
+		int len = Lz4.compress(src, off, data.length, compressed, off, table);
+		assertTrue(len <= Lz4.maxCompressedLength(data.length));
+		
+		byte[] decompressed = new byte[off + data.length];
+		assertEquals(data.length, Lz4.decompress(compressed, off, len, decompressed, off, data.length));
+		assertArrayEquals(data, Arrays.copyOfRange(decompressed, off, decompressed.length));
+		return Arrays.copyOfRange(compressed, off, off + len);
+	}
+	
+	@Test
+	public void testRoundTrip() throws Exception {
+		for (int len=0; len<100; ++len) {
+			roundTrip(bytes(len, 2), 0);
+			roundTrip(bytes(len, 256), 3);
+		}
+		assertTrue(roundTrip(bytes(100000, 4), 0).length < 80000);
+		assertTrue(roundTrip(new byte[100000], 7).length < 1000);
+		roundTrip(bytes(100000, 256), 5);
+		roundTrip(bytes(70000, 1), 0);
+		
+		byte[] data = bytes(200000, 256);
+		System.arraycopy(data, 0, data, 100000, 1000);
+		roundTrip(data, 0);
+	}
+	
+	@Test
+	public void testDecompress() throws Exception {
+		byte[] block = bytes(0x36,'a','b','c',3,0,0x50,'b','c','a','b','c');
+		byte[] dst = new byte[18];
+		
+		assertEquals(18, Lz4.decompress(block, 0, block.length, dst, 0, 18));
+		assertEquals("abcabcabcabcabcabc", new String(dst, "US-ASCII"));
+		
+		assertEquals(0, Lz4.decompress(bytes(0), 0, 1, dst, 0, 0));
+	}
+	
+	void assertFailure(byte[] block, int dstLen, String message) {
+		try {
+			Lz4.decompress(block, 0, block.length, new byte[dstLen], 0, dstLen);
+			fail();
+		}
+		catch (DecompressionException e) {
+			assertEquals("decompression failure: " + message, e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testDecompressFailure() {
+		assertFailure(bytes(), 10, "unexpected end of block");
+		assertFailure(bytes(0xf0), 10, "unexpected end of block");
+		assertFailure(bytes(0x30,'a','b'), 10, "literals out of bounds");
+		assertFailure(bytes(0x30,'a','b','c'), 2, "literals out of bounds");
+		assertFailure(bytes(0x30,'a','b','c',1), 10, "unexpected end of block");
+		assertFailure(bytes(0x30,'a','b','c',0,0,0), 10, "invalid match offset");
+		assertFailure(bytes(0x30,'a','b','c',4,0,0), 10, "invalid match offset");
+		assertFailure(bytes(0x3f,'a','b','c',3,0), 10, "unexpected end of block");
+		assertFailure(bytes(0x30,'a','b','c',3,0,0), 6, "match out of bounds");
+	}
+	
+	static byte[] lengthRun(byte[] prefix, int count) {
+		byte[] block = Arrays.copyOf(prefix, prefix.length + count + 1);
+		
+		Arrays.fill(block, prefix.length, block.length - 1, (byte) 255);
+		return block;
+	}
+	
+	@Test
+	public void testDecompressMalformedLengths() {
+		assertFailure(lengthRun(bytes(0xf0), 20), 100000, "literals out of bounds");
+		assertFailure(lengthRun(bytes(0xf0), 100000), 100, "literals out of bounds");
+		assertFailure(lengthRun(bytes(0x1f,'a',1,0), 20), 100, "match out of bounds");
+		assertFailure(lengthRun(bytes(0x1f,'a',1,0), 10000000), 100000, "match out of bounds");
+	}
+}
@@ -0,0 +1,288 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.codec.zip;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+import org.snf4j.core.TestSession;
+import org.snf4j.core.codec.zip.ZlibCodec.Mode;
+import org.snf4j.core.handler.SessionEvent;
+import org.snf4j.core.session.ISession;
+
+public class ZlibBufferCodecTest {
+
+	final List<ByteBuffer> out = new ArrayList<ByteBuffer>();
+	
+	final List<ByteBuffer> out2 = new ArrayList<ByteBuffer>();
+	
+	boolean direct;
+	
+	int allocated;
+	
+	final TestSession session = new TestSession() {
+		
+		@Override
+		public ByteBuffer allocate(int capacity) {
+			++allocated;
+			return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+		}
+	};
+	
+	static byte[] bytes(int len) {
+		byte[] bytes = new byte[len];
+		Random r = new Random(len);
+		
+		for (int i=0; i<len; ++i) {
+			bytes[i] = (byte) ('A' + r.nextInt(4));
+		}
+		return bytes;
+	}
+	
+	static ByteBuffer buffer(byte[] bytes, boolean direct) {
+		ByteBuffer b;
+		
+		if (direct) {
+			b = ByteBuffer.allocateDirect(bytes.length + 10);
+		}
+		else {
+			b = ByteBuffer.allocate(bytes.length + 20);
+			b.position(5);
+			b = b.slice();
+		}
+		b.position(3);
+		b.put(bytes);
+		b.flip();
+		b.position(3);
+		return b;
+	}
+	
+	static byte[] bytes(List<ByteBuffer> bufs) {
+		int len = 0;
+		
+		for (ByteBuffer b: bufs) {
+			len += b.remaining();
+		}
+		byte[] bytes = new byte[len];
+		int off = 0;
+		
+		for (ByteBuffer b: bufs) {
+			int remaining = b.remaining();
+			
+			b.duplicate().get(bytes, off, remaining);
+			off += remaining;
+		}
+		return bytes;
+	}
+	
+	void assertRoundTrip(ZlibEncoder enc, ZlibDecoder dec, int len) throws Exception {
+		ZlibBufferEncoder e = new ZlibBufferEncoder(enc, true);
+		ZlibBufferDecoder d = new ZlibBufferDecoder(dec, true);
+		byte[] data = bytes(len);
+		
+		for (int i=0; i<4; ++i) {
+			boolean directIn = (i & 1) != 0;
+			ByteBuffer in = buffer(data, directIn);
+			
+			direct = (i & 2) != 0;
+			out.clear();
+			out2.clear();
+			session.released.clear();
+			e.encode(session, in, out);
+			assertFalse(in.hasRemaining());
+			assertTrue(session.released.contains(in));
+			for (ByteBuffer b: out) {
+				assertEquals(direct, b.isDirect());
+			}
+			
+			in = buffer(bytes(out), directIn);
+			d.decode(session, in, out2);
+			assertTrue(session.released.contains(in));
+			assertArrayEquals(data, bytes(out2));
+			for (ByteBuffer b: out2) {
+				assertEquals(direct, b.isDirect());
+			}
+		}
+	}
+	
+	@Test
+	public void testRoundTrip() throws Exception {
+		assertRoundTrip(new ZlibEncoder(6, Mode.RAW), new ZlibDecoder(Mode.RAW), 100);
+		assertRoundTrip(new ZlibEncoder(6, Mode.RAW), new ZlibDecoder(Mode.RAW), 100000);
+		assertRoundTrip(new ZlibEncoder(), new ZlibDecoder(), 20000);
+		assertRoundTrip(new ZlibEncoder(), new ZlibDecoder(Mode.AUTO), 20000);
+		assertRoundTrip(new GzipEncoder(), new GzipDecoder(), 20000);
+	}
+	
+	@Test
+	public void testGzipFinish() throws Exception {
+		GzipEncoder enc = new GzipEncoder();
+		ZlibBufferEncoder e = new ZlibBufferEncoder(enc);
+		byte[] data = bytes(1000);
+		
+		direct = true;
+		e.encode(session, buffer(data, true), out);
+		enc.finish();
+		e.encode(session, buffer("XYZ".getBytes(), true), out);
+		
+		GzipDecoder dec = new GzipDecoder();
+		ZlibBufferDecoder d = new ZlibBufferDecoder(dec, true);
+		ByteBuffer in = buffer(bytes(out), false);
+		
+		d.decode(session, in, out2);
+		assertTrue(dec.isFinished());
+		byte[] result = bytes(out2);
+		assertEquals(1003, result.length);
+		assertEquals("XYZ", new String(result, 1000, 3));
+		for (ByteBuffer b: out2) {
+			assertFalse(b.hasArray() && b.array() == in.array());
+		}
+		
+		out.clear();
+		e.encode(session, ByteBuffer.wrap("ABC".getBytes()), out);
+		assertEquals("ABC", new String(bytes(out)));
+	}
+	
+	@Test
+	public void testDecodeSplitInput() throws Exception {
+		ZlibEncoder enc = new ZlibEncoder();
+		byte[] data = bytes(1000);
+		
+		enc.encode(null, data, out);
+		byte[] deflated = bytes(out);
+		
+		ZlibDecoder dec = new ZlibDecoder();
+		ZlibBufferDecoder d = new ZlibBufferDecoder(dec);
+		byte[] array = new byte[deflated.length + 10];
+		
+		System.arraycopy(deflated, 0, array, 5, deflated.length);
+		ByteBuffer in = ByteBuffer.wrap(array, 5, 1);
+		d.decode(session, in, out2);
+		assertEquals(0, out2.size());
+		
+		//Reuse of the array should not affect the decoder
+		array[5] = 0;
+		System.arraycopy(deflated, 1, array, 6, deflated.length-1);
+		in = ByteBuffer.wrap(array, 6, deflated.length-1);
+		d.decode(session, in, out2);
+		assertArrayEquals(data, bytes(out2));
+		assertFalse(session.released.contains(in));
+	}
+	
+	@Test
+	public void testOffsets() throws Exception {
+		final StringBuilder trace = new StringBuilder();
+		ZlibEncoder enc = new ZlibEncoder() {
+			@Override
+			protected void preDeflate(ISession session, byte[] in, ByteBuffer out) throws Exception {
+				trace.append(new String(in)).append('|');
+			}
+		};
+		byte[] data = "xxABCDEyy".getBytes();
+		
+		enc.encode(null, data, 2, 5, out);
+		enc.encode(null, "FG".getBytes(), 0, 2, out);
+		assertEquals("ABCDE|FG|", trace.toString());
+		
+		ZlibDecoder dec = new ZlibDecoder();
+		byte[] deflated = bytes(out);
+		byte[] array = new byte[deflated.length + 4];
+		
+		System.arraycopy(deflated, 0, array, 2, deflated.length);
+		dec.decode(null, array, 2, deflated.length, out2);
+		assertEquals("ABCDEFG", new String(bytes(out2)));
+		assertEquals(0, allocated);
+		
+		trace.setLength(0);
+		out.clear();
+		enc = new ZlibEncoder(new Deflater()) {
+			@Override
+			protected void preDeflate(ISession session, byte[] in, ByteBuffer out) throws Exception {
+				trace.append(new String(in)).append('|');
+			}
+		};
+		enc.encode(null, data, 2, 5, out);
+		enc.encode(null, "FG".getBytes(), out);
+		assertEquals("", trace.toString());
+		enc = new ZlibEncoder(new Deflater()) {
+			@Override
+			protected void preDeflate(ISession session, byte[] in, int off, int len, ByteBuffer out) throws Exception {
+				trace.append(new String(in, off, len)).append('|');
+			}
+		};
+		enc.encode(null, data, 2, 5, out);
+		assertEquals("ABCDE|", trace.toString());
+	}
+	
+	@Test
+	public void testEvents() throws Exception {
+		ZlibEncoder enc = new ZlibEncoder();
+		ZlibDecoder dec = new ZlibDecoder();
+		ZlibBufferEncoder e = new ZlibBufferEncoder(enc);
+		ZlibBufferDecoder d = new ZlibBufferDecoder(dec);
+		
+		assertSame(enc, e.getEncoder());
+		assertSame(dec, d.getDecoder());
+		assertTrue(e.getInboundType() == ByteBuffer.class);
+		assertTrue(e.getOutboundType() == ByteBuffer.class);
+		assertTrue(d.getInboundType() == ByteBuffer.class);
+		assertTrue(d.getOutboundType() == ByteBuffer.class);
+		e.added(null, null);
+		d.added(null, null);
+		e.removed(null, null);
+		d.removed(null, null);
+		e.event(null, SessionEvent.ENDING);
+		d.event(null, SessionEvent.ENDING);
+		assertTrue(enc.isFinished());
+		assertTrue(dec.isFinished());
+		
+		try {
+			new ZlibBufferEncoder(null);
+			fail();
+		}
+		catch (NullPointerException ex) {
+			assertEquals("encoder is null", ex.getMessage());
+		}
+		try {
+			new ZlibBufferDecoder(null);
+			fail();
+		}
+		catch (NullPointerException ex) {
+			assertEquals("decoder is null", ex.getMessage());
+		}
+	}
+}
@@ -34,6 +34,7 @@ import static org.junit.Assert.fail;
 
 import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.util.zip.Inflater;
 
 import org.junit.Test;
 import org.snf4j.core.codec.zip.ZlibCodec.Mode;
@@ -364,6 +365,42 @@ public class ZlibDecoderTest extends DecoderTest {
 		d.event(null, SessionEvent.ENDING);
 	}
 	
+	@Test
+	public void testCustomInflater() throws Exception {
+		final Inflater inflater = new Inflater(true);
+		final StringBuilder trace = new StringBuilder();
+		ZlibDecoder d = new ZlibDecoder(inflater) {
+			@Override
+			protected void end(Inflater i) {
+				assertTrue(inflater == i);
+				trace.append("E|");
+				super.end(i);
+			}
+		};
+		ZlibEncoder e = new ZlibEncoder(6, Mode.RAW);
+		
+		assertTrue(inflater == getInflater(d));
+		e.encode(null, "ABCDEF".getBytes(), out);
+		byte[] data = new byte[out.get(0).remaining()];
+		out.get(0).get(data);
+		out.clear();
+		d.decode(null, data, out);
+		data = new byte[out.get(0).remaining()];
+		out.get(0).get(data);
+		assertEquals("ABCDEF", new String(data));
+		d.event(null, SessionEvent.ENDING);
+		assertEquals("E|", trace.toString());
+		assertNull(getInflater(d));
+		
+		try {
+			new ZlibDecoder((Inflater)null);
+			fail();
+		}
+		catch (NullPointerException ex) {
+			assertEquals("inflater is null", ex.getMessage());
+		}
+	}
+	
 	@Test
 	public void testDecodeHighlyCompressed() throws Exception {
 		ZlibEncoder e = new ZlibEncoder(9, Mode.RAW);
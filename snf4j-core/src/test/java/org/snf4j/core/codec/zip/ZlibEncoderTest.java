@@ -34,9 +34,12 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.zip.Deflater;
 
 import org.junit.Test;
+import org.snf4j.core.codec.zip.ZlibCodec.Mode;
 import org.snf4j.core.handler.SessionEvent;
 import org.snf4j.core.session.ISession;
 
@@ -337,6 +340,56 @@ public class ZlibEncoderTest extends EncoderTest {
 		d.event(null, SessionEvent.ENDING);
 	}
 	
+	@Test
+	public void testCustomDeflater() throws Exception {
+		final Deflater deflater = new Deflater(9, true);
+		final StringBuilder trace = new StringBuilder();
+		ZlibEncoder e = new ZlibEncoder(deflater) {
+			@Override
+			protected void end(Deflater d) {
+				assertTrue(deflater == d);
+				trace.append("E|");
+			}
+		};
+		
+		assertTrue(deflater == getDeflater(e));
+		e.encode(null, "1234567890".getBytes(), out);
+		assertEquals(1, out.size());
+		ZlibDecoder d = new ZlibDecoder(Mode.RAW);
+		List<ByteBuffer> out2 = new ArrayList<ByteBuffer>();
+		byte[] data = new byte[out.get(0).remaining()];
+		out.get(0).get(data);
+		d.decode(null, data, out2);
+		data = new byte[out2.get(0).remaining()];
+		out2.get(0).get(data);
+		assertEquals("1234567890", new String(data));
+		e.event(null, SessionEvent.ENDING);
+		assertEquals("E|", trace.toString());
+		assertNull(getDeflater(e));
+		e.event(null, SessionEvent.ENDING);
+		assertEquals("E|", trace.toString());
+		
+		trace.setLength(0);
+		e = new ZlibEncoder(new Deflater()) {
+			@Override
+			protected void end(Deflater d) {
+				trace.append("E|");
+				super.end(d);
+			}
+		};
+		e.finish();
+		e.encode(null, new byte[0], out);
+		assertEquals("E|", trace.toString());
+		
+		try {
+			new ZlibEncoder((Deflater)null);
+			fail();
+		}
+		catch (NullPointerException ex) {
+			assertEquals("deflater is null", ex.getMessage());
+		}
+	}
+	
 	static class TestZlibEncoder extends ZlibEncoder {
 		
 		int preDeflateCount;
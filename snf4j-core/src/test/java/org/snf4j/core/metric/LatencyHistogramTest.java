@@ -0,0 +1,122 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testIndex() {
+		for (int i=0; i<16; ++i) {
+			assertEquals(i, LatencyHistogram.index(i));
+			assertEquals(i, LatencyHistogram.lowest(i));
+			assertEquals(i, LatencyHistogram.highest(i));
+		}
+		assertEquals(0, LatencyHistogram.index(-1));
+		assertEquals(16, LatencyHistogram.index(16));
+		assertEquals(16, LatencyHistogram.index(17));
+		assertEquals(17, LatencyHistogram.index(18));
+		assertEquals(23, LatencyHistogram.index(31));
+		assertEquals(24, LatencyHistogram.index(32));
+		assertEquals(487, LatencyHistogram.index(Long.MAX_VALUE));
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.highest(487));
+		
+		int prev = -1;
+		for (int i=0; i<488; ++i) {
+			long lowest = LatencyHistogram.lowest(i);
+			long highest = LatencyHistogram.highest(i);
+			
+			assertEquals(i, LatencyHistogram.index(lowest));
+			assertEquals(i, LatencyHistogram.index(highest));
+			if (i > 0) {
+				assertEquals(prev, LatencyHistogram.index(lowest-1));
+			}
+			prev = i;
+		}
+	}
+	
+	@Test
+	public void testRecord() {
+		LatencyHistogram h = new LatencyHistogram();
+		
+		assertEquals(0, h.getCount());
+		assertEquals(0, h.getSum());
+		assertEquals(0, h.getMax());
+		assertEquals(0, h.getMean(), 0.0);
+		assertEquals(0, h.getPercentile(50));
+		
+		for (int i=1; i<=100; ++i) {
+			h.record(i*1000);
+		}
+		h.record(-5);
+		assertEquals(101, h.getCount());
+		assertEquals(5050000, h.getSum());
+		assertEquals(100000, h.getMax());
+		assertEquals(50000.0, h.getMean(), 1.0);
+		assertEquals(0, h.getPercentile(0));
+		assertEquals(100000, h.getPercentile(100));
+		
+		long p50 = h.getPercentile(50);
+		assertEquals(50000, p50, 50000 * 0.125);
+		long p99 = h.getPercentile(99);
+		assertEquals(99000, p99, 99000 * 0.125);
+		
+		try {
+			h.getPercentile(-0.1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("percentile is out of range", e.getMessage());
+		}
+		try {
+			h.getPercentile(100.1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+		}
+	}
+	
+	@Test
+	public void testSnapshot() {
+		LatencyHistogram h = new LatencyHistogram();
+		
+		h.record(10);
+		h.record(1000);
+		LatencyHistogram s = h.snapshot();
+		h.record(100000);
+		assertEquals(2, s.getCount());
+		assertEquals(1010, s.getSum());
+		assertEquals(1000, s.getMax());
+		assertEquals(10, s.getPercentile(50));
+		assertEquals(1000, s.getPercentile(100));
+		assertEquals(3, h.getCount());
+		assertEquals(100000, h.getPercentile(100));
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.snf4j.core.Client;
+import org.snf4j.core.Packet;
+import org.snf4j.core.PacketType;
+import org.snf4j.core.SelectorLoop;
+import org.snf4j.core.Server;
+import org.snf4j.core.codec.DefaultCodecExecutor;
+
+public class SelectorLoopMetricTest {
+	
+	final long TIMEOUT = 2000;
+	
+	final int PORT = 7777;
+
+	Server s;
+	
+	Client c;
+	
+	@Before
+	public void before() {
+		s = c = null;
+	}
+
+	@After
+	public void after() throws InterruptedException {
+		if (c != null) c.stop(TIMEOUT);
+		if (s != null) s.stop(TIMEOUT);
+	}
+	
+	@Test
+	public void testCollect() {
+		SelectorLoopMetric m = new SelectorLoopMetric();
+		
+		m.wakeup();
+		m.wakeup();
+		m.selected(0, 0, 100);
+		m.selected(3, 200, 0);
+		m.selected(2, 0, 0);
+		m.task(10, 20);
+		m.written(100, 2, true);
+		m.written(50, 1, false);
+		m.queued(1000);
+		m.encoded(1);
+		m.decoded(2);
+		m.decoded(3);
+		m.handshake(4);
+		
+		SelectorLoopMetric s = m.snapshot();
+		m.wakeup();
+		m.handshake(4);
+		
+		for (SelectorLoopMetric metric: new SelectorLoopMetric[] {s, m}) {
+			assertEquals(3, metric.getSelectCount());
+			assertEquals(1, metric.getEmptySelectCount());
+			assertEquals(5, metric.getSelectedKeyCount());
+			assertEquals(1, metric.getWorkTime().getCount());
+			assertEquals(200, metric.getWorkTime().getMax());
+			assertEquals(1, metric.getWaitTime().getCount());
+			assertEquals(100, metric.getWaitTime().getMax());
+			assertEquals(1, metric.getTaskLatency().getCount());
+			assertEquals(10, metric.getTaskLatency().getMax());
+			assertEquals(20, metric.getTaskTime().getMax());
+			assertEquals(2, metric.getWriteCount());
+			assertEquals(3, metric.getWriteSpinCount());
+			assertEquals(1, metric.getPartialWriteCount());
+			assertEquals(150, metric.getWrittenBytes());
+			assertEquals(1000, metric.getQueueSize().getMax());
+			assertEquals(1, metric.getEncodeTime().getSum());
+			assertEquals(5, metric.getDecodeTime().getSum());
+		}
+		assertEquals(2, s.getWakeupCount());
+		assertEquals(3, m.getWakeupCount());
+		assertEquals(1, s.getHandshakeTime().getCount());
+		assertEquals(2, m.getHandshakeTime().getCount());
+	}
+	
+	@Test
+	public void testNop() throws Exception {
+		NopSelectorLoopMetric m = NopSelectorLoopMetric.DEFAULT;
+		
+		m.wakeup();
+		m.selected(0, 0, 0);
+		m.task(0, 0);
+		m.written(0, 0, false);
+		m.queued(0);
+		m.encoded(0);
+		m.decoded(0);
+		m.handshake(0);
+		
+		SelectorLoop loop = new SelectorLoop();
+		
+		assertSame(m, loop.getMetric());
+		try {
+			loop.setMetric(null);
+			fail();
+		}
+		catch (NullPointerException e) {
+		}
+		SelectorLoopMetric metric = new SelectorLoopMetric();
+		loop.setMetric(metric);
+		assertSame(metric, loop.getMetric());
+		loop.setMetric(m);
+		assertSame(m, loop.getMetric());
+		loop.stop();
+	}
+	
+	@Test
+	public void testSelectorLoop() throws Exception {
+		SelectorLoopMetric m = new SelectorLoopMetric();
+		
+		s = new Server(PORT, true);
+		s.codecPipeline = new DefaultCodecExecutor();
+		s.start();
+		s.getSelectLoop().setMetric(m);
+		c = new Client(PORT, true);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		
+		c.write(new Packet(PacketType.ECHO, "1234567890"));
+		c.waitForDataRead(TIMEOUT);
+		s.waitForDataSent(TIMEOUT);
+		s.getSelectLoop().execute(new Runnable() {
+
+			@Override
+			public void run() {
+			}
+		}).sync(TIMEOUT);
+		
+		SelectorLoopMetric snapshot = m.snapshot();
+		
+		assertTrue(snapshot.getSelectCount() > 0);
+		assertTrue(snapshot.getSelectedKeyCount() > 0);
+		assertTrue(snapshot.getWaitTime().getCount() > 0);
+		assertTrue(snapshot.getWakeupCount() > 0);
+		assertTrue(snapshot.getTaskTime().getCount() > 0);
+		assertTrue(snapshot.getWriteCount() > 0);
+		assertTrue(snapshot.getWriteSpinCount() > 0);
+		assertTrue(snapshot.getWrittenBytes() > 0);
+		assertTrue(snapshot.getQueueSize().getCount() > 0);
+		assertTrue(snapshot.getEncodeTime().getCount() > 0);
+		assertTrue(snapshot.getDecodeTime().getCount() > 0);
+		assertEquals(1, snapshot.getHandshakeTime().getCount());
+		assertTrue(snapshot.getHandshakeTime().getMax() > 0);
+	}
+}
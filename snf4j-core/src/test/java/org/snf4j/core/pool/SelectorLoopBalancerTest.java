@@ -0,0 +1,328 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.snf4j.core.SelectorLoop;
+
+public class SelectorLoopBalancerTest {
+
+	static class TestLoop extends SelectorLoop {
+		
+		int size;
+		
+		long work, wait;
+		
+		boolean closed;
+		
+		TestLoop(int size) throws IOException {
+			this.size = size;
+		}
+		
+		@Override
+		public int getSize() {
+			if (closed) {
+				throw new ClosedSelectorException();
+			}
+			return size;
+		}
+		
+		@Override
+		public boolean isOpen() {
+			return !closed && super.isOpen();
+		}
+		
+		@Override
+		public long getTotalWorkTime() {
+			return work;
+		}
+
+		@Override
+		public long getTotalWaitTime() {
+			return wait;
+		}
+		
+	}
+	
+	static TestLoop[] loops(int... sizes) throws IOException {
+		TestLoop[] loops = new TestLoop[sizes.length];
+		
+		for (int i=0; i<sizes.length; ++i) {
+			loops[i] = new TestLoop(sizes[i]);
+		}
+		return loops;
+	}
+	
+	@Test
+	public void testLeastLoad() throws Exception {
+		LeastLoadBalancer b = LeastLoadBalancer.DEFAULT;
+		TestLoop[] loops = loops(3, 1, 2, 1);
+		
+		assertNull(b.getLoop(loops, 0, null));
+		assertSame(loops[0], b.getLoop(loops, 1, null));
+		assertSame(loops[1], b.getLoop(loops, 4, null));
+		loops[1].size = 5;
+		assertSame(loops[3], b.getLoop(loops, 4, null));
+		assertSame(loops[2], b.getLoop(loops, 3, null));
+		loops[2].closed = true;
+		assertSame(loops[0], b.getLoop(loops, 3, null));
+		loops[0].closed = true;
+		loops[1].closed = true;
+		assertNull(b.getLoop(loops, 3, null));
+		assertEquals(Long.MAX_VALUE, b.safeLoad(loops[0]));
+		assertEquals(1, b.safeLoad(loops[3]));
+	}
+	
+	@Test
+	public void testWorkTime() throws Exception {
+		try {
+			new WorkTimeBalancer(-1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("sampleInterval is negative", e.getMessage());
+		}
+		
+		WorkTimeBalancer b = new WorkTimeBalancer(10);
+		TestLoop[] loops = loops(1, 2);
+		
+		//first samples
+		assertEquals(1, b.load(loops[0]));
+		assertEquals(2, b.load(loops[1]));
+		assertSame(loops[0], b.getLoop(loops, 2, null));
+		
+		//to short to be sampled
+		loops[0].work = 9000000;
+		assertEquals(0, b.busyness(loops[0]));
+		
+		loops[0].work = 8000000;
+		loops[0].wait = 2000000;
+		loops[1].work = 1000000;
+		loops[1].wait = 9000000;
+		assertEquals(800, b.busyness(loops[0]));
+		assertEquals(100, b.busyness(loops[1]));
+		assertSame(loops[1], b.getLoop(loops, 2, null));
+		assertEquals((800L << 32) | 1, b.load(loops[0]));
+		
+		//busyness is kept until the next sample
+		loops[0].wait += 9000000;
+		assertEquals(800, b.busyness(loops[0]));
+		loops[0].wait += 1000000;
+		assertEquals(0, b.busyness(loops[0]));
+		assertSame(loops[0], b.getLoop(loops, 2, null));
+		
+		b = new WorkTimeBalancer();
+		loops[0].wait += 999000000;
+		loops[0].work += 1000000;
+		assertEquals(0, b.busyness(loops[0]));
+		loops[0].wait += 999000000;
+		loops[0].work += 1000000;
+		assertEquals(1, b.busyness(loops[0]));
+	}
+
+	@Test
+	public void testPowerOfTwoChoices() throws Exception {
+		try {
+			new PowerOfTwoChoicesBalancer(null);
+			fail();
+		}
+		catch (NullPointerException e) {
+		}
+		
+		PowerOfTwoChoicesBalancer b = new PowerOfTwoChoicesBalancer();
+		TestLoop[] loops = loops(5, 1, 3);
+		
+		assertNull(b.getLoop(loops, 0, null));
+		assertSame(loops[0], b.getLoop(loops, 1, null));
+		assertSame(loops[1], b.getLoop(loops, 2, null));
+		
+		//the most loaded loop is never chosen
+		Set<SelectorLoop> chosen = new HashSet<SelectorLoop>();
+		for (int i=0; i<200; ++i) {
+			chosen.add(b.getLoop(loops, 3, null));
+		}
+		assertEquals(2, chosen.size());
+		assertTrue(chosen.contains(loops[1]));
+		assertTrue(chosen.contains(loops[2]));
+		
+		//fall back when both samples are stopped
+		loops[0].closed = true;
+		loops[1].closed = true;
+		for (int i=0; i<50; ++i) {
+			assertSame(loops[2], b.getLoop(loops, 3, null));
+		}
+		loops[2].closed = true;
+		assertNull(b.getLoop(loops, 3, null));
+		
+		b = new PowerOfTwoChoicesBalancer(new WorkTimeBalancer(0));
+		loops = loops(1, 1);
+		loops[0].work = 10;
+		loops[1].wait = 10;
+		b.getLoop(loops, 2, null);
+		loops[0].work = 20;
+		loops[1].wait = 20;
+		for (int i=0; i<50; ++i) {
+			assertSame(loops[1], b.getLoop(loops, 2, null));
+		}
+	}
+	
+	@Test
+	public void testAffinity() throws Exception {
+		try {
+			new AffinityBalancer(null);
+			fail();
+		}
+		catch (NullPointerException e) {
+		}
+		
+		AffinityBalancer b = new AffinityBalancer();
+		TestLoop[] loops = loops(5, 1, 3, 4);
+		
+		assertNull(b.getLoop(loops, 0, null));
+		
+		//no affinity key
+		assertSame(loops[1], b.getLoop(loops, 4, null));
+		SocketChannel sc = SocketChannel.open();
+		assertSame(loops[1], b.getLoop(loops, 4, sc));
+		sc.close();
+		assertSame(loops[1], b.getLoop(loops, 4, sc));
+		
+		ServerSocket server = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+		SocketChannel sc1 = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getLocalPort()));
+		SocketChannel sc2 = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getLocalPort()));
+		
+		try {
+			assertEquals(InetAddress.getByName("127.0.0.1"), b.key(sc1));
+			SelectorLoop loop = b.getLoop(loops, 4, sc1);
+			
+			assertSame(loop, b.getLoop(loops, 4, sc2));
+			assertSame(loop, b.getLoop(loops, 4, sc1));
+			
+			//fall back when the loop is stopped
+			((TestLoop)loop).closed = true;
+			SelectorLoop loop2 = b.getLoop(loops, 4, sc1);
+			assertTrue(loop != loop2);
+			assertSame(loop2, LeastLoadBalancer.DEFAULT.getLoop(loops, 4, sc1));
+		}
+		finally {
+			sc1.close();
+			sc2.close();
+			server.close();
+		}
+		
+		b = new AffinityBalancer(new ISelectorLoopBalancer() {
+
+			@Override
+			public SelectorLoop getLoop(SelectorLoop[] loops, int size, SelectableChannel channel) {
+				return loops[size-1];
+			}
+		});
+		assertSame(loops[3], b.getLoop(loops, 4, null));
+	}
+	
+	@Test
+	public void testPool() throws Exception {
+		DefaultSelectorLoopPool pool = new DefaultSelectorLoopPool(2);
+		
+		assertSame(LeastLoadBalancer.DEFAULT, pool.getBalancer());
+		try {
+			pool.setBalancer(null);
+			fail();
+		}
+		catch (NullPointerException e) {
+		}
+		
+		final SelectorLoop[] chosen = new SelectorLoop[1];
+		final int[] sizes = new int[1];
+		pool.setBalancer(new ISelectorLoopBalancer() {
+
+			@Override
+			public SelectorLoop getLoop(SelectorLoop[] loops, int size, SelectableChannel channel) {
+				sizes[0] = size;
+				return chosen[0];
+			}
+		});
+		
+		//no loop chosen
+		SelectorLoop loop1 = pool.getLoop(null);
+		assertEquals(0, sizes[0]);
+		assertEquals(1, pool.getSize());
+		
+		//empty loop chosen
+		chosen[0] = loop1;
+		assertSame(loop1, pool.getLoop(null));
+		assertEquals(1, sizes[0]);
+		assertEquals(1, pool.getSize());
+		
+		//not empty loop chosen
+		TestLoop loop = new TestLoop(1);
+		chosen[0] = loop;
+		SelectorLoop loop2 = pool.getLoop(null);
+		assertTrue(loop2 != loop && loop2 != loop1);
+		assertEquals(2, pool.getSize());
+		
+		//pool is full
+		assertSame(loop, pool.getLoop(null));
+		assertEquals(2, sizes[0]);
+		chosen[0] = null;
+		assertNull(pool.getLoop(null));
+		
+		//stopped loop chosen
+		pool = new DefaultSelectorLoopPool(2);
+		pool.setBalancer(new ISelectorLoopBalancer() {
+
+			@Override
+			public SelectorLoop getLoop(SelectorLoop[] loops, int size, SelectableChannel channel) {
+				return chosen[0];
+			}
+		});
+		loop.closed = true;
+		chosen[0] = loop;
+		assertTrue(pool.getLoop(null) != loop);
+		assertEquals(1, pool.getSize());
+		
+		pool.stop();
+		pool.join(2000);
+		loop1.getParentPool().stop();
+		loop1.getParentPool().join(2000);
+	}
+}
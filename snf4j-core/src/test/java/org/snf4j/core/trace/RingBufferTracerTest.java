@@ -0,0 +1,226 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.snf4j.core.Client;
+import org.snf4j.core.Packet;
+import org.snf4j.core.PacketType;
+import org.snf4j.core.SelectorLoop;
+import org.snf4j.core.Server;
+import org.snf4j.core.TestSession;
+import org.snf4j.core.codec.DefaultCodecExecutor;
+import org.snf4j.core.session.ISession;
+
+public class RingBufferTracerTest {
+
+	final long TIMEOUT = 2000;
+	
+	final int PORT = 7777;
+
+	Server s;
+	
+	Client c;
+	
+	@Before
+	public void before() {
+		s = c = null;
+	}
+
+	@After
+	public void after() throws InterruptedException {
+		if (c != null) c.stop(TIMEOUT);
+		if (s != null) s.stop(TIMEOUT);
+	}
+	
+	@Test
+	public void testConstructor() {
+		assertEquals(1, new RingBufferTracer(1, 1).getCapacity());
+		assertEquals(8, new RingBufferTracer(5, 1).getCapacity());
+		assertEquals(8, new RingBufferTracer(8, 1).getCapacity());
+		try {
+			new RingBufferTracer(0, 1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("capacity is out of range", e.getMessage());
+		}
+		try {
+			new RingBufferTracer((1 << 30) + 1, 1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+		}
+		try {
+			new RingBufferTracer(1, 0);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("sampling is not positive", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testSampling() {
+		RingBufferTracer t = new RingBufferTracer(4, 3);
+		TestSession session = new TestSession();
+		
+		assertEquals(Long.valueOf(1), t.start(session));
+		assertNull(t.start(session));
+		assertNull(t.start(session));
+		assertEquals(Long.valueOf(2), t.start(session));
+		assertNull(t.start(session));
+		
+		assertNull(NopTracer.DEFAULT.start(session));
+		NopTracer.DEFAULT.span(null, session, SpanKind.READ, 0, 0);
+	}
+	
+	@Test
+	public void testRing() {
+		RingBufferTracer t = new RingBufferTracer(4, 1);
+		TestSession session = new TestSession();
+		
+		assertEquals(0, t.getSpans().size());
+		for (int i=0; i<6; ++i) {
+			t.span(t.start(session), session, SpanKind.values()[i % 5], i, i*3);
+		}
+		assertEquals(6, t.getTotalSpans());
+		
+		List<Span> spans = t.getSpans();
+		
+		assertEquals(4, spans.size());
+		for (int i=0; i<4; ++i) {
+			Span span = spans.get(i);
+			
+			assertEquals(i+3, span.getTraceId());
+			assertEquals(0, span.getSessionId());
+			assertSame(SpanKind.values()[(i+2) % 5], span.getKind());
+			assertEquals(i+2, span.getBegin());
+			assertEquals((i+2)*3, span.getEnd());
+			assertEquals((i+2)*2, span.getDuration());
+		}
+		assertEquals("Span[trace=3 session=0 kind=HANDLE duration=4]", spans.get(0).toString());
+		
+		t.clear();
+		assertEquals(0, t.getSpans().size());
+		assertEquals(0, t.getTotalSpans());
+		t.span(Long.valueOf(10), session, SpanKind.READ, 0, 0);
+		assertEquals(1, t.getSpans().size());
+	}
+	
+	@Test
+	public void testSelectorLoop() throws Exception {
+		RingBufferTracer t = new RingBufferTracer(64, 1);
+		
+		s = new Server(PORT);
+		s.codecPipeline = new DefaultCodecExecutor();
+		s.start();
+		SelectorLoop loop = s.getSelectLoop();
+		
+		assertSame(NopTracer.DEFAULT, loop.getTracer());
+		try {
+			loop.setTracer(null);
+			fail();
+		}
+		catch (NullPointerException e) {
+		}
+		loop.setTracer(t);
+		assertSame(t, loop.getTracer());
+		
+		c = new Client(PORT);
+		c.start();
+		c.waitForSessionReady(TIMEOUT);
+		s.waitForSessionReady(TIMEOUT);
+		loop.execute(new Runnable() {
+
+			@Override
+			public void run() {
+			}
+		}).sync(TIMEOUT);
+		t.clear();
+		
+		c.write(new Packet(PacketType.ECHO, "1234567890"));
+		c.waitForDataRead(TIMEOUT);
+		s.waitForDataSent(TIMEOUT);
+		loop.execute(new Runnable() {
+
+			@Override
+			public void run() {
+			}
+		}).sync(TIMEOUT);
+		
+		List<Span> spans = t.getSpans();
+		StringBuilder sb = new StringBuilder();
+		Set<Long> ids = new HashSet<Long>();
+		
+		for (Span span: spans) {
+			sb.append(span.getKind()).append('|');
+			ids.add(span.getTraceId());
+			assertEquals(s.getSession().getId(), span.getSessionId());
+			assertTrue(span.getDuration() >= 0);
+		}
+		assertEquals("READ|DECODE|ENCODE|HANDLE|WRITE|", sb.toString());
+		assertEquals(1, ids.size());
+		
+		loop.setTracer(NopTracer.DEFAULT);
+		t.clear();
+		c.write(new Packet(PacketType.ECHO, "1234567890"));
+		c.waitForDataRead(TIMEOUT);
+		s.waitForDataSent(TIMEOUT);
+		assertEquals(0, t.getSpans().size());
+		
+		//no tracing when nothing was read
+		final AtomicInteger starts = new AtomicInteger();
+		loop.setTracer(new ITracer() {
+
+			@Override
+			public Object start(ISession session) {
+				starts.incrementAndGet();
+				return null;
+			}
+
+			@Override
+			public void span(Object context, ISession session, SpanKind kind, long begin, long end) {
+			}
+		});
+		c.getSession().close();
+		s.waitForSessionEnding(TIMEOUT);
+		assertEquals(0, starts.get());
+	}
+}
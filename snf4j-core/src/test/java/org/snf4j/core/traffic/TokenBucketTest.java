@@ -0,0 +1,98 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.traffic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+	@Test
+	public void testConstructor() {
+		TokenBucket b = new TokenBucket(100, 50);
+		
+		assertEquals(100, b.getRate());
+		assertEquals(50, b.getBurst());
+		b = new TokenBucket(200);
+		assertEquals(200, b.getRate());
+		assertEquals(200, b.getBurst());
+		
+		try {
+			new TokenBucket(0, 1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("rate is not positive", e.getMessage());
+		}
+		try {
+			new TokenBucket(1, 0);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("burst is not positive", e.getMessage());
+		}
+		try {
+			new TokenBucket(0);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("rate is not positive", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testConsume() {
+		TokenBucket b = new TokenBucket(1000, 500);
+		long time = 1000;
+		
+		assertEquals(500, b.getTokens(time));
+		assertEquals(0, b.consume(300, time));
+		assertEquals(200, b.getTokens(time));
+		assertEquals(0, b.consume(200, time));
+		assertEquals(0, b.getDelay(time));
+		assertEquals(100000000, b.consume(100, time));
+		assertEquals(-100, b.getTokens(time));
+		
+		time += 50000000;
+		assertEquals(50000000, b.getDelay(time));
+		assertEquals(-50, b.getTokens(time));
+		time += 50000000;
+		assertEquals(0, b.getDelay(time));
+		assertEquals(0, b.getTokens(time));
+		
+		//refill up to the burst size
+		time += 10000000000L;
+		assertEquals(500, b.getTokens(time));
+		
+		//time going backward is ignored
+		assertEquals(0, b.consume(100, time - 1000000));
+		assertEquals(400, b.getTokens(time - 1000000));
+		assertEquals(400, b.getTokens(time));
+		assertEquals(401, b.getTokens(time + 1000000));
+	}
+}
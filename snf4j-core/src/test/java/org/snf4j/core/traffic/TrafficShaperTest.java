@@ -0,0 +1,83 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.core.traffic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TrafficShaperTest {
+
+	@Test
+	public void testConstructor() {
+		TokenBucket r = new TokenBucket(100);
+		TokenBucket w = new TokenBucket(200);
+		TrafficShaper p = new TrafficShaper(r, null);
+		TrafficShaper s = new TrafficShaper(null, w, p);
+		
+		assertTrue(r == p.getReadBucket());
+		assertNull(p.getWriteBucket());
+		assertNull(p.getParent());
+		assertNull(s.getReadBucket());
+		assertTrue(w == s.getWriteBucket());
+		assertTrue(p == s.getParent());
+	}
+	
+	@Test
+	public void testShaping() {
+		TrafficShaper global = new TrafficShaper(new TokenBucket(1000, 100), new TokenBucket(1000, 100));
+		TrafficShaper s1 = new TrafficShaper(new TokenBucket(100, 50), null, global);
+		TrafficShaper s2 = new TrafficShaper(null, null, global);
+		long time = 1000;
+
+		assertEquals(0, s1.read(50, time));
+		assertEquals(100000000, s1.read(10, time));
+		assertEquals(0, s2.read(30, time));
+		assertEquals(10000000, s2.read(20, time));
+		assertEquals(100000000, s1.read(0, time));
+		assertEquals(-10, global.getReadBucket().getTokens(time));
+		
+		assertEquals(0, s1.written(60, time));
+		assertEquals(0, s2.written(40, time));
+		assertEquals(1000000, s2.written(1, time));
+		assertEquals(-1, global.getWriteBucket().getTokens(time));
+		
+		assertEquals(-10, s1.getReadable(time));
+		assertEquals(-10, s2.getReadable(time));
+		assertEquals(-1, s1.getWritable(time));
+		time += 100000000;
+		assertEquals(0, s1.getReadable(time));
+		assertEquals(90, s2.getReadable(time));
+		assertEquals(99, s2.getWritable(time));
+		assertEquals(Long.MAX_VALUE, new TrafficShaper(null, null).getReadable(time));
+		assertEquals(Long.MAX_VALUE, new TrafficShaper(null, null).getWritable(time));
+		
+		assertEquals(0, new TrafficShaper(null, null).read(1000, time));
+		assertEquals(0, new TrafficShaper(null, null).written(1000, time));
+	}
+}
@@ -86,9 +86,8 @@ public class DHKeyExchange implements IDHKeyExchange {
 	
 	@Override
 	public byte[] generateSecret(PrivateKey privateKey, PublicKey publicKey, SecureRandom random) throws NoSuchAlgorithmException, InvalidKeyException {
-        KeyAgreement keyAgreement = KeyAgreement.getInstance("DH");
+        KeyAgreement keyAgreement = PrimitiveCache.initKeyAgreement("DH", privateKey, random);
         
-        keyAgreement.init(privateKey, random);
         keyAgreement.doPhase(publicKey, true);
         return keyAgreement.generateSecret();
 	}
@@ -27,6 +27,7 @@ package org.snf4j.tls.crypto;
 
 import java.security.InvalidAlgorithmParameterException;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 import java.security.Signature;
 import java.security.cert.X509Certificate;
 
@@ -56,6 +57,11 @@ public class ECDSASignature implements ISignature {
 		return Signature.getInstance(algorithm);
 	}
 
+	@Override
+	public Signature createSignature(Provider provider) throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
+		return Signature.getInstance(algorithm, provider);
+	}
+
 	@Override
 	public String algorithm() {
 		return algorithm;
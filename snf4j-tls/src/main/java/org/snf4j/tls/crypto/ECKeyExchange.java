@@ -72,9 +72,8 @@ public class ECKeyExchange implements IECKeyExchange {
 	
 	@Override
 	public byte[] generateSecret(PrivateKey privateKey, PublicKey publicKey, SecureRandom random) throws NoSuchAlgorithmException, InvalidKeyException {
-        KeyAgreement keyAgreement = KeyAgreement.getInstance("ECDH");
+        KeyAgreement keyAgreement = PrimitiveCache.initKeyAgreement("ECDH", privateKey, random);
         
-        keyAgreement.init(privateKey, random);
         keyAgreement.doPhase(publicKey, true);
         return keyAgreement.generateSecret();
 	}
@@ -27,6 +27,7 @@ package org.snf4j.tls.crypto;
 
 import java.security.InvalidAlgorithmParameterException;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 import java.security.Signature;
 import java.security.cert.X509Certificate;
 
@@ -92,4 +93,9 @@ public class EdDSASignature implements ISignature {
 		return Signature.getInstance(algorithm);
 	}
 
+	@Override
+	public Signature createSignature(Provider provider) throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
+		return Signature.getInstance(algorithm, provider);
+	}
+
 }
@@ -42,6 +42,10 @@ public class Hash implements IHash {
 	
 	private final HashId id;
 	
+	private volatile MessageDigest digestPrototype;
+
+	private volatile Mac macPrototype;
+	
 	public Hash(String hashAlgorithm, String macAlgorithm, HashId id) {
 		this.hashAlgoritm = hashAlgorithm;
 		this.macAlgorithm = macAlgorithm;
@@ -50,12 +54,32 @@ public class Hash implements IHash {
 	
 	@Override
 	public MessageDigest createMessageDigest() throws NoSuchAlgorithmException {
-		return MessageDigest.getInstance(hashAlgoritm);
+		MessageDigest prototype = digestPrototype;
+		
+		if (prototype == null) {
+			prototype = MessageDigest.getInstance(hashAlgoritm);
+			digestPrototype = prototype;
+		}
+		try {
+			return (MessageDigest) prototype.clone();
+		} catch (CloneNotSupportedException e) {
+			return MessageDigest.getInstance(hashAlgoritm);
+		}
 	}
 	
 	@Override
 	public Mac createMac() throws NoSuchAlgorithmException {
-		return Mac.getInstance(macAlgorithm);
+		Mac prototype = macPrototype;
+		
+		if (prototype == null) {
+			prototype = Mac.getInstance(macAlgorithm);
+			macPrototype = prototype;
+		}
+		try {
+			return (Mac) prototype.clone();
+		} catch (CloneNotSupportedException e) {
+			return Mac.getInstance(macAlgorithm);
+		}
 	}
 
 	@Override
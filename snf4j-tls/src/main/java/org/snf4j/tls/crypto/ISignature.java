@@ -27,6 +27,7 @@ package org.snf4j.tls.crypto;
 
 import java.security.InvalidAlgorithmParameterException;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 import java.security.Signature;
 import java.security.cert.X509Certificate;
 
@@ -45,4 +46,21 @@ public interface ISignature {
 	boolean matchesByKey(X509Certificate cert);
 	
 	Signature createSignature() throws NoSuchAlgorithmException, InvalidAlgorithmParameterException;
+	
+	/**
+	 * Creates a signature object implemented by the given provider.
+	 * <p>
+	 * The default implementation ignores the provider and returns
+	 * {@link #createSignature()}.
+	 * 
+	 * @param provider the provider
+	 * @return the signature object
+	 * @throws NoSuchAlgorithmException if the signature algorithm is not
+	 *                                  available in the provider
+	 * @throws InvalidAlgorithmParameterException if the signature parameters
+	 *                                            are invalid
+	 */
+	default Signature createSignature(Provider provider) throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
+		return createSignature();
+	}
 }
@@ -0,0 +1,185 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.tls.crypto;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.KeyAgreement;
+
+/**
+ * A cache of the providers selected for the JCA primitives that are used only
+ * for the duration of a single operation (e.g. signing, verification or key
+ * agreement), so the provider lookup performed by the {@code getInstance}
+ * methods and the delayed provider selection are paid only once.
+ * <p>
+ * The provider is selected by the JCA when a primitive is initialized with a
+ * key, so the cached providers are identified by the algorithm and the class
+ * of the key. The initialized primitives themselves are never cached, so no
+ * key remains reachable from the cache.
+ */
+public final class PrimitiveCache {
+	
+	private final static ConcurrentMap<ProviderKey, Provider> PROVIDERS = new ConcurrentHashMap<ProviderKey, Provider>();
+	
+	private PrimitiveCache() {}
+	
+	/**
+	 * Returns a signature object for the given signature algorithm that is
+	 * initialized for signing.
+	 * 
+	 * @param signature the signature algorithm
+	 * @param key the private key
+	 * @param random the source of randomness
+	 * @return the initialized signature object
+	 * @throws NoSuchAlgorithmException if the signature algorithm is not available
+	 * @throws InvalidAlgorithmParameterException if the signature parameters are invalid
+	 * @throws InvalidKeyException if the key is invalid
+	 */
+	public static Signature initSign(ISignature signature, PrivateKey key, SecureRandom random) throws NoSuchAlgorithmException, InvalidAlgorithmParameterException, InvalidKeyException {
+		ProviderKey providerKey = new ProviderKey(signature, key);
+		Provider provider = PROVIDERS.get(providerKey);
+		Signature s;
+		
+		if (provider != null) {
+			s = signature.createSignature(provider);
+			s.initSign(key, random);
+		}
+		else {
+			s = signature.createSignature();
+			s.initSign(key, random);
+			PROVIDERS.putIfAbsent(providerKey, s.getProvider());
+		}
+		return s;
+	}
+
+	/**
+	 * Returns a signature object for the given signature algorithm that is
+	 * initialized for verification.
+	 * 
+	 * @param signature the signature algorithm
+	 * @param key the public key
+	 * @return the initialized signature object
+	 * @throws NoSuchAlgorithmException if the signature algorithm is not available
+	 * @throws InvalidAlgorithmParameterException if the signature parameters are invalid
+	 * @throws InvalidKeyException if the key is invalid
+	 */
+	public static Signature initVerify(ISignature signature, PublicKey key) throws NoSuchAlgorithmException, InvalidAlgorithmParameterException, InvalidKeyException {
+		ProviderKey providerKey = new ProviderKey(signature, key);
+		Provider provider = PROVIDERS.get(providerKey);
+		Signature s;
+		
+		if (provider != null) {
+			s = signature.createSignature(provider);
+			s.initVerify(key);
+		}
+		else {
+			s = signature.createSignature();
+			s.initVerify(key);
+			PROVIDERS.putIfAbsent(providerKey, s.getProvider());
+		}
+		return s;
+	}
+	
+	/**
+	 * Returns a key agreement object for the given algorithm that is
+	 * initialized with the given private key.
+	 * 
+	 * @param algorithm the name of the key agreement algorithm
+	 * @param key the private key
+	 * @param random the source of randomness
+	 * @return the initialized key agreement object
+	 * @throws NoSuchAlgorithmException if the algorithm is not available
+	 * @throws InvalidKeyException if the key is invalid
+	 */
+	public static KeyAgreement initKeyAgreement(String algorithm, PrivateKey key, SecureRandom random) throws NoSuchAlgorithmException, InvalidKeyException {
+		ProviderKey providerKey = new ProviderKey(algorithm, key);
+		Provider provider = PROVIDERS.get(providerKey);
+		KeyAgreement ka;
+		
+		if (provider != null) {
+			ka = KeyAgreement.getInstance(algorithm, provider);
+			ka.init(key, random);
+		}
+		else {
+			ka = KeyAgreement.getInstance(algorithm);
+			ka.init(key, random);
+			PROVIDERS.putIfAbsent(providerKey, ka.getProvider());
+		}
+		return ka;
+	}
+	
+	static Provider getProvider(Object algorithm, Key key) {
+		return PROVIDERS.get(new ProviderKey(algorithm, key));
+	}
+	
+	/**
+	 * Removes all cached providers.
+	 */
+	public static void clear() {
+		PROVIDERS.clear();
+	}
+	
+	private static class ProviderKey {
+		
+		private final Object algorithm;
+		
+		private final Class<?> keyClass;
+		
+		ProviderKey(Object algorithm, Key key) {
+			this.algorithm = algorithm;
+			keyClass = key.getClass();
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * algorithm.hashCode() + keyClass.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ProviderKey)) {
+				return false;
+			}
+			
+			ProviderKey other = (ProviderKey) obj;
+			
+			return algorithm.equals(other.algorithm) && keyClass == other.keyClass;
+		}
+	}
+}
@@ -28,6 +28,7 @@ package org.snf4j.tls.crypto;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.cert.X509Certificate;
@@ -66,6 +67,11 @@ public class RSAPKCS1Signature implements ISignature {
 		return Signature.getInstance(algorithm);
 	}
 
+	@Override
+	public Signature createSignature(Provider provider) throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
+		return Signature.getInstance(algorithm, provider);
+	}
+
 	@Override
 	public String algorithm() {
 		return algorithm;
@@ -29,6 +29,7 @@ import java.lang.reflect.Method;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.cert.X509Certificate;
@@ -126,6 +127,14 @@ public class RSASSAPSSSignature implements ISignature {
 		return signature;
 	}
 
+	@Override
+	public Signature createSignature(Provider provider) throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
+		Signature signature = Signature.getInstance(RSASSA_PSS, provider);
+
+		signature.setParameter(createParameter());
+		return signature;
+	}
+
 	@Override
 	public String algorithm() {
 		return algorithm;
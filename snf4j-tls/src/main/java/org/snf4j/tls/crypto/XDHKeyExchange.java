@@ -120,9 +120,8 @@ public class XDHKeyExchange implements IXDHKeyExchange {
 
 	@Override
 	public byte[] generateSecret(PrivateKey privateKey, PublicKey publicKey, SecureRandom random) throws NoSuchAlgorithmException, InvalidKeyException {
-        KeyAgreement keyAgreement = KeyAgreement.getInstance(dh);
+        KeyAgreement keyAgreement = PrimitiveCache.initKeyAgreement(dh, privateKey, random);
         
-        keyAgreement.init(privateKey, random);
         keyAgreement.doPhase(publicKey, true);
         return keyAgreement.generateSecret();
 	}
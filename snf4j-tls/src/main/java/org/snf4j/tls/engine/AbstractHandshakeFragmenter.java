@@ -26,7 +26,7 @@
 package org.snf4j.tls.engine;
 
 import java.nio.ByteBuffer;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.Queue;
 
 import org.snf4j.tls.alert.Alert;
@@ -37,7 +37,7 @@ import org.snf4j.tls.record.RecordType;
 
 abstract public class AbstractHandshakeFragmenter {
 	
-	private final Queue<ProducedHandshake> produced = new LinkedList<ProducedHandshake>();
+	private final Queue<ProducedHandshake> produced = new ArrayDeque<ProducedHandshake>();
 	
 	protected final IHandshakeEngine handshaker;
 	
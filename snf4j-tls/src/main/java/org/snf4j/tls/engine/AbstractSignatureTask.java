@@ -0,0 +1,82 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.tls.engine;
+
+import java.security.SecureRandom;
+
+import org.snf4j.tls.alert.Alert;
+import org.snf4j.tls.handshake.CertificateVerify;
+import org.snf4j.tls.record.RecordType;
+
+abstract public class AbstractSignatureTask extends AbstractEngineTask {
+
+	private final byte[] content;
+	
+	private final SelectedCertificates certificates;
+	
+	private final boolean client;
+	
+	private final SecureRandom random;
+	
+	private volatile byte[] signature;
+	
+	AbstractSignatureTask(byte[] content, SelectedCertificates certificates, boolean client, SecureRandom random) {
+		this.content = content;
+		this.certificates = certificates;
+		this.client = client;
+		this.random = random;
+	}
+	
+	@Override
+	public boolean isProducing() {
+		return true;
+	}
+
+	@Override
+	public String name() {
+		return "Signature";
+	}
+
+	@Override
+	void execute() throws Exception {
+		signature = ConsumerUtil.sign(content, 
+				certificates.getAlgorithm(), 
+				certificates.getPrivateKey(), 
+				client, 
+				random);
+	}
+	
+	static void prepareCertificateVerify(EngineState state, SelectedCertificates certificates, byte[] signature) {
+		CertificateVerify certificateVerify = new CertificateVerify(certificates.getAlgorithm(), signature);
+		state.getListener().onHandshakeCreate(state, certificateVerify, false);
+		ConsumerUtil.prepare(state, certificateVerify, RecordType.HANDSHAKE);	
+	}
+	
+	@Override
+	public void finish(EngineState state) throws Alert {
+		prepareCertificateVerify(state, certificates, signature);
+	}
+}
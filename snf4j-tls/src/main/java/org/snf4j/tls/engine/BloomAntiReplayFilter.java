@@ -0,0 +1,243 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.tls.engine;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import org.snf4j.tls.Args;
+
+/**
+ * A time-windowed anti-replay filter based on sharded bloom filters.
+ * <p>
+ * The time is divided into windows of a configured length. Each shard keeps
+ * two bloom filters: one for the binders recorded in the current window and
+ * one for the binders recorded in the previous window, so any recorded binder
+ * is remembered for at least the length of the window. The memory used by the
+ * filter is fixed and depends only on the expected number of binders recorded
+ * per window and the false positive rate. A false positive only causes
+ * rejection of the early data.
+ * <p>
+ * To prevent replays of binders that have already been forgotten, a
+ * ClientHello is also treated as a possible replay if the ticket age reported
+ * by client differs from the ticket age computed by server by more than half
+ * of the window.
+ */
+public class BloomAntiReplayFilter implements IAntiReplayFilter {
+	
+	private final static double LN2 = Math.log(2);
+	
+	private final static long PRIME = 0x100000001b3L;
+	
+	private final Shard[] shards;
+	
+	private final long window;
+
+	private final long tolerance;
+	
+	private final int bits;
+	
+	private final int hashes;
+	
+	private final long seed1;
+
+	private final long seed2;
+	
+	/**
+	 * Constructs an anti-replay filter.
+	 * 
+	 * @param window            the length of the window in milliseconds
+	 * @param capacity          the expected maximum number of binders recorded
+	 *                          per window
+	 * @param falsePositiveRate the acceptable rate of false positives, must be
+	 *                          greater than 0 and less than 1
+	 * @param shards            the number of independently locked shards
+	 */
+	public BloomAntiReplayFilter(long window, int capacity, double falsePositiveRate, int shards) {
+		Args.checkRange(window, 2, Long.MAX_VALUE, "window");
+		Args.checkMin(capacity, 1, "capacity");
+		Args.checkMin(shards, 1, "shards");
+		if (!(falsePositiveRate > 0.0 && falsePositiveRate < 1.0)) {
+			throw new IllegalArgumentException("falsePositiveRate is not in range (0,1)");
+		}
+		
+		int n = (capacity + shards - 1) / shards;
+		
+		//binders are checked against two filters so the rate is split
+		long m = (long) Math.ceil(-n * Math.log(falsePositiveRate / 2) / (LN2 * LN2));
+		
+		m = (m + 63) & ~63L;
+		Args.checkMax(m, Integer.MAX_VALUE & ~63, "bits per shard");
+		bits = (int) m;
+		hashes = Math.max(1, (int) Math.round((double)bits / n * LN2));
+		this.window = window;
+		tolerance = window / 2;
+		this.shards = new Shard[shards];
+		for (int i=0; i<shards; ++i) {
+			this.shards[i] = new Shard(bits >>> 6);
+		}
+		
+		SecureRandom random = new SecureRandom();
+		
+		seed1 = random.nextLong();
+		seed2 = random.nextLong();
+	}
+
+	/**
+	 * Constructs an anti-replay filter with the window of 10 seconds, the
+	 * capacity of 100000 binders per window, the false positive rate of 0.001 and
+	 * 16 shards.
+	 */
+	public BloomAntiReplayFilter() {
+		this(10000, 100000, 0.001, 16);
+	}
+	
+	/**
+	 * Returns the number of bits in each bloom filter.
+	 * 
+	 * @return the number of bits
+	 */
+	public int bits() {
+		return bits;
+	}
+	
+	/**
+	 * Returns the number of hash functions used by each bloom filter.
+	 * 
+	 * @return the number of hash functions
+	 */
+	public int hashes() {
+		return hashes;
+	}
+	
+	/**
+	 * Forgets all recorded binders.
+	 */
+	public void clear() {
+		for (Shard shard: shards) {
+			synchronized (shard) {
+				shard.clear();
+			}
+		}
+	}
+	
+	static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+	
+	static long hash(byte[] data, long seed) {
+		long h = seed;
+		
+		for (int i=0; i<data.length; ++i) {
+			h = (h ^ (data[i] & 0xff)) * PRIME;
+		}
+		return mix(h);
+	}
+	
+	boolean isReplay(byte[] binder, long ticketAge, long expectedTicketAge, long currentTime) {
+		long skew = expectedTicketAge - ticketAge;
+		
+		if (skew > tolerance || skew < -tolerance) {
+			return true;
+		}
+		
+		long h1 = hash(binder, seed1);
+		long h2 = mix(h1 ^ seed2) | 1;
+		Shard shard = shards[(int) ((h2 >>> 1) % shards.length)];
+		
+		synchronized (shard) {
+			shard.update(currentTime / window);
+			return shard.add(h1, h2, hashes, bits);
+		}
+	}
+	
+	@Override
+	public boolean isReplay(byte[] binder, long ticketAge, long expectedTicketAge) {
+		return isReplay(binder, ticketAge, expectedTicketAge, System.currentTimeMillis());
+	}
+	
+	static class Shard {
+		
+		private long[] current;
+		
+		private long[] previous;
+		
+		private long epoch;
+		
+		Shard(int words) {
+			current = new long[words];
+			previous = new long[words];
+		}
+		
+		void clear() {
+			Arrays.fill(current, 0);
+			Arrays.fill(previous, 0);
+		}
+		
+		void update(long epoch) {
+			if (epoch > this.epoch) {
+				if (epoch == this.epoch + 1) {
+					long[] tmp = previous;
+					
+					previous = current;
+					current = tmp;
+					Arrays.fill(current, 0);
+				}
+				else {
+					clear();
+				}
+				this.epoch = epoch;
+			}
+		}
+		
+		boolean add(long h1, long h2, int hashes, int bits) {
+			boolean inCurrent = true;
+			boolean inPrevious = true;
+			long h = h1;
+			
+			for (int i=0; i<hashes; ++i) {
+				int bit = (int) ((h >>> 1) % bits);
+				int word = bit >>> 6;
+				long mask = 1L << bit;
+				
+				if ((current[word] & mask) == 0) {
+					inCurrent = false;
+					current[word] |= mask;
+				}
+				if (inPrevious && (previous[word] & mask) == 0) {
+					inPrevious = false;
+				}
+				h += h2;
+			}
+			return inCurrent || inPrevious;
+		}
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.tls.engine;
+
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.snf4j.tls.Args;
+import org.snf4j.tls.alert.Alert;
+
+/**
+ * A certificate validator that caches positive results of the certificate
+ * chain validations performed by a wrapped validator.
+ * <p>
+ * A chain is identified by the SHA-256 fingerprint of its encoded certificates
+ * and by the validation criteria (the peer's role, the host name and the local
+ * signature schemes). A cached result expires after the configured lifetime or
+ * when the earliest expiring certificate in the chain expires, whichever comes
+ * first. Failed validations are never cached.
+ * <p>
+ * When the limit of cached results is reached the least recently used result
+ * is removed. Expired results are removed when they are looked up.
+ */
+public class CachingCertificateValidator implements ICertificateValidator {
+	
+	private final static String FINGERPRINT_ALGORITHM = "SHA-256";
+
+	private final ICertificateValidator validator;
+	
+	private final Map<ChainKey, Long> cache;
+	
+	private final long lifetime;
+	
+	/**
+	 * Constructs a caching validator.
+	 * 
+	 * @param validator the validator performing the actual validations
+	 * @param limit the maximum number of cached results
+	 * @param lifetime the maximum lifetime in seconds of a cached result
+	 */
+	public CachingCertificateValidator(ICertificateValidator validator, int limit, int lifetime) {
+		Args.checkNull(validator, "validator");
+		Args.checkMin(limit, 1, "limit");
+		Args.checkMin(lifetime, 1, "lifetime");
+		this.validator = validator;
+		this.lifetime = lifetime * 1000L;
+		cache = new Cache(limit);
+	}
+
+	/**
+	 * Constructs a caching validator with the limit of 1024 cached results 
+	 * and the lifetime of 3600 seconds.
+	 * 
+	 * @param validator the validator performing the actual validations
+	 */
+	public CachingCertificateValidator(ICertificateValidator validator) {
+		this(validator, 1024, 3600);
+	}
+	
+	int size(long currentTime) {
+		synchronized (cache) {
+			removeExpired(currentTime);
+			return cache.size();
+		}
+	}
+	
+	/**
+	 * Returns the current number of cached results.
+	 * 
+	 * @return the number of cached results
+	 */
+	public int size() {
+		return size(System.currentTimeMillis());
+	}
+	
+	/**
+	 * Removes all cached results.
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+	
+	static byte[] fingerprint(X509Certificate[] certs) throws Exception {
+		MessageDigest md = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+		byte[] length = new byte[4];
+		
+		for (X509Certificate cert: certs) {
+			byte[] encoded = cert.getEncoded();
+			int len = encoded.length;
+			
+			length[0] = (byte) (len >> 24);
+			length[1] = (byte) (len >> 16);
+			length[2] = (byte) (len >> 8);
+			length[3] = (byte) len;
+			md.update(length);
+			md.update(encoded);
+		}
+		return md.digest();
+	}
+	
+	static long expirationTime(X509Certificate[] certs, long currentTime, long lifetime) {
+		long expirationTime = currentTime + lifetime;
+		
+		for (X509Certificate cert: certs) {
+			if (cert.getNotBefore().getTime() > currentTime) {
+				return -1;
+			}
+			
+			long notAfter = cert.getNotAfter().getTime();
+			
+			if (notAfter < expirationTime) {
+				expirationTime = notAfter;
+			}
+		}
+		return expirationTime;
+	}
+	
+	private void removeExpired(long currentTime) {
+		for (Iterator<Long> i = cache.values().iterator(); i.hasNext();) {
+			if (i.next() < currentTime) {
+				i.remove();
+			}
+		}
+	}
+	
+	Alert validateCertificates(CertificateValidateCriteria criteria, X509Certificate[] certs, long currentTime) throws Alert, Exception {
+		ChainKey key = new ChainKey(criteria, fingerprint(certs));
+		
+		synchronized (cache) {
+			Long expirationTime = cache.get(key);
+			
+			if (expirationTime != null) {
+				if (expirationTime >= currentTime) {
+					return null;
+				}
+				cache.remove(key);
+			}
+		}
+		
+		Alert alert = validator.validateCertificates(criteria, certs);
+		
+		if (alert == null) {
+			long expirationTime = expirationTime(certs, currentTime, lifetime);
+			
+			if (expirationTime >= currentTime) {
+				synchronized (cache) {
+					cache.put(key, expirationTime);
+				}
+			}
+		}
+		return alert;
+	}
+	
+	@Override
+	public Alert validateCertificates(CertificateValidateCriteria criteria, X509Certificate[] certs) throws Alert, Exception {
+		return validateCertificates(criteria, certs, System.currentTimeMillis());
+	}
+
+	@Override
+	public Alert validateRawKey(CertificateValidateCriteria criteria, PublicKey key) throws Alert, Exception {
+		return validator.validateRawKey(criteria, key);
+	}
+
+	@SuppressWarnings("serial")
+	static class Cache extends LinkedHashMap<ChainKey, Long> {
+		
+		private final int limit;
+		
+		Cache(int limit) {
+			super(16, 0.75f, true);
+			this.limit = limit;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ChainKey, Long> eldest) {
+			return size() > limit;
+		}
+	}
+	
+	static class ChainKey {
+		
+		private final boolean server;
+		
+		private final String hostName;
+		
+		private final Object[] schemes;
+		
+		private final byte[] fingerprint;
+		
+		private final int hashCode;
+		
+		ChainKey(CertificateValidateCriteria criteria, byte[] fingerprint) {
+			server = criteria.isServer();
+			hostName = criteria.getHostName();
+			schemes = criteria.getLocalSchemes().clone();
+			this.fingerprint = fingerprint;
+			
+			int hash = Arrays.hashCode(fingerprint);
+			
+			hash = 31 * hash + Arrays.hashCode(schemes);
+			hash = 31 * hash + (hostName == null ? 0 : hostName.hashCode());
+			hashCode = 31 * hash + (server ? 1 : 0);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ChainKey)) {
+				return false;
+			}
+			
+			ChainKey other = (ChainKey) obj;
+			
+			return server == other.server
+					&& hashCode == other.hashCode
+					&& (hostName == null ? other.hostName == null : hostName.equals(other.hostName))
+					&& Arrays.equals(fingerprint, other.fingerprint)
+					&& Arrays.equals(schemes, other.schemes);
+		}
+	}
+}
@@ -69,6 +69,7 @@ import org.snf4j.tls.extension.ISupportedVersionsExtension;
 import org.snf4j.tls.extension.KeyShareEntry;
 import org.snf4j.tls.extension.KeyShareExtension;
 import org.snf4j.tls.extension.NamedGroup;
+import org.snf4j.tls.extension.OfferedPsk;
 import org.snf4j.tls.extension.ParsedKey;
 import org.snf4j.tls.extension.PreSharedKeyExtension;
 import org.snf4j.tls.extension.PskKeyExchangeMode;
@@ -81,7 +82,6 @@ import org.snf4j.tls.extension.SupportedVersionsExtension;
 import org.snf4j.tls.handshake.Certificate;
 import org.snf4j.tls.handshake.CertificateRequest;
 import org.snf4j.tls.handshake.CertificateType;
-import org.snf4j.tls.handshake.CertificateVerify;
 import org.snf4j.tls.handshake.EncryptedExtensions;
 import org.snf4j.tls.handshake.Finished;
 import org.snf4j.tls.handshake.HandshakeType;
@@ -100,6 +100,18 @@ public class ClientHelloConsumer implements IHandshakeConsumer {
 		return HandshakeType.CLIENT_HELLO;
 	}
 	
+	static boolean isReplay(EngineState state, OfferedPsk psk, SessionTicket ticket) {
+		IAntiReplayFilter filter = state.getHandler().getAntiReplayFilter();
+		
+		if (filter != null) {
+			long ticketAge = (psk.getIdentity().getObfuscatedTicketAge() - ticket.getAgeAdd()) & 0xffffffffL;
+			long expectedTicketAge = System.currentTimeMillis() - ticket.getCreationTime();
+			
+			return filter.isReplay(psk.getBinder(), ticketAge, expectedTicketAge);
+		}
+		return false;
+	}
+	
 	@Override
 	public void consume(EngineState state, IHandshake handshake, ByteBuffer[] data, boolean isHRR) throws Alert {
 		boolean secondClientHello;
@@ -343,7 +355,8 @@ public class ClientHelloConsumer implements IHandshakeConsumer {
 						
 						if (resumed.getSelectedIdentity() == 0 
 								&& ticket.getCipherSuite().equals(state.getCipherSuite())
-								&& ticket.forEarlyData(protocol)) {
+								&& ticket.forEarlyData(protocol)
+								&& !isReplay(state, preSharedKey.getOfferedPsks()[0], ticket)) {
 							state.getKeySchedule().deriveEarlyTrafficSecret();
 							state.getListener().onNewTrafficSecrets(state, RecordType.ZERO_RTT);
 							state.getKeySchedule().eraseEarlyTrafficSecret();
@@ -605,29 +618,52 @@ public class ClientHelloConsumer implements IHandshakeConsumer {
 				state.getListener().onHandshakeCreate(state, certificate, false);
 				ConsumerUtil.prepare(state, certificate, RecordType.HANDSHAKE);	
 
-				byte[] signature = ConsumerUtil.sign(state.getTranscriptHash().getHash(HandshakeType.CERTIFICATE, false), 
+				byte[] content = state.getTranscriptHash().getHash(HandshakeType.CERTIFICATE, false);
+				
+				if (params.getDelegatedTaskMode().signatures()) {
+					state.addTask(new SignatureTask(content, certificates, state.getHandler().getSecureRandom(), nextState));
+					return;
+				}
+				byte[] signature = ConsumerUtil.sign(content, 
 						certificates.getAlgorithm(), 
 						certificates.getPrivateKey(), 
 						false,
 						state.getHandler().getSecureRandom());
-				CertificateVerify certificateVerify = new CertificateVerify(certificates.getAlgorithm(), signature);
-				state.getListener().onHandshakeCreate(state, certificateVerify, false);
-				ConsumerUtil.prepare(state, certificateVerify, RecordType.HANDSHAKE);	
-			}
-			
-			try {
-				Finished finished = new Finished(state.getKeySchedule().computeServerVerifyData());
-				state.getListener().onHandshakeCreate(state, finished, false);
-				ConsumerUtil.prepare(state, finished, RecordType.HANDSHAKE, RecordType.APPLICATION);
-				state.getKeySchedule().deriveMasterSecret();
-				state.getKeySchedule().eraseHandshakeSecret();
-				state.getKeySchedule().deriveApplicationTrafficSecrets();
-			} catch (Exception e) {
-				throw new InternalErrorAlert("Failed to compute server verify data", e);
+				AbstractSignatureTask.prepareCertificateVerify(state, certificates, signature);
 			}
-			state.getListener().onNewTrafficSecrets(state, RecordType.APPLICATION);
-			state.changeState(nextState);
+			finishFlight(state, nextState);
 		}
 
 	}
+	
+	static void finishFlight(EngineState state, MachineState nextState) throws Alert {
+		try {
+			Finished finished = new Finished(state.getKeySchedule().computeServerVerifyData());
+			state.getListener().onHandshakeCreate(state, finished, false);
+			ConsumerUtil.prepare(state, finished, RecordType.HANDSHAKE, RecordType.APPLICATION);
+			state.getKeySchedule().deriveMasterSecret();
+			state.getKeySchedule().eraseHandshakeSecret();
+			state.getKeySchedule().deriveApplicationTrafficSecrets();
+		} catch (Exception e) {
+			throw new InternalErrorAlert("Failed to compute server verify data", e);
+		}
+		state.getListener().onNewTrafficSecrets(state, RecordType.APPLICATION);
+		state.changeState(nextState);
+	}
+	
+	static class SignatureTask extends AbstractSignatureTask {
+
+		private final MachineState nextState;
+		
+		SignatureTask(byte[] content, SelectedCertificates certificates, SecureRandom random, MachineState nextState) {
+			super(content, certificates, false, random);
+			this.nextState = nextState;
+		}
+		
+		@Override
+		public void finish(EngineState state) throws Alert {
+			super.finish(state);
+			finishFlight(state, nextState);
+		}
+	}
 }
@@ -34,6 +34,7 @@ import java.util.Arrays;
 
 import org.snf4j.tls.alert.Alert;
 import org.snf4j.tls.alert.InternalErrorAlert;
+import org.snf4j.tls.crypto.PrimitiveCache;
 import org.snf4j.tls.extension.SignatureScheme;
 import org.snf4j.tls.handshake.IHandshake;
 import org.snf4j.tls.record.RecordType;
@@ -74,12 +75,10 @@ public class ConsumerUtil {
 
 	static byte[] sign(byte[] content, SignatureScheme scheme, PrivateKey privateKey, boolean client, SecureRandom random) throws Alert {
 		try {
-			Signature sign = scheme
+			Signature sign = PrimitiveCache.initSign(scheme
 					.spec()
-					.getSignature()
-					.createSignature();
+					.getSignature(), privateKey, random);
 			
-			sign.initSign(privateKey, random);
 			sign.update(SIGNATURE_64_OCTETS);
 			if (client) {
 				sign.update(SIGNATURE_CLIENT_CONTEXT);
@@ -97,12 +96,10 @@ public class ConsumerUtil {
 	
 	static boolean verify(byte[] signature, byte[] content, SignatureScheme scheme, PublicKey publicKey, boolean client) throws Alert {
 		try {
-			Signature sign = scheme
+			Signature sign = PrimitiveCache.initVerify(scheme
 					.spec()
-					.getSignature()
-					.createSignature();
+					.getSignature(), publicKey);
 			
-			sign.initVerify(publicKey);
 			sign.update(SIGNATURE_64_OCTETS);
 			if (client) {
 				sign.update(SIGNATURE_CLIENT_CONTEXT);
@@ -26,17 +26,27 @@
 package org.snf4j.tls.engine;
 
 public enum DelegatedTaskMode {
-	NONE(false, false),
-	CERTIFICATES(false, true),
-	ALL(true, true);
+	NONE(false, false, false),
+	CERTIFICATES(false, true, false),
+	ALL(true, true, false),
+	
+	/**
+	 * Delegates the same tasks as {@link #ALL} and additionally the signing of the
+	 * CertificateVerify messages, so no asymmetric cryptographic operation is
+	 * performed by the thread driving the engine.
+	 */
+	OFFLOAD(true, true, true);
 	
 	private final boolean all;
 	
 	private final boolean certificates;
 	
-	DelegatedTaskMode(boolean all, boolean certificates) {
+	private final boolean signatures;
+	
+	DelegatedTaskMode(boolean all, boolean certificates, boolean signatures) {
 		this.all = all;
 		this.certificates = certificates;
+		this.signatures = signatures;
 	}
 	
 	boolean all() {
@@ -46,4 +56,8 @@ public enum DelegatedTaskMode {
 	boolean certificates() {
 		return certificates;
 	}
+
+	boolean signatures() {
+		return signatures;
+	}
 }
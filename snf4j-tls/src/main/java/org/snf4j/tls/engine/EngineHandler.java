@@ -114,13 +114,16 @@ public class EngineHandler implements IEngineHandler {
 	
 	private final long maxEarlyDataSize;
 	
+	private final IAntiReplayFilter antiReplayFilter;
+	
 	public EngineHandler(ICertificateSelector selector, ICertificateValidator validator, SecureRandom random, ISessionManager manager,
 			TicketInfo[] ticketInfos,
 			int padding, 
 			long maxEarlyDataSize,
 			IHostNameVerifier hostNameVerifier, 
 			IApplicationProtocolHandler protocolHandler,
-			IEarlyDataHandler earlyDataHandler) {
+			IEarlyDataHandler earlyDataHandler,
+			IAntiReplayFilter antiReplayFilter) {
 		Args.checkMin(padding, 1, "padding");
 		certificateSelector = selector != null 
 				? selector 
@@ -144,6 +147,27 @@ public class EngineHandler implements IEngineHandler {
 		this.protocolHandler = protocolHandler != null
 				? protocolHandler
 				: DEFAULT_PROTOCOL_HANDLER;
+		this.antiReplayFilter = antiReplayFilter;
+	}
+	
+	public EngineHandler(ICertificateSelector selector, ICertificateValidator validator, SecureRandom random, ISessionManager manager,
+			TicketInfo[] ticketInfos,
+			int padding, 
+			long maxEarlyDataSize,
+			IHostNameVerifier hostNameVerifier, 
+			IApplicationProtocolHandler protocolHandler,
+			IEarlyDataHandler earlyDataHandler) {
+		this(selector, 
+				validator, 
+				random, 
+				manager, 
+				ticketInfos, 
+				padding, 
+				maxEarlyDataSize, 
+				hostNameVerifier, 
+				protocolHandler, 
+				earlyDataHandler, 
+				null);
 	}
 	
 	public EngineHandler(X509KeyManager km, String alias, X509TrustManager tm, SecureRandom random, ISessionManager manager,
@@ -152,7 +176,8 @@ public class EngineHandler implements IEngineHandler {
 			long maxEarlyDataSize,
 			IHostNameVerifier hostNameVerifier, 
 			IApplicationProtocolHandler protocolHandler,
-			IEarlyDataHandler earlyDataHandler) {
+			IEarlyDataHandler earlyDataHandler,
+			IAntiReplayFilter antiReplayFilter) {
 		this(km != null 
 					? new X509KeyManagerCertificateSelector(km, alias) 
 					: DEFAULT_CERT_SELECTOR,
@@ -166,7 +191,29 @@ public class EngineHandler implements IEngineHandler {
 				maxEarlyDataSize,
 				hostNameVerifier,
 				protocolHandler,
-				earlyDataHandler);
+				earlyDataHandler,
+				antiReplayFilter);
+	}
+	
+	public EngineHandler(X509KeyManager km, String alias, X509TrustManager tm, SecureRandom random, ISessionManager manager,
+			TicketInfo[] ticketInfos, 
+			int padding, 
+			long maxEarlyDataSize,
+			IHostNameVerifier hostNameVerifier, 
+			IApplicationProtocolHandler protocolHandler,
+			IEarlyDataHandler earlyDataHandler) {
+		this(km, 
+				alias, 
+				tm, 
+				random, 
+				manager, 
+				ticketInfos, 
+				padding, 
+				maxEarlyDataSize, 
+				hostNameVerifier, 
+				protocolHandler, 
+				earlyDataHandler, 
+				null);
 	}
 		
 	@Override
@@ -258,4 +305,9 @@ public class EngineHandler implements IEngineHandler {
 	public IEarlyDataHandler getEarlyDataHandler() {
 		return earlyDataHandler;
 	}
+
+	@Override
+	public IAntiReplayFilter getAntiReplayFilter() {
+		return antiReplayFilter;
+	}
 }
@@ -65,6 +65,8 @@ public class EngineHandlerBuilder {
 	
 	private long maxEarlyDataSize;
 	
+	private IAntiReplayFilter antiReplayFilter;
+	
 	public EngineHandlerBuilder(X509KeyManager km, String alias, X509TrustManager tm) {
 		Args.checkNull(km, "km");
 		Args.checkNull(tm, "tm");
@@ -231,6 +233,22 @@ public class EngineHandlerBuilder {
 		return protocolHandler;
 	}
 	
+	/**
+	 * Sets the filter protecting server against replays of the early data.
+	 * 
+	 * @param antiReplayFilter the anti-replay filter or {@code null} if the early
+	 *                         data should not be filtered
+	 * @return this builder
+	 */
+	public EngineHandlerBuilder antiReplayFilter(IAntiReplayFilter antiReplayFilter) {
+		this.antiReplayFilter = antiReplayFilter;
+		return this;
+	}
+	
+	public IAntiReplayFilter getAntiReplayFilter() {
+		return antiReplayFilter;
+	}
+	
 	private static TicketInfo[] safeClone(TicketInfo[] tickets) {
 		return tickets == null || tickets.length == 0 ? tickets : tickets.clone();
 	}
@@ -247,7 +265,8 @@ public class EngineHandlerBuilder {
 					maxEarlyDataSize,
 					hostNameVerifier,
 					protocolHandler,
-					earlyDataHandler);
+					earlyDataHandler,
+					antiReplayFilter);
 		}
 		return new EngineHandler(
 				selector, 
@@ -259,7 +278,8 @@ public class EngineHandlerBuilder {
 				maxEarlyDataSize,
 				hostNameVerifier,
 				protocolHandler,
-				earlyDataHandler);
+				earlyDataHandler,
+				antiReplayFilter);
 	}
 
 	public EngineHandler build(IEarlyDataHandler earlyDataHandler, IHostNameVerifier hostNameVerifier) {
@@ -298,6 +298,10 @@ public class EngineState implements IEngineState, IEngineProducer {
 			}
 
 			if (task == null) {
+				if (!tasks.isEmpty()) {
+					//new tasks added while finishing the completed ones
+					return true;
+				}
 				producingTasks = false;
 				if (!prepared.isEmpty()) {
 					produced.addAll(prepared);
@@ -26,6 +26,7 @@
 package org.snf4j.tls.engine;
 
 import java.nio.ByteBuffer;
+import java.security.SecureRandom;
 import java.util.Arrays;
 
 import org.snf4j.tls.alert.Alert;
@@ -35,7 +36,6 @@ import org.snf4j.tls.alert.UnexpectedMessageAlert;
 import org.snf4j.tls.extension.EarlyDataExtension;
 import org.snf4j.tls.extension.PskKeyExchangeMode;
 import org.snf4j.tls.handshake.Certificate;
-import org.snf4j.tls.handshake.CertificateVerify;
 import org.snf4j.tls.handshake.EndOfEarlyData;
 import org.snf4j.tls.handshake.Finished;
 import org.snf4j.tls.handshake.HandshakeType;
@@ -193,46 +193,69 @@ public class FinishedConsumer implements IHandshakeConsumer {
 
 				if (certificate.getEntries().length > 0) {
 					state.getSessionInfo().localCerts(certificates.getCertificates());
-					byte[] signature = ConsumerUtil.sign(state.getTranscriptHash().getHash(HandshakeType.CERTIFICATE, true), 
+					
+					byte[] content = state.getTranscriptHash().getHash(HandshakeType.CERTIFICATE, true);
+					
+					if (params.getDelegatedTaskMode().signatures()) {
+						state.addTask(new SignatureTask(content, certificates, state.getHandler().getSecureRandom()));
+						return;
+					}
+					byte[] signature = ConsumerUtil.sign(content, 
 							certificates.getAlgorithm(), 
 							certificates.getPrivateKey(), 
 							true,
 							state.getHandler().getSecureRandom());
-					CertificateVerify certificateVerify = new CertificateVerify(certificates.getAlgorithm(), signature);
-					state.getListener().onHandshakeCreate(state, certificateVerify, false);
-					ConsumerUtil.prepare(state, certificateVerify, RecordType.HANDSHAKE);
+					AbstractSignatureTask.prepareCertificateVerify(state, certificates, signature);
 				}
 			}
+			finishFlight(state);
+		}
+	}
+	
+	static void finishFlight(EngineState state) throws Alert {
+		try {
+			state.getKeySchedule().deriveMasterSecret();
+			state.getKeySchedule().eraseHandshakeSecret();
+			state.getKeySchedule().deriveApplicationTrafficSecrets();
+			state.getListener().onNewTrafficSecrets(state, RecordType.APPLICATION);
+			state.getListener().onNewReceivingTraficKey(state, RecordType.APPLICATION);
+			Finished finished = new Finished(state.getKeySchedule().computeClientVerifyData());
+			state.getListener().onHandshakeCreate(state, finished, false);
+			state.getKeySchedule().eraseHandshakeTrafficSecrets();
+			ConsumerUtil.prepare(state, finished, RecordType.HANDSHAKE, RecordType.APPLICATION);
+			state.getKeySchedule().deriveResumptionMasterSecret();
+			state.getKeySchedule().eraseMasterSecret();
+		} catch (Alert e) {
+			throw e;
+		} catch (Exception e) {
+			throw new InternalErrorAlert("Failed to compute server verify data", e);
+		}
+		
+		ISession session = state.getSession();
+		
+		if (session == null) {
+			IEngineParameters params = state.getParameters();
 			
-			try {
-				state.getKeySchedule().deriveMasterSecret();
-				state.getKeySchedule().eraseHandshakeSecret();
-				state.getKeySchedule().deriveApplicationTrafficSecrets();
-				state.getListener().onNewTrafficSecrets(state, RecordType.APPLICATION);
-				state.getListener().onNewReceivingTraficKey(state, RecordType.APPLICATION);
-				Finished finished = new Finished(state.getKeySchedule().computeClientVerifyData());
-				state.getListener().onHandshakeCreate(state, finished, false);
-				state.getKeySchedule().eraseHandshakeTrafficSecrets();
-				ConsumerUtil.prepare(state, finished, RecordType.HANDSHAKE, RecordType.APPLICATION);
-				state.getKeySchedule().deriveResumptionMasterSecret();
-				state.getKeySchedule().eraseMasterSecret();
-			} catch (Alert e) {
-				throw e;
-			} catch (Exception e) {
-				throw new InternalErrorAlert("Failed to compute server verify data", e);
-			}
-			
-			ISession session = state.getSession();
-			
-			if (session == null) {
-				session = state.getHandler().getSessionManager().newSession(state.getSessionInfo()
-						.peerHost(params.getPeerHost())
-						.peerPort(params.getPeerPort())
-						.cipher(state.getCipherSuite()));
-				state.setSession(session);
-			}
-			state.getTranscriptHash().reset();
-			state.changeState(MachineState.CLI_CONNECTED);
+			session = state.getHandler().getSessionManager().newSession(state.getSessionInfo()
+					.peerHost(params.getPeerHost())
+					.peerPort(params.getPeerPort())
+					.cipher(state.getCipherSuite()));
+			state.setSession(session);
+		}
+		state.getTranscriptHash().reset();
+		state.changeState(MachineState.CLI_CONNECTED);
+	}
+	
+	static class SignatureTask extends AbstractSignatureTask {
+
+		SignatureTask(byte[] content, SelectedCertificates certificates, SecureRandom random) {
+			super(content, certificates, true, random);
+		}
+		
+		@Override
+		public void finish(EngineState state) throws Alert {
+			super.finish(state);
+			finishFlight(state);
 		}
 	}
 }
@@ -26,20 +26,22 @@
 package org.snf4j.tls.engine;
 
 import java.nio.ByteBuffer;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.ArrayDeque;
 import java.util.Queue;
 
 import org.snf4j.tls.alert.Alert;
 
 public class HandshakeAggregator {
 	
-	private final List<ByteBuffer> fragments = new LinkedList<ByteBuffer>();
-	
-	private final Queue<ByteBuffer> remaining = new LinkedList<ByteBuffer>();
+	private final Queue<ByteBuffer> remaining = new ArrayDeque<ByteBuffer>();
 
 	private final IHandshakeEngine handshaker;
 	
+	private final static int MIN_FRAGMENTS_CAPACITY = 4096;
+	
+	/** The growable buffer collecting fragments of currently aggregated message */
+	private ByteBuffer fragments;
+	
 	private int expectedBytes;
 	
 	private int neededBytes;
@@ -129,19 +131,18 @@ public class HandshakeAggregator {
 			}
 
 			if (len > remaining) {
-				byte[] fragment = new byte[remaining];
-
-				src.get(fragment);
 				if (pendingHeader != null) {
-					fragments.add(pendingHeader);
-					pendingHeader = null;
 					expectedBytes = len + 4;
+					fragments = allocate(remaining + 4);
+					fragments.put(pendingHeader);
+					pendingHeader = null;
 				}
 				else {
 					expectedBytes = len;
+					fragments = allocate(remaining);
 				}
 				neededBytes = len - remaining;
-				fragments.add(ByteBuffer.wrap(fragment));
+				copy(src, remaining);
 				return true;
 			}
 			else if (pendingHeader != null) {
@@ -157,20 +158,17 @@ public class HandshakeAggregator {
 			}
 		}
 		else if (remaining < neededBytes) {
-			byte[] fragment = new byte[remaining];
-			
-			src.get(fragment);
-			fragments.add(ByteBuffer.wrap(fragment));
+			copy(src, remaining);
 			neededBytes -= remaining;
 			return true;
 		}
 		else {
-			srcs = fragments.toArray(new ByteBuffer[fragments.size()+1]);
-			fragments.clear();
-			remaining -= neededBytes;
+			fragments.flip();
+			srcs = new ByteBuffer[] {fragments, src};
 			aggregated = expectedBytes;
+			fragments = null;
+			remaining -= neededBytes;
 			neededBytes = 0;
-			srcs[srcs.length-1] = src;
 		}
 
 		handshaker.consume(srcs, aggregated);
@@ -208,4 +206,23 @@ public class HandshakeAggregator {
 		return continueUnwrap;
 	}	
 	
+	private ByteBuffer allocate(int minCapacity) {
+		return ByteBuffer.allocate(Math.min(expectedBytes, Math.max(minCapacity, MIN_FRAGMENTS_CAPACITY)));
+	}
+	
+	private void copy(ByteBuffer src, int length) {
+		ByteBuffer dup = src.duplicate();
+		
+		if (fragments.remaining() < length) {
+			int position = fragments.position();
+			ByteBuffer extended = allocate(Math.max(position + length, position << 1));
+			
+			fragments.flip();
+			extended.put(fragments);
+			fragments = extended;
+		}
+		dup.limit(dup.position() + length);
+		fragments.put(dup);
+		src.position(dup.position());
+	}
 }
@@ -28,6 +28,8 @@ package org.snf4j.tls.engine;
 import static org.snf4j.tls.record.ContentType.APPLICATION_DATA;
 import static org.snf4j.tls.record.ContentType.HANDSHAKE;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import org.snf4j.tls.alert.Alert;
 import org.snf4j.tls.engine.ProducedHandshake.Type;
 import org.snf4j.tls.record.ContentType;
@@ -37,6 +39,9 @@ import org.snf4j.tls.record.Record;
 
 public class HandshakeFragmenter extends AbstractHandshakeFragmenter {
 	
+	/** The content buffer reused while wrapping records of the same flight */
+	private ByteBuffer contentBuffer;
+	
 	public HandshakeFragmenter(IHandshakeEngine handshaker, IEncryptorHolder encryptors, IEngineStateListener listener) {
 		super(handshaker, encryptors, listener);
 	}
@@ -64,7 +69,17 @@ public class HandshakeFragmenter extends AbstractHandshakeFragmenter {
 			if (padding > 0) {
 				padding = Math.min(padding, maxFragmentLength-contentLength);
 			}
-			return ByteBuffer.wrap(new byte[contentLength + 1 + padding]);
+			int length = contentLength + 1 + padding;
+			
+			if (contentBuffer == null || contentBuffer.capacity() < length) {
+				contentBuffer = ByteBuffer.allocate(length);
+			}
+			else {
+				Arrays.fill(contentBuffer.array(), contentLength + 1, length, (byte)0);
+				contentBuffer.clear();
+				contentBuffer.limit(length);
+			}
+			return contentBuffer;
 		}
 	}
 	
@@ -75,7 +90,14 @@ public class HandshakeFragmenter extends AbstractHandshakeFragmenter {
 		}
 		content.put((byte) contentType(type).value());
 		content.position(0);
-		return Record.protect(content, encryptor, dst);
+		try {
+			return Record.protect(content, encryptor, dst);
+		}
+		finally {
+			if (!needWrap()) {
+				contentBuffer = null;
+			}
+		}
 	}
 
 }
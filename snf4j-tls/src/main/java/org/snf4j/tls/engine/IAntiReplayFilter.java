@@ -0,0 +1,54 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.tls.engine;
+
+/**
+ * A filter protecting servers against replays of the early data (0-RTT).
+ * <p>
+ * The filter is consulted by server only for a ClientHello that offers the
+ * early data and whose first PSK binder has already been successfully
+ * verified. If the filter recognizes the ClientHello as a possible replay the
+ * early data is rejected and the handshake continues as a regular 1-RTT
+ * handshake.
+ */
+public interface IAntiReplayFilter {
+
+	/**
+	 * Tells if a ClientHello with the given PSK binder should be treated as a
+	 * possible replay. Unless the ClientHello is identified as a possible replay
+	 * the binder should be recorded so any later ClientHello with the same binder
+	 * is detected.
+	 * 
+	 * @param binder            the verified binder of the first PSK offered in
+	 *                          the ClientHello
+	 * @param ticketAge         the ticket age in milliseconds as reported by
+	 *                          client
+	 * @param expectedTicketAge the ticket age in milliseconds as computed by
+	 *                          server
+	 * @return {@code true} if the early data should be rejected
+	 */
+	boolean isReplay(byte[] binder, long ticketAge, long expectedTicketAge);
+}
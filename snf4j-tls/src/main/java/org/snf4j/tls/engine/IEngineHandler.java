@@ -88,4 +88,16 @@ public interface IEngineHandler {
 	long getMaxEarlyDataSize();
 	
 	IEarlyDataHandler getEarlyDataHandler();
+	
+	/**
+	 * Returns the filter protecting server against replays of the early data.
+	 * <p>
+	 * The default implementation returns {@code null}.
+	 * 
+	 * @return the anti-replay filter or {@code null} if the early data should not
+	 *         be filtered
+	 */
+	default IAntiReplayFilter getAntiReplayFilter() {
+		return null;
+	}
 }
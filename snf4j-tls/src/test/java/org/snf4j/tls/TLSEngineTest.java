@@ -1052,6 +1052,42 @@ public class TLSEngineTest extends EngineTest {
 		assertAppData(cli,srv,100,1000);
 	}
 
+	@Test
+	public void testHandshakeWithOffloadTasks() throws Exception {
+		TLSEngine cli = new TLSEngine(true, new EngineParametersBuilder()
+				.delegatedTaskMode(DelegatedTaskMode.OFFLOAD)
+				.signatureSchemes(SIGNATURE_SCHEMES)
+				.build(), 
+				handler);
+		cli.beginHandshake();
+
+		TLSEngine srv = new TLSEngine(false, new EngineParametersBuilder()
+				.delegatedTaskMode(DelegatedTaskMode.OFFLOAD)
+				.signatureSchemes(SIGNATURE_SCHEMES)
+				.build(), 
+				handler);
+		srv.beginHandshake();
+
+		FlightController fc = new FlightController();
+		clear();
+		fc.fly(cli, in, out);
+		assertEquals("W|OK:tt|T|w|W|OK:uu|", fc.trace());
+		flip();
+		fc.fly(srv, in, out);
+		assertEquals("U|OK:tt|T|t|T|w|W|OK:wt|T|w|W|OK:ww|W|OK:uu|", fc.trace());
+		flip();
+		fc.fly(cli, in, out);
+		assertEquals("U|OK:uu|U|OK:tt|T|ua|U|OK:ww|W|OK:fnh|NH|", fc.trace());
+		flip();
+		fc.fly(srv, in, out);
+		assertEquals("U|OK:ww|W|OK:fnh|NH|", fc.trace());
+		flip();
+		fc.fly(cli, in, out);
+		assertEquals("U|OK:nhnh|", fc.trace());
+		assertInOut(0,0);
+		assertAppData(cli,srv,100,1000);
+	}
+
 	@Test
 	public void testHandshakeWithTask() throws Exception {
 		TLSEngine cli = new TLSEngine(true, new EngineParametersBuilder()
@@ -3240,6 +3276,55 @@ public class TLSEngineTest extends EngineTest {
 		assertSame(SignatureScheme.RSA_PKCS1_SHA384, criteria.getCertSchemes()[0]);
 	}	
 	
+	@Test
+	public void testClientRequiredCertificateWithOffloadTasks() throws Exception {
+		TestHandshakeHandler handler2 = new TestHandshakeHandler();
+		handler2.certificateSelector.certNames = new String[] {"rsasha384"};
+		handler2.certificateSelector.signatureScheme = SignatureScheme.RSA_PKCS1_SHA384;
+
+		cli = new TLSEngine(true, new EngineParametersBuilder()
+				.delegatedTaskMode(DelegatedTaskMode.OFFLOAD)
+				.compatibilityMode(true)
+				.signatureSchemes(SignatureScheme.ECDSA_SECP521R1_SHA512, SignatureScheme.RSA_PKCS1_SHA384)
+				.build(), 
+				handler);
+		cli.beginHandshake();
+
+		srv = new TLSEngine(false, new EngineParametersBuilder()
+				.delegatedTaskMode(DelegatedTaskMode.OFFLOAD)
+				.compatibilityMode(true)
+				.clientAuth(ClientAuth.REQUIRED)
+				.signatureSchemes(SignatureScheme.RSA_PKCS1_SHA256, SignatureScheme.RSA_PKCS1_SHA384)
+				.build(), 
+				handler2);
+		srv.beginHandshake();
+		
+		FlightController fc = new FlightController();
+		clear();
+		fc.fly(cli, in, out);
+		assertEquals("W|OK:tt|T|w|W|OK:uu|", fc.trace());
+		flip();
+		fc.fly(srv, in, out);
+		assertEquals("U|OK:tt|T|t|T|w|W|OK:wt|T|w|W|OK:ww|W|OK:ww|W|OK:uu|", fc.trace());
+		flip();
+		fc.fly(cli, in, out);
+		assertEquals("U|OK:uu|U|OK:uu|U|OK:tt|T|ua|U|OK:tt|T|w|W|OK:wt|T|w|W|OK:ww|W|OK:fnh|NH|", fc.trace());
+		flip();
+		fc.fly(srv, in, out);
+		assertEquals("U|OK:uu|U|OK:tt|T|ua|U|OK:ww|W|OK:fnh|NH|", fc.trace());
+		flip();
+		fc.fly(cli, in, out);
+		assertEquals("U|OK:nhnh|", fc.trace());
+		
+		ISession cs = (ISession)cli.getSession();
+		ISession ss = (ISession)srv.getSession();
+		assertArrayEquals(ss.getLocalCertificates()[0].getEncoded(), cert("rsasha384").getEncoded());
+		assertArrayEquals(cs.getPeerCertificates()[0].getEncoded(), cert("rsasha384").getEncoded());
+		assertArrayEquals(cs.getLocalCertificates()[0].getEncoded(), cert("rsasha256").getEncoded());
+		assertArrayEquals(ss.getPeerCertificates()[0].getEncoded(), cert("rsasha256").getEncoded());
+		assertAppData(cli,srv,100,1000);
+	}	
+	
 	@Test
 	public void testClientRequiredBadCertificate() throws Exception {
 		TestHandshakeHandler handler2 = new TestHandshakeHandler();
@@ -25,7 +25,9 @@
  */
 package org.snf4j.tls.crypto;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 
 import java.security.MessageDigest;
@@ -55,4 +57,20 @@ public class HashTest {
 		assertEquals("SHA-384", md.getAlgorithm());
 		assertSame(HashId.SHA_384, Hash.SHA384.getId());
 	}
+
+	@Test
+	public void testCreateClones() throws Exception {
+		MessageDigest md1 = Hash.SHA256.createMessageDigest();
+		MessageDigest md2 = Hash.SHA256.createMessageDigest();
+		Mac mac1 = Hash.SHA256.createMac();
+		Mac mac2 = Hash.SHA256.createMac();
+		
+		assertNotSame(md1, md2);
+		assertNotSame(mac1, mac2);
+		md1.update(new byte[] {1,2,3});
+		assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(), md2.digest());
+		assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(new byte[] {1,2,3}), md1.digest());
+		assertEquals(32, mac1.getMacLength());
+		assertEquals(32, mac2.getMacLength());
+	}
 }
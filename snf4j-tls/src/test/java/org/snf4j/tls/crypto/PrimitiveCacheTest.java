@@ -0,0 +1,107 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.tls.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+
+import javax.crypto.KeyAgreement;
+
+import org.junit.Test;
+
+public class PrimitiveCacheTest extends SignatureTest {
+
+	void assertCached(ISignature signature, PrivateKey privKey, PublicKey pubKey) throws Exception {
+		PrimitiveCache.clear();
+		assertNull(PrimitiveCache.getProvider(signature, privKey));
+		assertNull(PrimitiveCache.getProvider(signature, pubKey));
+		
+		Signature prev = null;
+		
+		for (int i=0; i<3; ++i) {
+			byte[] data = random(100);
+			Signature s = PrimitiveCache.initSign(signature, privKey, RANDOM);
+
+			assertSame(s.getProvider(), PrimitiveCache.getProvider(signature, privKey));
+			assertNotSame(prev, s);
+			prev = s;
+			s.update(data);
+			byte[] sign = s.sign();
+
+			s = PrimitiveCache.initVerify(signature, pubKey);
+			assertSame(s.getProvider(), PrimitiveCache.getProvider(signature, pubKey));
+			s.update(data);
+			assertTrue(s.verify(sign));
+		}
+	}
+	
+	@Test
+	public void testSignature() throws Exception {
+		assertCached(ECDSASignature.ECDSA_SECP256R1_SHA256, ecKey("secp256r1"), cert("secp256r1").getPublicKey());
+		assertCached(RSAPKCS1Signature.RSA_PKCS1_SHA256, rsaKey("rsa"), cert("rsasha256").getPublicKey());
+		if (RSASSAPSSSignature.RSA_PSS_RSAE_SHA256.isImplemented()) {
+			assertCached(RSASSAPSSSignature.RSA_PSS_RSAE_SHA256, rsaKey("rsa"), cert("rsasha256").getPublicKey());
+		}
+		
+		//providers identified by algorithm and key
+		PrimitiveCache.clear();
+		PrimitiveCache.initSign(ECDSASignature.ECDSA_SECP256R1_SHA256, ecKey("secp256r1"), RANDOM);
+		assertNull(PrimitiveCache.getProvider(ECDSASignature.ECDSA_SECP384R1_SHA384, ecKey("secp256r1")));
+		assertNull(PrimitiveCache.getProvider(ECDSASignature.ECDSA_SECP256R1_SHA256, rsaKey("rsa")));
+	}
+	
+	@Test
+	public void testKeyAgreement() throws Exception {
+		PrimitiveCache.clear();
+		KeyPair kp1 = ECKeyExchange.SECP256R1.generateKeyPair(RANDOM);
+		KeyPair kp2 = ECKeyExchange.SECP256R1.generateKeyPair(RANDOM);
+
+		assertNull(PrimitiveCache.getProvider("ECDH", kp1.getPrivate()));
+		byte[] secret = ECKeyExchange.SECP256R1.generateSecret(kp1.getPrivate(), kp2.getPublic(), RANDOM);
+		assertTrue(PrimitiveCache.getProvider("ECDH", kp1.getPrivate()) != null);
+		
+		for (int i=0; i<3; ++i) {
+			assertArrayEquals(secret, ECKeyExchange.SECP256R1.generateSecret(kp2.getPrivate(), kp1.getPublic(), RANDOM));
+		}
+
+		KeyAgreement ka = PrimitiveCache.initKeyAgreement("ECDH", kp1.getPrivate(), RANDOM);
+		assertEquals("ECDH", ka.getAlgorithm());
+		assertNotSame(ka, PrimitiveCache.initKeyAgreement("ECDH", kp1.getPrivate(), RANDOM));
+		assertSame(ka.getProvider(), PrimitiveCache.getProvider("ECDH", kp1.getPrivate()));
+		
+		PrimitiveCache.clear();
+		assertNull(PrimitiveCache.getProvider("ECDH", kp1.getPrivate()));
+	}
+}
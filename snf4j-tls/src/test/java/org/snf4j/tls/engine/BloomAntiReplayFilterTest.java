@@ -0,0 +1,139 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.tls.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.snf4j.tls.CommonTest;
+
+public class BloomAntiReplayFilterTest extends CommonTest {
+
+	@Test
+	public void testConstructor() {
+		BloomAntiReplayFilter f = new BloomAntiReplayFilter(1000, 1000, 0.01, 1);
+		
+		assertEquals(0, f.bits() % 64);
+		assertTrue(f.bits() >= 10000);
+		assertTrue(f.bits() < 12000);
+		assertEquals(8, f.hashes());
+		f = new BloomAntiReplayFilter(1000, 1000, 0.01, 10);
+		assertTrue(f.bits() >= 1000);
+		assertTrue(f.bits() < 1200);
+		f = new BloomAntiReplayFilter();
+		assertTrue(f.bits() > 0);
+		
+		try {
+			new BloomAntiReplayFilter(1, 1000, 0.01, 1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("window is less than 2", e.getMessage());
+		}
+		try {
+			new BloomAntiReplayFilter(1000, 0, 0.01, 1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("capacity is less than 1", e.getMessage());
+		}
+		try {
+			new BloomAntiReplayFilter(1000, 1000, 0.01, 0);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("shards is less than 1", e.getMessage());
+		}
+		try {
+			new BloomAntiReplayFilter(1000, 1000, 0, 1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("falsePositiveRate is not in range (0,1)", e.getMessage());
+		}
+		try {
+			new BloomAntiReplayFilter(1000, 1000, 1, 1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("falsePositiveRate is not in range (0,1)", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testIsReplay() {
+		BloomAntiReplayFilter f = new BloomAntiReplayFilter(1000, 100, 0.001, 4);
+		byte[] b1 = random(32);
+		byte[] b2 = random(32);
+		
+		assertFalse(f.isReplay(b1, 100, 100, 10000));
+		assertTrue(f.isReplay(b1, 100, 100, 10000));
+		assertFalse(f.isReplay(b2, 100, 100, 10000));
+		assertTrue(f.isReplay(b2, 100, 100, 10999));
+		
+		//remembered in the next window
+		assertTrue(f.isReplay(b1, 100, 100, 11000));
+		assertTrue(f.isReplay(b1, 100, 100, 12999));
+		
+		//forgotten after two windows
+		assertFalse(f.isReplay(b2, 100, 100, 13000));
+		assertTrue(f.isReplay(b2, 100, 100, 13000));
+		
+		f.clear();
+		assertFalse(f.isReplay(b2, 100, 100, 13000));
+		assertFalse(f.isReplay(b1, 100, 100, 13000));
+		
+		byte[] b3 = random(32);
+		assertFalse(f.isReplay(b3, 100, 100));
+		assertTrue(f.isReplay(b3, 100, 100));
+	}
+
+	@Test
+	public void testIsReplayWithTicketAgeSkew() {
+		BloomAntiReplayFilter f = new BloomAntiReplayFilter(1000, 100, 0.001, 4);
+		
+		assertTrue(f.isReplay(random(32), 100, 601, 10000));
+		assertTrue(f.isReplay(random(32), 601, 100, 10000));
+		assertFalse(f.isReplay(random(32), 100, 600, 10000));
+		assertFalse(f.isReplay(random(32), 600, 100, 10000));
+	}
+	
+	@Test
+	public void testFalsePositiveRate() {
+		BloomAntiReplayFilter f = new BloomAntiReplayFilter(1000, 1000, 0.01, 8);
+		int falsePositives = 0;
+		
+		for (int i=0; i<1000; ++i) {
+			if (f.isReplay(random(32), 0, 0, 10000)) {
+				++falsePositives;
+			}
+		}
+		assertTrue(falsePositives < 50);
+	}
+}
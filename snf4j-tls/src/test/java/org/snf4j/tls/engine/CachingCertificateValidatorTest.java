@@ -0,0 +1,254 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.tls.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.security.cert.X509Certificate;
+
+import org.junit.Test;
+import org.snf4j.tls.CommonTest;
+import org.snf4j.tls.alert.Alert;
+import org.snf4j.tls.alert.BadCertificateAlert;
+import org.snf4j.tls.alert.UnsupportedCertificateAlert;
+import org.snf4j.tls.extension.SignatureScheme;
+
+public class CachingCertificateValidatorTest extends CommonTest {
+
+	X509Certificate[] certs(X509Certificate... certs) {
+		return certs;
+	}
+	
+	SignatureScheme[] schemes(SignatureScheme... schemes) {
+		return schemes;
+	}
+	
+	CertificateValidateCriteria criteria(boolean server, String host, SignatureScheme... schemes) {
+		return new CertificateValidateCriteria(server, host, schemes);
+	}
+	
+	@Test
+	public void testConstructor() {
+		TestCertificateValidator v = new TestCertificateValidator();
+		
+		try {
+			new CachingCertificateValidator(null);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("validator is null", e.getMessage());
+		}
+		try {
+			new CachingCertificateValidator(v, 0, 10);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("limit is less than 1", e.getMessage());
+		}
+		try {
+			new CachingCertificateValidator(v, 10, 0);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("lifetime is less than 1", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testValidateCertificates() throws Exception {
+		TestCertificateValidator v = new TestCertificateValidator();
+		CachingCertificateValidator cv = new CachingCertificateValidator(v);
+		X509Certificate cert1 = cert("rsasha256");
+		X509Certificate cert2 = cert("rsasha384");
+		CertificateValidateCriteria c = criteria(true, "host", SignatureScheme.RSA_PKCS1_SHA256);
+		
+		assertNull(cv.validateCertificates(c, certs(cert1)));
+		assertEquals(1, v.certificatesCount);
+		assertNull(cv.validateCertificates(c, certs(cert1)));
+		assertEquals(1, v.certificatesCount);
+		assertEquals(1, cv.size());
+		
+		assertNull(cv.validateCertificates(c, certs(cert2)));
+		assertEquals(2, v.certificatesCount);
+		assertNull(cv.validateCertificates(c, certs(cert1,cert2)));
+		assertEquals(3, v.certificatesCount);
+		assertNull(cv.validateCertificates(c, certs(cert2,cert1)));
+		assertEquals(4, v.certificatesCount);
+		assertNull(cv.validateCertificates(criteria(false, "host", SignatureScheme.RSA_PKCS1_SHA256), certs(cert1)));
+		assertEquals(5, v.certificatesCount);
+		assertNull(cv.validateCertificates(criteria(true, "host2", SignatureScheme.RSA_PKCS1_SHA256), certs(cert1)));
+		assertEquals(6, v.certificatesCount);
+		assertNull(cv.validateCertificates(criteria(true, null, SignatureScheme.RSA_PKCS1_SHA256), certs(cert1)));
+		assertEquals(7, v.certificatesCount);
+		assertNull(cv.validateCertificates(criteria(true, "host", SignatureScheme.RSA_PKCS1_SHA384), certs(cert1)));
+		assertEquals(8, v.certificatesCount);
+		assertEquals(8, cv.size());
+		
+		assertNull(cv.validateCertificates(criteria(true, "host", SignatureScheme.RSA_PKCS1_SHA256), certs(cert1)));
+		assertNull(cv.validateCertificates(criteria(true, null, SignatureScheme.RSA_PKCS1_SHA256), certs(cert1)));
+		assertEquals(8, v.certificatesCount);
+		
+		cv.clear();
+		assertEquals(0, cv.size());
+		assertNull(cv.validateCertificates(c, certs(cert1)));
+		assertEquals(9, v.certificatesCount);
+	}
+
+	@Test
+	public void testValidateCertificatesFailure() throws Exception {
+		TestCertificateValidator v = new TestCertificateValidator();
+		CachingCertificateValidator cv = new CachingCertificateValidator(v);
+		X509Certificate cert = cert("rsasha256");
+		CertificateValidateCriteria c = criteria(true, "host", SignatureScheme.RSA_PKCS1_SHA256);
+		Alert alert = new BadCertificateAlert("");
+
+		v.certificatesAlert = alert;
+		assertSame(alert, cv.validateCertificates(c, certs(cert)));
+		assertSame(alert, cv.validateCertificates(c, certs(cert)));
+		assertEquals(2, v.certificatesCount);
+		assertEquals(0, cv.size());
+		v.certificatesAlert = null;
+		assertNull(cv.validateCertificates(c, certs(cert)));
+		assertNull(cv.validateCertificates(c, certs(cert)));
+		assertEquals(3, v.certificatesCount);
+		assertEquals(1, cv.size());
+	}
+	
+	@Test
+	public void testLifetime() throws Exception {
+		TestCertificateValidator v = new TestCertificateValidator();
+		CachingCertificateValidator cv = new CachingCertificateValidator(v, 10, 10);
+		X509Certificate cert = cert("rsasha256");
+		CertificateValidateCriteria c = criteria(true, "host", SignatureScheme.RSA_PKCS1_SHA256);
+		long time = cert.getNotBefore().getTime() + 1000;
+		
+		assertNull(cv.validateCertificates(c, certs(cert), time));
+		assertNull(cv.validateCertificates(c, certs(cert), time+10000));
+		assertEquals(1, v.certificatesCount);
+		assertEquals(1, cv.size(time+10000));
+		assertEquals(0, cv.size(time+10001));
+		assertNull(cv.validateCertificates(c, certs(cert), time+10001));
+		assertEquals(2, v.certificatesCount);
+		assertEquals(1, cv.size(time+10001));
+		
+		//bounded by the certificate's expiry
+		cv.clear();
+		time = cert.getNotAfter().getTime() - 5000;
+		assertNull(cv.validateCertificates(c, certs(cert), time));
+		assertNull(cv.validateCertificates(c, certs(cert), time+5000));
+		assertEquals(3, v.certificatesCount);
+		assertNull(cv.validateCertificates(c, certs(cert), time+5001));
+		assertEquals(4, v.certificatesCount);
+		assertEquals(0, cv.size(time+5001));
+		
+		//not yet valid certificate
+		time = cert.getNotBefore().getTime() - 1;
+		assertNull(cv.validateCertificates(c, certs(cert), time));
+		assertEquals(5, v.certificatesCount);
+		assertEquals(0, cv.size(time));
+	}
+
+	@Test
+	public void testLimit() throws Exception {
+		TestCertificateValidator v = new TestCertificateValidator();
+		CachingCertificateValidator cv = new CachingCertificateValidator(v, 2, 10);
+		X509Certificate cert1 = cert("rsasha256");
+		X509Certificate cert2 = cert("rsasha384");
+		X509Certificate cert3 = cert("rsasha512");
+		CertificateValidateCriteria c = criteria(true, "host", SignatureScheme.RSA_PKCS1_SHA256);
+		long time = Math.max(cert1.getNotBefore().getTime(), 
+				Math.max(cert2.getNotBefore().getTime(), cert3.getNotBefore().getTime())) + 1000;
+
+		assertNull(cv.validateCertificates(c, certs(cert1), time));
+		assertNull(cv.validateCertificates(c, certs(cert2), time+1));
+		assertNull(cv.validateCertificates(c, certs(cert1), time+2));
+		assertEquals(2, v.certificatesCount);
+		assertNull(cv.validateCertificates(c, certs(cert3), time+3));
+		assertEquals(3, v.certificatesCount);
+		assertEquals(2, cv.size(time+3));
+		
+		//least recently used removed
+		assertNull(cv.validateCertificates(c, certs(cert1), time+4));
+		assertNull(cv.validateCertificates(c, certs(cert3), time+4));
+		assertEquals(3, v.certificatesCount);
+		assertNull(cv.validateCertificates(c, certs(cert2), time+5));
+		assertEquals(4, v.certificatesCount);
+		
+		//least recently used removed even if other result expired
+		cv = new CachingCertificateValidator(v, 2, 10);
+		assertNull(cv.validateCertificates(c, certs(cert1), time));
+		assertNull(cv.validateCertificates(c, certs(cert2), time+5000));
+		assertNull(cv.validateCertificates(c, certs(cert1), time+5000));
+		assertNull(cv.validateCertificates(c, certs(cert3), time+10001));
+		assertEquals(1, cv.size(time+10001));
+		assertNull(cv.validateCertificates(c, certs(cert2), time+10001));
+		assertEquals(8, v.certificatesCount);
+		
+		//expired removed when looked up
+		assertNull(cv.validateCertificates(c, certs(cert3), time+10002));
+		assertEquals(8, v.certificatesCount);
+		assertNull(cv.validateCertificates(c, certs(cert3), time+20002));
+		assertEquals(9, v.certificatesCount);
+	}
+	
+	@Test
+	public void testValidateRawKey() throws Exception {
+		TestCertificateValidator v = new TestCertificateValidator();
+		CachingCertificateValidator cv = new CachingCertificateValidator(v);
+		CertificateValidateCriteria c = criteria(true, "host", SignatureScheme.RSA_PKCS1_SHA256);
+		Alert alert = new UnsupportedCertificateAlert("");
+		
+		assertNull(cv.validateRawKey(c, cert("rsasha256").getPublicKey()));
+		assertSame(c, v.criteria);
+		v.rawKeyAlert = alert;
+		assertSame(alert, cv.validateRawKey(c, cert("rsasha256").getPublicKey()));
+	}
+	
+	@Test
+	public void testChainKey() throws Exception {
+		CertificateValidateCriteria c = criteria(true, "host", SignatureScheme.RSA_PKCS1_SHA256);
+		CachingCertificateValidator.ChainKey k1 = new CachingCertificateValidator.ChainKey(c, new byte[] {1,2});
+		CachingCertificateValidator.ChainKey k2 = new CachingCertificateValidator.ChainKey(c, new byte[] {1,2});
+		
+		assertTrue(k1.equals(k1));
+		assertTrue(k1.equals(k2));
+		assertEquals(k1.hashCode(), k2.hashCode());
+		assertFalse(k1.equals(null));
+		assertFalse(k1.equals(c));
+		assertFalse(k1.equals(new CachingCertificateValidator.ChainKey(c, new byte[] {1,3})));
+		assertFalse(k1.equals(new CachingCertificateValidator.ChainKey(criteria(false, "host", SignatureScheme.RSA_PKCS1_SHA256), new byte[] {1,2})));
+		assertFalse(k1.equals(new CachingCertificateValidator.ChainKey(criteria(true, null, SignatureScheme.RSA_PKCS1_SHA256), new byte[] {1,2})));
+		assertNotEquals(new CachingCertificateValidator.ChainKey(criteria(true, null, SignatureScheme.RSA_PKCS1_SHA256), new byte[] {1,2}), k1);
+		assertTrue(new CachingCertificateValidator.ChainKey(criteria(true, null, SignatureScheme.RSA_PKCS1_SHA256), new byte[] {1,2})
+				.equals(new CachingCertificateValidator.ChainKey(criteria(true, null, SignatureScheme.RSA_PKCS1_SHA256), new byte[] {1,2})));
+	}
+}
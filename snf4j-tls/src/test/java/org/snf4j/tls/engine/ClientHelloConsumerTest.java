@@ -808,5 +808,76 @@ public class ClientHelloConsumerTest extends EngineTest {
 		assertSame(MachineState.SRV_CONNECTED, srv.getState().getState());
 		assertSame(EarlyDataState.REJECTED, ((EngineState)cli.getState()).getEarlyDataContext().getState());
 	}
+
+	void assertAntiReplayFilter(boolean replay, EarlyDataState expectedState) throws Exception {
+		params.delegatedTaskMode = DelegatedTaskMode.NONE;
+		params.peerHost = "snf4j.org";
+		params.peerPort = 99;
+		handler.earlyData.add(bytes(1,2,3,4));
+		handler.ticketInfos = new TicketInfo[] {new TicketInfo(100)};
+		TestAntiReplayFilter filter = new TestAntiReplayFilter(replay);
+		handler.antiReplayFilter = filter;
+		HandshakeEngine cli = new HandshakeEngine(true, params, handler, handler);
+		HandshakeEngine srv = new HandshakeEngine(false, params, handler, handler);
+		
+		HandshakeController c = new HandshakeController(cli, srv);
+		
+		c.run(true, null);
+		assertTrue(cli.getState().isConnected());
+		assertTrue(srv.getState().isConnected());
+		assertEquals(0, filter.count);
+
+		cli = new HandshakeEngine(true, params, handler, handler);
+		srv = new HandshakeEngine(false, params, handler, handler);
+		
+		c = new HandshakeController(cli, srv);
+		c.run(true, HandshakeType.CLIENT_HELLO);
+		IHandshake h = c.get(true);
+		assertNotNull(h);
+		PreSharedKeyExtension psk = ExtensionsUtil.find(h, ExtensionType.PRE_SHARED_KEY);
+		assertNotNull(psk);
+		c.run(true, null);
+		assertSame(MachineState.CLI_CONNECTED, cli.getState().getState());
+		assertSame(MachineState.SRV_CONNECTED, srv.getState().getState());
+		assertSame(expectedState, ((EngineState)cli.getState()).getEarlyDataContext().getState());
+		assertEquals(1, filter.count);
+		assertArrayEquals(psk.getOfferedPsks()[0].getBinder(), filter.binder);
+		assertTrue(Math.abs(filter.ticketAge - filter.expectedTicketAge) < 1000);
+	}
+	
+	@Test
+	public void testAcceptedResumedSessionWithAntiReplayFilter() throws Exception {
+		assertAntiReplayFilter(false, EarlyDataState.PROCESSED);
+	}
+
+	@Test
+	public void testUnacceptedResumedSessionDueReplay() throws Exception {
+		assertAntiReplayFilter(true, EarlyDataState.REJECTED);
+	}
 	
+	static class TestAntiReplayFilter implements IAntiReplayFilter {
+
+		final boolean replay;
+		
+		int count;
+		
+		byte[] binder;
+		
+		long ticketAge;
+		
+		long expectedTicketAge;
+		
+		TestAntiReplayFilter(boolean replay) {
+			this.replay = replay;
+		}
+		
+		@Override
+		public boolean isReplay(byte[] binder, long ticketAge, long expectedTicketAge) {
+			++count;
+			this.binder = binder;
+			this.ticketAge = ticketAge;
+			this.expectedTicketAge = expectedTicketAge;
+			return replay;
+		}
+	}
 }
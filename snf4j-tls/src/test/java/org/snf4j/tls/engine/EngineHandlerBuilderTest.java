@@ -254,6 +254,22 @@ public class EngineHandlerBuilderTest extends CommonTest {
 		}			
 	}
 	
+	@Test
+	public void testAntiReplayFilter() {
+		EngineHandlerBuilder b = new EngineHandlerBuilder(km, "key", tm);
+		EngineHandler h = b.build();
+		
+		assertNull(b.getAntiReplayFilter());
+		assertNull(h.getAntiReplayFilter());
+		
+		IAntiReplayFilter filter = new BloomAntiReplayFilter();
+		b.antiReplayFilter(filter);
+		assertSame(filter, b.getAntiReplayFilter());
+		assertSame(filter, b.build().getAntiReplayFilter());
+		b = new EngineHandlerBuilder(new TestCertificateSelector()).antiReplayFilter(filter);
+		assertSame(filter, b.build().getAntiReplayFilter());
+	}
+	
 	void assertTickets(TicketInfo[] tickets, long... sizes) {
 		assertEquals(sizes.length, tickets.length);
 		for (int i=0; i<tickets.length; ++i) {
@@ -304,6 +304,32 @@ public class HandshakeAggregatorTest extends CommonTest {
 		}
 	}
 	
+	@Test
+	public void testUnwrapLargeFragmented() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		
+		for (int i=0; i<10000; ++i) {
+			sb.append((char)('A' + i % 26));
+		}
+		String content = sb.toString();
+		
+		for (int step: new int[] {1, 3, 100, 4095, 4096, 4097, 9000}) {
+			HandshakeAggregator ha = new HandshakeAggregator(new TestHandshaker());
+			ByteBuffer buf = ByteBuffer.allocate(content.length() + 4 + 8);
+			
+			buf.putInt(content.length());
+			buf.put(content.getBytes(StandardCharsets.US_ASCII));
+			buf.putInt(2);
+			buf.put("XY".getBytes(StandardCharsets.US_ASCII));
+			buf.flip();
+			while (buf.hasRemaining()) {
+				assertTrue(ha.unwrap(buf, Math.min(step, buf.remaining())));
+			}
+			assertEquals("10000:" + content + "|2:XY|", trace());
+			assertTrue(ha.isEmpty());
+		}
+	}
+	
 	class TestHandshaker implements IHandshakeEngine {
 
 		@Override
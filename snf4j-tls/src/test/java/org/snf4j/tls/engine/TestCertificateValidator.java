@@ -38,9 +38,12 @@ public class TestCertificateValidator implements ICertificateValidator {
 	
 	public CertificateValidateCriteria criteria;
 	
+	public int certificatesCount;
+	
 	@Override
 	public Alert validateCertificates(CertificateValidateCriteria criteria, X509Certificate[] certs) throws Exception {
 		this.criteria = criteria;
+		++certificatesCount;
 		return certificatesAlert;
 	}
 
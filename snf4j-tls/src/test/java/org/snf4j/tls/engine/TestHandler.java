@@ -110,6 +110,11 @@ public class TestHandler implements IEngineHandler {
 		return new TestEarlyDataHandler();
 	}
 
+	@Override
+	public IAntiReplayFilter getAntiReplayFilter() {
+		return null;
+	}
+
 	class TestEarlyDataHandler implements IEarlyDataHandler {
 
 		@Override
@@ -80,6 +80,8 @@ public class TestHandshakeHandler implements IEngineHandler, IEngineStateListene
 
 	public Alert selectProtocolAlert;
 	
+	public IAntiReplayFilter antiReplayFilter;
+	
 	public void trace(String msg) {
 		synchronized (trace) {
 			trace.append(msg).append('|');
@@ -250,6 +252,11 @@ public class TestHandshakeHandler implements IEngineHandler, IEngineStateListene
 		return new TestEarlyDataHandler();
 	}
 	
+	@Override
+	public IAntiReplayFilter getAntiReplayFilter() {
+		return antiReplayFilter;
+	}
+	
 	class TestEarlyDataHandler implements IEarlyDataHandler {
 
 		@Override
@@ -63,6 +63,8 @@ public class DefaultWebSocketSessionConfig extends DefaultSessionConfig implemen
 	private int maxFramePayloadLength = 65536;
 	
 	private boolean handleCloseFrame = true;
+	
+	private boolean bufferedFramePayloads;
 
 	/**
 	 * Constructs the default Web Socket configuration for a client session
@@ -259,6 +261,29 @@ public class DefaultWebSocketSessionConfig extends DefaultSessionConfig implemen
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The default value is {@code false}
+	 */
+	@Override
+	public boolean bufferedFramePayloads() {
+		return bufferedFramePayloads;
+	}
+	
+	/**
+	 * Configures if the payload data of the received Web Socket data frames
+	 * should be stored in byte buffers allocated by the session's allocator.
+	 * 
+	 * @param bufferedFramePayloads {@code true} if the payload data should be
+	 *                              stored in byte buffers
+	 * @return this session config object
+	 */
+	public DefaultWebSocketSessionConfig setBufferedFramePayloads(boolean bufferedFramePayloads) {
+		this.bufferedFramePayloads = bufferedFramePayloads;
+		return this;
+	}
+
 	@Override
 	public ICodecExecutor createCodecExecutor() {
 		DefaultCodecExecutor executor = new DefaultCodecExecutor();
@@ -276,7 +301,7 @@ public class DefaultWebSocketSessionConfig extends DefaultSessionConfig implemen
 	@Override
 	public void switchDecoders(ICodecPipeline pipeline, boolean allowExtensions) {
 		pipeline.replace(HANDSHAKE_DECODER, WEBSOCKET_DECODER,
-				new FrameDecoder(clientMode, allowExtensions, getMaxFramePayloadLength()));
+				new FrameDecoder(clientMode, allowExtensions, getMaxFramePayloadLength(), bufferedFramePayloads()));
 		pipeline.addAfter(WEBSOCKET_DECODER, WEBSOCKET_UTF8_VALIDATOR, new FrameUtf8Validator());
 	}
 
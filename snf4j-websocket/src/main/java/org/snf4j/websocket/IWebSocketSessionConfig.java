@@ -199,4 +199,20 @@ public interface IWebSocketSessionConfig extends ISessionConfig {
 	 * @return {@code true} if the close frames should be handled automatically
 	 */
 	boolean handleCloseFrame();
+	
+	/**
+	 * Determines if the payload data of the received Web Socket data frames
+	 * (text, binary and continuation) should be stored in byte buffers allocated
+	 * by the session's allocator. If enabled, the received data frames should be
+	 * released by the user's web socket handlers after use (see
+	 * {@link org.snf4j.websocket.frame.Frame#release(org.snf4j.core.session.ISession)
+	 * Frame.release}) so the buffers can be reused by the allocator.
+	 * <p>
+	 * The default implementation returns {@code false}.
+	 * 
+	 * @return {@code true} if the payload data should be stored in byte buffers
+	 */
+	default boolean bufferedFramePayloads() {
+		return false;
+	}
 }
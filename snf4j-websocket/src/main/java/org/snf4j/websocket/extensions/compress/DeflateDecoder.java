@@ -28,6 +28,7 @@ package org.snf4j.websocket.extensions.compress;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.Inflater;
 
 import org.snf4j.core.codec.IDecoder;
 import org.snf4j.core.codec.IEventDrivenCodec;
@@ -72,6 +73,10 @@ abstract class DeflateDecoder extends DeflateCodec implements IDecoder<Frame,Fra
 		return new InvalidFrameException(cause);
 	}
 	
+	int inflateBound(int len) {
+		return len < minInflateBound ? minInflateBound : len;
+	}
+	
 	@Override
 	IEventDrivenCodec codec() {
 		return decoder;
@@ -81,23 +86,40 @@ abstract class DeflateDecoder extends DeflateCodec implements IDecoder<Frame,Fra
 	public void decode(ISession session, Frame frame, List<Frame> out) throws Exception {
 		if (allowDecoding(frame)) {
 			if (decoder == null) {
-				decoder = new ZlibDecoder(ZlibCodec.Mode.RAW) {
-					@Override
-					protected int inflateBound(int len) {
-						len = super.inflateBound(len);
+				if (noContext) {
+					decoder = new ZlibDecoder(DeflatePool.inflater()) {
+						@Override
+						protected int inflateBound(int len) {
+							return DeflateDecoder.this.inflateBound(super.inflateBound(len));
+						}
 						
-						if (len < minInflateBound) {
-							len = minInflateBound;
+						@Override
+						protected void end(Inflater inflater) {
+							DeflatePool.release(inflater);
+						}
+					};
+				}
+				else {
+					decoder = new ZlibDecoder(ZlibCodec.Mode.RAW) {
+						@Override
+						protected int inflateBound(int len) {
+							return DeflateDecoder.this.inflateBound(super.inflateBound(len));
 						}
-						return len;
-					}
-				};
+					};
+				}
 			}
 			
 			List<ByteBuffer> bufs = new ArrayList<ByteBuffer>();
 			
 			try {
-				decoder.decode(session, frame.getPayload(), bufs);
+				ByteBuffer buffer = frame.hasPayloadBuffer() ? frame.getPayloadBuffer() : null;
+				
+				if (buffer != null && buffer.hasArray()) {
+					decoder.decode(session, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), bufs);
+				}
+				else {
+					decoder.decode(session, frame.getPayload(), bufs);
+				}
 				if (appendTail(frame)) {
 					decoder.decode(session, TAIL, bufs);
 				}
@@ -135,6 +157,7 @@ abstract class DeflateDecoder extends DeflateCodec implements IDecoder<Frame,Fra
 				payload = bytes(bufs, false);
 			}
 			
+			frame.release(session);
 			frame = createFrame(frame, payload);
 		}
 		out.add(frame);
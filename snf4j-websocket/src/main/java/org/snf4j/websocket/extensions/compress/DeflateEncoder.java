@@ -28,6 +28,7 @@ package org.snf4j.websocket.extensions.compress;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.Deflater;
 
 import org.snf4j.core.codec.IEncoder;
 import org.snf4j.core.codec.IEventDrivenCodec;
@@ -35,10 +36,15 @@ import org.snf4j.core.codec.zip.ZlibCodec;
 import org.snf4j.core.codec.zip.ZlibEncoder;
 import org.snf4j.core.handler.SessionEvent;
 import org.snf4j.core.session.ISession;
+import org.snf4j.websocket.frame.EncodedFrame;
 import org.snf4j.websocket.frame.Frame;
 
 abstract class DeflateEncoder extends DeflateCodec implements IEncoder<Frame,Frame>, IEventDrivenCodec {
 
+	/** The compression level used for {@link Deflater#DEFAULT_COMPRESSION} */
+	final static int DEFAULT_COMPRESSION_LEVEL = 6;
+	
+
     private final int compressionLevel;
 
     private final boolean noContext;
@@ -46,6 +52,13 @@ abstract class DeflateEncoder extends DeflateCodec implements IEncoder<Frame,Fra
     private ZlibEncoder encoder;
     
     public DeflateEncoder(int compressionLevel, boolean noContext) {
+    	if (compressionLevel == Deflater.DEFAULT_COMPRESSION) {
+    		compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+    	}
+    	else if (compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalArgumentException(
+                    "Invalid compressionLevel: " + compressionLevel + " (expected: 0-9)");
+    	}
     	this.compressionLevel = compressionLevel;
     	this.noContext = noContext;
     }
@@ -62,13 +75,38 @@ abstract class DeflateEncoder extends DeflateCodec implements IEncoder<Frame,Fra
 	@Override
 	public void encode(ISession session, Frame frame, List<Frame> out) throws Exception {
 		if (allowEncoding(frame)) {
+			if (noContext && frame instanceof EncodedFrame) {
+				EncodedFrame deflated = ((EncodedFrame)frame).getDeflated();
+				
+				if (deflated != null) {
+					out.add(deflated);
+					return;
+				}
+			}
 			if (encoder == null) {
-				encoder = new ZlibEncoder(compressionLevel, ZlibCodec.Mode.RAW);
+				if (noContext) {
+					encoder = new ZlibEncoder(DeflatePool.deflater(compressionLevel)) {
+						@Override
+						protected void end(Deflater deflater) {
+							DeflatePool.release(deflater, compressionLevel);
+						}
+					};
+				}
+				else {
+					encoder = new ZlibEncoder(compressionLevel, ZlibCodec.Mode.RAW);
+				}
 			}
 			
 			List<ByteBuffer> bufs = new ArrayList<ByteBuffer>();
 			
-			encoder.encode(session, frame.getPayload(), bufs);
+			ByteBuffer buffer = frame.hasPayloadBuffer() ? frame.getPayloadBuffer() : null;
+			
+			if (buffer != null && buffer.hasArray()) {
+				encoder.encode(session, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), bufs);
+			}
+			else {
+				encoder.encode(session, frame.getPayload(), bufs);
+			}
 			
 			if (frame.isFinalFragment() && noContext) {
 				encoder.event(session, SessionEvent.ENDING);
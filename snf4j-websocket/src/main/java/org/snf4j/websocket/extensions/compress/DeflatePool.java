@@ -0,0 +1,150 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.websocket.extensions.compress;
+
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A per-thread pool of raw compressors and decompressors used by codecs
+ * without the context takeover. As codecs are always run in the selector loop
+ * of their sessions it works as a per-loop pool.
+ * <p>
+ * Instead of allocating a new native zlib state for each message the codecs
+ * borrow it from the pool and return it when the message is completed. The
+ * number of idle instances kept by each thread is limited, and instances
+ * returned to a full pool are ended.
+ */
+final class DeflatePool {
+	
+	final static int MAX_IDLE = 8;
+	
+	private final static ThreadLocal<DeflatePool> POOL = new ThreadLocal<DeflatePool>() {
+		
+		@Override
+		protected DeflatePool initialValue() {
+			return new DeflatePool();
+		}
+	};
+	
+	private final Deflater[][] deflaters = new Deflater[10][MAX_IDLE];
+	
+	private final int[] deflatersSize = new int[10];
+	
+	private final Inflater[] inflaters = new Inflater[MAX_IDLE];
+	
+	private int inflatersSize;
+	
+	private DeflatePool() {
+	}
+	
+	/**
+	 * Borrows a raw compressor with the specified compression level.
+	 * 
+	 * @param level the compression level (0-9)
+	 * @return the compressor ready for a new set of input data
+	 */
+	static Deflater deflater(int level) {
+		DeflatePool pool = POOL.get();
+		int size = pool.deflatersSize[level];
+		
+		if (size > 0) {
+			Deflater[] deflaters = pool.deflaters[level];
+			Deflater deflater = deflaters[--size];
+			
+			deflaters[size] = null;
+			pool.deflatersSize[level] = size;
+			return deflater;
+		}
+		return new Deflater(level, true);
+	}
+	
+	/**
+	 * Returns a compressor borrowed by the {@link #deflater(int)} method.
+	 * 
+	 * @param deflater the compressor
+	 * @param level    the compression level the compressor was borrowed with
+	 */
+	static void release(Deflater deflater, int level) {
+		DeflatePool pool = POOL.get();
+		int size = pool.deflatersSize[level];
+		
+		if (size < MAX_IDLE) {
+			deflater.reset();
+			pool.deflaters[level][size] = deflater;
+			pool.deflatersSize[level] = size + 1;
+		}
+		else {
+			deflater.end();
+		}
+	}
+	
+	/**
+	 * Borrows a raw decompressor.
+	 * 
+	 * @return the decompressor ready for a new set of input data
+	 */
+	static Inflater inflater() {
+		DeflatePool pool = POOL.get();
+		int size = pool.inflatersSize;
+		
+		if (size > 0) {
+			Inflater inflater = pool.inflaters[--size];
+			
+			pool.inflaters[size] = null;
+			pool.inflatersSize = size;
+			return inflater;
+		}
+		return new Inflater(true);
+	}
+	
+	/**
+	 * Returns a decompressor borrowed by the {@link #inflater()} method.
+	 * 
+	 * @param inflater the decompressor
+	 */
+	static void release(Inflater inflater) {
+		DeflatePool pool = POOL.get();
+		int size = pool.inflatersSize;
+		
+		if (size < MAX_IDLE) {
+			inflater.reset();
+			pool.inflaters[size] = inflater;
+			pool.inflatersSize = size + 1;
+		}
+		else {
+			inflater.end();
+		}
+	}
+	
+	static int idleDeflaters(int level) {
+		return POOL.get().deflatersSize[level];
+	}
+
+	static int idleInflaters() {
+		return POOL.get().inflatersSize;
+	}
+}
@@ -25,9 +25,11 @@
  */
 package org.snf4j.websocket.extensions.compress;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.snf4j.core.session.ISession;
+import org.snf4j.websocket.frame.EncodedFrame;
 import org.snf4j.websocket.frame.Frame;
 import org.snf4j.websocket.frame.Opcode;
 
@@ -44,14 +46,57 @@ public class PerMessageDeflateEncoder extends DeflateEncoder {
 	 * Constructs a per-message deflate encoder with specified compression level and
 	 * the context takeover control.
 	 * 
-	 * @param compressionLevel the compression level (0-9)
+	 * @param compressionLevel the compression level (0-9), or
+	 *                         {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+	 *                         for the default level (6)
 	 * @param noContext        {@code true} to prevent from using the context
 	 *                         takeover
+	 * @throws IllegalArgumentException if the compression level is invalid
 	 */
 	public PerMessageDeflateEncoder(int compressionLevel, boolean noContext) {
 		super(compressionLevel, noContext);
 	}
 
+	/**
+	 * Encodes the specified frame once for writing to many sessions. The
+	 * returned frame carries also its deflated variant that can be used by
+	 * sessions that negotiated this extension without the context takeover for
+	 * the sender.
+	 * <p>
+	 * Only final text and binary frames without the reserved bit 1 set get the
+	 * deflated variant. For other frames the returned frame has no deflated
+	 * variant.
+	 * <p>
+	 * NOTE: If the payload data in the specified frame is stored in a byte
+	 * buffer it is copied and the frame should still be released by the caller.
+	 * As the encoding is not associated with any session the deflated data is
+	 * stored in buffers allocated from the heap.
+	 * 
+	 * @param frame            the frame to encode
+	 * @param compressionLevel the compression level (0-9), or
+	 *                         {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+	 *                         for the default level (6)
+	 * @return the encoded frame
+	 * @throws IllegalArgumentException if the compression level is invalid
+	 * @throws Exception if the deflating of the payload data failed
+	 */
+	public static EncodedFrame preEncode(Frame frame, int compressionLevel) throws Exception {
+		EncodedFrame encoded = new EncodedFrame(frame);
+		
+		if (encoded.isFinalFragment()) {
+			PerMessageDeflateEncoder encoder = new PerMessageDeflateEncoder(compressionLevel, true);
+			
+			if (encoder.allowEncoding(encoded)) {
+				List<Frame> out = new ArrayList<Frame>(1);
+				
+				//no session here, the encoder never uses it to allocate buffers
+				encoder.encode(null, encoded, out);
+				return new EncodedFrame(encoded, out.get(0));
+			}
+		}
+		return encoded;
+	}
+	
 	@Override
 	boolean allowEncoding(Frame frame) {
 		Opcode opcode = frame.getOpcode();
@@ -25,6 +25,8 @@
  */
 package org.snf4j.websocket.frame;
 
+import java.nio.ByteBuffer;
+
 /**
  * Web Socket binary frame.
  * 
@@ -43,6 +45,26 @@ public class BinaryFrame extends DataFrame {
 	public BinaryFrame(boolean finalFragment, int rsvBits, byte[] payload) {
 		super(Opcode.BINARY, finalFragment, rsvBits, payload);
 	}
+	
+	private BinaryFrame(boolean finalFragment, int rsvBits, ByteBuffer payload) {
+		super(Opcode.BINARY, finalFragment, rsvBits, payload);
+	}
+	
+	/**
+	 * Creates a Web Socket binary frame with the payload data stored in a byte
+	 * buffer. The buffer should be released by calling the
+	 * {@link #release(org.snf4j.core.session.ISession) release} method when the
+	 * payload data is no longer needed.
+	 * 
+	 * @param finalFragment determines if the created frame is the final fragment in
+	 *                      a message
+	 * @param rsvBits       reserved bits for extensions or future versions
+	 * @param payload       payload data ready for reading
+	 * @return the created frame
+	 */
+	public static BinaryFrame wrap(boolean finalFragment, int rsvBits, ByteBuffer payload) {
+		return new BinaryFrame(finalFragment, rsvBits, payload);
+	}
 
 	/**
 	 * Constructs a Web Socket binary frame. The frame is created as the final
@@ -25,6 +25,8 @@
  */
 package org.snf4j.websocket.frame;
 
+import java.nio.ByteBuffer;
+
 /**
  * Web Socket continuation frame containing continuation text or binary data.
  * This frame is used for fragmented messages where the contents of a messages
@@ -45,6 +47,26 @@ public class ContinuationFrame extends DataFrame {
 	public ContinuationFrame(boolean finalFragment, int rsvBits, byte[] payload) {
 		super(Opcode.CONTINUATION, finalFragment, rsvBits, payload);
 	}
+	
+	private ContinuationFrame(boolean finalFragment, int rsvBits, ByteBuffer payload) {
+		super(Opcode.CONTINUATION, finalFragment, rsvBits, payload);
+	}
+	
+	/**
+	 * Creates a Web Socket continuation frame with the payload data stored in a byte
+	 * buffer. The buffer should be released by calling the
+	 * {@link #release(org.snf4j.core.session.ISession) release} method when the
+	 * payload data is no longer needed.
+	 * 
+	 * @param finalFragment determines if the created frame is the final fragment in
+	 *                      a message
+	 * @param rsvBits       reserved bits for extensions or future versions
+	 * @param payload       payload data ready for reading
+	 * @return the created frame
+	 */
+	public static ContinuationFrame wrap(boolean finalFragment, int rsvBits, ByteBuffer payload) {
+		return new ContinuationFrame(finalFragment, rsvBits, payload);
+	}
 
 	/**
 	 * Constructs a Web Socket continuation frame containing binary data. The frame
@@ -94,7 +116,7 @@ public class ContinuationFrame extends DataFrame {
 	 * @return the text data
 	 */
 	public String getText() {
-		return TextFrame.fromBytes(payload);
+		return TextFrame.fromBytes(getPayload());
 	}
 	
 }
@@ -25,6 +25,8 @@
  */
 package org.snf4j.websocket.frame;
 
+import java.nio.ByteBuffer;
+
 /**
  * Base class for all Web Socket data frames.
  * 
@@ -45,6 +47,20 @@ public class DataFrame extends Frame {
 		super(opcode, finalFragment, rsvBits, payload);
 	}
 	
+	/**
+	 * Constructs a generic Web Socket data frame with the payload data stored in
+	 * a byte buffer.
+	 * 
+	 * @param opcode        the type of created frame
+	 * @param finalFragment determines if the created frame is the final fragment in
+	 *                      a message
+	 * @param rsvBits       reserved bits for extensions or future versions
+	 * @param payload       payload data ready for reading
+	 */
+	DataFrame(Opcode opcode, boolean finalFragment, int rsvBits, ByteBuffer payload) {
+		super(opcode, finalFragment, rsvBits, payload);
+	}
+	
 	/**
 	 * Constructs a generic Web Socket data frame being the final fragment in a
 	 * message and with all reserved bits cleared.
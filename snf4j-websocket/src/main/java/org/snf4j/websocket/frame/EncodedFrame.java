@@ -0,0 +1,138 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.websocket.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A Web Socket frame that is encoded only once and can be written to many
+ * sessions, for example, when the same message is broadcast to a large
+ * number of subscribers.
+ * <p>
+ * The encoded bytes are stored in the server (not masked) format and are
+ * immutable, so the same instance can be written concurrently to any number of
+ * sessions. A session working in the server mode copies the encoded bytes
+ * directly to its output buffer without encoding the frame again. A session
+ * working in the client mode, that requires masking of each frame with a
+ * different key, encodes the frame as a regular one.
+ * <p>
+ * The frame can optionally carry a deflated variant of itself, compressed
+ * without the use of the context takeover (see
+ * {@link org.snf4j.websocket.extensions.compress.PerMessageDeflateEncoder#preEncode(Frame, int)
+ * PerMessageDeflateEncoder.preEncode}). The deflated variant is used by
+ * sessions that negotiated the per-message deflate extension without the
+ * context takeover for the sender. Other sessions that negotiated the extension
+ * compress the payload data of this frame by themselves.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class EncodedFrame extends Frame {
+
+	private final ByteBuffer encoded;
+	
+	private final EncodedFrame deflated;
+	
+	/**
+	 * Constructs an encoded frame from the specified frame.
+	 * <p>
+	 * NOTE: If the payload data in the specified frame is stored in a byte
+	 * buffer it is copied and the frame should still be released by the caller.
+	 * 
+	 * @param frame the frame to encode
+	 */
+	public EncodedFrame(Frame frame) {
+		this(frame, null);
+	}
+	
+	/**
+	 * Constructs an encoded frame from the specified frame and its deflated
+	 * variant.
+	 * <p>
+	 * NOTE: If the payload data in the specified frames is stored in byte
+	 * buffers it is copied and the frames should still be released by the
+	 * caller.
+	 * 
+	 * @param frame    the frame to encode
+	 * @param deflated the deflated variant of the frame, or {@code null} if the
+	 *                 frame should not have the deflated variant. It must be
+	 *                 the final fragment of the same type as the frame and with
+	 *                 the reserved bit 1 set
+	 * @throws IllegalArgumentException if the deflated variant does not match
+	 *                                  the frame
+	 */
+	public EncodedFrame(Frame frame, Frame deflated) {
+		super(frame.getOpcode(), frame.isFinalFragment(), frame.getRsvBits(), frame.getPayload());
+		if (deflated != null) {
+			if (deflated.getOpcode() != frame.getOpcode() 
+					|| !deflated.isFinalFragment() 
+					|| !frame.isFinalFragment()
+					|| !deflated.isRsvBit1()) {
+				throw new IllegalArgumentException("deflated frame does not match");
+			}
+			this.deflated = deflated instanceof EncodedFrame 
+					? (EncodedFrame)deflated 
+					: new EncodedFrame(deflated, null);
+		}
+		else {
+			this.deflated = null;
+		}
+		if (frame instanceof EncodedFrame) {
+			encoded = ((EncodedFrame)frame).encoded;
+		}
+		else {
+			int len = payload.length;
+			ByteBuffer buffer = ByteBuffer.allocate(FrameEncoder.length(this, false));
+			
+			FrameEncoder.header(buffer, this, len, false);
+			buffer.put(payload);
+			buffer.flip();
+			encoded = buffer.asReadOnlyBuffer();
+		}
+	}
+	
+	/**
+	 * Returns the encoded bytes of this frame.
+	 * 
+	 * @return a read-only buffer with the encoded bytes ready for reading
+	 */
+	public ByteBuffer getEncoded() {
+		return encoded.duplicate();
+	}
+
+	/**
+	 * Returns the deflated variant of this frame.
+	 * 
+	 * @return the deflated variant, or {@code null} if this frame has no
+	 *         deflated variant
+	 */
+	public EncodedFrame getDeflated() {
+		return deflated;
+	}
+	
+	ByteBuffer encoded() {
+		return encoded;
+	}
+}
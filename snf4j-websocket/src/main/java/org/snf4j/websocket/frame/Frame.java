@@ -25,6 +25,10 @@
  */
 package org.snf4j.websocket.frame;
 
+import java.nio.ByteBuffer;
+
+import org.snf4j.core.session.ISession;
+
 /**
  * Base class for all Web Socket frames.
  * 
@@ -50,7 +54,9 @@ public class Frame {
 	private final int rsvBits;
 	
 	/** Payload data */
-	protected final byte[] payload;
+	protected byte[] payload;
+	
+	private ByteBuffer buffer;
 	
 	/**
 	 * Constructs a generic Web Socket frame.
@@ -68,6 +74,30 @@ public class Frame {
 		this.payload = payload == null ? EMPTY_PAYLOAD : payload;
 	}
 	
+	/**
+	 * Constructs a generic Web Socket frame with the payload data stored in a
+	 * byte buffer. The buffer is usually allocated by the session's allocator
+	 * and it should be released by calling the {@link #release(ISession)}
+	 * method when the payload data is no longer needed.
+	 * 
+	 * @param opcode        the type of created frame
+	 * @param finalFragment determines if the created frame is the final fragment in
+	 *                      a message
+	 * @param rsvBits		reserved bits for extensions or future versions
+	 * @param payload       payload data ready for reading
+	 */
+	Frame(Opcode opcode, boolean finalFragment, int rsvBits, ByteBuffer payload) {
+		this.opcode = opcode;
+		this.finalFragment = finalFragment;
+		this.rsvBits = rsvBits;
+		if (payload == null) {
+			this.payload = EMPTY_PAYLOAD;
+		}
+		else {
+			buffer = payload;
+		}
+	}
+	
 	/**
 	 * Tells if this frame is the final fragment in a message.
 	 * 
@@ -124,10 +154,17 @@ public class Frame {
 
 	/**
 	 * Returns the payload data in this frame.
+	 * <p>
+	 * For frames with the payload data stored in a byte buffer the returned array
+	 * is a copy of the buffer's content that is created on the first call.
 	 * 
 	 * @return the payload data
 	 */
 	public byte[] getPayload() {
+		if (payload == null) {
+			payload = new byte[buffer.remaining()];
+			buffer.duplicate().get(payload);
+		}
 		return payload;
 	}
 	
@@ -137,7 +174,65 @@ public class Frame {
 	 * @return the lenght of the payload data
 	 */
 	public int getPayloadLength() {
-		return payload.length;
+		return payload == null ? buffer.remaining() : payload.length;
+	}
+	
+	/**
+	 * Tells if the payload data in this frame is stored in a byte buffer that
+	 * should be released after use.
+	 * 
+	 * @return {@code true} if the payload data is stored in a byte buffer
+	 */
+	public boolean hasPayloadBuffer() {
+		return buffer != null;
+	}
+	
+	/**
+	 * Returns the payload data in this frame as a byte buffer ready for reading.
+	 * <p>
+	 * For frames with the payload data stored in a byte buffer the returned
+	 * buffer shares its content with the stored buffer, so it should not be used
+	 * after the frame is released.
+	 * 
+	 * @return the payload data
+	 */
+	public ByteBuffer getPayloadBuffer() {
+		return buffer != null ? buffer.duplicate() : ByteBuffer.wrap(getPayload());
+	}
+	
+	/**
+	 * Returns the byte buffer storing the payload data without duplicating it.
+	 * 
+	 * @return the byte buffer or {@code null} if the payload data is not stored
+	 *         in a byte buffer
+	 */
+	ByteBuffer payloadBuffer() {
+		return buffer;
+	}
+	
+	/**
+	 * Releases the byte buffer storing the payload data in this frame. After
+	 * releasing the payload data that has not been already copied by the
+	 * {@link #getPayload()} method is no longer available and this frame
+	 * will behave as a frame with an empty payload.
+	 * <p>
+	 * It does nothing if the payload data is not stored in a byte buffer or if
+	 * the buffer has been already released.
+	 * 
+	 * @param session the session whose allocator should be used to release the
+	 *                buffer
+	 * @return {@code true} if the buffer was released
+	 */
+	public boolean release(ISession session) {
+		if (buffer != null) {
+			session.release(buffer);
+			buffer = null;
+			if (payload == null) {
+				payload = EMPTY_PAYLOAD;
+			}
+			return true;
+		}
+		return false;
 	}
 	
 }
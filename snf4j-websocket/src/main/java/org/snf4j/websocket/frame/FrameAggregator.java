@@ -76,6 +76,7 @@ public class FrameAggregator implements IDecoder<Frame,Frame> {
 				break;
 			}
 			frame = new AggregatedBinaryFrame(true, data.getRsvBits(), data.getPayload());
+			data.release(session);
 			return;
 			
 		case TEXT:
@@ -83,6 +84,7 @@ public class FrameAggregator implements IDecoder<Frame,Frame> {
 				break;
 			}
 			frame = new AggregatedTextFrame(true, data.getRsvBits(), data.getPayload());
+			data.release(session);
 			return;
 			
 		case CONTINUATION:
@@ -91,6 +93,7 @@ public class FrameAggregator implements IDecoder<Frame,Frame> {
 					throw tooBig(session, "Too big payload for aggregated frame");
 				}
 				frame.addFragment(data.getPayload());
+				data.release(session);
 				if (!data.isFinalFragment()) {
 					return;
 				}
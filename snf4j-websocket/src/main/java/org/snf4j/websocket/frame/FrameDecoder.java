@@ -30,15 +30,22 @@ import java.nio.ByteOrder;
 import java.util.List;
 
 import org.snf4j.core.codec.IBaseDecoder;
+import org.snf4j.core.codec.ICodecPipeline;
+import org.snf4j.core.codec.IEventDrivenCodec;
+import org.snf4j.core.handler.SessionEvent;
 import org.snf4j.core.session.ISession;
 import org.snf4j.core.session.IStreamSession;
 
 /**
  * Decodes a Web Socket frame from bytes in the protocol version 13 format.
+ * <p>
+ * A partially decoded payload data stored in a byte buffer is released when
+ * the associated session is ending or when the decoder is removed from the
+ * codec pipeline.
  * 
  * @author <a href="http://snf4j.org">SNF4J.ORG</a>
  */
-public class FrameDecoder implements IBaseDecoder<ByteBuffer,Frame>{
+public class FrameDecoder implements IBaseDecoder<ByteBuffer,Frame>, IEventDrivenCodec {
 
 	private final boolean clientMode;
 	
@@ -46,6 +53,8 @@ public class FrameDecoder implements IBaseDecoder<ByteBuffer,Frame>{
 	
 	private final boolean allowExtensions;
 	
+	private final boolean bufferedPayloads;
+	
 	private boolean fragmentation;
 	
 	private Opcode opcode;
@@ -54,10 +63,14 @@ public class FrameDecoder implements IBaseDecoder<ByteBuffer,Frame>{
 	
 	private int rsv;
 	
-	private byte[] mask;
+	private int mask;
+	
+	private boolean masked;
 	
 	private byte[] payload;
 	
+	private ByteBuffer buffer;
+	
 	private int payloadLen;
 	
 	private boolean closed;
@@ -72,11 +85,33 @@ public class FrameDecoder implements IBaseDecoder<ByteBuffer,Frame>{
 	 * @param maxPayloadLen   maximum length of a frame's payload data. Setting it
 	 *                        to an appropriate value can prevent from denial of
 	 *                        service attacks
+	 * @param bufferedPayloads determines if the payload data of decoded data
+	 *                        frames (text, binary and continuation) should be
+	 *                        stored in byte buffers allocated by the session's
+	 *                        allocator. Such frames should be released after
+	 *                        use (see {@link Frame#release(ISession)})
 	 */
-	public FrameDecoder(boolean clientMode, boolean allowExtensions, long maxPayloadLen) {
+	public FrameDecoder(boolean clientMode, boolean allowExtensions, long maxPayloadLen, boolean bufferedPayloads) {
 		this.clientMode = clientMode;
 		this.maxPayloadLen = maxPayloadLen;
 		this.allowExtensions = allowExtensions;
+		this.bufferedPayloads = bufferedPayloads;
+	}
+	
+	/**
+	 * Constructs a Web Socket decoder storing the payload data of decoded frames
+	 * in byte arrays.
+	 * 
+	 * @param clientMode      determines the mode (client/server) in which the
+	 *                        decoder should work
+	 * @param allowExtensions determines it the decoder should allow to use the
+	 *                        reserved extension bits
+	 * @param maxPayloadLen   maximum length of a frame's payload data. Setting it
+	 *                        to an appropriate value can prevent from denial of
+	 *                        service attacks
+	 */
+	public FrameDecoder(boolean clientMode, boolean allowExtensions, long maxPayloadLen) {
+		this(clientMode, allowExtensions, maxPayloadLen, false);
 	}
 	
 	@Override
@@ -156,20 +191,61 @@ public class FrameDecoder implements IBaseDecoder<ByteBuffer,Frame>{
 		return frame;
 	}
 	
+	private Frame createFrame(Opcode opcode, boolean fin, int rsv, ByteBuffer payload) {
+		Frame frame;
+		
+		switch (opcode) {
+		case CONTINUATION:
+			frame = ContinuationFrame.wrap(fin, rsv, payload);
+			break;
+			
+		case BINARY:
+			frame = BinaryFrame.wrap(fin, rsv, payload);
+			break;
+			
+		default:
+			frame = TextFrame.wrap(fin, rsv, payload);
+		}
+		fragmentation = !fin;
+		return frame;
+	}
+	
+	private Frame complete(ISession session) {
+		Frame frame;
+		
+		if (buffer != null) {
+			buffer.flip();
+			if (masked) {
+				Masker.mask(buffer, buffer.position(), buffer.remaining(), mask);
+			}
+			frame = createFrame(opcode, fin, rsv, buffer);
+			buffer = null;
+		}
+		else {
+			if (masked) {
+				Masker.mask(payload, 0, payload.length, mask);
+			}
+			frame = createFrame(session, opcode, fin, rsv, payload);
+			payload = null;
+		}
+		opcode = null;
+		return frame;
+	}
+	
 	private void decodePayload(ISession session, ByteBuffer data, List<Frame> out) {
+		if (buffer != null) {
+			buffer.put(data);
+			if (!buffer.hasRemaining()) {
+				out.add(complete(session));
+			}
+			return;
+		}
+		
 		int off = payloadLen;
 		
 		if (data.remaining() == payload.length - off) {
 			data.get(payload, off, data.remaining());
-			if (mask != null) {
-				for (int i=0; i<payload.length; ++i) {
-					payload[i] ^= mask[i % 4];
-				}
-				mask = null;
-			}
-			out.add(createFrame(session, opcode, fin, rsv, payload));
-			opcode = null;
-			payload = null;
+			out.add(complete(session));
 		}
 		else {
 			payloadLen = off + data.remaining();
@@ -255,31 +331,29 @@ public class FrameDecoder implements IBaseDecoder<ByteBuffer,Frame>{
 				throw protocolError(session, "Maximum frame length (" + maxPayloadLen +") has been exceeded");
 			}
 
+			this.masked = masked;
 			if (masked) {
-				mask = new byte[4];
-				data.get(mask);
+				mask = data.getInt();
 			}
-
-			byte[] payload = new byte[(int) payloadLen];
-			int remaining = data.remaining();
 			
-			if (payload.length == remaining) {
-				data.get(payload);
-				if (mask != null) {
-					for (int i=0; i<remaining; ++i) {
-						payload[i] ^= mask[i % 4];
-					}
-					mask = null;
+			this.opcode = opcode;
+			this.fin = fin;
+			this.rsv = rsv;
+			if (bufferedPayloads && payloadLen > 0 && !opcode.isControl()) {
+				buffer = session.allocate((int) payloadLen);
+				buffer.limit((int) payloadLen);
+				buffer.put(data);
+				if (!buffer.hasRemaining()) {
+					out.add(complete(session));
 				}
-				out.add(createFrame(session, opcode, fin, rsv, payload));
 			}
 			else {
-				data.get(payload, 0, remaining);
-				this.opcode = opcode;
-				this.fin = fin;
-				this.rsv = rsv;
-				this.payload = payload;
-				this.payloadLen = remaining; 
+				payload = new byte[(int) payloadLen];
+				this.payloadLen = data.remaining();
+				data.get(payload, 0, this.payloadLen);
+				if (this.payloadLen == payload.length) {
+					out.add(complete(session));
+				}
 			}
 		}
 		finally {
@@ -346,7 +420,7 @@ public class FrameDecoder implements IBaseDecoder<ByteBuffer,Frame>{
 	}
 	
 	private int availablePayload(int len) {
-		int needed = payload.length - payloadLen;
+		int needed = buffer != null ? buffer.remaining() : payload.length - payloadLen;
 		
 		if (len >= needed) {
 			return needed;
@@ -399,5 +473,37 @@ public class FrameDecoder implements IBaseDecoder<ByteBuffer,Frame>{
 		}
 		return len;
 	}
+	
+	private void releaseBuffer(ISession session) {
+		if (buffer != null) {
+			session.release(buffer);
+			buffer = null;
+		}
+	}
+	
+	/**
+	 * Does nothing.
+	 */
+	@Override
+	public void added(ISession session, ICodecPipeline pipeline) {
+	}
 
+	/**
+	 * Releases the partially decoded payload data when the associated session
+	 * is ending ({@link SessionEvent#ENDING}).
+	 */
+	@Override
+	public void event(ISession session, SessionEvent event) {
+		if (event == SessionEvent.ENDING) {
+			releaseBuffer(session);
+		}
+	}
+
+	/**
+	 * Releases the partially decoded payload data.
+	 */
+	@Override
+	public void removed(ISession session, ICodecPipeline pipeline) {
+		releaseBuffer(session);
+	}
 }
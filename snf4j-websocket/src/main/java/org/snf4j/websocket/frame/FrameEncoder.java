@@ -35,6 +35,14 @@ import org.snf4j.core.session.ISession;
 
 /**
  * Encodes a Web Socket frame into bytes in the protocol version 13 format.
+ * <p>
+ * The payload data of client frames is masked directly into the output buffer.
+ * Frames with the payload data stored in byte buffers are not released by the
+ * encoder as they are still owned by the caller (e.g. the same frame can be
+ * written to many sessions).
+ * <p>
+ * In the server mode the {@link EncodedFrame} frames are not encoded again,
+ * and their already encoded bytes are simply copied to the output buffer.
  * 
  * @author <a href="http://snf4j.org">SNF4J.ORG</a>
  */
@@ -75,8 +83,52 @@ public class FrameEncoder implements IEncoder<Frame,ByteBuffer> {
 			closed = true;
 		}
 		
+		if (!clientMode && frame instanceof EncodedFrame) {
+			ByteBuffer encoded = ((EncodedFrame)frame).encoded();
+			ByteBuffer buffer = session.allocate(encoded.remaining());
+			
+			buffer.put(encoded.duplicate());
+			buffer.flip();
+			out.add(buffer);
+			return;
+		}
+		
 		ByteBuffer buffer = session.allocate(length(frame));
+		ByteBuffer payload = frame.payloadBuffer();
+		int len = frame.getPayloadLength();
+		
+		header(buffer, frame, len, clientMode);
+		int mask = 0;
+		
+		if (clientMode) {
+			mask = RANDOM.nextInt();
+			buffer.putInt(mask);
+		}
+		
+		int off = buffer.position();
 		
+		if (payload == null) {
+			buffer.put(frame.getPayload());
+		}
+		else {
+			buffer.put(payload.duplicate());
+		}
+		if (clientMode) {
+			Masker.mask(buffer, off, len, mask);
+		}
+		buffer.flip();
+		out.add(buffer);
+	}
+
+	/**
+	 * Puts the header of a frame (without the masking key) into a buffer.
+	 * 
+	 * @param buffer     the destination buffer
+	 * @param frame      the frame
+	 * @param len        the length of the payload data
+	 * @param clientMode determines if the mask bit should be set
+	 */
+	static void header(ByteBuffer buffer, Frame frame, int len, boolean clientMode) {
 		buffer.order(ByteOrder.BIG_ENDIAN);
 		byte b = (byte) ((frame.getRsvBits() << 4) & 0x70);
 		
@@ -86,9 +138,6 @@ public class FrameEncoder implements IEncoder<Frame,ByteBuffer> {
 		b |= frame.getOpcode().value();
 		buffer.put(b);
 		
-		byte[] payload = frame.getPayload();
-		int len = payload.length;
-		
 		b = (byte) (clientMode ? 0x80 : 0);
 		if (len > 0xffff) {
 			b |= 127;
@@ -104,22 +153,9 @@ public class FrameEncoder implements IEncoder<Frame,ByteBuffer> {
 			b |= len;
 			buffer.put(b);
 		}
-		if (clientMode) {
-			byte[] mask = new byte[4];
-			byte[] masked = new byte[len];
-			
-			RANDOM.nextBytes(mask);
-			for (int i=0; i<len; ++i) {
-				masked[i] = (byte) (payload[i] ^ mask[i % 4]);
-			}
-			buffer.put(mask);
-			payload = masked;
-		}
-		buffer.put(payload).flip();
-		out.add(buffer);
 	}
-
-	protected int length(Frame frame) {
+	
+	static int length(Frame frame, boolean clientMode) {
 		int len = frame.getPayloadLength();
 		
 		if (len > 0xffff) {
@@ -133,4 +169,8 @@ public class FrameEncoder implements IEncoder<Frame,ByteBuffer> {
 		}
 		return len + 2;
 	}
+	
+	protected int length(Frame frame) {
+		return length(frame, clientMode);
+	}
 }
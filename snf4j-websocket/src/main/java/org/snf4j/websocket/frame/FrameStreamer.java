@@ -0,0 +1,212 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.websocket.frame;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.snf4j.core.codec.IDecoder;
+import org.snf4j.core.session.ISession;
+import org.snf4j.core.session.IStreamSession;
+import org.snf4j.core.session.IllegalSessionStateException;
+
+/**
+ * Delivers Web Socket text and binary messages fragment by fragment, as an
+ * alternative to the {@link FrameAggregator} for messages that are too big to
+ * be aggregated in memory.
+ * <p>
+ * Each received data frame is wrapped in a {@link MessageFragment} telling the
+ * type of the message and the position of the fragment in the message. Control
+ * frames are passed unchanged.
+ * <p>
+ * The streamer can also control the flow of incoming data. When the total
+ * length of the payload data in fragments that have been delivered but not yet
+ * released (see {@link MessageFragment#release(ISession)}) exceeds the high
+ * watermark, reading from the session is suspended. It is resumed when the
+ * total length drops to or below the low watermark. Reading is resumed only if
+ * it was suspended by the streamer, so reading suspended by other parties is
+ * not affected. With the flow control enabled all delivered fragments have to
+ * be released, or the session will stop reading. The fragments can be released
+ * by any thread.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class FrameStreamer implements IDecoder<Frame,Object> {
+
+	private final long maxMessageLength;
+	
+	private final long highWatermark;
+	
+	private final long lowWatermark;
+	
+	private final AtomicLong pending = new AtomicLong();
+	
+	private final Object lock = new Object();
+	
+	private boolean suspended;
+	
+	private Opcode opcode;
+	
+	private long offset;
+
+	/**
+	 * Constructs a Web Socket frame streamer with the flow control.
+	 * 
+	 * @param maxMessageLength maximum length of a message's payload data. Setting
+	 *                         it to an appropriate value can prevent from denial
+	 *                         of service attacks
+	 * @param highWatermark    the total length of not released fragments above
+	 *                         which reading is suspended, or a value less than
+	 *                         {@code 1} to disable the flow control
+	 * @param lowWatermark     the total length of not released fragments at or
+	 *                         below which suspended reading is resumed
+	 * @throws IllegalArgumentException if the flow control is enabled and the low
+	 *                                  watermark is negative or greater than the
+	 *                                  high watermark
+	 */
+	public FrameStreamer(long maxMessageLength, long highWatermark, long lowWatermark) {
+		if (highWatermark > 0 && (lowWatermark < 0 || lowWatermark > highWatermark)) {
+			throw new IllegalArgumentException("lowWatermark is out of range");
+		}
+		this.maxMessageLength = maxMessageLength;
+		this.highWatermark = highWatermark;
+		this.lowWatermark = lowWatermark;
+	}
+	
+	/**
+	 * Constructs a Web Socket frame streamer without the flow control.
+	 * 
+	 * @param maxMessageLength maximum length of a message's payload data. Setting
+	 *                         it to an appropriate value can prevent from denial
+	 *                         of service attacks
+	 */
+	public FrameStreamer(long maxMessageLength) {
+		this(maxMessageLength, 0, 0);
+	}
+	
+	@Override
+	public Class<Frame> getInboundType() {
+		return Frame.class;
+	}
+
+	@Override
+	public Class<Object> getOutboundType() {
+		return Object.class;
+	}
+	
+	/**
+	 * Returns the total length of the payload data in fragments that have been
+	 * delivered but not yet released. It is always {@code 0} if the flow control
+	 * is disabled.
+	 * 
+	 * @return the total length of not released fragments
+	 */
+	public long getPendingLength() {
+		return pending.get();
+	}
+	
+	private RuntimeException tooBig(ISession session, String message) throws InvalidFrameException {
+		((IStreamSession)session).writenf(new CloseFrame(CloseFrame.TOO_BIG));
+		return new InvalidFrameException(message);
+	}
+
+	@Override
+	public void decode(ISession session, Frame frame, List<Object> out) throws Exception {
+		boolean first;
+		
+		switch (frame.getOpcode()) {
+		case TEXT:
+		case BINARY:
+			opcode = frame.getOpcode();
+			offset = 0;
+			first = true;
+			break;
+			
+		case CONTINUATION:
+			if (opcode != null) {
+				first = false;
+				break;
+			}
+			
+		default:
+			out.add(frame);
+			return;
+		}
+		
+		int length = frame.getPayloadLength();
+		
+		if (offset + length > maxMessageLength) {
+			opcode = null;
+			throw tooBig(session, "Too big payload for streamed message");
+		}
+		
+		MessageFragment fragment = new MessageFragment(this, opcode, frame, offset, first);
+		
+		offset += length;
+		if (frame.isFinalFragment()) {
+			opcode = null;
+		}
+		if (highWatermark > 0 && pending.addAndGet(length) > highWatermark) {
+			suspend(session);
+		}
+		out.add(fragment);
+	}
+	
+	private void suspend(ISession session) {
+		synchronized (lock) {
+			if (!suspended && pending.get() > highWatermark && !session.isReadSuspended()) {
+				try {
+					session.suspendRead();
+					suspended = true;
+				}
+				catch (IllegalSessionStateException e) {
+					//Ignore as the session is already closing
+				}
+			}
+		}
+	}
+	
+	private void resume(ISession session) {
+		synchronized (lock) {
+			if (suspended && pending.get() <= lowWatermark) {
+				suspended = false;
+				try {
+					session.resumeRead();
+				}
+				catch (IllegalSessionStateException e) {
+					//Ignore as the session is already closing
+				}
+			}
+		}
+	}
+	
+	void released(ISession session, MessageFragment fragment) {
+		if (highWatermark > 0) {
+			pending.addAndGet(-fragment.getPayloadLength());
+			resume(session);
+		}
+	}
+}
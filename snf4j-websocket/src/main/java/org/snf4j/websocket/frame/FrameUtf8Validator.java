@@ -25,6 +25,7 @@
  */
 package org.snf4j.websocket.frame;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 import org.snf4j.core.codec.IDecoder;
@@ -74,7 +75,7 @@ public class FrameUtf8Validator implements IDecoder<Frame,Frame> {
 		}
 
 		if (validate) {
-			byte[] payload = frame.getPayload();
+			ByteBuffer buffer = frame.payloadBuffer();
 			Utf8.ValidationContext context = this.context;
 			
 			if (context == null) {
@@ -87,7 +88,17 @@ public class FrameUtf8Validator implements IDecoder<Frame,Frame> {
 				this.context = context;
 			}
 			
-			if (!Utf8.validate(context, payload, 0, payload.length)) {
+			boolean valid;
+			
+			if (buffer != null) {
+				valid = Utf8.validate(context, buffer, buffer.position(), buffer.remaining());
+			}
+			else {
+				byte[] payload = frame.getPayload();
+				
+				valid = Utf8.validate(context, payload, 0, payload.length);
+			}
+			if (!valid) {
 				throw nonUtf8(session);
 			}
 			if (frame.isFinalFragment() && !Utf8.isValid(context)) {
@@ -0,0 +1,89 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.websocket.frame;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Masks (and unmasks) the payload data of Web Socket frames processing
+ * eight bytes at a time.
+ */
+final class Masker {
+	
+	private Masker() {}
+	
+	/**
+	 * Masks in place the bytes in the given buffer. The position, limit and mark
+	 * of the buffer are not changed.
+	 * 
+	 * @param buffer the buffer to mask
+	 * @param off    the absolute index of the first byte of the payload data
+	 * @param len    the number of bytes to mask
+	 * @param mask   the masking key
+	 */
+	static void mask(ByteBuffer buffer, int off, int len, int mask) {
+		int end = off + len;
+		int wordEnd = off + (len & ~7);
+		long mask64 = mask & 0xffffffffL;
+		
+		if (buffer.order() == ByteOrder.BIG_ENDIAN) {
+			mask64 |= mask64 << 32;
+		}
+		else {
+			mask64 = Integer.reverseBytes(mask) & 0xffffffffL;
+			mask64 |= mask64 << 32;
+		}
+		
+		int i = off;
+		
+		for (; i < wordEnd; i += 8) {
+			buffer.putLong(i, buffer.getLong(i) ^ mask64);
+		}
+		for (int j = i - off; i < end; ++i, ++j) {
+			buffer.put(i, (byte) (buffer.get(i) ^ (mask >>> ((3 - (j & 3)) << 3))));
+		}
+	}
+
+	/**
+	 * Masks in place the bytes in the given array.
+	 * 
+	 * @param data the array to mask
+	 * @param off  the offset of the first byte of the payload data
+	 * @param len  the number of bytes to mask
+	 * @param mask the masking key
+	 */
+	static void mask(byte[] data, int off, int len, int mask) {
+		if (len < 8) {
+			for (int i=0; i<len; ++i) {
+				data[off+i] ^= (byte) (mask >>> ((3 - (i & 3)) << 3));
+			}
+		}
+		else {
+			mask(ByteBuffer.wrap(data), off, len, mask);
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.websocket.frame;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.snf4j.core.session.ISession;
+
+/**
+ * A fragment of a Web Socket text or binary message delivered by the
+ * {@link FrameStreamer}. It wraps a received data frame and tells which part
+ * of the message it carries.
+ * 
+ * @author <a href="http://snf4j.org">SNF4J.ORG</a>
+ */
+public class MessageFragment {
+	
+	private final FrameStreamer streamer;
+	
+	private final Opcode messageOpcode;
+	
+	private final Frame frame;
+	
+	private final long offset;
+	
+	private final boolean first;
+	
+	private final int length;
+	
+	private final AtomicBoolean released = new AtomicBoolean();
+	
+	MessageFragment(FrameStreamer streamer, Opcode messageOpcode, Frame frame, long offset, boolean first) {
+		this.streamer = streamer;
+		this.messageOpcode = messageOpcode;
+		this.frame = frame;
+		this.offset = offset;
+		this.first = first;
+		length = frame.getPayloadLength();
+	}
+	
+	/**
+	 * Returns the type of the message this fragment belongs to.
+	 * 
+	 * @return {@link Opcode#TEXT} or {@link Opcode#BINARY}
+	 */
+	public Opcode getMessageOpcode() {
+		return messageOpcode;
+	}
+	
+	/**
+	 * Returns the frame carrying this fragment.
+	 * 
+	 * @return the frame
+	 */
+	public Frame getFrame() {
+		return frame;
+	}
+	
+	/**
+	 * Returns the number of bytes in the message that preceded this fragment.
+	 * 
+	 * @return the offset of this fragment in the message
+	 */
+	public long getOffset() {
+		return offset;
+	}
+	
+	/**
+	 * Tells if this fragment is the first one in the message.
+	 * 
+	 * @return {@code true} if this fragment is the first one
+	 */
+	public boolean isFirst() {
+		return first;
+	}
+
+	/**
+	 * Tells if this fragment is the last one in the message.
+	 * 
+	 * @return {@code true} if this fragment is the last one
+	 */
+	public boolean isLast() {
+		return frame.isFinalFragment();
+	}
+	
+	/**
+	 * Returns the payload data in this fragment.
+	 * 
+	 * @return the payload data
+	 */
+	public byte[] getPayload() {
+		return frame.getPayload();
+	}
+	
+	/**
+	 * Returns the length of the payload data in this fragment. The returned value
+	 * does not change when this fragment is released.
+	 * 
+	 * @return the length of the payload data
+	 */
+	public int getPayloadLength() {
+		return length;
+	}
+	
+	/**
+	 * Tells if this fragment has been already released.
+	 * 
+	 * @return {@code true} if this fragment has been released
+	 */
+	public boolean isReleased() {
+		return released.get();
+	}
+	
+	/**
+	 * Releases this fragment. It releases the payload data of the wrapped frame
+	 * (see {@link Frame#release(ISession)}) and, if the streamer that created
+	 * this fragment controls the flow of incoming data, it informs the streamer
+	 * that the fragment has been processed.
+	 * <p>
+	 * Only the first call has any effect.
+	 * 
+	 * @param session the session the fragment was received by
+	 */
+	public void release(ISession session) {
+		if (released.compareAndSet(false, true)) {
+			frame.release(session);
+			streamer.released(session, this);
+		}
+	}
+}
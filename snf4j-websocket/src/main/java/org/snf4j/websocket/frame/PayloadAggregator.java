@@ -25,8 +25,8 @@
  */
 package org.snf4j.websocket.frame;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 class PayloadAggregator {
@@ -36,7 +36,7 @@ class PayloadAggregator {
 	private int length;
 	
 	PayloadAggregator(byte[] data) {
-		fragments = new LinkedList<byte[]>();
+		fragments = new ArrayList<byte[]>();
 		fragments.add(data);
 		length = data.length;
 	}
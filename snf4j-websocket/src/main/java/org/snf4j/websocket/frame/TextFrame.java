@@ -25,6 +25,7 @@
  */
 package org.snf4j.websocket.frame;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -48,6 +49,28 @@ public class TextFrame extends DataFrame {
 		super(Opcode.TEXT, finalFragment, rsvBits, payload);
 	}
 	
+	private TextFrame(boolean finalFragment, int rsvBits, ByteBuffer payload) {
+		super(Opcode.TEXT, finalFragment, rsvBits, payload);
+	}
+	
+	/**
+	 * Creates a Web Socket text frame with the payload data stored in a byte
+	 * buffer. The buffer should be released by calling the
+	 * {@link #release(org.snf4j.core.session.ISession) release} method when the
+	 * payload data is no longer needed.
+	 * <p>
+	 * NOTE: The binary data should be a valid UTF-8 encoding.
+	 * 
+	 * @param finalFragment determines if the created frame is the final fragment in
+	 *                      a message
+	 * @param rsvBits       reserved bits for extensions or future versions
+	 * @param payload       payload data ready for reading
+	 * @return the created frame
+	 */
+	public static TextFrame wrap(boolean finalFragment, int rsvBits, ByteBuffer payload) {
+		return new TextFrame(finalFragment, rsvBits, payload);
+	}
+	
 	/**
 	 * Constructs a Web Socket text frame containing text data.
 	 * 
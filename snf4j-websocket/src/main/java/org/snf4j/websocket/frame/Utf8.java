@@ -25,10 +25,14 @@
  */
 package org.snf4j.websocket.frame;
 
+import java.nio.ByteBuffer;
+
 class Utf8 {
     private static final int ACCEPT = 0;
     private static final int REJECT = 12;
     
+    private static final long NON_ASCII_MASK = 0x8080808080808080L;
+    
 	private static final int[] TYPES = {
 		0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0, // 00..1f
 		0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0, // 20..3f
@@ -71,13 +75,50 @@ class Utf8 {
 	}	
 	
 	static boolean validate(ValidationContext ctx, byte[] data, int offset, int length) {
+		if (length < 8) {
+			int state = ctx.state;
+			int codep = ctx.codep;
+			int len = length + offset, b, type;
+
+			for (int i=offset; i < len; ++i) {
+				b = data[i] & 0xff; 
+				type = TYPES[b];
+
+				codep = state != ACCEPT ? b & 0x3f | codep << 6 : 0xff >> type & b;
+				state = STATES[state + type];
+				if (state == REJECT) {
+					return false;
+				}
+			}
+			ctx.state = state;
+			ctx.codep = codep;
+			return true;
+		}
+		return validate(ctx, ByteBuffer.wrap(data), offset, length);
+	}
+	
+	/**
+	 * Validates bytes in the given buffer without changing its position, limit
+	 * and mark. When the validation is in the accepting state the bytes are
+	 * checked eight at a time so pure ASCII sequences are skipped quickly.
+	 */
+	static boolean validate(ValidationContext ctx, ByteBuffer data, int offset, int length) {
 		int state = ctx.state;
 		int codep = ctx.codep;
 		int len = length + offset, b, type;
+		int wordLen = len - 7;
+		int i = offset;
 		
-		
-		for (int i=offset; i < len; ++i) {
-			b = data[i] & 0xff; 
+		while (i < len) {
+			if (state == ACCEPT) {
+				while (i < wordLen && (data.getLong(i) & NON_ASCII_MASK) == 0) {
+					i += 8;
+				}
+				if (i >= len) {
+					break;
+				}
+			}
+			b = data.get(i++) & 0xff; 
 			type = TYPES[b];
 
 			codep = state != ACCEPT ? b & 0x3f | codep << 6 : 0xff >> type & b;
@@ -58,19 +58,19 @@ class HandshakeFactory {
 				if (frame.pendingName()) {
 					throw new InvalidHandshakeException("No value in header field");
 				}
-				frame.addValue(HttpUtils.ascii(data, out, 0), HttpUtils.rtrimAscii(data, out, 1));
+				frame.addValue(HttpUtils.name(data, out, 0), data, out[2], HttpUtils.rtrim(data, out, 1));
 				break;
 				
 			case 2:
 				if (frame.pendingName()) {
 					throw new InvalidHandshakeException("No value in header field");
 				}
-				frame.pendingName(HttpUtils.ascii(data, out, 0));
+				frame.pendingName(HttpUtils.name(data, out, 0));
 				break;
 				
 			case -4:
 				if (frame.pendingName()) {
-					frame.addValue(HttpUtils.ascii(data, out, 0), HttpUtils.rtrimAscii(data, out, 1));
+					frame.addValue(HttpUtils.name(data, out, 0), data, out[2], HttpUtils.rtrim(data, out, 1));
 				}
 				else {
 					frame.appendValue(" ");
@@ -80,7 +80,7 @@ class HandshakeFactory {
 				
 			case -2:
 				if (frame.pendingName()) {
-					frame.pendingName(HttpUtils.ascii(data, out, 0));
+					frame.pendingName(HttpUtils.name(data, out, 0));
 				}
 				else {
 					frame.appendValue(" ");
@@ -142,17 +142,25 @@ class HandshakeFactory {
 			if (!(frame instanceof HandshakeResponse)) {
 				throw new InvalidHandshakeException();
 			}
-			out.put(HttpUtils.HTTP_VERSION);
-			out.put(HttpUtils.SP);
-			out.put(HttpUtils.statusCode(((HandshakeResponse)frame).getStatus()));
-			out.put(HttpUtils.SP);
-			out.put(HttpUtils.bytes(((HandshakeResponse)frame).getReason()));
-			out.put(HttpUtils.CRLF);
+			
+			byte[] statusLine = ((HandshakeResponse)frame).getStatusLine();
+			
+			if (statusLine != null) {
+				out.put(statusLine);
+			}
+			else {
+				out.put(HttpUtils.HTTP_VERSION);
+				out.put(HttpUtils.SP);
+				out.put(HttpUtils.statusCode(((HandshakeResponse)frame).getStatus()));
+				out.put(HttpUtils.SP);
+				out.put(HttpUtils.bytes(((HandshakeResponse)frame).getReason()));
+				out.put(HttpUtils.CRLF);
+			}
 		}
 		for (String name: frame.getNames()) {
-			out.put(HttpUtils.bytes(name));
+			out.put(HttpUtils.nameBytes(name));
 			out.put(HttpUtils.FSSP);
-			out.put(HttpUtils.bytes(frame.getValue(name)));
+			frame.value(name).put(out);
 			out.put(HttpUtils.CRLF);
 		}
 		out.put(HttpUtils.CRLF);
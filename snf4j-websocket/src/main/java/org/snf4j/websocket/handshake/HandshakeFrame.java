@@ -37,7 +37,7 @@ import java.util.Map;
  */
 public class HandshakeFrame {
 	
-	private final Map<String,String> values = new HashMap<String,String>();
+	private final Map<String,HttpValue> values = new HashMap<String,HttpValue>();
 	
 	private final List<String> names = new ArrayList<String>();
 	
@@ -62,6 +62,12 @@ public class HandshakeFrame {
 	 *         could not be found
 	 */
 	public String getValue(String name) {
+		HttpValue value = values.get(key(name));
+		
+		return value == null ? null : value.toString();
+	}
+	
+	HttpValue value(String name) {
 		return values.get(key(name));
 	}
 
@@ -77,21 +83,34 @@ public class HandshakeFrame {
 	 * @param value the value to be added
 	 */
 	public void addValue(String name, String value) {
+		addValue(name, new HttpValue(value));
+	}
+	
+	void addValue(String name, byte[] value) {
+		addValue(name, new HttpValue(value, 0, value.length));
+	}
+	
+	void addValue(String name, byte[] data, int beginIndex, int endIndex) {
+		addValue(name, new HttpValue(data, beginIndex, endIndex));
+	}
+	
+	private void addValue(String name, HttpValue value) {
 		if (pendingName != null) {
 			pendingName.append(name);
 			name = pendingName.toString();
 			pendingName = null;
 		}
 		lastKey = key(name);
-		String oldValue = values.get(lastKey);
+		HttpValue oldValue = values.get(lastKey);
 		
 		if (oldValue != null) {
 			length -= oldValue.length();
-			value = oldValue + ", " + value;
+			oldValue.append(", " + value);
+			length += oldValue.length();
 		}
-		length += value.length();
-		if (values.put(lastKey, value) == null) {
-			length += name.length()+2+2;
+		else {
+			length += value.length() + name.length()+2+2;
+			values.put(lastKey, value);
 			names.add(name);
 		}
 	}
@@ -101,8 +120,7 @@ public class HandshakeFrame {
 			throw new InvalidHandshakeException("No header field to extend");
 		}
 		length += value.length();
-		value = values.get(lastKey) + value;
-		values.put(lastKey, value);
+		values.get(lastKey).append(value);
 	}
 	
 	/**
@@ -133,7 +151,9 @@ public class HandshakeFrame {
 	}
 	
 	String key(String name) {
-		return name.toUpperCase();
+		String key = HttpUtils.key(name);
+		
+		return key != null ? key : name.toUpperCase();
 	}
 	
 	boolean pendingName() {
@@ -37,6 +37,8 @@ public class HandshakeResponse extends HandshakeFrame {
 	
 	private final String reason;
 	
+	private final byte[] statusLine;
+	
 	/**
 	 * Constructs a Web Socket handshake response frame.
 	 * 
@@ -46,11 +48,13 @@ public class HandshakeResponse extends HandshakeFrame {
 	public HandshakeResponse(int status, String reason) {
 		this.status = status;
 		this.reason = reason;
+		statusLine = null;
 	}
 	
 	HandshakeResponse(HttpStatus status) {
 		this.status = status.getStatus();
 		this.reason = status.getReason();
+		statusLine = status.getStatusLine();
 	}
 
 	/**
@@ -71,6 +75,10 @@ public class HandshakeResponse extends HandshakeFrame {
 		return reason;
 	}
 	
+	byte[] getStatusLine() {
+		return statusLine;
+	}
+	
 	@Override
 	int getLength() {
 		return super.getLength() + HandshakeUtils.RESPONSE_LENGTH + reason.length();
@@ -28,6 +28,7 @@ package org.snf4j.websocket.handshake;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -53,12 +54,34 @@ class HandshakeUtils {
 
 	final static String CONNECTION_VALUE = HttpUtils.UPGRADE;
 	
+	final static byte[] UPGRADE_VALUE_BYTES = HttpUtils.bytes(UPGRADE_VALUE);
+
+	final static byte[] CONNECTION_VALUE_BYTES = HttpUtils.bytes(CONNECTION_VALUE);
+	
 	final static int VERSION = 13;
 	
 	final static Random RANDOM = new Random();
 	
 	final static byte[] KEY_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11".getBytes(StandardCharsets.US_ASCII);
 	
+	final static int ANSWER_KEY_LENGTH = 28;
+	
+	private final static byte[] BASE64 = HttpUtils.bytes("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/");
+	
+	private final static byte PAD = '=';
+	
+	private final static ThreadLocal<MessageDigest> SHA1 = new ThreadLocal<MessageDigest>() {
+		
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance("SHA1");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	};
+	
 	final static String WS = "ws";
 	
 	final static String WSS = "wss";
@@ -93,17 +116,77 @@ class HandshakeUtils {
 	}
 	
 	static String generateAnswerKey(String key) {
-		try {
-			MessageDigest md = MessageDigest.getInstance("SHA1");
-			byte[] bytes;
-			
-			md.update(HttpUtils.bytes(key));
-			bytes = Base64Util.encode(md.digest(KEY_GUID));
-			return HttpUtils.ascii(bytes, 0, bytes.length);
+		if (key == null) {
+			return null;
 		}
-		catch (Exception e) {
+		
+		byte[] bytes = generateAnswerKey(new HttpValue(key));
+		
+		return HttpUtils.ascii(bytes, 0, bytes.length);
+	}
+	
+	/**
+	 * Generates the answer key for the specified key. The digest used to compute
+	 * the answer key is reused by the current thread and the result is encoded
+	 * in the Base64 scheme directly into the returned array.
+	 * 
+	 * @param key the key sent in the handshake request
+	 * @return the bytes of the answer key, or {@code null} if the key is
+	 *         {@code null}
+	 */
+	static byte[] generateAnswerKey(HttpValue key) {
+		if (key == null) {
 			return null;
 		}
+		
+		MessageDigest md = SHA1.get();
+		byte[] bytes = new byte[ANSWER_KEY_LENGTH];
+		
+		md.reset();
+		key.update(md);
+		base64(md.digest(KEY_GUID), bytes);
+		return bytes;
+	}
+	
+	/**
+	 * Encodes the specified data in the Base64 scheme.
+	 * 
+	 * @param data the data to encode
+	 * @param out the output array that must have enough room for the encoded data
+	 * @return the length of the encoded data
+	 */
+	static int base64(byte[] data, byte[] out) {
+		int len = data.length;
+		int i = 0, o = 0;
+		
+		for (int end = len - len % 3; i < end; i += 3) {
+			int bits = (data[i] & 0xff) << 16 | (data[i+1] & 0xff) << 8 | (data[i+2] & 0xff);
+			
+			out[o++] = BASE64[bits >>> 18];
+			out[o++] = BASE64[(bits >>> 12) & 0x3f];
+			out[o++] = BASE64[(bits >>> 6) & 0x3f];
+			out[o++] = BASE64[bits & 0x3f];
+		}
+		switch (len - i) {
+		case 1:
+			int bits = (data[i] & 0xff) << 16;
+			
+			out[o++] = BASE64[bits >>> 18];
+			out[o++] = BASE64[(bits >>> 12) & 0x3f];
+			out[o++] = PAD;
+			out[o++] = PAD;
+			break;
+			
+		case 2:
+			bits = (data[i] & 0xff) << 16 | (data[i+1] & 0xff) << 8;
+			
+			out[o++] = BASE64[bits >>> 18];
+			out[o++] = BASE64[(bits >>> 12) & 0x3f];
+			out[o++] = BASE64[(bits >>> 6) & 0x3f];
+			out[o++] = PAD;
+			break;
+		}
+		return o;
 	}
 	
 	static byte[] parseKey(String key) {
@@ -240,12 +240,12 @@ public class Handshaker implements IHandshaker {
 	}
 	
 	byte[] acceptKey(HandshakeRequest request) throws HandshakeAcceptException {
-		String s = request.getValue(HandshakeUtils.SEC_WEB_SOCKET_KEY);
+		HttpValue s = request.value(HandshakeUtils.SEC_WEB_SOCKET_KEY);
 		
 		if (s != null) {
-			byte[] key = HandshakeUtils.parseKey(s);
+			byte[] key = s.base64();
 			
-			if (key != null) {
+			if (key != null && key.length == 16) {
 				return key;
 			}
 			cause("Invalid websocket key: " + s);
@@ -372,6 +372,8 @@ public class Handshaker implements IHandshaker {
 	}
 	
 	HandshakeResponse accept(HandshakeRequest request) {
+		byte[] answerKey;
+		
 		try {
 			acceptVersion(request);	
 			acceptBasicFields(request);
@@ -379,16 +381,20 @@ public class Handshaker implements IHandshaker {
 			acceptKey(request);
 			acceptSubProtocol(request);
 			acceptExtensions(request);
+			answerKey = HandshakeUtils.generateAnswerKey(request.value(HandshakeUtils.SEC_WEB_SOCKET_KEY));
+			if (answerKey == null) {
+				cause("Missing websocket key");
+				throw new HandshakeAcceptException(HttpStatus.BAD_REQUEST);
+			}
 		} catch (HandshakeAcceptException e) {
 			return e.getResponse();
 		}
 		
 		HandshakeResponse frame = new HandshakeResponse(HttpStatus.SWITCHING_PROTOCOLS);
 		
-		frame.addValue(HttpUtils.UPGRADE, HandshakeUtils.UPGRADE_VALUE);
-		frame.addValue(HttpUtils.CONNECTION, HandshakeUtils.CONNECTION_VALUE);
-		frame.addValue(HandshakeUtils.SEC_WEB_SOCKET_ACCEPT,
-				HandshakeUtils.generateAnswerKey(request.getValue(HandshakeUtils.SEC_WEB_SOCKET_KEY)));
+		frame.addValue(HttpUtils.UPGRADE, HandshakeUtils.UPGRADE_VALUE_BYTES);
+		frame.addValue(HttpUtils.CONNECTION, HandshakeUtils.CONNECTION_VALUE_BYTES);
+		frame.addValue(HandshakeUtils.SEC_WEB_SOCKET_ACCEPT, answerKey);
 		if (subProtocol != null) {
 			frame.addValue(HandshakeUtils.SEC_WEB_SOCKET_PROTOCOL, subProtocol);
 		}
@@ -405,21 +411,9 @@ public class Handshaker implements IHandshaker {
 		return frame;
 	}
 	
-	static boolean contains(String tokens, String value) {
-		boolean contains = false;
-		
-		for (String token: HttpUtils.values(tokens)) {
-			if (token.equalsIgnoreCase(value)) {
-				contains = true;
-				break;
-			}
-		}
-		return contains;
-	}
-	
 	boolean validateBasicFields(HandshakeFrame frame) {
-		String u = frame.getValue(HttpUtils.UPGRADE);
-		String c = frame.getValue(HttpUtils.CONNECTION);
+		HttpValue u = frame.value(HttpUtils.UPGRADE);
+		HttpValue c = frame.value(HttpUtils.CONNECTION);
 		
 		if (u == null) {
 			cause("Missing websocket upgrade");
@@ -429,8 +423,8 @@ public class Handshaker implements IHandshaker {
 			cause("Missing websocket connection");
 			return false;
 		}
-		if (contains(u, HandshakeUtils.UPGRADE_VALUE)) {
-			if (contains(c, HandshakeUtils.CONNECTION_VALUE)) {
+		if (u.containsToken(HandshakeUtils.UPGRADE_VALUE)) {
+			if (c.containsToken(HandshakeUtils.CONNECTION_VALUE)) {
 				return true;
 			}
 			else {
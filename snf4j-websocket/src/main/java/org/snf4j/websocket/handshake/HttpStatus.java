@@ -25,6 +25,8 @@
  */
 package org.snf4j.websocket.handshake;
 
+import java.nio.charset.StandardCharsets;
+
 enum HttpStatus {
 	
 	SWITCHING_PROTOCOLS(101, "Switching Protocols"),
@@ -38,9 +40,13 @@ enum HttpStatus {
 	
 	private final String reason;
 	
+	private final byte[] statusLine;
+	
 	HttpStatus(int status, String reason) {
 		this.status = status;
 		this.reason = reason;
+		statusLine = HttpUtils.bytes(new String(HttpUtils.HTTP_VERSION, StandardCharsets.US_ASCII) 
+				+ ' ' + status + ' ' + reason + "\r\n");
 	}
 	
 	public int getStatus() {
@@ -50,4 +56,12 @@ enum HttpStatus {
 	public String getReason() {
 		return reason;
 	}
+	
+	/**
+	 * Returns the pre-encoded status line (with the trailing CRLF) of the HTTP
+	 * response with this status.
+	 */
+	byte[] getStatusLine() {
+		return statusLine;
+	}
 }
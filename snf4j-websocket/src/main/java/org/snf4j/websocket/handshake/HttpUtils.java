@@ -29,7 +29,9 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 class HttpUtils {
 	
@@ -71,9 +73,81 @@ class HttpUtils {
 	
 	final static String HTTPS = "https";
 	
+	private final static String[] NAMES = new String[] {
+			HOST,
+			UPGRADE,
+			CONNECTION,
+			HandshakeUtils.SEC_WEB_SOCKET_KEY,
+			HandshakeUtils.SEC_WEB_SOCKET_VERSION,
+			HandshakeUtils.SEC_WEB_SOCKET_PROTOCOL,
+			HandshakeUtils.SEC_WEB_SOCKET_EXTENSIONS,
+			HandshakeUtils.SEC_WEB_SOCKET_ACCEPT,
+			HandshakeUtils.ORIGIN
+	};
+	
+	private final static byte[][] NAME_BYTES = new byte[NAMES.length][];
+	
+	private final static Map<String,String> KEYS = new HashMap<String,String>();
+	
+	private final static Map<String,byte[]> BYTES = new HashMap<String,byte[]>();
+	
+	static {
+		for (int i=0; i<NAMES.length; ++i) {
+			NAME_BYTES[i] = bytes(NAMES[i]);
+			KEYS.put(NAMES[i], NAMES[i].toUpperCase());
+			BYTES.put(NAMES[i], NAME_BYTES[i]);
+		}
+	}
+	
 	private HttpUtils() {	
 	}
 	
+	/**
+	 * Returns the interned key of a well-known header field name.
+	 * 
+	 * @param name the name of the header field
+	 * @return the key, or {@code null} if the name is not a well-known one
+	 */
+	static String key(String name) {
+		return KEYS.get(name);
+	}
+	
+	/**
+	 * Returns bytes of a header field name. Bytes of well-known names are
+	 * pre-encoded.
+	 * 
+	 * @param name the name of the header field
+	 * @return the bytes of the name
+	 */
+	static byte[] nameBytes(String name) {
+		byte[] bytes = BYTES.get(name);
+		
+		return bytes != null ? bytes : bytes(name);
+	}
+	
+	/**
+	 * Returns a header field name stored in the specified range. Well-known
+	 * names are returned as interned strings.
+	 */
+	public static String name(byte[] data, int beginIndex, int endIndex) {
+		int len = endIndex - beginIndex;
+		
+		for (int i=0; i<NAME_BYTES.length; ++i) {
+			byte[] name = NAME_BYTES[i];
+			
+			if (name.length == len && equals(data, beginIndex, endIndex, name)) {
+				return NAMES[i];
+			}
+		}
+		return ascii(data, beginIndex, endIndex);
+	}
+	
+	public static String name(byte[] data, int[] tokens, int tokenIndex) {
+		int i = tokenIndex << 1;
+		
+		return name(data, tokens[i], tokens[i+1]);
+	}
+	
 	public static int available(byte[] data, int off, int len, int[] out) {
 		if (out.length == 0) {
 			return 0;
@@ -117,16 +191,46 @@ class HttpUtils {
 			}
 			return available(data.array(), data.arrayOffset(), data.position(), out);
 		}
+		if (flipped) {
+			return available(data, data.position(), data.remaining(), out);
+		}
+		return available(data, 0, data.position(), out);
+	}
+	
+	private static int available(ByteBuffer data, int off, int len, int[] out) {
+		if (out.length == 0) {
+			return 0;
+		}
 		
-		ByteBuffer dup = data.duplicate();
-		byte[] array;
+		int dataLen = off+len;
+		int line0 = off, lineCount = 0, maxCount = out.length-3;
+		byte prev, curr = 0; 
+		boolean end = false;
 		
-		if (!flipped) {
-			dup.flip();
+		out[0] = -1;
+		for (int i=off; i<dataLen; ++i) {
+			prev = curr;
+			curr = data.get(i);
+			if (curr == LF) {
+				if (prev == CR) {
+					if (end) {
+						return i+1-off;
+					}
+					if (lineCount > maxCount) {
+						return 0;
+					}
+					end = true;
+					out[lineCount++] = line0-off;
+					out[lineCount++] = i-1-off;
+					line0 = i+1;
+					out[lineCount] = -1;
+				}
+			}
+			else if (curr != CR) {
+				end = false;
+			}
 		}
-		array = new byte[dup.remaining()];
-		dup.get(array);
-		return available(array, 0, array.length, out);
+		return 0;
 	}
 	
 	public static int splitRequestLine(byte[] data, int[] lines, int lineIndex, int[] out) {
@@ -248,6 +352,16 @@ class HttpUtils {
 	}
 	
 	public static String rtrimAscii(byte[] data, int beginIndex, int endIndex) {
+		return new String(data, beginIndex, rtrim(data, beginIndex, endIndex)-beginIndex, StandardCharsets.US_ASCII);
+	}
+
+	public static int rtrim(byte[] data, int[] tokens, int tokenIndex) {
+		int i = tokenIndex << 1;
+		
+		return rtrim(data, tokens[i], tokens[i+1]);
+	}
+	
+	public static int rtrim(byte[] data, int beginIndex, int endIndex) {
 		for (;endIndex > beginIndex; --endIndex) {
 			byte c = data[endIndex-1];
 			
@@ -255,7 +369,7 @@ class HttpUtils {
 				break;
 			}
 		}
-		return new String(data, beginIndex, endIndex-beginIndex, StandardCharsets.US_ASCII);
+		return endIndex;
 	}
 
 	public static String ascii(byte[] data, int beginIndex, int endIndex) {
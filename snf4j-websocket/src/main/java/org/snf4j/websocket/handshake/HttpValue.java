@@ -0,0 +1,174 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.websocket.handshake;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.snf4j.core.util.Base64Util;
+
+/**
+ * A value of a header field. Values parsed from a handshake frame are kept as
+ * ranges of the frame's bytes and are materialized to strings on demand.
+ */
+final class HttpValue {
+	
+	private byte[] data;
+	
+	private int begin;
+	
+	private int end;
+	
+	private String value;
+	
+	HttpValue(String value) {
+		this.value = value;
+	}
+	
+	HttpValue(byte[] data, int begin, int end) {
+		this.data = data;
+		this.begin = begin;
+		this.end = end;
+	}
+	
+	int length() {
+		return value != null ? value.length() : end - begin;
+	}
+	
+	void append(String value) {
+		this.value = toString() + value;
+		data = null;
+	}
+	
+	private static int lower(int c) {
+		return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+	}
+	
+	private static boolean isBlank(int c) {
+		return c <= ' ';
+	}
+	
+	/**
+	 * Tells if this value, being a comma-separated list of tokens, contains the
+	 * specified token. The tokens are compared case-insensitively.
+	 */
+	boolean containsToken(String token) {
+		if (value != null) {
+			return containsToken(value, token);
+		}
+		
+		int len = token.length();
+		
+		for (int i=begin; i<end;) {
+			int e = i;
+			
+			while (e < end && data[e] != ',') {
+				++e;
+			}
+			
+			int b = i, t = e;
+			
+			while (b < t && isBlank(data[b] & 0xff)) {
+				++b;
+			}
+			while (t > b && isBlank(data[t-1] & 0xff)) {
+				--t;
+			}
+			if (t - b == len) {
+				int j = 0;
+				
+				for (; j<len; ++j) {
+					if (lower(data[b+j]) != lower(token.charAt(j))) {
+						break;
+					}
+				}
+				if (j == len) {
+					return true;
+				}
+			}
+			i = e + 1;
+		}
+		return false;
+	}
+	
+	static boolean containsToken(String value, String token) {
+		for (String t: HttpUtils.values(value)) {
+			if (t.equalsIgnoreCase(token)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Decodes this value using the Base64 encoding scheme.
+	 * 
+	 * @return the decoded bytes or {@code null} if this value is not in valid
+	 *         Base64 scheme
+	 */
+	byte[] base64() {
+		if (value != null) {
+			byte[] bytes = HttpUtils.bytes(value);
+			
+			return Base64Util.decode(bytes, 0, bytes.length, false);
+		}
+		return Base64Util.decode(data, begin, end - begin, false);
+	}
+	
+	/**
+	 * Writes this value to the specified buffer.
+	 */
+	void put(ByteBuffer out) {
+		if (value != null) {
+			out.put(HttpUtils.bytes(value));
+		}
+		else {
+			out.put(data, begin, end - begin);
+		}
+	}
+	
+	/**
+	 * Updates the specified digest with bytes of this value.
+	 */
+	void update(MessageDigest md) {
+		if (value != null) {
+			md.update(HttpUtils.bytes(value));
+		}
+		else {
+			md.update(data, begin, end - begin);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		if (value == null) {
+			value = new String(data, begin, end - begin, StandardCharsets.US_ASCII);
+			data = null;
+		}
+		return value;
+	}
+}
@@ -62,6 +62,7 @@ public class DefaultWebSocketSessionConfigTest {
 			assertEquals(65536, config.getMaxFramePayloadLength());
 			assertTrue(config.acceptRequestUri(null));
 			assertTrue(config.handleCloseFrame());
+			assertFalse(config.bufferedFramePayloads());
 			config = new DefaultWebSocketSessionConfig(uri);
 		}
 		assertTrue(config.isClientMode());
@@ -76,7 +77,8 @@ public class DefaultWebSocketSessionConfigTest {
 			.setIgnoreHostHeaderField(true)
 			.setMaxHandshakeFrameLength(101)
 			.setMaxFramePayloadLength(102)
-			.setHandleCloseFrame(false);
+			.setHandleCloseFrame(false)
+			.setBufferedFramePayloads(true);
 		
 		assertEquals("Origin", config.getRequestOrigin());
 		assertArrayEquals(new String[] {"proto1","proto2"}, config.getSupportedSubProtocols());
@@ -85,6 +87,7 @@ public class DefaultWebSocketSessionConfigTest {
 		assertEquals(101, config.getMaxHandshakeFrameLength());
 		assertEquals(102, config.getMaxFramePayloadLength());
 		assertFalse(config.handleCloseFrame());
+		assertTrue(config.bufferedFramePayloads());
 		
 		ICodecPipeline pipeline = config.createCodecExecutor().getPipeline();
 		List<Object> decoders = pipeline.decoderKeys();
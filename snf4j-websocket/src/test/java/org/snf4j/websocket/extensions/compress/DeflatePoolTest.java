@@ -0,0 +1,192 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.websocket.extensions.compress;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.junit.Test;
+import org.snf4j.core.codec.zip.ZlibDecoder;
+import org.snf4j.core.codec.zip.ZlibEncoder;
+import org.snf4j.core.handler.SessionEvent;
+import org.snf4j.websocket.TestWSSession;
+import org.snf4j.websocket.frame.BinaryFrame;
+import org.snf4j.websocket.frame.Frame;
+import org.snf4j.websocket.frame.TextFrame;
+
+public class DeflatePoolTest {
+
+	static Deflater deflater(ZlibEncoder e) throws Exception {
+		Field f = ZlibEncoder.class.getDeclaredField("deflater");
+		
+		f.setAccessible(true);
+		return (Deflater) f.get(e);
+	}
+
+	static Inflater inflater(ZlibDecoder d) throws Exception {
+		Field f = ZlibDecoder.class.getDeclaredField("inflater");
+		
+		f.setAccessible(true);
+		return (Inflater) f.get(d);
+	}
+	
+	void drain() {
+		for (int level=0; level<10; ++level) {
+			while (DeflatePool.idleDeflaters(level) > 0) {
+				DeflatePool.deflater(level).end();
+			}
+		}
+		while (DeflatePool.idleInflaters() > 0) {
+			DeflatePool.inflater().end();
+		}
+	}
+	
+	@Test
+	public void testDeflaters() {
+		drain();
+		Deflater d1 = DeflatePool.deflater(6);
+		Deflater d2 = DeflatePool.deflater(6);
+		
+		assertEquals(0, DeflatePool.idleDeflaters(6));
+		DeflatePool.release(d1, 6);
+		DeflatePool.release(d2, 6);
+		assertEquals(2, DeflatePool.idleDeflaters(6));
+		assertEquals(0, DeflatePool.idleDeflaters(5));
+		assertSame(d2, DeflatePool.deflater(6));
+		assertTrue(d1 != DeflatePool.deflater(5));
+		assertSame(d1, DeflatePool.deflater(6));
+		
+		List<Deflater> list = new ArrayList<Deflater>();
+		for (int i=0; i<DeflatePool.MAX_IDLE+2; ++i) {
+			list.add(DeflatePool.deflater(1));
+		}
+		for (Deflater d: list) {
+			DeflatePool.release(d, 1);
+		}
+		assertEquals(DeflatePool.MAX_IDLE, DeflatePool.idleDeflaters(1));
+		drain();
+	}
+	
+	@Test
+	public void testInflaters() {
+		drain();
+		Inflater i1 = DeflatePool.inflater();
+		Inflater i2 = DeflatePool.inflater();
+		
+		DeflatePool.release(i1);
+		DeflatePool.release(i2);
+		assertEquals(2, DeflatePool.idleInflaters());
+		assertSame(i2, DeflatePool.inflater());
+		assertSame(i1, DeflatePool.inflater());
+		
+		List<Inflater> list = new ArrayList<Inflater>();
+		for (int i=0; i<DeflatePool.MAX_IDLE+2; ++i) {
+			list.add(DeflatePool.inflater());
+		}
+		for (Inflater i: list) {
+			DeflatePool.release(i);
+		}
+		assertEquals(DeflatePool.MAX_IDLE, DeflatePool.idleInflaters());
+		drain();
+	}
+	
+	@Test
+	public void testCodecsWithoutContext() throws Exception {
+		drain();
+		TestWSSession s = new TestWSSession();
+		PerMessageDeflateEncoder e = new PerMessageDeflateEncoder(6, true);
+		PerMessageDeflateDecoder d = new PerMessageDeflateDecoder(true);
+		List<Frame> out = new ArrayList<Frame>();
+		Deflater deflater = null;
+		Inflater inflater = null;
+		
+		for (int i=0; i<3; ++i) {
+			e.encode(s, new TextFrame(false, 0, "ABCABC"), out);
+			assertEquals(0, DeflatePool.idleDeflaters(6));
+			if (deflater == null) {
+				deflater = deflater((ZlibEncoder) e.codec());
+			}
+			else {
+				assertSame(deflater, deflater((ZlibEncoder) e.codec()));
+			}
+			d.decode(s, out.get(0), out);
+			if (inflater == null) {
+				inflater = inflater((ZlibDecoder) d.codec());
+			}
+			else {
+				assertSame(inflater, inflater((ZlibDecoder) d.codec()));
+			}
+			
+			e.encode(s, new BinaryFrame(true, 0, "DEF".getBytes()), out);
+			assertNull(e.codec());
+			assertEquals(1, DeflatePool.idleDeflaters(6));
+			d.decode(s, out.get(2), out);
+			assertNull(d.codec());
+			assertEquals(1, DeflatePool.idleInflaters());
+			assertArrayEquals("ABCABC".getBytes(), out.get(1).getPayload());
+			assertArrayEquals("DEF".getBytes(), out.get(3).getPayload());
+			out.clear();
+		}
+		
+		e.encode(s, new TextFrame(false, 0, "ABCABC"), out);
+		d.decode(s, out.get(0), out);
+		assertNotNull(e.codec());
+		assertNotNull(d.codec());
+		e.event(s, SessionEvent.ENDING);
+		d.event(s, SessionEvent.ENDING);
+		assertEquals(1, DeflatePool.idleDeflaters(6));
+		assertEquals(1, DeflatePool.idleInflaters());
+		drain();
+	}
+	
+	@Test
+	public void testCodecsWithContext() throws Exception {
+		drain();
+		TestWSSession s = new TestWSSession();
+		PerMessageDeflateEncoder e = new PerMessageDeflateEncoder(6, false);
+		PerMessageDeflateDecoder d = new PerMessageDeflateDecoder(false);
+		List<Frame> out = new ArrayList<Frame>();
+		
+		e.encode(s, new TextFrame("ABCABC"), out);
+		d.decode(s, out.get(0), out);
+		assertNotNull(e.codec());
+		assertNotNull(d.codec());
+		e.event(s, SessionEvent.ENDING);
+		d.event(s, SessionEvent.ENDING);
+		assertEquals(0, DeflatePool.idleDeflaters(6));
+		assertEquals(0, DeflatePool.idleInflaters());
+	}
+}
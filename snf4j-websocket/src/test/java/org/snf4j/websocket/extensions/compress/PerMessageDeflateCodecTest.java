@@ -29,6 +29,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -36,6 +37,7 @@ import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.Deflater;
 
 import org.junit.Test;
 import org.snf4j.core.codec.zip.ZlibCodec;
@@ -45,6 +47,7 @@ import org.snf4j.core.session.ISession;
 import org.snf4j.websocket.TestWSSession;
 import org.snf4j.websocket.frame.BinaryFrame;
 import org.snf4j.websocket.frame.CloseFrame;
+import org.snf4j.websocket.frame.EncodedFrame;
 import org.snf4j.websocket.frame.ContinuationFrame;
 import org.snf4j.websocket.frame.Frame;
 import org.snf4j.websocket.frame.InvalidFrameException;
@@ -394,4 +397,122 @@ public class PerMessageDeflateCodecTest {
 			}
 		}
 	}
+
+	@Test
+	public void testPreEncode() throws Exception {
+		TestWSSession s = new TestWSSession();
+		List<Frame> out = new ArrayList<Frame>();
+		EncodedFrame f = PerMessageDeflateEncoder.preEncode(new TextFrame("ABCABCABCABC"), 6);
+		
+		assertEquals(0, f.getRsvBits());
+		assertNotNull(f.getDeflated());
+		assertEquals(Frame.RSV1, f.getDeflated().getRsvBits());
+		d = new PerMessageDeflateDecoder(false);
+		d.decode(s, f.getDeflated(), out);
+		assertArrayEquals("ABCABCABCABC".getBytes(), out.get(0).getPayload());
+		out.clear();
+
+		e = new PerMessageDeflateEncoder(6, true);
+		e.encode(s, f, out);
+		assertSame(f.getDeflated(), out.get(0));
+		out.clear();
+		e.encode(s, new PingFrame(), out);
+		e.encode(s, f, out);
+		assertSame(f.getDeflated(), out.get(1));
+		out.clear();
+		
+		e = new PerMessageDeflateEncoder(6, false);
+		e.encode(s, f, out);
+		assertTrue(out.get(0) != f.getDeflated());
+		assertEquals(Frame.RSV1, out.get(0).getRsvBits());
+		d.decode(s, out.get(0), out);
+		assertArrayEquals("ABCABCABCABC".getBytes(), out.get(1).getPayload());
+		out.clear();
+		
+		f = PerMessageDeflateEncoder.preEncode(new TextFrame(""), 6);
+		assertNotNull(f.getDeflated());
+		assertNull(PerMessageDeflateEncoder.preEncode(new TextFrame(false, 0, "ABC"), 6).getDeflated());
+		assertNull(PerMessageDeflateEncoder.preEncode(new TextFrame(true, Frame.RSV1, "ABC"), 6).getDeflated());
+		assertNull(PerMessageDeflateEncoder.preEncode(new PingFrame(), 6).getDeflated());
+		assertNull(PerMessageDeflateEncoder.preEncode(new ContinuationFrame(true, 0, bytes(10)), 6).getDeflated());
+		
+		e = new PerMessageDeflateEncoder(6, true);
+		f = PerMessageDeflateEncoder.preEncode(BinaryFrame.wrap(true, 0, ByteBuffer.wrap(bytes(100))), 6);
+		e.encode(s, f, out);
+		assertSame(f.getDeflated(), out.get(0));
+		d.decode(s, out.get(0), out);
+		assertArrayEquals(bytes(100), out.get(1).getPayload());
+		out.clear();
+		f = new EncodedFrame(new BinaryFrame(true, 0, bytes(100)));
+		e.encode(s, f, out);
+		assertEquals(Frame.RSV1, out.get(0).getRsvBits());
+	}
+
+	@Test
+	public void testDefaultCompressionLevel() throws Exception {
+		TestWSSession s = new TestWSSession();
+		List<Frame> out = new ArrayList<Frame>();
+		
+		for (int i=0; i<2; ++i) {
+			e = new PerMessageDeflateEncoder(Deflater.DEFAULT_COMPRESSION, i == 0);
+			e.encode(s, new BinaryFrame(true, 0, bytes(100)), out);
+			d = new PerMessageDeflateDecoder(false);
+			d.decode(s, out.get(0), out);
+			assertArrayEquals(bytes(100), out.get(1).getPayload());
+			out.clear();
+		}
+		
+		EncodedFrame f = PerMessageDeflateEncoder.preEncode(new TextFrame("ABCABCABCABC"), Deflater.DEFAULT_COMPRESSION);
+		d.decode(s, f.getDeflated(), out);
+		assertArrayEquals("ABCABCABCABC".getBytes(), out.get(0).getPayload());
+		
+		for (int level: new int[] {-2, 10}) {
+			try {
+				new PerMessageDeflateEncoder(level, true);
+				fail();
+			}
+			catch (IllegalArgumentException ex) {
+				assertEquals("Invalid compressionLevel: " + level + " (expected: 0-9)", ex.getMessage());
+			}
+			try {
+				PerMessageDeflateEncoder.preEncode(new TextFrame("ABC"), level);
+				fail();
+			}
+			catch (IllegalArgumentException ex) {
+			}
+		}
+	}
+
+	@Test
+	public void testEncodeDecodeBufferedPayloads() throws Exception {
+		TestWSSession s = new TestWSSession();
+		List<Frame> out = new ArrayList<Frame>();
+		byte[] data = bytes(1000);
+		ByteBuffer heap = ByteBuffer.allocate(1010);
+		ByteBuffer direct = ByteBuffer.allocateDirect(1000);
+		
+		heap.position(10);
+		heap.put(data).flip().position(10);
+		direct.put(data).flip();
+		e = new PerMessageDeflateEncoder(6, true);
+		d = new PerMessageDeflateDecoder(true);
+		e.encode(s, BinaryFrame.wrap(true, 0, heap.slice()), out);
+		e.encode(s, BinaryFrame.wrap(true, 0, direct), out);
+		assertEquals(2, out.size());
+		assertArrayEquals(out.get(0).getPayload(), out.get(1).getPayload());
+		assertEquals(0, s.released.size());
+		
+		byte[] deflated = out.get(0).getPayload();
+		heap = ByteBuffer.allocate(deflated.length + 3);
+		heap.position(3);
+		heap.put(deflated).flip().position(3);
+		direct = ByteBuffer.allocateDirect(deflated.length);
+		direct.put(deflated).flip();
+		out.clear();
+		d.decode(s, BinaryFrame.wrap(true, Frame.RSV1, heap.slice()), out);
+		d.decode(s, BinaryFrame.wrap(true, Frame.RSV1, direct), out);
+		assertArrayEquals(data, out.get(0).getPayload());
+		assertArrayEquals(data, out.get(1).getPayload());
+		assertEquals(2, s.released.size());
+	}
 }
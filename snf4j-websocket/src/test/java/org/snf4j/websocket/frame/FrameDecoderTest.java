@@ -27,6 +27,7 @@ package org.snf4j.websocket.frame;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -37,6 +38,8 @@ import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.snf4j.core.allocator.DefaultAllocator;
+import org.snf4j.core.handler.SessionEvent;
 import org.snf4j.core.session.ISession;
 import org.snf4j.websocket.TestWSSession;
 
@@ -761,4 +764,104 @@ public class FrameDecoderTest {
 		assertEquals(frame2.length, decoder.available(s, b, false));
 	}
 	
+	void assertBufferedPayloads(boolean direct) throws Exception {
+		TestWSSession s = new TestWSSession(new DefaultAllocator(direct));
+		FrameDecoder dec = new FrameDecoder(true, true, 0x20000, true);
+		List<Frame> out = new ArrayList<Frame>();
+
+		s.incCapacity = 10;
+		dec.decode(s, ByteBuffer.wrap(frame("FRRR2|100|m|*|")), out);
+		assertEquals(1, out.size());
+		Frame f = out.get(0);
+		assertTrue(f instanceof BinaryFrame);
+		assertTrue(f.hasPayloadBuffer());
+		assertEquals(100, f.getPayloadLength());
+		assertEquals(100, f.getPayloadBuffer().remaining());
+		assertArrayEquals(bytes('*',100), f.getPayload());
+		assertTrue(f.release(s));
+		assertFalse(f.release(s));
+		assertFalse(f.hasPayloadBuffer());
+		assertArrayEquals(bytes('*',100), f.getPayload());
+		out.clear();
+
+		byte[] b = frame("FRRR1|100|m|*|");
+		dec.decode(s, ByteBuffer.wrap(b, 0, 50), out);
+		assertEquals(0, out.size());
+		assertEquals(b.length-50, dec.available(s, b, 50, b.length));
+		dec.decode(s, ByteBuffer.wrap(b, 50, b.length-50), out);
+		assertEquals(1, out.size());
+		f = out.get(0);
+		assertTrue(f instanceof TextFrame);
+		assertTrue(f.hasPayloadBuffer());
+		assertTrue(f.release(s));
+		assertEquals(0, f.getPayloadLength());
+		assertEquals(0, f.getPayload().length);
+		out.clear();
+		
+		dec.decode(s, ByteBuffer.wrap(frame("FRRR9|10|m|*|")), out);
+		assertEquals(1, out.size());
+		f = out.get(0);
+		assertTrue(f instanceof PingFrame);
+		assertFalse(f.hasPayloadBuffer());
+		assertArrayEquals(bytes('*',10), f.getPayload());
+		out.clear();
+
+		dec.decode(s, ByteBuffer.wrap(frame("FRRR2|0|m|*|")), out);
+		assertEquals(1, out.size());
+		assertFalse(out.get(0).hasPayloadBuffer());
+		out.clear();
+		
+		dec = new FrameDecoder(false, true, 0x20000, true);
+		b = frame("fRRR2|101|M|*|");
+		dec.decode(s, ByteBuffer.wrap(b, 0, 51), out);
+		dec.decode(s, ByteBuffer.wrap(b, 51, b.length-51), out);
+		assertEquals(1, out.size());
+		f = out.get(0);
+		assertTrue(f.hasPayloadBuffer());
+		assertFalse(f.isFinalFragment());
+		assertArrayEquals(bytes('*',101), f.getPayload());
+		out.clear();
+		dec.decode(s, ByteBuffer.wrap(frame("FRRR0|7|M|*|")), out);
+		f = out.get(0);
+		assertTrue(f instanceof ContinuationFrame);
+		assertTrue(f.hasPayloadBuffer());
+		assertArrayEquals(bytes('*',7), f.getPayload());
+	}
+	
+	@Test
+	public void testBufferedPayloads() throws Exception {
+		assertBufferedPayloads(false);
+		assertBufferedPayloads(true);
+	}
+	
+	@Test
+	public void testReleasePartialPayload() throws Exception {
+		TestWSSession s = new TestWSSession() {
+			@Override
+			public ByteBuffer allocate(int capacity) {
+				return ByteBuffer.allocate(capacity);
+			}
+		};
+		FrameDecoder dec = new FrameDecoder(true, true, 0x20000, true);
+		List<Frame> out = new ArrayList<Frame>();
+		byte[] b = frame("FRRR2|100|m|*|");
+		
+		dec.decode(s, ByteBuffer.wrap(b, 0, 50), out);
+		assertEquals(0, out.size());
+		s.released.clear();
+		dec.event(s, SessionEvent.READY);
+		assertEquals(0, s.released.size());
+		dec.event(s, SessionEvent.ENDING);
+		assertEquals(1, s.released.size());
+		dec.event(s, SessionEvent.ENDING);
+		dec.removed(s, null);
+		assertEquals(1, s.released.size());
+
+		dec = new FrameDecoder(true, true, 0x20000, true);
+		dec.decode(s, ByteBuffer.wrap(b, 0, 50), out);
+		s.released.clear();
+		dec.added(s, null);
+		dec.removed(s, null);
+		assertEquals(1, s.released.size());
+	}
 }
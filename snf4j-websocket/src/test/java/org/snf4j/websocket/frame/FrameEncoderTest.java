@@ -28,6 +28,10 @@ package org.snf4j.websocket.frame;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -224,4 +228,116 @@ public class FrameEncoderTest {
 		System.arraycopy(b, 2, masked, 0, 10);
 		assertArrayEquals(masked, payload);
 	}
+	
+	ByteBuffer buffer(byte[] data, boolean direct) {
+		ByteBuffer b = direct ? ByteBuffer.allocateDirect(data.length+3) : ByteBuffer.allocate(data.length+3);
+		
+		b.put(new byte[3]).put(data).flip();
+		b.position(3);
+		return b;
+	}
+	
+	@Test
+	public void testEncodeBufferedPayload() throws Exception {
+		for (int i=0; i<2; ++i) {
+			boolean direct = i == 1;
+			FrameEncoder enc = new FrameEncoder(true);
+			Frame frame = BinaryFrame.wrap(true, 0, buffer("ABCDEFGHIJ".getBytes(), direct));
+
+			enc.encode(session, frame, out);
+			assertEquals("Frrr2M|10|M(4)=ABCDEFGHIJ", frame(out()));
+			assertTrue(frame.hasPayloadBuffer());
+			assertEquals(10, frame.getPayloadLength());
+			enc.encode(session, frame, out);
+			assertEquals("Frrr2M|10|M(4)=ABCDEFGHIJ", frame(out()));
+			
+			frame = TextFrame.wrap(true, 0, buffer(bytes(126,'E'), direct));
+			enc.encode(session, frame, out);
+			assertEquals("Frrr1M|126|126(2)M(4)=FEEEEEEEEE...EEEEEEEEEG", frame(out()));
+			assertTrue(frame.hasPayloadBuffer());
+
+			enc = new FrameEncoder(false);
+			frame = ContinuationFrame.wrap(false, 0, buffer("ABCDEFGHIJ".getBytes(), direct));
+			enc.encode(session, frame, out);
+			assertEquals("frrr0m|10|=ABCDEFGHIJ", frame(out()));
+			assertTrue(frame.hasPayloadBuffer());
+		}
+	}
+	
+	@Test
+	public void testMaskingIntoDirectBuffer() throws Exception {
+		TestSession session = new TestSession() {
+			@Override
+			public ByteBuffer allocate(int capacity) {
+				return ByteBuffer.allocateDirect(capacity);
+			}
+		};
+		FrameEncoder enc = new FrameEncoder(true);
+		
+		enc.encode(session, new BinaryFrame(true, 0, "ABCDEFGHIJ".getBytes()), out);
+		assertEquals("Frrr2M|10|M(4)=ABCDEFGHIJ", frame(out()));
+		enc.encode(session, BinaryFrame.wrap(true, 0, buffer("ABCDEFGHIJ".getBytes(), false)), out);
+		assertEquals("Frrr2M|10|M(4)=ABCDEFGHIJ", frame(out()));
+	}
+
+	@Test
+	public void testEncodeEncodedFrame() throws Exception {
+		FrameEncoder enc = new FrameEncoder(false);
+		EncodedFrame f = new EncodedFrame(new BinaryFrame(true, 2, bytes(126,'E')));
+		
+		assertEquals("FrRr2m|126|126(2)=FEEEEEEEEE...EEEEEEEEEG", frame(f.getEncoded()));
+		assertTrue(f.getEncoded().isReadOnly());
+		assertNull(f.getDeflated());
+		enc.encode(session, f, out);
+		ByteBuffer bb = out();
+		assertFalse(bb.isReadOnly());
+		assertEquals("FrRr2m|126|126(2)=FEEEEEEEEE...EEEEEEEEEG", frame(bb));
+		enc.encode(session, f, out);
+		assertEquals("FrRr2m|126|126(2)=FEEEEEEEEE...EEEEEEEEEG", frame(out()));
+		assertEquals(f.getEncoded().remaining(), f.encoded().remaining());
+		
+		f = new EncodedFrame(new TextFrame("ABC"));
+		assertEquals("Frrr1m|3|=ABC", frame(f.getEncoded()));
+		f = new EncodedFrame(f);
+		assertEquals("Frrr1m|3|=ABC", frame(f.getEncoded()));
+		f = new EncodedFrame(BinaryFrame.wrap(false, 0, ByteBuffer.wrap("ABCD".getBytes())));
+		assertEquals("frrr2m|4|=ABCD", frame(f.getEncoded()));
+		
+		enc = new FrameEncoder(true);
+		enc.encode(session, f, out);
+		assertEquals("frrr2M|4|M(4)=ABCD", frame(out()));
+		
+		enc = new FrameEncoder(false);
+		enc.encode(session, new EncodedFrame(new CloseFrame(1000)), out);
+		assertEquals(1, out.size());
+		out.clear();
+		enc.encode(session, f, out);
+		assertEquals(0, out.size());
+	}
+	
+	@Test
+	public void testEncodedFrameWithDeflated() {
+		Frame f = new TextFrame("ABC");
+		Frame d = new TextFrame(true, Frame.RSV1, "XY".getBytes());
+		EncodedFrame ef = new EncodedFrame(f, d);
+		
+		assertEquals("FRrr1m|2|=XY", frame(ef.getDeflated().getEncoded()));
+		assertNull(ef.getDeflated().getDeflated());
+		assertSame(ef.getDeflated(), new EncodedFrame(f, ef.getDeflated()).getDeflated());
+		
+		assertIllegalDeflated(f, new BinaryFrame(true, Frame.RSV1, "XY".getBytes()));
+		assertIllegalDeflated(f, new TextFrame(false, Frame.RSV1, "XY".getBytes()));
+		assertIllegalDeflated(f, new TextFrame(true, Frame.RSV2, "XY".getBytes()));
+		assertIllegalDeflated(new TextFrame(false, 0, "ABC"), d);
+	}
+	
+	void assertIllegalDeflated(Frame f, Frame d) {
+		try {
+			new EncodedFrame(f, d);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("deflated frame does not match", e.getMessage());
+		}
+	}
 }
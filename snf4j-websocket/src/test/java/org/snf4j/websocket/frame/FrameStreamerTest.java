@@ -0,0 +1,304 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.websocket.frame;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.Test;
+import org.snf4j.core.session.IllegalSessionStateException;
+import org.snf4j.core.session.SessionState;
+import org.snf4j.websocket.TestWSSession;
+
+public class FrameStreamerTest {
+
+	final StringBuilder trace = new StringBuilder();
+	
+	boolean readSuspended;
+	
+	final TestWSSession session = new TestWSSession() {
+		
+		@Override
+		public void suspendRead() {
+			trace.append("S|");
+		}
+
+		@Override
+		public boolean isReadSuspended() {
+			return readSuspended;
+		}
+
+		@Override
+		public void resumeRead() {
+			trace.append("R|");
+		}
+	};
+	
+	final List<Object> out = new ArrayList<Object>();
+	
+	MessageFragment fragment(int i) {
+		return (MessageFragment) out.get(i);
+	}
+	
+	@Test
+	public void testTypes() {
+		FrameStreamer s = new FrameStreamer(100);
+		assertTrue(s.getInboundType() == Frame.class);
+		assertTrue(s.getOutboundType() == Object.class);
+	}
+	
+	@Test
+	public void testConstructor() {
+		new FrameStreamer(100, 0, -1);
+		new FrameStreamer(100, 10, 10);
+		new FrameStreamer(100, 10, 0);
+		try {
+			new FrameStreamer(100, 10, 11);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("lowWatermark is out of range", e.getMessage());
+		}
+		try {
+			new FrameStreamer(100, 10, -1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("lowWatermark is out of range", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testDecode() throws Exception {
+		FrameStreamer s = new FrameStreamer(100);
+		Frame f = new PingFrame();
+		
+		s.decode(session, f, out);
+		assertSame(f, out.get(0));
+		f = new ContinuationFrame("ABC");
+		s.decode(session, f, out);
+		assertSame(f, out.get(1));
+		out.clear();
+		
+		f = new TextFrame("ABC");
+		s.decode(session, f, out);
+		MessageFragment m = fragment(0);
+		assertSame(f, m.getFrame());
+		assertSame(Opcode.TEXT, m.getMessageOpcode());
+		assertTrue(m.isFirst());
+		assertTrue(m.isLast());
+		assertEquals(0, m.getOffset());
+		assertEquals(3, m.getPayloadLength());
+		assertArrayEquals("ABC".getBytes(), m.getPayload());
+		out.clear();
+		
+		s.decode(session, new BinaryFrame(false, 0, new byte[10]), out);
+		s.decode(session, new PongFrame(), out);
+		s.decode(session, new ContinuationFrame(false, 0, new byte[20]), out);
+		s.decode(session, new ContinuationFrame(true, 0, new byte[5]), out);
+		assertEquals(4, out.size());
+		m = fragment(0);
+		assertSame(Opcode.BINARY, m.getMessageOpcode());
+		assertTrue(m.isFirst());
+		assertFalse(m.isLast());
+		assertEquals(0, m.getOffset());
+		assertTrue(out.get(1) instanceof PongFrame);
+		m = fragment(2);
+		assertSame(Opcode.BINARY, m.getMessageOpcode());
+		assertFalse(m.isFirst());
+		assertFalse(m.isLast());
+		assertEquals(10, m.getOffset());
+		m = fragment(3);
+		assertSame(Opcode.BINARY, m.getMessageOpcode());
+		assertFalse(m.isFirst());
+		assertTrue(m.isLast());
+		assertEquals(30, m.getOffset());
+		assertEquals(0, s.getPendingLength());
+		m.release(session);
+		assertTrue(m.isReleased());
+		assertEquals(0, s.getPendingLength());
+		assertEquals("", trace.toString());
+	}
+
+	@Test
+	public void testMaxLength() throws Exception {
+		FrameStreamer s = new FrameStreamer(100);
+		
+		s.decode(session, new TextFrame(false, 0, new byte[50]), out);
+		s.decode(session, new ContinuationFrame(false, 0, new byte[50]), out);
+		try {
+			s.decode(session, new ContinuationFrame(true, 0, new byte[1]), out);
+			fail();
+		}
+		catch (InvalidFrameException e) {
+			assertEquals("Too big payload for streamed message", e.getMessage());
+		}
+		assertEquals(1, session.msgs().size());
+		assertEquals(1009, ((CloseFrame)session.msgs().get(0)).getStatus());
+		out.clear();
+		s.decode(session, new TextFrame(true, 0, new byte[100]), out);
+		assertEquals(1, out.size());
+	}
+	
+	@Test
+	public void testFlowControl() throws Exception {
+		FrameStreamer s = new FrameStreamer(1000, 100, 50);
+		
+		s.decode(session, new BinaryFrame(false, 0, new byte[60]), out);
+		assertEquals(60, s.getPendingLength());
+		s.decode(session, new ContinuationFrame(false, 0, new byte[40]), out);
+		assertEquals(100, s.getPendingLength());
+		assertEquals("", trace.toString());
+		s.decode(session, new ContinuationFrame(false, 0, new byte[1]), out);
+		assertEquals(101, s.getPendingLength());
+		assertEquals("S|", trace.toString());
+		s.decode(session, new ContinuationFrame(true, 0, new byte[10]), out);
+		assertEquals("S|", trace.toString());
+		
+		fragment(0).release(session);
+		assertEquals(51, s.getPendingLength());
+		assertEquals("S|", trace.toString());
+		fragment(0).release(session);
+		assertEquals(51, s.getPendingLength());
+		fragment(3).release(session);
+		assertEquals(41, s.getPendingLength());
+		assertEquals("S|R|", trace.toString());
+		fragment(2).release(session);
+		fragment(1).release(session);
+		assertEquals(0, s.getPendingLength());
+		assertEquals("S|R|", trace.toString());
+	}
+	
+	@Test
+	public void testFlowControlWithBufferedPayloads() throws Exception {
+		FrameStreamer s = new FrameStreamer(1000, 10, 0);
+		Frame f = BinaryFrame.wrap(true, 0, ByteBuffer.allocate(11));
+		
+		s.decode(session, f, out);
+		assertEquals("S|", trace.toString());
+		fragment(0).release(session);
+		assertFalse(f.hasPayloadBuffer());
+		assertEquals(11, fragment(0).getPayloadLength());
+		assertEquals(0, s.getPendingLength());
+		assertEquals("S|R|", trace.toString());
+	}
+	
+	@Test
+	public void testFlowControlWithReadSuspendedByOthers() throws Exception {
+		FrameStreamer s = new FrameStreamer(1000, 10, 0);
+		
+		readSuspended = true;
+		s.decode(session, new BinaryFrame(true, 0, new byte[11]), out);
+		assertEquals(11, s.getPendingLength());
+		assertEquals("", trace.toString());
+		fragment(0).release(session);
+		assertEquals(0, s.getPendingLength());
+		assertEquals("", trace.toString());
+		
+		readSuspended = false;
+		s.decode(session, new BinaryFrame(true, 0, new byte[11]), out);
+		assertEquals("S|", trace.toString());
+		fragment(1).release(session);
+		assertEquals("S|R|", trace.toString());
+	}
+	
+	@Test
+	public void testFlowControlWithClosingSession() throws Exception {
+		FrameStreamer s = new FrameStreamer(1000, 10, 0);
+		TestWSSession session = new TestWSSession() {
+			
+			@Override
+			public void suspendRead() {
+				throw new IllegalSessionStateException(SessionState.CLOSING);
+			}
+		};
+		
+		s.decode(session, new BinaryFrame(true, 0, new byte[11]), out);
+		assertEquals(1, out.size());
+		fragment(0).release(session);
+		assertEquals(0, s.getPendingLength());
+	}
+	
+	@Test
+	public void testFlowControlWithConcurrentReleases() throws Exception {
+		final FrameStreamer s = new FrameStreamer(100000, 10, 5);
+		final TestWSSession session = new TestWSSession() {
+			
+			volatile boolean suspended;
+			
+			@Override
+			public void suspendRead() {
+				suspended = true;
+			}
+
+			@Override
+			public boolean isReadSuspended() {
+				return suspended;
+			}
+
+			@Override
+			public void resumeRead() {
+				suspended = false;
+			}
+		};
+		final BlockingQueue<MessageFragment> fragments = new LinkedBlockingQueue<MessageFragment>();
+		final int count = 20000;
+		
+		Thread releaser = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					for (int i=0; i<count; ++i) {
+						fragments.take().release(session);
+					}
+				}
+				catch (InterruptedException e) {
+				}
+			}
+		});
+		releaser.start();
+		for (int i=0; i<count; ++i) {
+			s.decode(session, new BinaryFrame(true, 0, new byte[i % 8 + 1]), out);
+			fragments.add(fragment(0));
+			out.clear();
+		}
+		releaser.join(10000);
+		assertFalse(releaser.isAlive());
+		assertEquals(0, s.getPendingLength());
+		assertFalse(session.isReadSuspended());
+	}
+}
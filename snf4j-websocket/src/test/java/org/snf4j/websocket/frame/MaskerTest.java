@@ -0,0 +1,103 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.websocket.frame;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MaskerTest {
+
+	final Random random = new Random();
+	
+	byte[] mask(byte[] data, int mask) {
+		byte[] masked = data.clone();
+		byte[] key = ByteBuffer.allocate(4).putInt(mask).array();
+		
+		for (int i=0; i<masked.length; ++i) {
+			masked[i] ^= key[i % 4];
+		}
+		return masked;
+	}
+	
+	@Test
+	public void testMaskArray() {
+		for (int len=0; len<70; ++len) {
+			byte[] data = new byte[len];
+			int mask = random.nextInt();
+			
+			random.nextBytes(data);
+			byte[] expected = mask(data, mask);
+			byte[] bytes = new byte[len+5];
+			
+			System.arraycopy(data, 0, bytes, 3, len);
+			Masker.mask(bytes, 3, len, mask);
+			for (int i=0; i<len; ++i) {
+				assertEquals(expected[i], bytes[i+3]);
+			}
+			Masker.mask(bytes, 3, len, mask);
+			for (int i=0; i<len; ++i) {
+				assertEquals(data[i], bytes[i+3]);
+			}
+		}
+	}
+	
+	void assertMaskBuffer(boolean direct, ByteOrder order) {
+		for (int len=0; len<70; ++len) {
+			byte[] data = new byte[len];
+			int mask = random.nextInt();
+			
+			random.nextBytes(data);
+			ByteBuffer buf = direct ? ByteBuffer.allocateDirect(len+10) : ByteBuffer.allocate(len+10);
+			
+			buf.order(order);
+			buf.position(5);
+			buf.put(data);
+			buf.position(2).limit(len+7);
+			Masker.mask(buf, 5, len, mask);
+			assertEquals(2, buf.position());
+			assertEquals(len+7, buf.limit());
+			
+			byte[] bytes = new byte[len];
+			buf.position(5);
+			buf.get(bytes);
+			assertArrayEquals(mask(data, mask), bytes);
+		}
+	}
+	
+	@Test
+	public void testMaskBuffer() {
+		assertMaskBuffer(false, ByteOrder.BIG_ENDIAN);
+		assertMaskBuffer(false, ByteOrder.LITTLE_ENDIAN);
+		assertMaskBuffer(true, ByteOrder.BIG_ENDIAN);
+		assertMaskBuffer(true, ByteOrder.LITTLE_ENDIAN);
+	}
+}
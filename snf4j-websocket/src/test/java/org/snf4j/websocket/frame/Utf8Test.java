@@ -28,6 +28,10 @@ package org.snf4j.websocket.frame;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import org.junit.Test;
 
 public class Utf8Test {
@@ -205,4 +209,59 @@ public class Utf8Test {
 			}
 		}
 	}
+	
+	boolean isValid(byte[] data, boolean direct) {
+		Utf8.ValidationContext ctx = new Utf8.ValidationContext();
+		ByteBuffer buf = direct ? ByteBuffer.allocateDirect(data.length+6) : ByteBuffer.allocate(data.length+6);
+		
+		buf.position(3);
+		buf.put(data);
+		if (Utf8.validate(ctx, buf, 3, data.length)) {
+			return Utf8.isValid(ctx);
+		}
+		return false;
+	}
+	
+	@Test
+	public void testAsciiFastPath() {
+		byte[] euro = "\u20ac".getBytes(StandardCharsets.UTF_8);
+		
+		for (int len=0; len<40; ++len) {
+			byte[] ascii = new byte[len];
+			
+			Arrays.fill(ascii, (byte)'a');
+			assertTrue(Utf8.isValid(ascii));
+			assertTrue(isValid(ascii, false));
+			assertTrue(isValid(ascii, true));
+			for (int pos=0; pos<len; ++pos) {
+				byte[] data = ascii.clone();
+				
+				data[pos] = (byte) 0x80;
+				assertFalse(Utf8.isValid(data));
+				assertFalse(isValid(data, false));
+				assertFalse(isValid(data, true));
+				if (pos + euro.length <= len) {
+					System.arraycopy(euro, 0, data, pos, euro.length);
+					assertTrue(Utf8.isValid(data));
+					assertTrue(isValid(data, true));
+					data[pos+euro.length-1] = 'a';
+					assertFalse(Utf8.isValid(data));
+					assertFalse(isValid(data, true));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testAsciiFastPathWithSplitSequence() {
+		byte[] data = "abcdefgh\u20acabcdefghijklmnop".getBytes(StandardCharsets.UTF_8);
+		
+		for (int split=0; split<=data.length; ++split) {
+			Utf8.ValidationContext ctx = new Utf8.ValidationContext();
+			
+			assertTrue(Utf8.validate(ctx, data, 0, split));
+			assertTrue(Utf8.validate(ctx, data, split, data.length-split));
+			assertTrue(Utf8.isValid(ctx));
+		}
+	}
 }
@@ -221,5 +221,19 @@ public class HandshakeFactoryTest extends HandshakeTest {
 		}
 		catch (InvalidHandshakeException e) {
 		}
+		
+		f = new HandshakeResponse(HttpStatus.SWITCHING_PROTOCOLS);
+		f.addValue(HttpUtils.UPGRADE, HandshakeUtils.UPGRADE_VALUE_BYTES);
+		f.addValue("upgrade", "h2");
+		f.addValue(HttpUtils.CONNECTION, HandshakeUtils.CONNECTION_VALUE_BYTES);
+		f.addValue("Name", "x".getBytes());
+		bb.clear();
+		factory.format(f, bb, false);
+		assertEquals(f.getLength(), bb.position());
+		bb.flip();
+		b = new byte[bb.remaining()];
+		bb.get(b);
+		assertArrayEquals(bytes("HTTP/1.1 101 Switching Protocols|Upgrade: websocket, h2|Connection: Upgrade|Name: x||"), b);
+		assertArrayEquals(bytes("websocket"), HandshakeUtils.UPGRADE_VALUE_BYTES);
 	}
 }
@@ -156,7 +156,33 @@ public class HandshakeUtilsTest {
 		String answerKey = HandshakeUtils.generateAnswerKey(key);
 		
 		assertEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=", answerKey);
-		assertNull(HandshakeUtils.generateAnswerKey(null));
+		assertEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=", HandshakeUtils.generateAnswerKey(key));
+		assertNull(HandshakeUtils.generateAnswerKey((String)null));
+		
+		byte[] data = ("xx" + key + "x").getBytes();
+		byte[] bytes = HandshakeUtils.generateAnswerKey(new HttpValue(data, 2, data.length-1));
+		assertArrayEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=".getBytes(), bytes);
+		bytes = HandshakeUtils.generateAnswerKey(new HttpValue("x3JJHMbDL1EzLkh9GBhXDw=="));
+		assertArrayEquals("HSmrc0sMlYUkAGmm5OPpG2HaGWk=".getBytes(), bytes);
+		assertNull(HandshakeUtils.generateAnswerKey((HttpValue)null));
+	}
+	
+	@Test
+	public void testBase64() {
+		byte[] out = new byte[100];
+		
+		for (int len=0; len<30; ++len) {
+			byte[] data = new byte[len];
+			
+			for (int i=0; i<len; ++i) {
+				data[i] = (byte) (i * 37 - 128);
+			}
+			
+			byte[] expected = Base64.getEncoder().encode(data);
+			
+			assertEquals(expected.length, HandshakeUtils.base64(data, out));
+			assertArrayEquals(expected, Arrays.copyOf(out, expected.length));
+		}
 	}
 	
 	@Test
@@ -29,6 +29,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.nio.ByteBuffer;
@@ -190,6 +191,36 @@ public class HttpUtilsTest {
 		assertLines("x,yy,zzz,", lines, 0, -1);
 		assertEquals(14, HttpUtils.available(bb, true, lines));
 		assertLines("x,yy,zzz,", lines, 0, -1);
+		bb.clear();
+		bb.put("xyz".getBytes());
+		bb.put(b);
+		bb.flip().position(3);
+		assertEquals(14, HttpUtils.available(bb, true, lines));
+		assertLines("x,yy,zzz,", lines, 0, -1);
+		assertEquals(3, bb.position());
+		bb.limit(bb.limit()-1);
+		assertEquals(0, HttpUtils.available(bb, true, lines));
+	}
+	
+	@Test
+	public void testName() {
+		byte[] b = bytes("xHost:Upgrade:upgrade:Sec-WebSocket-Key:Sec-WebSocket-Kex");
+		
+		assertSame(HttpUtils.HOST, HttpUtils.name(b, 1, 5));
+		assertSame(HttpUtils.UPGRADE, HttpUtils.name(b, 6, 13));
+		assertEquals("upgrade", HttpUtils.name(b, 14, 21));
+		assertSame(HandshakeUtils.SEC_WEB_SOCKET_KEY, HttpUtils.name(b, 22, 39));
+		assertEquals("Sec-WebSocket-Kex", HttpUtils.name(b, 40, 57));
+		assertEquals("Hos", HttpUtils.name(b, 1, 4));
+		
+		assertEquals("HOST", HttpUtils.key(HttpUtils.HOST));
+		assertSame(HttpUtils.key(HttpUtils.HOST), HttpUtils.key("Host"));
+		assertEquals("SEC-WEBSOCKET-KEY", HttpUtils.key(HandshakeUtils.SEC_WEB_SOCKET_KEY));
+		assertNull(HttpUtils.key("host"));
+		
+		assertSame(HttpUtils.nameBytes(HttpUtils.HOST), HttpUtils.nameBytes("Host"));
+		assertArrayEquals(bytes("Sec-WebSocket-Accept"), HttpUtils.nameBytes(HandshakeUtils.SEC_WEB_SOCKET_ACCEPT));
+		assertArrayEquals(bytes("host"), HttpUtils.nameBytes("host"));
 	}
 	
 	void assertSplitRequestLine(String bytes, int expected, String items) {
@@ -356,6 +387,11 @@ public class HttpUtilsTest {
 		b = "\t ".getBytes();
 		assertEquals("\t ", HttpUtils.ascii(b, 0, 2));
 		assertEquals("", HttpUtils.rtrimAscii(b, 0, 2));
+		assertEquals(0, HttpUtils.rtrim(b, 0, 2));
+		b = "\t a \t".getBytes();
+		assertEquals(3, HttpUtils.rtrim(b, 0, 5));
+		assertEquals(3, HttpUtils.rtrim(b, 1, 4));
+		assertEquals(3, HttpUtils.rtrim(b, new int[] {0,4}, 0));
 	}
 	
 	@Test
@@ -0,0 +1,106 @@
+/*
+ * -------------------------------- MIT License --------------------------------
+ * 
+ * Copyright (c) 2024 SNF4J contributors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * -----------------------------------------------------------------------------
+ */
+package org.snf4j.websocket.handshake;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HttpValueTest {
+	
+	static HttpValue value(String s) {
+		byte[] data = ("xx" + s + "yy").getBytes();
+		
+		return new HttpValue(data, 2, data.length-2);
+	}
+	
+	@Test
+	public void testToString() {
+		HttpValue v = value("abc");
+		
+		assertEquals(3, v.length());
+		String s = v.toString();
+		assertEquals("abc", s);
+		assertSame(s, v.toString());
+		assertEquals(3, v.length());
+		v.append(", de");
+		assertEquals("abc, de", v.toString());
+		assertEquals(7, v.length());
+		
+		v = new HttpValue("xyz");
+		assertEquals(3, v.length());
+		assertEquals("xyz", v.toString());
+		v.append("0");
+		assertEquals("xyz0", v.toString());
+		
+		v = value("");
+		assertEquals(0, v.length());
+		assertEquals("", v.toString());
+	}
+	
+	void assertContains(boolean expected, String value, String token) {
+		assertEquals(expected, value(value).containsToken(token));
+		assertEquals(expected, new HttpValue(value).containsToken(token));
+	}
+	
+	@Test
+	public void testContainsToken() {
+		assertContains(true, "websocket", "websocket");
+		assertContains(true, "WebSocket", "websocket");
+		assertContains(true, " keep-alive , Upgrade ", "upgrade");
+		assertContains(true, "keep-alive,\tUPGRADE", "upgrade");
+		assertContains(true, ",,upgrade,", "upgrade");
+		assertContains(false, "keep-alive", "upgrade");
+		assertContains(false, "upgrades", "upgrade");
+		assertContains(false, "upgrad", "upgrade");
+		assertContains(false, "up grade", "upgrade");
+		assertContains(false, "", "upgrade");
+		assertContains(false, ",", "upgrade");
+		assertFalse(value("upgräde").containsToken("upgrade"));
+	}
+	
+	@Test
+	public void testBase64() {
+		byte[] key = new byte[16];
+		
+		for (int i=0; i<key.length; ++i) {
+			key[i] = (byte) i;
+		}
+		
+		String s = HandshakeUtils.generateKey(key);
+		
+		assertArrayEquals(key, value(s).base64());
+		assertArrayEquals(key, new HttpValue(s).base64());
+		assertNull(value("x").base64());
+		assertNull(new HttpValue("x").base64());
+		assertTrue(value("").base64().length == 0);
+	}
+}